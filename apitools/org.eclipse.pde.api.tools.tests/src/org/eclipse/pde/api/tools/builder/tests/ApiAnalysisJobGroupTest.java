@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.builder.tests;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
+import org.eclipse.pde.api.tools.internal.builder.ApiAnalysisBuilder;
+import org.junit.Test;
+
+/**
+ * Tests that the API analysis jobs of independent projects run concurrently,
+ * but never more than the limit of their group and never two of one project.
+ */
+public class ApiAnalysisJobGroupTest {
+
+	private final IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+	private final AtomicInteger running = new AtomicInteger();
+	private final AtomicInteger maxRunning = new AtomicInteger();
+	private final Map<IProject, AtomicInteger> runningPerProject = new ConcurrentHashMap<>();
+	private final AtomicBoolean projectOverlap = new AtomicBoolean();
+
+	@Test
+	public void testIndependentProjectsRunUnderGroupLimit() throws InterruptedException {
+		JobGroup group = ApiAnalysisBuilder.getAnalysisJobGroup();
+		int limit = group.getMaxThreads();
+		List<Job> jobs = new ArrayList<>();
+		for (int i = 0; i < 2 * (limit + 1); i++) {
+			// two jobs per project
+			jobs.add(createJob(root.getProject("project" + i / 2), group));
+		}
+		jobs.forEach(Job::schedule);
+		for (Job job : jobs) {
+			job.join();
+		}
+
+		assertTrue("More than " + limit + " jobs ran at once: " + maxRunning.get(), maxRunning.get() <= limit);
+		assertFalse("Two jobs of one project ran at once", projectOverlap.get());
+		if (limit > 1) {
+			assertTrue("Jobs of independent projects did not run concurrently", maxRunning.get() > 1);
+		}
+	}
+
+	private Job createJob(IProject project, JobGroup group) {
+		Job job = Job.create("Analysis of " + project.getName(), monitor -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			AtomicInteger ofProject = runningPerProject.computeIfAbsent(project, p -> new AtomicInteger());
+			if (ofProject.incrementAndGet() > 1) {
+				projectOverlap.set(true);
+			}
+			try {
+				Thread.sleep(200);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				ofProject.decrementAndGet();
+				running.decrementAndGet();
+			}
+		});
+		job.setRule(ApiAnalysisBuilder.getAnalysisJobRule(project));
+		job.setJobGroup(group);
+		return job;
+	}
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.builder.tests.performance;
+
+import java.util.List;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.pde.api.tools.internal.builder.ReferenceResolver;
+import org.eclipse.pde.api.tools.internal.model.ApiModelCache;
+import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.model.tests.TestSuiteHelper;
+import org.eclipse.test.performance.Dimension;
+import org.eclipse.test.performance.PerformanceTestCase;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Performance tests for resolving the references of a large set of types.
+ * <p>
+ * {@link #testResolveReferences()} resolves them the way the builder does,
+ * i.e. in parallel only if the VM property
+ * {@code -Dorg.eclipse.pde.api.tools.parallelReferenceResolution=true} is set,
+ * {@link #testParallelResolveReferences()} always resolves them in parallel.
+ * </p>
+ */
+public class ReferenceResolutionTests extends PerformanceTestCase {
+
+	private static final String[] PACKAGES = { "java.util", "java.util.concurrent", "java.io", "java.net" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+	public ReferenceResolutionTests(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return new TestSuite(ReferenceResolutionTests.class);
+	}
+
+	public void testResolveReferences() throws Exception {
+		tagAsSummary("Resolve references of system library packages", Dimension.ELAPSED_PROCESS); //$NON-NLS-1$
+		measureResolution(null);
+	}
+
+	public void testParallelResolveReferences() throws Exception {
+		measureResolution(Boolean.TRUE);
+	}
+
+	/**
+	 * Resolves the references of {@link #PACKAGES} on a fresh baseline several
+	 * times, only the resolution is measured.
+	 *
+	 * @param parallel whether to resolve in parallel, <code>null</code> to
+	 *            follow the VM property like the builder
+	 */
+	private void measureResolution(Boolean parallel) throws Exception {
+		// WARM-UP
+		resolve(parallel, false);
+		resolve(parallel, false);
+
+		// TEST
+		for (int i = 0; i < 10; i++) {
+			resolve(parallel, true);
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private void resolve(Boolean parallel, boolean measure) throws Exception {
+		IApiBaseline baseline = TestSuiteHelper.createTestingBaseline("test-plugins"); //$NON-NLS-1$
+		try {
+			List<IReference> references = TestSuiteHelper.extractSystemLibraryReferences(baseline, PACKAGES);
+			// resolve against types whose structure is not cached yet
+			ApiModelCache.getCache().flushCaches();
+			if (measure) {
+				startMeasuring();
+			}
+			if (parallel == null) {
+				ReferenceResolver.resolveReferences(references, new NullProgressMonitor());
+			} else {
+				ReferenceResolver.resolveReferences(references, parallel.booleanValue(), new NullProgressMonitor());
+			}
+			if (measure) {
+				stopMeasuring();
+			}
+		} finally {
+			baseline.dispose();
+		}
+	}
+}
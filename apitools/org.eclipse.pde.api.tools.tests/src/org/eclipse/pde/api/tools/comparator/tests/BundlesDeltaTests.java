@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,7 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.api.tools.internal.comparator.DeltaXmlVisitor;
 import org.eclipse.pde.api.tools.internal.provisional.VisibilityModifiers;
 import org.eclipse.pde.api.tools.internal.provisional.comparator.ApiComparator;
 import org.eclipse.pde.api.tools.internal.provisional.comparator.DeltaProcessor;
@@ -578,4 +579,34 @@ public class BundlesDeltaTests extends DeltaTestSetup {
 		assertNotNull("No delta", delta); //$NON-NLS-1$
 		assertFalse("Equals to NO_DELTA", delta == ApiComparator.NO_DELTA); //$NON-NLS-1$
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Tests that comparing the components of two baselines concurrently
+	 * produces the same delta tree as comparing them one after the other
+	 */
+	@Test
+	public void testParallelCompare() throws Exception {
+		String[] tests = { "test2", "test3", "test4", "test5", "test10", "test11" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+		for (String test : tests) {
+			deployBundles(test, "deltatest." + test); //$NON-NLS-1$
+		}
+		// only in the reference baseline
+		deployBundle("test12", BEFORE, "deltatest.removed"); //$NON-NLS-1$ //$NON-NLS-2$
+		IApiBaseline before = getBeforeState();
+		IApiBaseline after = getAfterState();
+
+		IDelta serial = ApiComparator.compare(before, after, VisibilityModifiers.ALL_VISIBILITIES, true, 1, null);
+		IDelta parallel = ApiComparator.compare(before, after, VisibilityModifiers.ALL_VISIBILITIES, true, 4, null);
+		assertNotNull("No delta", serial); //$NON-NLS-1$
+		assertNotNull("No delta", parallel); //$NON-NLS-1$
+		assertFalse("Equals to NO_DELTA", serial == ApiComparator.NO_DELTA); //$NON-NLS-1$
+		assertTrue("Not a multi-component delta", serial.getChildren().length > 1); //$NON-NLS-1$
+		assertEquals("Wrong number of component deltas", serial.getChildren().length, parallel.getChildren().length); //$NON-NLS-1$
+
+		DeltaXmlVisitor serialXml = new DeltaXmlVisitor();
+		serial.accept(serialXml);
+		DeltaXmlVisitor parallelXml = new DeltaXmlVisitor();
+		parallel.accept(parallelXml);
+		assertEquals("Different delta trees", serialXml.getXML(), parallelXml.getXML()); //$NON-NLS-1$
+	}
+}
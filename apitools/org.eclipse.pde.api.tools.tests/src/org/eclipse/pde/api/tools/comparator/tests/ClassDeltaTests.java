@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -3903,4 +3903,27 @@ public class ClassDeltaTests extends DeltaTestSetup {
 		assertTrue("Not compatible", DeltaProcessor.isCompatible(child)); //$NON-NLS-1$
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Changed indirect superclass of types whose class files are unchanged,
+	 * the types must still be compared when unchanged types are skipped
+	 */
+	@Test
+	public void testSuperTypesOfUnchangedTypes() throws Exception {
+		deployBundles("test50"); //$NON-NLS-1$
+		IDelta delta = assertSameDeltaSkippingUnchangedTypes(VisibilityModifiers.ALL_VISIBILITIES);
+		IDelta[] allLeavesDeltas = collectLeaves(delta);
+		assertEquals("Wrong size", 4, allLeavesDeltas.length); //$NON-NLS-1$
+	}
+
+	/**
+	 * Removed indirect superclass of types whose class files are unchanged,
+	 * the types must still be compared when unchanged types are skipped
+	 */
+	@Test
+	public void testRemovedSuperTypesOfUnchangedTypes() throws Exception {
+		deployBundles("test51"); //$NON-NLS-1$
+		IDelta delta = assertSameDeltaSkippingUnchangedTypes(VisibilityModifiers.ALL_VISIBILITIES);
+		IDelta[] allLeavesDeltas = collectLeaves(delta);
+		assertEquals("Wrong size", 4, allLeavesDeltas.length); //$NON-NLS-1$
+	}
+}
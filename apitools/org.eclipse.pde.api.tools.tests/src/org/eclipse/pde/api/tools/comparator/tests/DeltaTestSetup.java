@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,12 +13,17 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.comparator.tests;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -27,9 +32,11 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.pde.api.tools.builder.tests.ApiTestingEnvironment;
 import org.eclipse.pde.api.tools.internal.builder.BuilderMessages;
+import org.eclipse.pde.api.tools.internal.comparator.DeltaXmlVisitor;
 import org.eclipse.pde.api.tools.internal.provisional.comparator.ApiComparator;
 import org.eclipse.pde.api.tools.internal.provisional.comparator.IDelta;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
 import org.eclipse.pde.api.tools.model.tests.TestSuiteHelper;
 import org.eclipse.pde.ui.tests.util.FreezeMonitor;
 import org.junit.After;
@@ -47,6 +54,8 @@ public abstract class DeltaTestSetup {
 	private static final IDelta[] EMPTY_CHILDREN = new IDelta[0];
 	private static final String TESTS_DELTAS_NAME = "tests-deltas"; //$NON-NLS-1$
 
+	private static final String SKIP_UNCHANGED_TYPES = "org.eclipse.pde.api.tools.skipUnchangedTypes"; //$NON-NLS-1$
+
 	private static final String WORKSPACE_NAME = "tests_deltas_workspace"; //$NON-NLS-1$
 
 	private static IPath WORKSPACE_ROOT;
@@ -178,6 +187,22 @@ public abstract class DeltaTestSetup {
 		deployBundle(testName, AFTER);
 	}
 
+	/**
+	 * Deploys the given test as a bundle with the given symbolic name, so that
+	 * several tests can be deployed side by side in the same baselines
+	 *
+	 * @param testName the given test name
+	 * @param symbolicName the symbolic name of the deployed bundle
+	 */
+	protected void deployBundles(String testName, String symbolicName) throws IOException {
+		for (String name : new String[] { BEFORE, AFTER }) {
+			deployBundle(testName, name, symbolicName);
+			Path manifest = WORKSPACE_ROOT.append(name).append(symbolicName).append("META-INF").append("MANIFEST.MF").toPath(); //$NON-NLS-1$ //$NON-NLS-2$
+			String content = Files.readString(manifest, StandardCharsets.UTF_8);
+			Files.writeString(manifest, content.replaceFirst("Bundle-SymbolicName: [^;\\r\\n]*", "Bundle-SymbolicName: " + symbolicName), StandardCharsets.UTF_8); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
 	protected IApiBaseline getAfterState() {
 		try {
 			after = TestSuiteHelper.createTestingBaseline(AFTER, getBaseLineFolder(AFTER));
@@ -202,6 +227,39 @@ public abstract class DeltaTestSetup {
 		return before;
 	}
 
+	/**
+	 * Asserts that comparing the deployed bundles while skipping the types
+	 * that are unchanged in both bundles reports the same deltas as comparing
+	 * all types, and returns these deltas.
+	 *
+	 * @param visibilityModifiers the visibility used for the comparison
+	 * @return the delta of the comparison of all types
+	 */
+	protected IDelta assertSameDeltaSkippingUnchangedTypes(int visibilityModifiers) throws CoreException {
+		IApiBaseline before = getBeforeState();
+		IApiBaseline after = getAfterState();
+		IApiComponent beforeApiComponent = before.getApiComponent(BUNDLE_NAME);
+		assertNotNull("no api component", beforeApiComponent); //$NON-NLS-1$
+		IApiComponent afterApiComponent = after.getApiComponent(BUNDLE_NAME);
+		assertNotNull("no api component", afterApiComponent); //$NON-NLS-1$
+		IDelta delta = ApiComparator.compare(beforeApiComponent, afterApiComponent, before, after, visibilityModifiers, null);
+		assertNotNull("No delta", delta); //$NON-NLS-1$
+		IDelta skippingDelta;
+		System.setProperty(SKIP_UNCHANGED_TYPES, Boolean.TRUE.toString());
+		try {
+			skippingDelta = ApiComparator.compare(beforeApiComponent, afterApiComponent, before, after, visibilityModifiers, null);
+		} finally {
+			System.clearProperty(SKIP_UNCHANGED_TYPES);
+		}
+		assertNotNull("No delta", skippingDelta); //$NON-NLS-1$
+		DeltaXmlVisitor xml = new DeltaXmlVisitor();
+		delta.accept(xml);
+		DeltaXmlVisitor skippingXml = new DeltaXmlVisitor();
+		skippingDelta.accept(skippingXml);
+		assertEquals("Different deltas when skipping unchanged types", xml.getXML(), skippingXml.getXML()); //$NON-NLS-1$
+		return delta;
+	}
+
 	public abstract String getTestRoot();
 
 	@Before
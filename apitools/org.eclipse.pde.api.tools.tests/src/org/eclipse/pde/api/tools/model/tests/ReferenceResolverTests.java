@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.model.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.pde.api.tools.internal.builder.ReferenceResolver;
+import org.eclipse.pde.api.tools.internal.model.ApiModelCache;
+import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiMember;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests that the {@link ReferenceResolver} resolves references in parallel
+ * exactly as on a single thread.
+ */
+public class ReferenceResolverTests {
+
+	private IApiBaseline baseline;
+
+	@After
+	public void tearDown() throws Exception {
+		if (baseline != null) {
+			baseline.dispose();
+		}
+		ApiModelCache.getCache().flushCaches();
+	}
+
+	@Test
+	public void testParallelResolutionMatchesSerial() throws Exception {
+		baseline = TestSuiteHelper.createTestingBaseline("test-plugins"); //$NON-NLS-1$
+		assertNotNull("the testing baseline should exist", baseline); //$NON-NLS-1$
+		String[] packages = { "java.util", "java.util.concurrent", "java.io" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		List<IReference> parallel = TestSuiteHelper.extractSystemLibraryReferences(baseline, packages);
+		List<IReference> serial = TestSuiteHelper.extractSystemLibraryReferences(baseline, packages);
+		assertTrue("too few references to resolve them in parallel: " + parallel.size(), parallel.size() > 1000); //$NON-NLS-1$
+
+		// the parallel resolution runs first so it starts from a cold model
+		ReferenceResolver.resolveReferences(parallel, true, null);
+		ReferenceResolver.resolveReferences(serial, false, null);
+
+		List<String> expected = describeResolutions(serial);
+		assertTrue("no reference was resolved", expected.stream().anyMatch(r -> r != null)); //$NON-NLS-1$
+		assertEquals(expected, describeResolutions(parallel));
+	}
+
+	private static List<String> describeResolutions(List<IReference> references) {
+		List<String> resolutions = new ArrayList<>(references.size());
+		for (IReference reference : references) {
+			IApiMember resolved = reference.getResolvedReference();
+			resolutions.add(resolved == null ? null
+					: resolved.getApiComponent().getSymbolicName() + '/' + resolved.getHandle());
+		}
+		return resolutions;
+	}
+}
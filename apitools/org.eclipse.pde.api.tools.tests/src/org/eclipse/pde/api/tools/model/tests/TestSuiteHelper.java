@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2021 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -38,6 +38,7 @@ import org.eclipse.pde.api.tools.internal.model.ApiType;
 import org.eclipse.pde.api.tools.internal.provisional.IApiDescription;
 import org.eclipse.pde.api.tools.internal.provisional.IApiFilterStore;
 import org.eclipse.pde.api.tools.internal.provisional.IRequiredComponentDescription;
+import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
 import org.eclipse.pde.api.tools.internal.provisional.descriptors.IElementDescriptor;
 import org.eclipse.pde.api.tools.internal.provisional.model.ApiTypeContainerVisitor;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiBaseline;
@@ -493,6 +494,48 @@ public class TestSuiteHelper {
 		}
 	}
 
+	/**
+	 * Extracts all references made by the types of the given packages of the
+	 * system library of the given baseline. The references are not resolved.
+	 *
+	 * @param baseline the baseline providing the system library
+	 * @param packageNames names of the packages whose types are scanned
+	 * @return the references made by the types of the packages
+	 * @throws CoreException
+	 */
+	public static List<IReference> extractSystemLibraryReferences(IApiBaseline baseline, String... packageNames) throws CoreException {
+		Set<String> packages = Set.of(packageNames);
+		List<IReference> references = new ArrayList<>();
+		List<CoreException> errors = new ArrayList<>();
+		ApiTypeContainerVisitor visitor = new ApiTypeContainerVisitor() {
+			@Override
+			public boolean visitPackage(String packageName) {
+				return packages.contains(packageName);
+			}
+
+			@Override
+			public void visit(String packageName, IApiTypeRoot typeroot) {
+				try {
+					IApiType type = typeroot.getStructure();
+					if (type != null) {
+						references.addAll(type.extractReferences(IReference.MASK_REF_ALL, null));
+					}
+				} catch (CoreException e) {
+					errors.add(e);
+				}
+			}
+		};
+		for (IApiComponent component : baseline.getApiComponents()) {
+			if (component.isSystemComponent()) {
+				component.accept(visitor);
+			}
+		}
+		if (!errors.isEmpty()) {
+			throw errors.get(0);
+		}
+		return references;
+	}
+
 	/**
 	 * Compiles a single source file
 	 *
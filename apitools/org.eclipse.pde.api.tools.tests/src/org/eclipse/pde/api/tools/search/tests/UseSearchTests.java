@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,18 +21,41 @@ import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.pde.api.tools.internal.IApiXmlConstants;
+import org.eclipse.pde.api.tools.internal.builder.Reference;
 import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
 import org.eclipse.pde.api.tools.internal.provisional.search.ApiSearchEngine;
 import org.eclipse.pde.api.tools.internal.provisional.search.IApiSearchReporter;
 import org.eclipse.pde.api.tools.internal.provisional.search.IApiSearchRequestor;
+import org.eclipse.pde.api.tools.internal.provisional.search.IMetadata;
+import org.eclipse.pde.api.tools.internal.search.IReferenceDescriptor;
 import org.eclipse.pde.api.tools.internal.search.XmlSearchReporter;
 import org.eclipse.pde.api.tools.model.tests.TestSuiteHelper;
 import org.junit.After;
 import org.junit.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
 
 /**
  * Tests the API use specific implementations of {@link IApiSearchReporter}
@@ -189,6 +212,136 @@ public class UseSearchTests extends SearchTest {
 		}
 	}
 
+	/**
+	 * Tests that searching the components concurrently writes the same XML
+	 * report as searching them one after the other, also when the references
+	 * are written out in many small batches
+	 */
+	@Test
+	public void testParallelSearchWritesSameXml() throws Exception {
+		assertSameXmlReports(XmlSearchReporter.DEFAULT_FLUSH_THRESHOLD);
+		assertSameXmlReports(1);
+	}
+
+	private void assertSameXmlReports(int flushThreshold) throws Exception {
+		TEST_REQUESTOR.setScopeBaseline(getTestBaseline());
+		TEST_REQUESTOR.setSearchMask(IApiSearchRequestor.INCLUDE_API | IApiSearchRequestor.INCLUDE_INTERNAL);
+		File serial = TMP_PATH.append("serial" + flushThreshold).toFile(); //$NON-NLS-1$
+		File parallel = TMP_PATH.append("parallel" + flushThreshold).toFile(); //$NON-NLS-1$
+		new ApiSearchEngine().search(getTestBaseline(), TEST_REQUESTOR,
+				new XmlSearchReporter(serial.getAbsolutePath(), false, flushThreshold), null);
+		new ApiSearchEngine(3).search(getTestBaseline(), TEST_REQUESTOR,
+				new XmlSearchReporter(parallel.getAbsolutePath(), false, flushThreshold), null);
+
+		Map<String, String> serialReport = readXmlReport(serial);
+		assertFalse("the serial search must report references", serialReport.isEmpty()); //$NON-NLS-1$
+		assertEquals("the parallel search must write the same XML", serialReport, readXmlReport(parallel)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the reference counts only leave out the duplicates within one
+	 * batch of results, as when every batch was written out on its own, also
+	 * when the references of an element stay pending across batches
+	 */
+	@Test
+	public void testCountsOnlyIgnoreDuplicatesWithinBatch() throws Exception {
+		assertCountsPerBatch(XmlSearchReporter.DEFAULT_FLUSH_THRESHOLD);
+		assertCountsPerBatch(1);
+	}
+
+	private void assertCountsPerBatch(int flushThreshold) throws Exception {
+		TEST_REQUESTOR.setScopeBaseline(getTestBaseline());
+		TEST_REQUESTOR.setSearchMask(IApiSearchRequestor.INCLUDE_API | IApiSearchRequestor.INCLUDE_INTERNAL);
+		File location = TMP_PATH.append("counts" + flushThreshold).toFile(); //$NON-NLS-1$
+		XmlSearchReporter xmlReporter = new XmlSearchReporter(location.getAbsolutePath(), false, flushThreshold);
+		AtomicInteger expected = new AtomicInteger();
+		IApiSearchReporter reporter = new IApiSearchReporter() {
+			@Override
+			public void reportResults(IApiElement element, IReference[] references) {
+				Set<IReferenceDescriptor> batch = new HashSet<>();
+				for (IReference reference : references) {
+					try {
+						batch.add(((Reference) reference).getReferenceDescriptor());
+					} catch (CoreException e) {
+						fail(e.getMessage());
+					}
+				}
+				// every batch is reported twice, the second time only
+				// duplicates references that are already pending
+				expected.addAndGet(2 * batch.size());
+				xmlReporter.reportResults(element, references);
+				xmlReporter.reportResults(element, references);
+			}
+
+			@Override
+			public void endReporting(IApiElement element) {
+				xmlReporter.endReporting(element);
+			}
+
+			@Override
+			public void reportNotSearched(IApiElement[] elements) {
+				xmlReporter.reportNotSearched(elements);
+			}
+
+			@Override
+			public void reportMetadata(IMetadata data) {
+				xmlReporter.reportMetadata(data);
+			}
+
+			@Override
+			public void reportCounts() {
+				xmlReporter.reportCounts();
+			}
+		};
+		new ApiSearchEngine().search(getTestBaseline(), TEST_REQUESTOR, reporter, null);
+		xmlReporter.reportCounts();
+
+		assertTrue("the search must report references", expected.get() > 0); //$NON-NLS-1$
+		DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+		Element counts = builder.parse(new File(location, "counts.xml")).getDocumentElement(); //$NON-NLS-1$
+		assertEquals("the counts must ignore duplicates within each batch only", //$NON-NLS-1$
+				Integer.toString(expected.get()), counts.getAttribute(IApiXmlConstants.ATTR_TOTAL));
+	}
+
+	/**
+	 * @return the normalized content of all XML files below the given folder
+	 *         by their relative path, ignoring the order of elements and
+	 *         attributes
+	 */
+	private Map<String, String> readXmlReport(File root) throws Exception {
+		Map<String, String> report = new TreeMap<>();
+		DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+		try (Stream<Path> files = Files.walk(root.toPath())) {
+			for (Path file : files.filter(f -> f.toString().endsWith(".xml")).toList()) { //$NON-NLS-1$
+				Element element = builder.parse(file.toFile()).getDocumentElement();
+				report.put(root.toPath().relativize(file).toString(), normalize(element));
+			}
+		}
+		return report;
+	}
+
+	private String normalize(Element element) {
+		StringBuilder buffer = new StringBuilder(element.getTagName());
+		NamedNodeMap attributes = element.getAttributes();
+		List<String> names = new ArrayList<>();
+		for (int i = 0; i < attributes.getLength(); i++) {
+			Node attribute = attributes.item(i);
+			names.add(attribute.getNodeName() + '=' + attribute.getNodeValue());
+		}
+		Collections.sort(names);
+		buffer.append(names);
+		List<String> children = new ArrayList<>();
+		NodeList nodes = element.getChildNodes();
+		for (int i = 0; i < nodes.getLength(); i++) {
+			if (nodes.item(i) instanceof Element child) {
+				children.add(normalize(child));
+			}
+		}
+		Collections.sort(children);
+		buffer.append(children);
+		return buffer.toString();
+	}
+
 	String getProjectId(String project, String version) {
 		StringBuilder buffer = new StringBuilder();
 		buffer.append(project).append(" ").append('(').append(version).append(')'); //$NON-NLS-1$
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2020 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,8 +18,11 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Iterator;
 import java.util.List;
@@ -58,6 +61,8 @@ import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.pde.api.tools.builder.tests.ApiTestingEnvironment;
 import org.eclipse.pde.api.tools.internal.ApiBaselineManager;
+import org.eclipse.pde.api.tools.internal.BinaryApiDescription;
+import org.eclipse.pde.api.tools.internal.ProjectApiDescription;
 import org.eclipse.pde.api.tools.internal.model.ApiModelFactory;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.Factory;
@@ -870,6 +875,95 @@ public class ApiBaselineManagerTests extends AbstractApiTest {
 		assertTrue("unexported package must be private", VisibilityModifiers.isPrivate(annot.getVisibility())); //$NON-NLS-1$
 	}
 
+	/**
+	 * Tests that an API description restored from its binary form holds the
+	 * same restrictions and visibilities, including the ones of nested types
+	 * and members, as the XML form of the original description
+	 */
+	@Test
+	public void testBinaryDescriptionRoundTrip() throws Exception {
+		IJavaProject project = getTestingProject();
+		assertNotNull("The testing project must exist", project); //$NON-NLS-1$
+		IPackageFragmentRoot root = project.findPackageFragmentRoot(IPath.fromOSString(project.getElementName()).append(ProjectUtils.SRC_FOLDER).makeAbsolute());
+		assertNotNull("the 'src' package fragment root must exist", root); //$NON-NLS-1$
+		assertTestSource(root, TESTING_PACKAGE, "TestClass1"); //$NON-NLS-1$
+		assertTestSource(root, TESTING_PACKAGE, "TestMethod4"); //$NON-NLS-1$
+		assertTestSource(root, TESTING_PACKAGE, "TestField9"); //$NON-NLS-1$
+
+		ProjectApiDescription desc = new ProjectApiDescription(project);
+		desc.resolveAnnotations(Factory.typeDescriptor("a.b.c.TestClass1")); //$NON-NLS-1$
+		desc.resolveAnnotations(Factory.methodDescriptor("a.b.c.TestMethod4$Inner1$Inner3", "one", "()V")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		desc.resolveAnnotations(Factory.fieldDescriptor("a.b.c.TestField9", "field1")); //$NON-NLS-1$ //$NON-NLS-2$
+		desc.setVisibility(Factory.typeDescriptor("a.b.c.TestField9"), VisibilityModifiers.SPI); //$NON-NLS-1$
+
+		File file = File.createTempFile("api_description", ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			BinaryApiDescription.write(desc, file);
+			ProjectApiDescription restored = new ProjectApiDescription(project);
+			assertTrue("the binary description must be restored", BinaryApiDescription.read(project, restored, file)); //$NON-NLS-1$
+			assertEquals("the restored description must have the same XML form", desc.getXML(), restored.getXML()); //$NON-NLS-1$
+
+			IApiAnnotations annot = restored.resolveAnnotations(Factory.typeDescriptor("a.b.c.TestClass1")); //$NON-NLS-1$
+			assertNotNull("the annotations for a.b.c.TestClass1 cannot be null", annot); //$NON-NLS-1$
+			assertEquals("there must be a noinstantiate setting for TestClass1", RestrictionModifiers.NO_INSTANTIATE, annot.getRestrictions()); //$NON-NLS-1$
+			annot = restored.resolveAnnotations(Factory.methodDescriptor("a.b.c.TestMethod4$Inner1$Inner3", "one", "()V")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			assertNotNull("the annotations for Inner3.one() cannot be null", annot); //$NON-NLS-1$
+			assertEquals("there must be a noreference setting for Inner3.one()", RestrictionModifiers.NO_REFERENCE, annot.getRestrictions()); //$NON-NLS-1$
+			annot = restored.resolveAnnotations(Factory.methodDescriptor("a.b.c.TestMethod4$Inner1$Inner3", "two", "()V")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			assertNotNull("the annotations for Inner3.two() cannot be null", annot); //$NON-NLS-1$
+			assertEquals("there must be a nooverride setting for Inner3.two()", RestrictionModifiers.NO_OVERRIDE, annot.getRestrictions()); //$NON-NLS-1$
+			annot = restored.resolveAnnotations(Factory.fieldDescriptor("a.b.c.TestField9", "field1")); //$NON-NLS-1$ //$NON-NLS-2$
+			assertNotNull("the annotations for field1 cannot be null", annot); //$NON-NLS-1$
+			assertEquals("there must be a noreference setting for field1", RestrictionModifiers.NO_REFERENCE, annot.getRestrictions()); //$NON-NLS-1$
+			assertEquals("TestField9 must keep its SPI visibility", VisibilityModifiers.SPI, annot.getVisibility()); //$NON-NLS-1$
+			annot = restored.resolveAnnotations(Factory.packageDescriptor(TESTING_PACKAGE));
+			assertNotNull("the annotations for the testing package cannot be null", annot); //$NON-NLS-1$
+			assertEquals("the testing package must keep its API visibility", VisibilityModifiers.API, annot.getVisibility()); //$NON-NLS-1$
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Tests that a truncated binary API description or one holding a negative
+	 * count is reported as corrupt
+	 */
+	@Test
+	public void testCorruptBinaryDescription() throws Exception {
+		IJavaProject project = getTestingProject();
+		assertNotNull("The testing project must exist", project); //$NON-NLS-1$
+		ProjectApiDescription desc = new ProjectApiDescription(project);
+		desc.resolveAnnotations(Factory.typeDescriptor("a.b.c.TestClass1")); //$NON-NLS-1$
+		File file = File.createTempFile("api_description", ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+		try {
+			BinaryApiDescription.write(desc, file);
+			try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+				raf.setLength(raf.length() - 1);
+			}
+			assertCorruptBinaryDescription(project, file);
+
+			BinaryApiDescription.write(desc, file);
+			try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+				// the string count follows the header and the time stamp
+				raf.seek(16);
+				raf.writeInt(-1);
+			}
+			assertCorruptBinaryDescription(project, file);
+		} finally {
+			file.delete();
+		}
+	}
+
+	private void assertCorruptBinaryDescription(IJavaProject project, File file) throws CoreException {
+		ProjectApiDescription restored = new ProjectApiDescription(project);
+		try {
+			BinaryApiDescription.read(project, restored, file);
+			fail("a corrupt binary description must not be restored"); //$NON-NLS-1$
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
 	/**
 	 * sets the given package name to be an Exported-Package
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2019 IBM Corporation and others.
+ * Copyright (c) 2012, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -39,6 +39,10 @@ public class AntFilterStore extends FilterStore {
 
 	String fComponentId = null;
 	String fFiltersRoot = null;
+	/**
+	 * Problems filtered so far. Components may be searched concurrently,
+	 * accesses are synchronized on <code>AntFilterStore.class</code>.
+	 */
 	public static ArrayList<IApiProblem> filteredAPIProblems = new ArrayList<>();
 	/**
 	 * Constructor
@@ -56,7 +60,9 @@ public class AntFilterStore extends FilterStore {
 	public boolean isFiltered(IApiProblem problem) {
 		boolean isFiltered = super.isFiltered(problem);
 		if(isFiltered){
-			filteredAPIProblems.add(problem);
+			synchronized (AntFilterStore.class) {
+				filteredAPIProblems.add(problem);
+			}
 		}
 		return isFiltered;
 	}
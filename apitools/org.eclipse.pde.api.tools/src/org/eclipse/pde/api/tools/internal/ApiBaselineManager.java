@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2021 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -53,6 +53,7 @@ import org.eclipse.pde.api.tools.internal.model.ApiBaseline;
 import org.eclipse.pde.api.tools.internal.model.ApiModelCache;
 import org.eclipse.pde.api.tools.internal.model.ApiModelFactory;
 import org.eclipse.pde.api.tools.internal.model.StubApiComponent;
+import org.eclipse.pde.api.tools.internal.model.TypeContentIndex;
 import org.eclipse.pde.api.tools.internal.model.WorkspaceBaseline;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.IApiBaselineManager;
@@ -98,6 +99,13 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 	 */
 	private static final String BASELINE_FILE_EXTENSION = ".profile"; //$NON-NLS-1$
 
+	/**
+	 * Constant representing the name of the file the
+	 * {@link TypeContentIndex} is persisted to. Value is:
+	 * <code>.type_index</code>
+	 */
+	private static final String TYPE_INDEX_FILE = ".type_index"; //$NON-NLS-1$
+
 	/**
 	 * The main cache for the manager. The form of the cache is:
 	 *
@@ -291,6 +299,7 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 						}
 					}
 				}
+				TypeContentIndex.load(savelocation.append(TYPE_INDEX_FILE).toFile());
 				String def = getDefaultProfilePref();
 				if (def != null && bcache.get(def) != null) {
 					defaultbaseline = def;
@@ -508,6 +517,14 @@ public final class ApiBaselineManager implements IApiBaselineManager, ISaveParti
 
 	@Override
 	public void saving(ISaveContext context) throws CoreException {
+		if (savelocation != null) {
+			try {
+				Files.createDirectories(savelocation.toFile().toPath());
+				TypeContentIndex.save(savelocation.append(TYPE_INDEX_FILE).toFile());
+			} catch (IOException e) {
+				ApiPlugin.log(e);
+			}
+		}
 		if (!fNeedsSaving) {
 			return;
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -79,6 +79,14 @@ public final class ApiDescriptionManager implements ISaveParticipant {
 	 */
 	public static final IPath API_DESCRIPTIONS_CONTAINER_PATH = ApiPlugin.getDefault().getStateLocation();
 
+	/**
+	 * API descriptions are saved in the binary format of
+	 * {@link BinaryApiDescription}. To save them as XML instead, specify VM
+	 * property: {@code -Dorg.eclipse.pde.api.tools.xmlApiDescriptions=true}.
+	 * XML files are always restored if no binary file exists.
+	 */
+	private static final boolean SAVE_XML = Boolean.getBoolean("org.eclipse.pde.api.tools.xmlApiDescriptions"); //$NON-NLS-1$
+
 	/**
 	 * Constructs an API description manager.
 	 */
@@ -158,6 +166,10 @@ public final class ApiDescriptionManager implements ISaveParticipant {
 			if (file.exists()) {
 				file.delete();
 			}
+			file = API_DESCRIPTIONS_CONTAINER_PATH.append(project.getElementName()).append(BinaryApiDescription.FILE_NAME).toFile();
+			if (file.exists()) {
+				file.delete();
+			}
 			file = API_DESCRIPTIONS_CONTAINER_PATH.append(project.getElementName()).toFile();
 			if (file.exists() && file.isDirectory()) {
 				file.delete();
@@ -238,9 +250,18 @@ public final class ApiDescriptionManager implements ISaveParticipant {
 			if (desc.isModified()) {
 				File dir = API_DESCRIPTIONS_CONTAINER_PATH.append(project.getElementName()).toFile();
 				dir.mkdirs();
-				String xml = desc.getXML();
+				File xmlFile = new File(dir, IApiCoreConstants.API_DESCRIPTION_XML_NAME);
+				File binaryFile = new File(dir, BinaryApiDescription.FILE_NAME);
 				try {
-					Util.saveFile(new File(dir, IApiCoreConstants.API_DESCRIPTION_XML_NAME), xml);
+					if (SAVE_XML) {
+						Util.saveFile(xmlFile, desc.getXML());
+						binaryFile.delete();
+					} else {
+						synchronized (desc) {
+							BinaryApiDescription.write(desc, binaryFile);
+						}
+						xmlFile.delete();
+					}
 					desc.setModified(false);
 				} catch (IOException e) {
 					abort(MessageFormat.format(ScannerMessages.ApiDescriptionManager_0, project.getElementName()), e);
@@ -259,6 +280,14 @@ public final class ApiDescriptionManager implements ISaveParticipant {
 	 * @throws CoreException
 	 */
 	private boolean restoreDescription(IJavaProject project, ProjectApiDescription description) throws CoreException {
+		File binaryFile = API_DESCRIPTIONS_CONTAINER_PATH.append(project.getElementName()).append(BinaryApiDescription.FILE_NAME).toFile();
+		if (binaryFile.exists()) {
+			try {
+				return BinaryApiDescription.read(project, description, binaryFile);
+			} catch (IOException e) {
+				abort(MessageFormat.format(ScannerMessages.ApiDescriptionManager_1, project.getElementName()), e);
+			}
+		}
 		File file = API_DESCRIPTIONS_CONTAINER_PATH.append(project.getElementName()).append(IApiCoreConstants.API_DESCRIPTION_XML_NAME).toFile();
 		if (file.exists()) {
 			BufferedInputStream stream = null;
@@ -0,0 +1,317 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarFile;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.pde.api.tools.internal.ApiDescription.ManifestNode;
+import org.eclipse.pde.api.tools.internal.ProjectApiDescription.PackageNode;
+import org.eclipse.pde.api.tools.internal.ProjectApiDescription.TypeNode;
+import org.eclipse.pde.api.tools.internal.provisional.Factory;
+import org.eclipse.pde.api.tools.internal.provisional.RestrictionModifiers;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IElementDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IFieldDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IMethodDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IReferenceTypeDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.scanner.ScannerMessages;
+import org.eclipse.pde.internal.core.util.CacheFile;
+
+/**
+ * Binary encoding of the {@link ProjectApiDescription}s cached by the
+ * {@link ApiDescriptionManager}. It holds the same nodes as
+ * {@link ProjectApiDescription#getXML()} without the cost of building and
+ * parsing a DOM.
+ * <p>
+ * All strings (handles, names and signatures) are stored once in a string
+ * table and referenced by index, all other values have a fixed width. All
+ * packages are decoded when the description is restored, as the
+ * {@link ProjectApiDescription} looks its packages up in a map that must be
+ * complete. All values are big endian:
+ * </p>
+ *
+ * <pre>
+ * header:   magic, format version, package time stamp
+ * strings:  count, (byte length, UTF-8 bytes)*
+ * packages: count, (package)*
+ * package:  visibility, restrictions, fragment count, (fragment handle)*, children
+ * type:    TYPE, handle, visibility, restrictions, time stamp, children
+ * field:   FIELD, name, visibility, restrictions
+ * method:  METHOD, name, signature, visibility, restrictions
+ * children: count, (type | field | method)*
+ * </pre>
+ *
+ * @since 1.3.200
+ */
+public final class BinaryApiDescription {
+
+	/**
+	 * Name of the file holding the binary API description of a project
+	 */
+	static final String FILE_NAME = ".api_description.bin"; //$NON-NLS-1$
+
+	/** Marks the file format, "PDAD" */
+	private static final int MAGIC = 0x50444144;
+	/** Must be incremented whenever the file format changes */
+	private static final int FORMAT_VERSION = 2;
+
+	private static final byte TYPE = 1;
+	private static final byte FIELD = 2;
+	private static final byte METHOD = 3;
+
+	private BinaryApiDescription() {
+	}
+
+	/**
+	 * Writes the given description to the given file.
+	 *
+	 * @param description the description to write
+	 * @param file the file to write to
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(ProjectApiDescription description, File file) throws IOException {
+		Map<String, Integer> strings = new LinkedHashMap<>();
+		ByteArrayOutputStream records = new ByteArrayOutputStream();
+		DataOutputStream recordsOut = new DataOutputStream(records);
+		int packageCount = 0;
+		for (ManifestNode node : description.fPackageMap.values()) {
+			if (node instanceof PackageNode pkg && isPersisted(pkg)) {
+				packageCount++;
+				recordsOut.writeInt(pkg.visibility);
+				recordsOut.writeInt(pkg.restrictions);
+				recordsOut.writeInt(pkg.fFragments.length);
+				for (IPackageFragment fragment : pkg.fFragments) {
+					recordsOut.writeInt(indexOf(fragment.getHandleIdentifier(), strings));
+				}
+				writeChildren(pkg, recordsOut, strings);
+			}
+		}
+		recordsOut.flush();
+		int count = packageCount;
+		new CacheFile(file, MAGIC, FORMAT_VERSION).write(out -> {
+			out.writeLong(description.fPackageTimeStamp);
+			out.writeInt(strings.size());
+			for (String string : strings.keySet()) {
+				CacheFile.writeString(out, string);
+			}
+			out.writeInt(count);
+			records.writeTo(out);
+		});
+	}
+
+	/**
+	 * Restores the given description from the given file. Nothing is restored
+	 * if the file cannot be read completely.
+	 *
+	 * @param project the project the description is for
+	 * @param description the description to restore
+	 * @param file the file to read
+	 * @return <code>false</code> if the file was written in another format
+	 *         version and nothing was restored, <code>true</code> otherwise
+	 * @throws IOException if the file cannot be read or is corrupt
+	 * @throws CoreException if an element of the file no longer exists
+	 */
+	public static boolean read(IJavaProject project, ProjectApiDescription description, File file) throws IOException, CoreException {
+		Map<IElementDescriptor, ManifestNode> packages = new LinkedHashMap<>();
+		long[] timestamp = new long[1];
+		CoreException[] missing = new CoreException[1];
+		boolean read;
+		try {
+			read = new CacheFile(file, MAGIC, FORMAT_VERSION).read(in -> {
+				timestamp[0] = in.readLong();
+				int stringCount = readCount(in);
+				// every string takes at least the int of its length
+				if (stringCount > file.length() / Integer.BYTES) {
+					throw new IOException("Invalid string count " + stringCount); //$NON-NLS-1$
+				}
+				String[] strings = new String[stringCount];
+				for (int i = 0; i < strings.length; i++) {
+					strings[i] = CacheFile.readString(in);
+				}
+				int count = readCount(in);
+				try {
+					for (int i = 0; i < count; i++) {
+						readPackage(in, strings, description, packages);
+					}
+				} catch (CoreException e) {
+					missing[0] = e;
+				}
+			});
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Corrupt API description " + file, e); //$NON-NLS-1$
+		}
+		if (missing[0] != null) {
+			throw missing[0];
+		}
+		if (read) {
+			description.setEmbeddedVersion(IApiXmlConstants.API_DESCRIPTION_CURRENT_VERSION);
+			description.fPackageTimeStamp = timestamp[0];
+			description.fManifestFile = project.getProject().getFile(JarFile.MANIFEST_NAME);
+			description.fPackageMap.putAll(packages);
+		}
+		return read;
+	}
+
+	/**
+	 * Returns whether the given node is persisted, following the rules of the
+	 * <code>persistXML</code> methods of the nodes.
+	 */
+	private static boolean isPersisted(ManifestNode node) {
+		if (node instanceof PackageNode || node instanceof TypeNode) {
+			return node.hasApiVisibility(node);
+		}
+		int type = node.element.getElementType();
+		return (type == IElementDescriptor.METHOD || type == IElementDescriptor.FIELD) && !RestrictionModifiers.isUnrestricted(node.restrictions);
+	}
+
+	private static void writeChildren(ManifestNode node, DataOutputStream out, Map<String, Integer> strings) throws IOException {
+		List<ManifestNode> children = new ArrayList<>(node.children.size());
+		for (ManifestNode child : node.children.values()) {
+			if (isPersisted(child)) {
+				children.add(child);
+			}
+		}
+		out.writeInt(children.size());
+		for (ManifestNode child : children) {
+			if (child instanceof TypeNode type) {
+				out.writeByte(TYPE);
+				out.writeInt(indexOf(type.fType.getHandleIdentifier(), strings));
+				out.writeInt(type.visibility);
+				out.writeInt(type.restrictions);
+				out.writeLong(type.fTimeStamp);
+				writeChildren(type, out, strings);
+			} else if (child.element instanceof IMethodDescriptor method) {
+				out.writeByte(METHOD);
+				out.writeInt(indexOf(method.getName(), strings));
+				out.writeInt(indexOf(method.getSignature(), strings));
+				out.writeInt(child.visibility);
+				out.writeInt(child.restrictions);
+			} else {
+				out.writeByte(FIELD);
+				out.writeInt(indexOf(((IFieldDescriptor) child.element).getName(), strings));
+				out.writeInt(child.visibility);
+				out.writeInt(child.restrictions);
+			}
+		}
+	}
+
+	private static int indexOf(String string, Map<String, Integer> strings) {
+		Integer index = strings.get(string);
+		if (index == null) {
+			index = Integer.valueOf(strings.size());
+			strings.put(string, index);
+		}
+		return index.intValue();
+	}
+
+	/**
+	 * Reads a count, which must not be negative.
+	 */
+	private static int readCount(DataInputStream in) throws IOException {
+		int count = in.readInt();
+		if (count < 0) {
+			throw new IOException("Invalid count " + count); //$NON-NLS-1$
+		}
+		return count;
+	}
+
+	/**
+	 * Reads a reference to a string of the string table.
+	 */
+	private static String readString(DataInputStream in, String[] strings) throws IOException {
+		int index = in.readInt();
+		if (index < 0 || index >= strings.length) {
+			throw new IOException("Invalid string reference " + index); //$NON-NLS-1$
+		}
+		return strings[index];
+	}
+
+	private static void readPackage(DataInputStream in, String[] strings, ProjectApiDescription description, Map<IElementDescriptor, ManifestNode> packages) throws IOException, CoreException {
+		int vis = in.readInt();
+		int res = in.readInt();
+		int fragmentCount = readCount(in);
+		if (fragmentCount == 0) {
+			abort(ScannerMessages.ApiDescriptionManager_2);
+		}
+		List<IPackageFragment> fragmentList = new ArrayList<>();
+		for (int i = 0; i < fragmentCount; i++) {
+			String handle = readString(in, strings);
+			IJavaElement je = JavaCore.create(handle);
+			if (je == null || je.getElementType() != IJavaElement.PACKAGE_FRAGMENT) {
+				abort(ScannerMessages.ApiDescriptionManager_2 + handle);
+			}
+			fragmentList.add((IPackageFragment) je);
+		}
+		IPackageFragment[] fragments = fragmentList.toArray(new IPackageFragment[fragmentList.size()]);
+		IElementDescriptor elementDesc = Factory.packageDescriptor(fragments[0].getElementName());
+		ManifestNode node = description.newPackageNode(fragments, null, elementDesc, vis, res);
+		packages.put(elementDesc, node);
+		readChildren(in, strings, description, node);
+	}
+
+	private static void readChildren(DataInputStream in, String[] strings, ProjectApiDescription description, ManifestNode parentNode) throws IOException, CoreException {
+		int count = readCount(in);
+		for (int i = 0; i < count; i++) {
+			byte kind = in.readByte();
+			switch (kind) {
+				case TYPE -> {
+					String handle = readString(in, strings);
+					int vis = in.readInt();
+					int res = in.readInt();
+					long timestamp = in.readLong();
+					IJavaElement je = JavaCore.create(handle);
+					if (je == null || je.getElementType() != IJavaElement.TYPE) {
+						abort(ScannerMessages.ApiDescriptionManager_3 + handle);
+					}
+					IType type = (IType) je;
+					IElementDescriptor elementDesc = Factory.typeDescriptor(type.getFullyQualifiedName('$'));
+					TypeNode node = description.newTypeNode(type, parentNode, elementDesc, vis, res);
+					node.fTimeStamp = timestamp;
+					parentNode.children.put(elementDesc, node);
+					readChildren(in, strings, description, node);
+				}
+				case FIELD, METHOD -> {
+					String name = readString(in, strings);
+					String signature = kind == METHOD ? readString(in, strings) : null;
+					int vis = in.readInt();
+					int res = in.readInt();
+					if (!(parentNode.element instanceof IReferenceTypeDescriptor type)) {
+						abort(ScannerMessages.ApiDescriptionManager_4);
+						return;
+					}
+					IElementDescriptor elementDesc = kind == METHOD ? type.getMethod(name, signature) : type.getField(name);
+					parentNode.children.put(elementDesc, description.newNode(parentNode, elementDesc, vis, res));
+				}
+				default -> abort(ScannerMessages.ApiDescriptionManager_4);
+			}
+		}
+	}
+
+	private static void abort(String message) throws CoreException {
+		throw new CoreException(Status.error(message));
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2019 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -48,6 +48,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
 import org.eclipse.jdt.core.IClasspathAttribute;
 import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.ICompilationUnit;
@@ -86,6 +87,15 @@ import org.osgi.framework.Version;
 
 /**
  * Builder for creating API Tools resource markers
+ * <p>
+ * By default a project is analyzed within the workspace build, which invokes
+ * the builders of all projects one after the other, so the analysis of
+ * independent projects cannot run concurrently on this path. Only if the
+ * preference to run the API analysis as job is set, each project is analyzed
+ * by an {@link ApiAnalysisJob} outside of the build. Those jobs run in parallel
+ * for independent projects, bounded by
+ * {@code -Dorg.eclipse.pde.api.tools.analysisParallelism}.
+ * </p>
  *
  * @since 1.0.0
  */
@@ -181,6 +191,35 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 	 */
 	private static final boolean DISABLE_AUTO_BUILDING_ON_SETTINGS_CHANGE = Boolean.getBoolean("org.eclipse.disableAutoBuildOnSettingsChange"); //$NON-NLS-1$
 
+	/**
+	 * Maximum number of projects analyzed concurrently when the analysis runs as
+	 * job (see {@link #isRunningAsJob()}). Defaults to the number of available
+	 * processors, specify VM property:
+	 * {@code -Dorg.eclipse.pde.api.tools.analysisParallelism=1} to analyze one
+	 * project at a time.
+	 */
+	private static final int ANALYSIS_PARALLELISM = Math.max(1, Integer.getInteger(
+			"org.eclipse.pde.api.tools.analysisParallelism", Runtime.getRuntime().availableProcessors())); //$NON-NLS-1$
+
+	/**
+	 * Bounds the number of {@link ApiAnalysisJob}s running at the same time,
+	 * further jobs wait in the job manager until one of them is done. This only
+	 * caps the concurrency: which jobs may run in parallel is still decided by
+	 * their {@link ApiAnalysisJobRule}, and the jobs of one project never
+	 * overlap. The jobs only share the read-only baselines and create their
+	 * markers via {@link ApiAnalysisMarkersJob}, so jobs of different projects
+	 * may run in parallel.
+	 */
+	private static final JobGroup ANALYSIS_JOBS = new JobGroup(BuilderMessages.api_analysis_builder,
+			ANALYSIS_PARALLELISM, 0) {
+		@Override
+		protected boolean shouldCancel(IStatus lastCompletedJobResult, int numberOfFailedJobs,
+				int numberOfCanceledJobs) {
+			// the analysis of a project does not depend on the others
+			return false;
+		}
+	};
+
 	/**
 	 * Cleans up markers associated with API Tools on the given resource.
 	 *
@@ -543,6 +582,33 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 		}
 	}
 
+	/**
+	 * Returns the group bounding the number of {@link ApiAnalysisJob}s running
+	 * at the same time.
+	 * <p>
+	 * Visible for testing only
+	 * </p>
+	 *
+	 * @return the group of all API analysis jobs
+	 */
+	public static JobGroup getAnalysisJobGroup() {
+		return ANALYSIS_JOBS;
+	}
+
+	/**
+	 * Returns the scheduling rule of the {@link ApiAnalysisJob}s of the given
+	 * project.
+	 * <p>
+	 * Visible for testing only
+	 * </p>
+	 *
+	 * @param project the analyzed project
+	 * @return a rule only conflicting with the rules of the same project
+	 */
+	public static ISchedulingRule getAnalysisJobRule(IProject project) {
+		return new ApiAnalysisJobRule(project);
+	}
+
 	public class ApiAnalysisJob extends Job {
 
 		private final boolean fullBuild;
@@ -560,6 +626,7 @@ public class ApiAnalysisBuilder extends IncrementalProjectBuilder {
 			// Intentionally not using project as rule to allow run in parallel with build
 			// locking entire workspace
 			setRule(new ApiAnalysisJobRule(project));
+			setJobGroup(ANALYSIS_JOBS);
 		}
 
 		@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,9 +17,18 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.builder.IReference;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiMember;
@@ -32,6 +41,39 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiMember;
  */
 public final class ReferenceResolver {
 
+	/**
+	 * Whether sets of references are resolved in parallel, specify VM property:
+	 * {@code -Dorg.eclipse.pde.api.tools.parallelReferenceResolution=true} to
+	 * resolve them on {@link #RESOLVER_THREADS} threads instead of the calling
+	 * thread.
+	 * <p>
+	 * Resolving a reference only reads the baseline and its components: the
+	 * package providers cached by the baseline, the type containers of the
+	 * components, the type structures of their type roots and the fields,
+	 * methods, super types and member types of those structures. All of these
+	 * are created lazily, but are only published once complete or guarded by
+	 * their owner, so concurrent resolution gives the same results as
+	 * resolving on a single thread.
+	 * </p>
+	 */
+	private static final boolean PARALLEL_RESOLUTION = Boolean
+			.getBoolean("org.eclipse.pde.api.tools.parallelReferenceResolution"); //$NON-NLS-1$
+
+	/**
+	 * Minimal number of unique references for which parallel resolution pays off
+	 */
+	private static final int PARALLEL_THRESHOLD = 64;
+
+	/**
+	 * Number of threads resolving references in parallel
+	 */
+	private static final int RESOLVER_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * Threads resolving references in parallel, created on first use
+	 */
+	private static ExecutorService fResolvers;
+
 	/**
 	 * Constructor Private constructor, no instantiate
 	 */
@@ -46,6 +88,22 @@ public final class ReferenceResolver {
 	 * @throws CoreException if something goes wrong
 	 */
 	public static void resolveReferences(List<IReference> references, IProgressMonitor monitor) throws CoreException {
+		resolveReferences(references, PARALLEL_RESOLUTION, monitor);
+	}
+
+	/**
+	 * Resolves retained references, resolving sets of references in parallel
+	 * if requested and worthwhile.
+	 * <p>
+	 * Visible for testing only
+	 * </p>
+	 *
+	 * @param references list of {@link IReference} to resolve
+	 * @param parallel whether sets of references may be resolved in parallel
+	 * @param monitor progress monitor or <code>null</code>
+	 * @throws CoreException if something goes wrong
+	 */
+	public static void resolveReferences(List<IReference> references, boolean parallel, IProgressMonitor monitor) throws CoreException {
 		// sort references by target type for 'shared' resolution
 		int refcount = references.size();
 		Map<String, List<IReference>> sigtoref = new LinkedHashMap<>(refcount);
@@ -74,7 +132,7 @@ public final class ReferenceResolver {
 		}
 		// resolve references
 		start = System.currentTimeMillis();
-		resolveReferenceSets(sigtoref, monitor);
+		resolveReferenceSets(sigtoref, parallel, monitor);
 		end = System.currentTimeMillis();
 		if (ApiPlugin.DEBUG_REFERENCE_RESOLVER) {
 			System.out.println("Reference resolver: resolved unique references in " + (end - start) + "ms"); //$NON-NLS-1$//$NON-NLS-2$
@@ -94,18 +152,97 @@ public final class ReferenceResolver {
 	 * Resolves the collect sets of references.
 	 *
 	 * @param map the mapping of keys to sets of {@link IReference}s
+	 * @param parallel whether the sets may be resolved in parallel
 	 * @throws CoreException if something bad happens
 	 */
-	private static void resolveReferenceSets(Map<String, List<IReference>> map, IProgressMonitor monitor) throws CoreException {
-		IReference ref = null;
-		for (List<IReference> refs : map.values()) {
-			ref = refs.get(0);
-			((Reference) ref).resolve();
-			IApiMember resolved = ref.getResolvedReference();
-			if (resolved != null) {
-				for (IReference ref2 : refs) {
-					((Reference) ref2).setResolution(resolved);
+	private static void resolveReferenceSets(Map<String, List<IReference>> map, boolean parallel, IProgressMonitor monitor) throws CoreException {
+		if (!parallel || RESOLVER_THREADS < 2 || map.size() < PARALLEL_THRESHOLD) {
+			for (List<IReference> refs : map.values()) {
+				resolveReferenceSet(refs);
+			}
+			return;
+		}
+		// the sets are independent of each other and the API model is safe for
+		// concurrent lookups (see PARALLEL_RESOLUTION), each task resolves a
+		// contiguous slice of the sets
+		List<List<IReference>> sets = new ArrayList<>(map.values());
+		int taskCount = Math.min(sets.size(), RESOLVER_THREADS * 4);
+		AtomicBoolean stop = new AtomicBoolean();
+		List<Callable<Void>> tasks = new ArrayList<>(taskCount);
+		for (int i = 0; i < taskCount; i++) {
+			List<List<IReference>> slice = sets.subList(i * sets.size() / taskCount, (i + 1) * sets.size() / taskCount);
+			tasks.add(() -> {
+				for (List<IReference> refs : slice) {
+					if (stop.get() || (monitor != null && monitor.isCanceled())) {
+						return null;
+					}
+					try {
+						resolveReferenceSet(refs);
+					} catch (CoreException | RuntimeException e) {
+						stop.set(true);
+						throw e;
+					}
+				}
+				return null;
+			});
+		}
+		List<Future<Void>> results;
+		try {
+			results = getResolvers().invokeAll(tasks);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		}
+		for (Future<Void> result : results) {
+			try {
+				result.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof CoreException ce) {
+					throw ce;
 				}
+				if (e.getCause() instanceof RuntimeException re) {
+					throw re;
+				}
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+		if (monitor != null && monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+	}
+
+	private static synchronized ExecutorService getResolvers() {
+		if (fResolvers == null) {
+			ThreadPoolExecutor resolvers = new ThreadPoolExecutor(RESOLVER_THREADS, RESOLVER_THREADS, 30,
+					TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+						Thread thread = new Thread(r, "API Tools reference resolver"); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					});
+			// no idle threads once the analysis is done
+			resolvers.allowCoreThreadTimeOut(true);
+			fResolvers = resolvers;
+		}
+		return fResolvers;
+	}
+
+	/**
+	 * Resolves the first reference of the given set and applies the resolution
+	 * to all other references of the set.
+	 *
+	 * @param refs references sharing the same signature key
+	 * @throws CoreException if something bad happens
+	 */
+	private static void resolveReferenceSet(List<IReference> refs) throws CoreException {
+		IReference ref = refs.get(0);
+		((Reference) ref).resolve();
+		IApiMember resolved = ref.getResolvedReference();
+		if (resolved != null) {
+			for (IReference ref2 : refs) {
+				((Reference) ref2).setResolution(resolved);
 			}
 		}
 	}
@@ -0,0 +1,205 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.comparator;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.api.tools.internal.model.TypeContentIndex;
+import org.eclipse.pde.api.tools.internal.model.TypeContentIndex.TypeContent;
+import org.eclipse.pde.api.tools.internal.provisional.ApiDescriptionVisitor;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.IApiAnnotations;
+import org.eclipse.pde.api.tools.internal.provisional.IApiDescription;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IElementDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.descriptors.IReferenceTypeDescriptor;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
+import org.eclipse.pde.api.tools.internal.util.Signatures;
+import org.eclipse.pde.api.tools.internal.util.Util;
+
+/**
+ * Detects types that are identical in the two API components being compared,
+ * so that the comparison of their structure can be skipped.
+ * <p>
+ * The fingerprint of a type covers its class file, its API description, and
+ * the fingerprints of its member types and of its super types as resolved in
+ * the baseline of its component. Everything the {@link ClassFileComparator}
+ * looks at is part of it, so two types with the same fingerprint cannot have
+ * any delta. Fingerprints are remembered by an instance for the API components
+ * it was asked about, an instance is meant to be used for one comparison from a
+ * single thread.
+ * </p>
+ *
+ * @since 1.3.200
+ */
+public class TypeFingerprints {
+
+	/**
+	 * Marks types whose fingerprint cannot be computed, or is being computed
+	 */
+	private static final byte[] UNKNOWN = new byte[0];
+
+	private final TypeContentIndex fIndex = new TypeContentIndex();
+	private final Map<IApiComponent, Map<String, byte[]>> fFingerprints = new IdentityHashMap<>();
+
+	/**
+	 * Returns whether the given type of the reference component is identical to
+	 * the given type of the compared component, in which case comparing them
+	 * does not report any delta.
+	 *
+	 * @param typeRoot the type root from the reference component
+	 * @param component the reference component
+	 * @param typeRoot2 the type root with the same name from the compared
+	 *            component
+	 * @param component2 the compared component
+	 * @return <code>true</code> if the types are known to be identical,
+	 *         <code>false</code> if they have to be compared
+	 */
+	public boolean isUnchanged(IApiTypeRoot typeRoot, IApiComponent component, IApiTypeRoot typeRoot2, IApiComponent component2) {
+		try {
+			IReferenceTypeDescriptor descriptor = Util.getType(typeRoot.getTypeName());
+			if (component.getApiDescription().resolveAnnotations(descriptor) == null || component2.getApiDescription().resolveAnnotations(descriptor) == null) {
+				// the comparison reports such types depending on the
+				// visibility, let it decide
+				return false;
+			}
+			byte[] fingerprint = getFingerprint(component, typeRoot);
+			return fingerprint != null && Arrays.equals(fingerprint, getFingerprint(component2, typeRoot2));
+		} catch (CoreException e) {
+			if (ApiPlugin.DEBUG_API_COMPARATOR) {
+				ApiPlugin.log(e);
+			}
+			return false;
+		}
+	}
+
+	private byte[] getFingerprint(IApiComponent component, IApiTypeRoot typeRoot) throws CoreException {
+		Map<String, byte[]> fingerprints = fFingerprints.computeIfAbsent(component, c -> new HashMap<>());
+		String typeName = typeRoot.getTypeName();
+		byte[] fingerprint = fingerprints.get(typeName);
+		if (fingerprint != null) {
+			return fingerprint == UNKNOWN ? null : fingerprint;
+		}
+		// guards against cycles in broken hierarchies
+		fingerprints.put(typeName, UNKNOWN);
+		fingerprint = computeFingerprint(component, typeRoot);
+		if (fingerprint != null) {
+			fingerprints.put(typeName, fingerprint);
+		}
+		return fingerprint;
+	}
+
+	private byte[] computeFingerprint(IApiComponent component, IApiTypeRoot typeRoot) throws CoreException {
+		TypeContent content = fIndex.getContent(typeRoot);
+		if (content == null) {
+			return null;
+		}
+		MessageDigest digest = newDigest();
+		digest.update(content.digest());
+		IApiDescription apiDescription = component.getApiDescription();
+		IReferenceTypeDescriptor descriptor = Util.getType(typeRoot.getTypeName());
+		// the members are visited in the order they were added to the
+		// description, which depends on how it was built
+		List<String> members = new ArrayList<>();
+		apiDescription.accept(new ApiDescriptionVisitor() {
+			@Override
+			public boolean visitElement(IElementDescriptor element, IApiAnnotations annotations) {
+				members.add(describe(element, annotations));
+				return true;
+			}
+		}, descriptor, null);
+		Collections.sort(members);
+		StringBuilder description = new StringBuilder();
+		description.append(component.hasApiDescription());
+		description.append(describe(descriptor, apiDescription.resolveAnnotations(descriptor)));
+		for (String member : members) {
+			description.append(member);
+		}
+		digest.update(description.toString().getBytes(StandardCharsets.UTF_8));
+		IApiComponent typeComponent = typeRoot.getApiComponent();
+		for (String memberTypeName : content.memberTypeNames()) {
+			IApiTypeRoot memberType = typeComponent.findTypeRoot(memberTypeName);
+			byte[] fingerprint = memberType == null ? null : getFingerprint(component, memberType);
+			if (fingerprint == null) {
+				return null;
+			}
+			digest.update(fingerprint);
+		}
+		if (content.superclassName() != null && !updateSuperType(digest, typeComponent, content.superclassName())) {
+			return null;
+		}
+		for (String superInterfaceName : content.superInterfaceNames()) {
+			if (!updateSuperType(digest, typeComponent, superInterfaceName)) {
+				return null;
+			}
+		}
+		return digest.digest();
+	}
+
+	/**
+	 * Adds the fingerprint of the given super type, resolved the same way as
+	 * the super types of an API type, to the given digest.
+	 *
+	 * @return <code>false</code> if the super type cannot be resolved
+	 */
+	private boolean updateSuperType(MessageDigest digest, IApiComponent component, String typeName) throws CoreException {
+		IApiComponent[] providers = component.getBaseline().resolvePackage(component, Signatures.getPackageName(typeName));
+		if (providers == null || providers.length == 0) {
+			return false;
+		}
+		// system types are looked up in the library that matches the execution
+		// environment of the component, consider all candidates
+		boolean allProviders = typeName.startsWith("java.") && providers.length > 1; //$NON-NLS-1$
+		boolean resolved = false;
+		for (IApiComponent provider : providers) {
+			IApiTypeRoot superType = provider.findTypeRoot(typeName);
+			if (superType != null) {
+				byte[] fingerprint = getFingerprint(superType.getApiComponent(), superType);
+				if (fingerprint == null) {
+					return false;
+				}
+				digest.update(fingerprint);
+				resolved = true;
+				if (!allProviders) {
+					break;
+				}
+			}
+		}
+		return resolved;
+	}
+
+	private static String describe(IElementDescriptor element, IApiAnnotations annotations) {
+		if (annotations == null) {
+			return ';' + element.toString();
+		}
+		return ';' + element.toString() + '=' + annotations.getVisibility() + '/' + annotations.getRestrictions();
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+}
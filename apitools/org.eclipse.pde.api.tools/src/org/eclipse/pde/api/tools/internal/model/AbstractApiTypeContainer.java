@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -179,6 +179,7 @@ public abstract class AbstractApiTypeContainer extends ApiElement implements IAp
 		List<IApiTypeContainer> typeContainers = fApiTypeContainers;
 		if (typeContainers == null) {
 			synchronized (this) {
+				typeContainers = fApiTypeContainers;
 				if (typeContainers == null) {
 					typeContainers = createApiTypeContainers();
 					fApiTypeContainers = typeContainers;
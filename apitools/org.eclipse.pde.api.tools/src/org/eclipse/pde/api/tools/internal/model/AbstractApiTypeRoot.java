@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2019 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -30,7 +30,11 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
  */
 public abstract class AbstractApiTypeRoot extends ApiElement implements IApiTypeRoot {
 
-	private IApiType fType;
+	/**
+	 * The type structure, published once it is completely built as it may be
+	 * requested by several threads at once
+	 */
+	private volatile IApiType fType;
 
 	/**
 	 * Constructor
@@ -155,9 +155,9 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 	 */
 	private volatile Map<String, IApiComponent> fComponentsByProjectNames;
 	/**
-	 * Cache of system package names
+	 * Cache of system package names, only published once it is complete
 	 */
-	private HashSet<String> fSystemPackageNames = null;
+	private volatile Set<String> fSystemPackageNames = null;
 
 	/**
 	 * The VM install this baseline is bound to for system libraries or
@@ -329,10 +329,7 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 
 			}
 		}
-		if (fSystemPackageNames != null) {
-			fSystemPackageNames.clear();
-			fSystemPackageNames = null;
-		}
+		fSystemPackageNames = null;
 		clearComponentsCache();
 		// set new system library
 		SystemLibraryApiComponent fSystemLibraryComponent = new SystemLibraryApiComponent(this, description, systemPackages);
@@ -661,14 +658,16 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 		if (packageName.startsWith("java.")) { //$NON-NLS-1$
 			return true;
 		}
-		if (fSystemPackageNames == null) {
+		Set<String> systemPackageNames = fSystemPackageNames;
+		if (systemPackageNames == null) {
 			ExportPackageDescription[] systemPackages = getState().getSystemPackages();
-			fSystemPackageNames = new HashSet<>(systemPackages.length);
+			systemPackageNames = new HashSet<>(systemPackages.length);
 			for (ExportPackageDescription systemPackage : systemPackages) {
-				fSystemPackageNames.add(systemPackage.getName());
+				systemPackageNames.add(systemPackage.getName());
 			}
+			fSystemPackageNames = systemPackageNames;
 		}
-		return fSystemPackageNames.contains(packageName);
+		return systemPackageNames.contains(packageName);
 	}
 
 	/**
@@ -859,9 +858,7 @@ public class ApiBaseline extends ApiElement implements IApiBaseline, IVMInstallC
 			fComponentsByProjectNames.clear();
 			fComponentsByProjectNames = null;
 		}
-		if (fSystemPackageNames != null) {
-			fSystemPackageNames.clear();
-		}
+		fSystemPackageNames = null;
 		if (!fSystemLibraryComponentList.isEmpty()) {
 			for (IApiComponent iApiComponent : fSystemLibraryComponentList) {
 				iApiComponent.dispose();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2019 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,7 +24,8 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiComponent;
 import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
 
 /**
- * Manages the caches of {@link IApiElement}s
+ * Manages the caches of {@link IApiElement}s. The cache may be used by several
+ * threads at once, e.g. when references are resolved in parallel.
  *
  * @since 1.0.2
  */
@@ -106,7 +107,7 @@ public final class ApiModelCache {
 	 *             {@link IApiElement} info in order to cache it - pass the
 	 *             exception along.
 	 */
-	public void cacheElementInfo(IApiElement element) throws CoreException {
+	public synchronized void cacheElementInfo(IApiElement element) throws CoreException {
 		switch (element.getType()) {
 			case IApiElement.TYPE: {
 				if (fRootCache == null) {
@@ -207,7 +208,7 @@ public final class ApiModelCache {
 	 * @return the cached {@link IApiElement} or <code>null</code> if no such
 	 *         element is cached
 	 */
-	public IApiElement getElementInfo(String baselineid, String componentid, String identifier, int type) {
+	public synchronized IApiElement getElementInfo(String baselineid, String componentid, String identifier, int type) {
 		if (baselineid == null || componentid == null) {
 			return null;
 		}
@@ -283,7 +284,7 @@ public final class ApiModelCache {
 	 *
 	 * @return true if the element was removed, false otherwise
 	 */
-	public boolean removeElementInfo(String baselineid, String componentid, String identifier, int type) {
+	public synchronized boolean removeElementInfo(String baselineid, String componentid, String identifier, int type) {
 		if (baselineid == null) {
 			return false;
 		}
@@ -361,7 +362,7 @@ public final class ApiModelCache {
 	 *             {@link IApiElement} info in order to remove it from the cache
 	 *             - pass the exception along.
 	 */
-	public boolean removeElementInfo(IApiElement element) {
+	public synchronized boolean removeElementInfo(IApiElement element) {
 		if (element == null) {
 			return false;
 		}
@@ -398,7 +399,7 @@ public final class ApiModelCache {
 	/**
 	 * Clears out all cached information.
 	 */
-	public void flushCaches() {
+	public synchronized void flushCaches() {
 		if (fRootCache != null) {
 			fRootCache.flush();
 		}
@@ -419,7 +420,7 @@ public final class ApiModelCache {
 	 *
 	 * @return true if the cache has no entries, false otherwise
 	 */
-	public boolean isEmpty() {
+	public synchronized boolean isEmpty() {
 		boolean empty = true;
 		if (fRootCache != null) {
 			empty &= fRootCache.isEmpty();
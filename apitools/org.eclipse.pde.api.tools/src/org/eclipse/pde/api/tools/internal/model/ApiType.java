@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2018 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -83,17 +83,17 @@ public class ApiType extends ApiMember implements IApiType {
 	/**
 	 * Cached descriptor
 	 */
-	private IReferenceTypeDescriptor fHandle;
+	private volatile IReferenceTypeDescriptor fHandle;
 
 	/**
 	 * Cached superclass or <code>null</code>
 	 */
-	private IApiType fSuperclass;
+	private volatile IApiType fSuperclass;
 
 	/**
 	 * Cached super interfaces or <code>null</code>
 	 */
-	private IApiType[] fSuperInterfaces;
+	private volatile IApiType[] fSuperInterfaces;
 
 	/**
 	 * The storage this type structure originated from
@@ -128,12 +128,12 @@ public class ApiType extends ApiMember implements IApiType {
 	/**
 	 * cached enclosing type once it has been successfully calculated
 	 */
-	private IApiType fEnclosingType = null;
+	private volatile IApiType fEnclosingType = null;
 
 	/**
 	 * The method that encloses this type
 	 */
-	private IApiMethod fEnclosingMethod = null;
+	private volatile IApiMethod fEnclosingMethod = null;
 
 	/**
 	 * Creates an API type. Note that if an API component is not specified, then
@@ -293,6 +293,8 @@ public class ApiType extends ApiMember implements IApiType {
 		// If system package, then reorganize library component to consider the
 		// java EE of the component as the preferred library
 		if (qName.startsWith("java.") && components.length > 1) { //$NON-NLS-1$
+			// the array is cached by the baseline and shared with other threads
+			components = components.clone();
 			reOrganizeComponents(components);
 		}
 		IApiTypeRoot result = Util.getClassFile(components, qName);
@@ -439,7 +441,7 @@ public class ApiType extends ApiMember implements IApiType {
 	}
 
 	@Override
-	public IApiMethod getEnclosingMethod() {
+	public synchronized IApiMethod getEnclosingMethod() {
 		if (fEnclosingMethod == null) {
 			try {
 				IApiType enclosingType = getEnclosingType();
@@ -535,8 +537,13 @@ public class ApiType extends ApiMember implements IApiType {
 		if (getApiComponent() == null) {
 			requiresApiComponent();
 		}
-		if (fMemberTypes.containsKey(simpleName)) {
-			IApiTypeRoot file = fMemberTypes.get(simpleName);
+		IApiTypeRoot file;
+		// member types may be resolved by several threads at once
+		synchronized (fMemberTypes) {
+			if (!fMemberTypes.containsKey(simpleName)) {
+				return null;
+			}
+			file = fMemberTypes.get(simpleName);
 			if (file == null) {
 				// resolve
 				StringBuilder qName = new StringBuilder();
@@ -550,9 +557,8 @@ public class ApiType extends ApiMember implements IApiType {
 				}
 				fMemberTypes.put(simpleName, file);
 			}
-			return file.getStructure();
 		}
-		return null;
+		return file.getStructure();
 	}
 
 	@Override
@@ -560,11 +566,13 @@ public class ApiType extends ApiMember implements IApiType {
 		if (fMemberTypes == null) {
 			return EMPTY_TYPES;
 		}
-		IApiType[] members = new IApiType[fMemberTypes.size()];
-		int index = 0;
-		for (String name : fMemberTypes.keySet()) {
-			members[index] = getMemberType(name);
-			index++;
+		String[] names;
+		synchronized (fMemberTypes) {
+			names = fMemberTypes.keySet().toArray(String[]::new);
+		}
+		IApiType[] members = new IApiType[names.length];
+		for (int i = 0; i < names.length; i++) {
+			members[i] = getMemberType(names[i]);
 		}
 		return members;
 	}
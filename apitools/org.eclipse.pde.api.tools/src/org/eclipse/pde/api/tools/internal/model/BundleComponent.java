@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2021 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -286,6 +286,9 @@ public class BundleComponent extends Component {
 			return;
 		}
 		synchronized (this) {
+			if (isDisposed() || fBundleDescription != null) {
+				return;
+			}
 			try {
 				Map<String, String> manifest = getManifest();
 				if (manifest == null) {
@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.api.tools.internal.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.api.tools.internal.model.ArchiveApiTypeContainer.ArchiveApiTypeRoot;
+import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
+import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
+import org.eclipse.pde.api.tools.internal.util.Util;
+import org.eclipse.pde.internal.core.util.CacheFile;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+
+/**
+ * Index of the class file contents of {@link IApiTypeRoot}s. For each type it
+ * records a digest of the class file together with the names of its super
+ * types and member types, read from the class file without building the type
+ * structure.
+ * <p>
+ * The contents of types coming from archives are kept for the whole session
+ * and persisted with the API baselines, they are only reused as long as the
+ * size and modification time of the archive are unchanged. Only the
+ * most recently used archives are kept, up to a fixed number. The contents of
+ * other types are only remembered by the index instance that read them, which
+ * is meant to live for one comparison.
+ * </p>
+ *
+ * @since 1.3.200
+ */
+public final class TypeContentIndex {
+
+	/**
+	 * The content of one class file
+	 *
+	 * @param digest SHA-256 digest of the class file
+	 * @param superclassName qualified name of the super class or
+	 *            <code>null</code> if none
+	 * @param superInterfaceNames qualified names of the super interfaces
+	 * @param memberTypeNames qualified names of the member types
+	 */
+	public record TypeContent(byte[] digest, String superclassName, String[] superInterfaceNames, String[] memberTypeNames) {
+	}
+
+	/**
+	 * The contents of the types of an archive, along with the fingerprint of
+	 * the archive they were read from
+	 */
+	private record Archive(long size, long lastModified, Map<String, TypeContent> types) {
+
+		boolean matches(File file) {
+			return size == file.length() && lastModified == file.lastModified();
+		}
+	}
+
+	/** Marks the file format, "PDTI" */
+	private static final int MAGIC = 0x50445449;
+	/** Must be incremented whenever the file format changes */
+	private static final int FORMAT_VERSION = 1;
+
+	private static final String DIGEST_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+	private static final int DIGEST_LENGTH = 32;
+	private static final String[] NO_NAMES = new String[0];
+
+	/**
+	 * Maximum number of archives whose type contents are kept
+	 */
+	private static final int MAX_ARCHIVES = 1000;
+
+	/**
+	 * Archive locations to the contents of their types, in least recently used
+	 * order. All accesses must be synchronized on the map.
+	 */
+	private static final Map<String, Archive> fArchives = new LinkedHashMap<>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Archive> eldest) {
+			return size() > MAX_ARCHIVES;
+		}
+	};
+	private static final AtomicBoolean fDirty = new AtomicBoolean();
+
+	/**
+	 * Archive locations to the contents of their types, for the archives
+	 * already checked to be unchanged by this index
+	 */
+	private final Map<String, Map<String, TypeContent>> fCheckedArchives = new HashMap<>();
+
+	/**
+	 * Returns the content of the given type root.
+	 *
+	 * @param typeRoot the type root to get the content of
+	 * @return the content of the type root or <code>null</code> if it is not a
+	 *         readable class file
+	 * @throws CoreException if the class file cannot be read
+	 */
+	public TypeContent getContent(IApiTypeRoot typeRoot) throws CoreException {
+		if (typeRoot instanceof ArchiveApiTypeRoot archiveRoot && archiveRoot.getParent() instanceof ArchiveApiTypeContainer archive) {
+			Map<String, TypeContent> types = fCheckedArchives.computeIfAbsent(archive.fLocation, TypeContentIndex::getArchiveTypes);
+			String typeName = typeRoot.getTypeName();
+			TypeContent content = types.get(typeName);
+			if (content == null) {
+				content = read(archiveRoot.getContents());
+				if (content != null) {
+					types.put(typeName, content);
+					fDirty.set(true);
+				}
+			}
+			return content;
+		}
+		if (typeRoot instanceof AbstractApiTypeRoot root) {
+			return read(root.getContents());
+		}
+		return null;
+	}
+
+	private static Map<String, TypeContent> getArchiveTypes(String location) {
+		File file = new File(location);
+		synchronized (fArchives) {
+			Archive archive = fArchives.get(location);
+			if (archive == null || !archive.matches(file)) {
+				archive = new Archive(file.length(), file.lastModified(), new ConcurrentHashMap<>());
+				fArchives.put(location, archive);
+			}
+			return archive.types();
+		}
+	}
+
+	private static TypeContent read(byte[] contents) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new IllegalStateException(e);
+		}
+		try {
+			ClassReader reader = new ClassReader(contents);
+			String name = reader.getClassName();
+			List<String> members = new ArrayList<>();
+			reader.accept(new ClassVisitor(Util.LATEST_OPCODES_ASM) {
+				@Override
+				public void visitInnerClass(String innerClassName, String outerName, String innerName, int access) {
+					// same condition as the TypeStructureBuilder for real type
+					// members of this type
+					if (innerName != null && name.equals(outerName)) {
+						members.add(innerClassName.replace('/', '.'));
+					}
+				}
+			}, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+			String superName = reader.getSuperName();
+			String[] interfaces = reader.getInterfaces();
+			for (int i = 0; i < interfaces.length; i++) {
+				interfaces[i] = interfaces[i].replace('/', '.');
+			}
+			return new TypeContent(digest.digest(contents), superName == null ? null : superName.replace('/', '.'), interfaces, members.toArray(String[]::new));
+		} catch (RuntimeException e) {
+			// not a valid class file, the comparison reports it
+			return null;
+		}
+	}
+
+	/**
+	 * Loads the index persisted in the given file. Archives already read in
+	 * this session are kept. A missing or unreadable file is ignored.
+	 *
+	 * @param file the file the index was saved to
+	 */
+	public static void load(File file) {
+		try {
+			new CacheFile(file, MAGIC, FORMAT_VERSION).read(in -> {
+				int archiveCount = in.readInt();
+				for (int i = 0; i < archiveCount; i++) {
+					String location = in.readUTF();
+					long size = in.readLong();
+					long lastModified = in.readLong();
+					int typeCount = in.readInt();
+					Map<String, TypeContent> types = new ConcurrentHashMap<>(typeCount);
+					for (int j = 0; j < typeCount; j++) {
+						String typeName = in.readUTF();
+						byte[] digest = new byte[DIGEST_LENGTH];
+						in.readFully(digest);
+						String superclassName = in.readBoolean() ? in.readUTF() : null;
+						types.put(typeName, new TypeContent(digest, superclassName, readNames(in), readNames(in)));
+					}
+					synchronized (fArchives) {
+						fArchives.putIfAbsent(location, new Archive(size, lastModified, types));
+					}
+				}
+			});
+		} catch (IOException | RuntimeException e) {
+			// a corrupt or truncated index is simply rebuilt
+			fDirty.set(true);
+		}
+	}
+
+	/**
+	 * Saves the index to the given file if the contents of any archive were
+	 * read since it was loaded or last saved. Archives that no longer exist are
+	 * dropped.
+	 *
+	 * @param file the file to save the index to
+	 */
+	public static synchronized void save(File file) {
+		if (!fDirty.getAndSet(false)) {
+			return;
+		}
+		Map<String, Archive> archives;
+		synchronized (fArchives) {
+			fArchives.keySet().removeIf(location -> !new File(location).exists());
+			archives = new LinkedHashMap<>(fArchives);
+		}
+		try {
+			new CacheFile(file, MAGIC, FORMAT_VERSION).write(out -> {
+				out.writeInt(archives.size());
+				for (Map.Entry<String, Archive> entry : archives.entrySet()) {
+					Archive archive = entry.getValue();
+					Map<String, TypeContent> types = new HashMap<>(archive.types());
+					out.writeUTF(entry.getKey());
+					out.writeLong(archive.size());
+					out.writeLong(archive.lastModified());
+					out.writeInt(types.size());
+					for (Map.Entry<String, TypeContent> type : types.entrySet()) {
+						TypeContent content = type.getValue();
+						out.writeUTF(type.getKey());
+						out.write(content.digest());
+						out.writeBoolean(content.superclassName() != null);
+						if (content.superclassName() != null) {
+							out.writeUTF(content.superclassName());
+						}
+						writeNames(out, content.superInterfaceNames());
+						writeNames(out, content.memberTypeNames());
+					}
+				}
+			});
+		} catch (IOException e) {
+			ApiPlugin.log(e);
+		}
+	}
+
+	private static void writeNames(DataOutputStream out, String[] names) throws IOException {
+		out.writeInt(names.length);
+		for (String name : names) {
+			out.writeUTF(name);
+		}
+	}
+
+	private static String[] readNames(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length == 0) {
+			return NO_NAMES;
+		}
+		String[] names = new String[length];
+		for (int i = 0; i < length; i++) {
+			names[i] = in.readUTF();
+		}
+		return names;
+	}
+}
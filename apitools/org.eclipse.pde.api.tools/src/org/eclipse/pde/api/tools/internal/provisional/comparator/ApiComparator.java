@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2019 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,17 +13,26 @@
  *******************************************************************************/
 package org.eclipse.pde.api.tools.internal.provisional.comparator;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.jdt.core.Flags;
 import org.eclipse.pde.api.tools.internal.builder.AbstractProblemDetector;
 import org.eclipse.pde.api.tools.internal.comparator.ClassFileComparator;
 import org.eclipse.pde.api.tools.internal.comparator.Delta;
+import org.eclipse.pde.api.tools.internal.comparator.TypeFingerprints;
 import org.eclipse.pde.api.tools.internal.provisional.ApiPlugin;
 import org.eclipse.pde.api.tools.internal.provisional.IApiAnnotations;
 import org.eclipse.pde.api.tools.internal.provisional.IApiDescription;
@@ -52,6 +61,42 @@ public class ApiComparator {
 	 */
 	public static final IDelta NO_DELTA = new Delta();
 
+	/**
+	 * Number of API components compared concurrently by
+	 * {@link #compare(IApiBaseline, IApiBaseline, int, boolean, IProgressMonitor)},
+	 * specify VM property:
+	 * {@code -Dorg.eclipse.pde.api.tools.comparatorParallelism=<n>} to compare
+	 * <code>n</code> components at a time. Defaults to <code>1</code>.
+	 * <p>
+	 * Each comparison only writes to its own deltas and type fingerprints. It
+	 * reads the API descriptions and type containers of the two compared
+	 * components, and the type structures, super types and member types that
+	 * {@link IApiBaseline#resolvePackage(IApiComponent, String)} finds in
+	 * other components. These are shared between concurrent comparisons, and
+	 * all of them are created lazily but only published once complete or
+	 * guarded by their owner, so every comparison sees the same model as on a
+	 * single thread.
+	 * </p>
+	 */
+	private static final int COMPARE_PARALLELISM = Integer.getInteger("org.eclipse.pde.api.tools.comparatorParallelism", 1).intValue(); //$NON-NLS-1$
+
+	/**
+	 * VM property enabling the skip of types whose class files, API
+	 * descriptions, member types and super types are identical in both
+	 * components, without building their structure. Specify
+	 * {@code -Dorg.eclipse.pde.api.tools.skipUnchangedTypes=true} to enable it,
+	 * by default all types are compared. The property is read for every
+	 * comparison of two components.
+	 */
+	private static final String SKIP_UNCHANGED_TYPES = "org.eclipse.pde.api.tools.skipUnchangedTypes"; //$NON-NLS-1$
+
+	/**
+	 * The deltas of one API component of a baseline to baseline comparison, in
+	 * the order they are added to the global delta
+	 */
+	private record ComponentDeltas(IDelta versionDelta, IDelta delta) {
+	}
+
 	/**
 	 * Returns a delta for a API component version change
 	 *
@@ -104,6 +149,31 @@ public class ApiComparator {
 	 * @throws IllegalArgumentException if one of the two baselines is null
 	 */
 	public static IDelta compare(final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final boolean force, final IProgressMonitor monitor) {
+		return compare(referenceBaseline, baseline, visibilityModifiers, force, COMPARE_PARALLELISM, monitor);
+	}
+
+	/**
+	 * Returns a delta that corresponds to the difference between the given
+	 * baseline and the reference, comparing up to <code>parallelism</code> API
+	 * components concurrently. The deltas of the components are merged in the
+	 * order of the reference baseline components, so the result does not
+	 * depend on the parallelism.
+	 *
+	 * @param referenceBaseline the given API baseline which is used as the
+	 *            reference
+	 * @param baseline the given API baseline to compare with
+	 * @param visibilityModifiers the given visibility that triggers what
+	 *            visibility should be used for the comparison
+	 * @param force a flag to force the comparison of nested API components with
+	 *            the same versions
+	 * @param parallelism the number of API components to compare concurrently
+	 * @param monitor
+	 *
+	 * @return a delta, an empty delta if no difference is found or null if the
+	 *         delta detection failed
+	 * @throws IllegalArgumentException if one of the two baselines is null
+	 */
+	public static IDelta compare(final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final boolean force, final int parallelism, final IProgressMonitor monitor) {
 		SubMonitor localmonitor = SubMonitor.convert(monitor, 2);
 		if (referenceBaseline == null || baseline == null) {
 			throw new IllegalArgumentException("None of the baselines must be null"); //$NON-NLS-1$
@@ -113,41 +183,56 @@ public class ApiComparator {
 		Set<String> apiComponentsIds = new HashSet<>();
 		final Delta globalDelta = new Delta();
 		SubMonitor apiLoopMonitor = localmonitor.split(1).setWorkRemaining(apiComponents.length);
-		for (IApiComponent apiComponentMainLoop : apiComponents) {
-			apiLoopMonitor.split(1);
-			IApiComponent apiComponent = apiComponentMainLoop;
-			if (!apiComponent.isSystemComponent()) {
-				String id = apiComponent.getSymbolicName();
-				IApiComponent apiComponentBaseline = baseline.getApiComponent(id);
-				IDelta delta = null;
-				if (apiComponentBaseline == null) {
-					// report removal of an API component
-					delta = new Delta(null, IDelta.API_BASELINE_ELEMENT_TYPE, IDelta.REMOVED, IDelta.API_COMPONENT,
-							null, id, id);
-				} else {
-					apiComponentsIds.add(id);
-					String versionString = apiComponent.getVersion();
-					String versionString2 = apiComponentBaseline.getVersion();
-					IDelta bundleVersionChangesDelta = checkBundleVersionChanges(apiComponentBaseline, id,
-							versionString, versionString2);
-					if (bundleVersionChangesDelta != null) {
-						globalDelta.add(bundleVersionChangesDelta);
-					}
-					if (!versionString.equals(versionString2) || force) {
-						long time = System.currentTimeMillis();
-						try {
-							delta = compare(apiComponent, apiComponentBaseline, referenceBaseline, baseline,
-									visibilityModifiers, localmonitor.split(1));
-						} finally {
-							if (ApiPlugin.DEBUG_API_COMPARATOR) {
-								System.out.println("Time spent for " + id + " " + versionString + " : " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-										+ (System.currentTimeMillis() - time) + "ms"); //$NON-NLS-1$
-							}
+		if (parallelism > 1) {
+			ExecutorService executor = Executors.newFixedThreadPool(parallelism, r -> {
+				Thread thread = new Thread(r, "API component comparator"); //$NON-NLS-1$
+				thread.setDaemon(true);
+				return thread;
+			});
+			IProgressMonitor cancelMonitor = new NullProgressMonitor() {
+				@Override
+				public boolean isCanceled() {
+					return super.isCanceled() || localmonitor.isCanceled();
+				}
+			};
+			try {
+				List<Future<ComponentDeltas>> comparisons = new ArrayList<>(apiComponents.length);
+				for (IApiComponent apiComponent : apiComponents) {
+					if (!apiComponent.isSystemComponent()) {
+						if (baseline.getApiComponent(apiComponent.getSymbolicName()) != null) {
+							apiComponentsIds.add(apiComponent.getSymbolicName());
 						}
+						comparisons.add(executor.submit(() -> compareComponent(apiComponent, referenceBaseline,
+								baseline, visibilityModifiers, force, SubMonitor.convert(cancelMonitor))));
 					}
 				}
-				if (delta != null && delta != NO_DELTA) {
-					globalDelta.add(delta);
+				for (Future<ComponentDeltas> comparison : comparisons) {
+					apiLoopMonitor.split(1);
+					addComponentDeltas(globalDelta, comparison.get());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException runtimeException) {
+					throw runtimeException;
+				}
+				if (e.getCause() instanceof Error error) {
+					throw error;
+				}
+				throw new IllegalStateException(e.getCause());
+			} finally {
+				executor.shutdownNow();
+			}
+		} else {
+			for (IApiComponent apiComponent : apiComponents) {
+				apiLoopMonitor.split(1);
+				if (!apiComponent.isSystemComponent()) {
+					if (baseline.getApiComponent(apiComponent.getSymbolicName()) != null) {
+						apiComponentsIds.add(apiComponent.getSymbolicName());
+					}
+					addComponentDeltas(globalDelta, compareComponent(apiComponent, referenceBaseline, baseline,
+							visibilityModifiers, force, localmonitor));
 				}
 			}
 		}
@@ -167,6 +252,50 @@ public class ApiComparator {
 		return globalDelta.isEmpty() ? NO_DELTA : globalDelta;
 	}
 
+	/**
+	 * Compares the given component of the reference baseline with the
+	 * component of the same name in the given baseline. One unit of work of the
+	 * given monitor is consumed if the components are actually compared.
+	 *
+	 * @return the deltas to add to the global delta, never <code>null</code>
+	 */
+	private static ComponentDeltas compareComponent(IApiComponent apiComponent, IApiBaseline referenceBaseline, IApiBaseline baseline, int visibilityModifiers, boolean force, SubMonitor monitor) {
+		String id = apiComponent.getSymbolicName();
+		IApiComponent apiComponentBaseline = baseline.getApiComponent(id);
+		if (apiComponentBaseline == null) {
+			// report removal of an API component
+			return new ComponentDeltas(null, new Delta(null, IDelta.API_BASELINE_ELEMENT_TYPE, IDelta.REMOVED,
+					IDelta.API_COMPONENT, null, id, id));
+		}
+		String versionString = apiComponent.getVersion();
+		String versionString2 = apiComponentBaseline.getVersion();
+		IDelta bundleVersionChangesDelta = checkBundleVersionChanges(apiComponentBaseline, id, versionString,
+				versionString2);
+		IDelta delta = null;
+		if (!versionString.equals(versionString2) || force) {
+			long time = System.currentTimeMillis();
+			try {
+				delta = compare(apiComponent, apiComponentBaseline, referenceBaseline, baseline, visibilityModifiers,
+						monitor.split(1));
+			} finally {
+				if (ApiPlugin.DEBUG_API_COMPARATOR) {
+					System.out.println("Time spent for " + id + " " + versionString + " : " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+							+ (System.currentTimeMillis() - time) + "ms"); //$NON-NLS-1$
+				}
+			}
+		}
+		return new ComponentDeltas(bundleVersionChangesDelta, delta);
+	}
+
+	private static void addComponentDeltas(Delta globalDelta, ComponentDeltas deltas) {
+		if (deltas.versionDelta() != null) {
+			globalDelta.add(deltas.versionDelta());
+		}
+		if (deltas.delta() != null && deltas.delta() != NO_DELTA) {
+			globalDelta.add(deltas.delta());
+		}
+	}
+
 	/**
 	 * Returns a delta that corresponds to the difference between the given
 	 * component and the reference baseline.
@@ -633,6 +762,8 @@ public class ApiComparator {
 	 */
 	private static IDelta internalCompare(final IApiComponent component, final IApiComponent component2, final IApiBaseline referenceBaseline, final IApiBaseline baseline, final int visibilityModifiers, final Delta globalDelta, final IProgressMonitor monitor) throws CoreException {
 		final Set<String> typeRootBaseLineNames = new HashSet<>();
+		final Set<String> unchangedTypeNames = new HashSet<>();
+		final TypeFingerprints fingerprints = Boolean.getBoolean(SKIP_UNCHANGED_TYPES) ? new TypeFingerprints() : null;
 		final String id = component.getSymbolicName();
 		IApiTypeContainer[] typeRootContainers = null;
 		IApiTypeContainer[] typeRootContainers2 = null;
@@ -658,6 +789,18 @@ public class ApiComparator {
 							SubMonitor visitMonitor = iterationMonitor.setWorkRemaining(50).split(1).setWorkRemaining(2);
 							String typeName = typeRoot.getTypeName();
 							try {
+								IApiTypeRoot typeRoot2 = null;
+								if (isSWT) {
+									typeRoot2 = component2.findTypeRoot(typeName);
+								} else {
+									typeRoot2 = component2.findTypeRoot(typeName, id);
+								}
+								if (typeRoot2 != null && fingerprints != null && fingerprints.isUnchanged(typeRoot, component, typeRoot2, component2)) {
+									// nothing to report, whether the type is
+									// nested or filtered out or not
+									unchangedTypeNames.add(typeName);
+									return;
+								}
 								IApiType typeDescriptor = typeRoot.getStructure();
 								IApiAnnotations elementDescription = apiDescription.resolveAnnotations(typeDescriptor.getHandle());
 								if (typeDescriptor.isMemberType() || typeDescriptor.isAnonymous() || typeDescriptor.isLocal()) {
@@ -669,12 +812,6 @@ public class ApiComparator {
 								if (elementDescription != null) {
 									visibility = elementDescription.getVisibility();
 								}
-								IApiTypeRoot typeRoot2 = null;
-								if (isSWT) {
-									typeRoot2 = component2.findTypeRoot(typeName);
-								} else {
-									typeRoot2 = component2.findTypeRoot(typeName, id);
-								}
 								IApiComponent provider = null;
 								IApiDescription providerApiDesc = null;
 								boolean reexported = false;
@@ -929,6 +1066,10 @@ public class ApiComparator {
 						public void visit(String packageName, IApiTypeRoot typeRoot) {
 							iterationMonitor.setWorkRemaining(50).split(1);
 							String typeName = typeRoot.getTypeName();
+							if (unchangedTypeNames.contains(typeName)) {
+								// identical to the reference type
+								return;
+							}
 							try {
 								IApiType type = typeRoot.getStructure();
 								IApiAnnotations elementDescription = apiDescription2.resolveAnnotations(type.getHandle());
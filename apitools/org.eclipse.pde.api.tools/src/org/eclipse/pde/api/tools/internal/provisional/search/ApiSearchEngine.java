@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,11 +18,19 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.pde.api.tools.internal.AntFilterStore;
@@ -41,7 +49,13 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiTypeRoot;
 import org.eclipse.pde.api.tools.internal.search.SearchMessages;
 
 /**
- * Engine used to search for API use
+ * Engine used to search for API use.
+ * <p>
+ * References are handed to the {@link IApiSearchReporter} in batches while
+ * they are found, so the memory used by a search does not depend on the size
+ * of the scope. An engine created with a parallelism greater than one searches
+ * several scope elements concurrently.
+ * </p>
  *
  * @since 1.0.0
  */
@@ -123,6 +137,31 @@ public final class ApiSearchEngine {
 	 */
 	private String fRequestorContext = null;
 
+	/**
+	 * The number of scope elements searched concurrently
+	 */
+	private final int fParallelism;
+
+	/**
+	 * Constructor, the scope elements are searched one after the other
+	 */
+	public ApiSearchEngine() {
+		this(1);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param parallelism the number of scope elements to search concurrently.
+	 *            If greater than one the requestor and the reporter passed to
+	 *            {@link #search(IApiBaseline, IApiSearchRequestor, IApiSearchReporter, IProgressMonitor)}
+	 *            are called from several threads. All calls for one scope
+	 *            element are made from the same thread.
+	 */
+	public ApiSearchEngine(int parallelism) {
+		fParallelism = Math.max(1, parallelism);
+	}
+
 	/**
 	 * Returns the set of resolved references for the given {@link IApiType}
 	 *
@@ -256,7 +295,9 @@ public final class ApiSearchEngine {
 		if (scope == null) {
 			return;
 		}
-		AntFilterStore.filteredAPIProblems.clear();
+		synchronized (AntFilterStore.class) {
+			AntFilterStore.filteredAPIProblems.clear();
+		}
 		fRequestorContext = computeContext(requestor);
 		IApiElement[] scopeelements = scope.getApiElements();
 		SubMonitor localmonitor = SubMonitor.convert(monitor, MessageFormat.format(SearchMessages.ApiSearchEngine_searching_projects, fRequestorContext), scopeelements.length * 2 + 1);
@@ -264,31 +305,40 @@ public final class ApiSearchEngine {
 		long loopstart = 0;
 		String taskname = null;
 		MultiStatus mstatus = null;
-		for (int i = 0; i < scopeelements.length; i++) {
-			try {
-				taskname = MessageFormat.format(SearchMessages.ApiSearchEngine_searching_project,
-						scopeelements[i].getApiComponent().getSymbolicName(), fRequestorContext);
-				localmonitor.setTaskName(taskname);
-				if (ApiPlugin.DEBUG_SEARCH_ENGINE) {
-					loopstart = System.currentTimeMillis();
-					System.out.println("Searching " + scopeelements[i].getApiComponent().getSymbolicName() + "..."); //$NON-NLS-1$ //$NON-NLS-2$
-				}
-				searchReferences(requestor, scopeelements[i], reporter, localmonitor.split(1));
-				localmonitor.setTaskName(taskname);
-				if (localmonitor.isCanceled()) {
-					reporter.reportResults(scopeelements[i], NO_REFERENCES);
-					return;
-				}
-				localmonitor.worked(1);
-				if (ApiPlugin.DEBUG_SEARCH_ENGINE) {
-					System.out.println(Math.round((((float) (i + 1)) / scopeelements.length) * 100) + "% done in " //$NON-NLS-1$
-							+ (System.currentTimeMillis() - loopstart) + " ms"); //$NON-NLS-1$
-				}
-			} catch (CoreException ce) {
-				if (mstatus == null) {
-					mstatus = new MultiStatus(ApiPlugin.PLUGIN_ID, IStatus.ERROR, null, null);
+		if (fParallelism > 1 && scopeelements.length > 1) {
+			mstatus = searchConcurrently(requestor, scopeelements, reporter, localmonitor);
+			if (localmonitor.isCanceled()) {
+				return;
+			}
+		} else {
+			for (int i = 0; i < scopeelements.length; i++) {
+				try {
+					taskname = MessageFormat.format(SearchMessages.ApiSearchEngine_searching_project,
+							scopeelements[i].getApiComponent().getSymbolicName(), fRequestorContext);
+					localmonitor.setTaskName(taskname);
+					if (ApiPlugin.DEBUG_SEARCH_ENGINE) {
+						loopstart = System.currentTimeMillis();
+						System.out.println("Searching " + scopeelements[i].getApiComponent().getSymbolicName() + "..."); //$NON-NLS-1$ //$NON-NLS-2$
+					}
+					searchReferences(requestor, scopeelements[i], reporter, localmonitor.split(1));
+					localmonitor.setTaskName(taskname);
+					if (localmonitor.isCanceled()) {
+						reporter.reportResults(scopeelements[i], NO_REFERENCES);
+						return;
+					}
+					localmonitor.worked(1);
+					if (ApiPlugin.DEBUG_SEARCH_ENGINE) {
+						System.out.println(Math.round((((float) (i + 1)) / scopeelements.length) * 100) + "% done in " //$NON-NLS-1$
+								+ (System.currentTimeMillis() - loopstart) + " ms"); //$NON-NLS-1$
+					}
+				} catch (CoreException ce) {
+					if (mstatus == null) {
+						mstatus = new MultiStatus(ApiPlugin.PLUGIN_ID, IStatus.ERROR, null, null);
+					}
+					mstatus.add(Status.error(ce.getMessage(), ce));
+				} finally {
+					reporter.endReporting(scopeelements[i]);
 				}
-				mstatus.add(Status.error(ce.getMessage(), ce));
 			}
 		}
 		if (ApiPlugin.DEBUG_SEARCH_ENGINE) {
@@ -299,6 +349,98 @@ public final class ApiSearchEngine {
 		}
 	}
 
+	/**
+	 * Searches the given scope elements on {@link #fParallelism} threads. The
+	 * progress is reported on the calling thread, in the order of the scope
+	 * elements.
+	 *
+	 * @param requestor the requestor to use for the search
+	 * @param scopeelements the elements to search
+	 * @param reporter the reporter to use when reporting search results
+	 * @param monitor the monitor to report progress to
+	 * @return the status of the failed searches or <code>null</code> if none
+	 *         failed
+	 */
+	private MultiStatus searchConcurrently(IApiSearchRequestor requestor, IApiElement[] scopeelements, IApiSearchReporter reporter, SubMonitor monitor) {
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(fParallelism, scopeelements.length), r -> {
+			Thread thread = new Thread(r, "API use search"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		IProgressMonitor cancelMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return super.isCanceled() || monitor.isCanceled();
+			}
+		};
+		MultiStatus mstatus = null;
+		try {
+			List<Future<?>> searches = new ArrayList<>(scopeelements.length);
+			for (IApiElement element : scopeelements) {
+				searches.add(executor.submit(() -> {
+					long loopstart = System.currentTimeMillis();
+					try {
+						searchReferences(requestor, element, reporter, cancelMonitor);
+					} finally {
+						reporter.endReporting(element);
+					}
+					if (ApiPlugin.DEBUG_SEARCH_ENGINE) {
+						System.out.println("Searched " + element.getApiComponent().getSymbolicName() + " in " //$NON-NLS-1$ //$NON-NLS-2$
+								+ (System.currentTimeMillis() - loopstart) + " ms"); //$NON-NLS-1$
+					}
+					return null;
+				}));
+			}
+			for (int i = 0; i < scopeelements.length; i++) {
+				monitor.setTaskName(MessageFormat.format(SearchMessages.ApiSearchEngine_searching_project,
+						scopeelements[i].getApiComponent().getSymbolicName(), fRequestorContext));
+				Throwable failure = awaitSearch(searches.get(i), monitor);
+				if (failure != null) {
+					if (mstatus == null) {
+						mstatus = new MultiStatus(ApiPlugin.PLUGIN_ID, IStatus.ERROR, null, null);
+					}
+					mstatus.add(Status.error(failure.getMessage(), failure));
+				}
+				monitor.worked(2);
+			}
+		} catch (OperationCanceledException e) {
+			// the caller checks the monitor
+		} finally {
+			executor.shutdownNow();
+		}
+		return mstatus;
+	}
+
+	/**
+	 * Waits for the given search to complete
+	 *
+	 * @return the exception the search failed with or <code>null</code>
+	 * @throws OperationCanceledException if the monitor is canceled while
+	 *             waiting
+	 */
+	private static Throwable awaitSearch(Future<?> search, IProgressMonitor monitor) {
+		while (true) {
+			if (monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			try {
+				search.get(100, TimeUnit.MILLISECONDS);
+				return null;
+			} catch (TimeoutException e) {
+				// check for cancellation and wait again
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof OperationCanceledException canceled) {
+					throw canceled;
+				}
+				return cause;
+			}
+		}
+	}
+
 	/**
 	 * Computes the process context (label)
 	 *
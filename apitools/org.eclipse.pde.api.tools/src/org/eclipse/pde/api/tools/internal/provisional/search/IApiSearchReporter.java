@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2011 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,7 +18,9 @@ import org.eclipse.pde.api.tools.internal.provisional.model.IApiElement;
 
 /**
  * Describes a reporter called out to by the {@link ApiSearchEngine} when a
- * pre-determined set of results have been collected.
+ * pre-determined set of results have been collected. Reporters used with an
+ * engine searching concurrently must be thread safe, results of different
+ * elements may be reported at the same time.
  *
  * @since 1.0.0
  */
@@ -33,6 +35,17 @@ public interface IApiSearchReporter {
 	 */
 	public void reportResults(IApiElement element, final IReference[] references);
 
+	/**
+	 * Notifies the reporter that all results of the given element have been
+	 * reported. Reporters buffering results can write them out now. Does
+	 * nothing by default.
+	 *
+	 * @param element the element that was searched
+	 */
+	public default void endReporting(IApiElement element) {
+		// nothing to do
+	}
+
 	/**
 	 * Reports the current listing of objects that were not searched for
 	 * whatever reason.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -63,9 +63,10 @@ public class UseSearchRequestor implements IApiSearchRequestor {
 
 	/**
 	 * The current {@link IApiFilterStore} from the current
-	 * {@link IApiComponent} context we are visiting.
+	 * {@link IApiComponent} context we are visiting. Kept per thread as the
+	 * {@link ApiSearchEngine} may visit several components concurrently.
 	 */
-	private IApiFilterStore currentStore = null;
+	private final ThreadLocal<IApiFilterStore> currentStore = new ThreadLocal<>();
 
 	/**
 	 * The current {@link IApiFilterStore} for the current {@link IApiComponent}
@@ -73,7 +74,7 @@ public class UseSearchRequestor implements IApiSearchRequestor {
 	 * each component's filter file in the root filter location
 	 * {@link #antFilterRoot}.
 	 */
-	private IApiFilterStore antStore = null;
+	private final ThreadLocal<IApiFilterStore> antStore = new ThreadLocal<>();
 
 	/**
 	 * The root directory of the .api_filters files that should be used to
@@ -112,11 +113,13 @@ public class UseSearchRequestor implements IApiSearchRequestor {
 	private String[] jarPatterns = null;
 
 	/**
-	 * The default {@link ReferenceAnalyzer} for detecting illegal API use
+	 * The default {@link ReferenceAnalyzer} for detecting illegal API use,
+	 * holding the problem detectors of the component visited by the current
+	 * thread
 	 *
 	 * @see #includesIllegalUse()
 	 */
-	ReferenceAnalyzer fAnalyzer = null;
+	final ThreadLocal<ReferenceAnalyzer> fAnalyzer = ThreadLocal.withInitial(ReferenceAnalyzer::new);
 
 	/**
 	 * Constructor
@@ -135,7 +138,6 @@ public class UseSearchRequestor implements IApiSearchRequestor {
 	public UseSearchRequestor(Set<String> elementnames, IApiElement[] scope, int searchkinds) {
 		fSearchMask = searchkinds;
 		fComponentIds = elementnames;
-		fAnalyzer = new ReferenceAnalyzer();
 		prepareScope(scope);
 	}
 
@@ -144,16 +146,16 @@ public class UseSearchRequestor implements IApiSearchRequestor {
 		try {
 			if (!component.isSystemComponent() && getScope().encloses(component)) {
 				if (includesIllegalUse()) {
-					fAnalyzer.buildProblemDetectors(component, ProblemDetectorBuilder.K_USE, null);
+					fAnalyzer.get().buildProblemDetectors(component, ProblemDetectorBuilder.K_USE, null);
 				}
-				currentStore = component.getFilterStore();
-				antStore = antFilterRoot != null ? new AntFilterStore(antFilterRoot, component.getSymbolicName()) : null;
+				currentStore.set(component.getFilterStore());
+				antStore.set(antFilterRoot != null ? new AntFilterStore(antFilterRoot, component.getSymbolicName()) : null);
 				return true;
 			}
 		} catch (CoreException ce) {
 			// do nothing, return false
 		}
-		currentStore = null;
+		currentStore.remove();
 		return false;
 	}
 
@@ -235,7 +237,7 @@ public class UseSearchRequestor implements IApiSearchRequestor {
 	 * @since 1.1
 	 */
 	boolean isIllegalUse(IReference reference, IProgressMonitor monitor) {
-		IApiProblemDetector[] detectors = fAnalyzer.getProblemDetectors(reference.getReferenceKind());
+		IApiProblemDetector[] detectors = fAnalyzer.get().getProblemDetectors(reference.getReferenceKind());
 		for (IApiProblemDetector detector : detectors) {
 			if (monitor.isCanceled()) {
 				break;
@@ -267,7 +269,9 @@ public class UseSearchRequestor implements IApiSearchRequestor {
 	 * @return <code>true</code> is filtered, false otherwise
 	 */
 	boolean isFiltered(IApiProblem problem) {
-		return (currentStore != null && currentStore.isFiltered(problem)) || (antStore != null && antStore.isFiltered(problem));
+		IApiFilterStore store = currentStore.get();
+		IApiFilterStore filterStore = antStore.get();
+		return (store != null && store.isFiltered(problem)) || (filterStore != null && filterStore.isFiltered(problem));
 	}
 
 	@Override
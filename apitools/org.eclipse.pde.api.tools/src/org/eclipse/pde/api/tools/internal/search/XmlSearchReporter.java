@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,9 +19,16 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.FactoryConfigurationError;
@@ -44,7 +51,11 @@ import org.w3c.dom.Element;
 import org.xml.sax.helpers.DefaultHandler;
 
 /**
- * Search reporter that outputs results to an XML file
+ * Search reporter that outputs results to an XML file. The references reported
+ * for an element are written out once the element has been searched, or
+ * earlier whenever {@link #DEFAULT_FLUSH_THRESHOLD} of them are pending, so
+ * that the XML files are not read and written for every batch of results. All
+ * files are written by a single writer thread. This reporter is thread safe.
  *
  * @since 1.0.1
  */
@@ -53,9 +64,29 @@ public class XmlSearchReporter implements IApiSearchReporter {
 	private String fLocation = null;
 	private DocumentBuilder parser = null;
 	private boolean debug = false;
-	private int referenceCount = 0;
-	private int illegalCount = 0;
-	private int internalCount = 0;
+	private final AtomicInteger referenceCount = new AtomicInteger();
+	private final AtomicInteger illegalCount = new AtomicInteger();
+	private final AtomicInteger internalCount = new AtomicInteger();
+
+	/**
+	 * Number of pending descriptors of an element from which they are written
+	 * out before the element has been searched completely
+	 */
+	public static final int DEFAULT_FLUSH_THRESHOLD = 10000;
+
+	private final int fFlushThreshold;
+
+	/**
+	 * The descriptors reported for the elements being searched and not written
+	 * out yet
+	 */
+	private final Map<IApiElement, Set<IReferenceDescriptor>> fPendingDescriptors = new ConcurrentHashMap<>();
+
+	/**
+	 * Writes all XML files, elements of the same component share files. The
+	 * thread ends once it is idle.
+	 */
+	private final ThreadPoolExecutor fWriter;
 
 	/**
 	 * Constructor
@@ -64,10 +95,31 @@ public class XmlSearchReporter implements IApiSearchReporter {
 	 *            to write the reports to
 	 * @param debug if debugging infos should be written out to the console
 	 */
-	@SuppressWarnings("restriction")
 	public XmlSearchReporter(String location, boolean debug) {
+		this(location, debug, DEFAULT_FLUSH_THRESHOLD);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param location the absolute path in the local file system to the folder
+	 *            to write the reports to
+	 * @param debug if debugging infos should be written out to the console
+	 * @param flushThreshold the number of pending references of an element
+	 *            from which they are written out before the element has been
+	 *            searched completely
+	 */
+	@SuppressWarnings("restriction")
+	public XmlSearchReporter(String location, boolean debug, int flushThreshold) {
 		fLocation = location;
 		this.debug = debug;
+		fFlushThreshold = Math.max(1, flushThreshold);
+		fWriter = new ThreadPoolExecutor(1, 1, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+			Thread thread = new Thread(r, "API use scan report writer"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		fWriter.allowCoreThreadTimeOut(true);
 		try {
 			parser = org.eclipse.core.internal.runtime.XmlProcessorFactory.createDocumentBuilderWithErrorOnDOCTYPE();
 			parser.setErrorHandler(new DefaultHandler());
@@ -83,38 +135,76 @@ public class XmlSearchReporter implements IApiSearchReporter {
 			// references
 			return;
 		}
-		// Use a hashset for counting to remove any duplicate references that
-		// the writer would remove
-		HashSet<IReferenceDescriptor> writtenReferences = new HashSet<>();
-		XmlReferenceDescriptorWriter writer = new XmlReferenceDescriptorWriter(fLocation);
-		List<IReferenceDescriptor> descriptors = new ArrayList<>(references.length + 1);
+		// Use a set for counting to remove any duplicate references that
+		// the writer would remove. Only the duplicates within this batch are
+		// not counted, whatever other batches of the element are pending.
+		Set<IReferenceDescriptor> batch = new LinkedHashSet<>();
 		for (IReference referenceInterface : references) {
 			Reference reference = (Reference) referenceInterface;
 			try {
 				IReferenceDescriptor descriptor = reference.getReferenceDescriptor();
-				descriptors.add(descriptor);
-
 				// Update counters
-				if (!writtenReferences.contains(descriptor)) {
-					referenceCount++;
+				if (batch.add(descriptor)) {
+					referenceCount.incrementAndGet();
 					if ((referenceInterface.getReferenceFlags() & IReference.F_ILLEGAL) > 0) {
-						illegalCount++;
+						illegalCount.incrementAndGet();
 					}
-					// Though visibility is a bit flag, we want to match the xml
-					// output exactly, which separates into folders by
+					// Though visibility is a bit flag, we want to match the
+					// xml output exactly, which separates into folders by
 					// visibility equality
 					if (descriptor.getVisibility() == VisibilityModifiers.PRIVATE) {
-						internalCount++;
+						internalCount.incrementAndGet();
 					}
-					writtenReferences.add(descriptor);
 				}
-
 			} catch (CoreException e) {
 				ApiPlugin.log(e.getStatus());
 			}
 		}
+		Set<IReferenceDescriptor> descriptors = fPendingDescriptors.computeIfAbsent(element,
+				e -> new LinkedHashSet<>());
+		IReferenceDescriptor[] flushed = null;
+		synchronized (descriptors) {
+			descriptors.addAll(batch);
+			if (descriptors.size() >= fFlushThreshold) {
+				// bound the memory used by large elements
+				flushed = descriptors.toArray(new IReferenceDescriptor[descriptors.size()]);
+				descriptors.clear();
+			}
+		}
+		if (flushed != null) {
+			write(flushed);
+		}
+	}
 
-		writer.writeReferences(descriptors.toArray(new IReferenceDescriptor[descriptors.size()]));
+	@Override
+	public void endReporting(IApiElement element) {
+		Set<IReferenceDescriptor> descriptors = fPendingDescriptors.remove(element);
+		if (descriptors == null) {
+			return;
+		}
+		IReferenceDescriptor[] references;
+		synchronized (descriptors) {
+			references = descriptors.toArray(new IReferenceDescriptor[descriptors.size()]);
+		}
+		if (references.length > 0) {
+			write(references);
+		}
+	}
+
+	/**
+	 * Writes the given descriptors on the writer thread and waits until they
+	 * are written, so that no more than one batch per searching thread is
+	 * waiting to be written.
+	 */
+	private void write(IReferenceDescriptor[] references) {
+		Future<?> written = fWriter.submit(() -> new XmlReferenceDescriptorWriter(fLocation).writeReferences(references));
+		try {
+			written.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			ApiPlugin.log(e.getCause());
+		}
 	}
 
 	/**
@@ -214,9 +304,9 @@ public class XmlSearchReporter implements IApiSearchReporter {
 			Document doc = Util.newDocument();
 			Element root = doc.createElement(IApiXmlConstants.ELEMENT_REPORTED_COUNT);
 			doc.appendChild(root);
-			root.setAttribute(IApiXmlConstants.ATTR_TOTAL, Integer.toString(referenceCount));
-			root.setAttribute(IApiXmlConstants.ATTR_COUNT_ILLEGAL, Integer.toString(illegalCount));
-			root.setAttribute(IApiXmlConstants.ATTR_COUNT_INTERNAL, Integer.toString(internalCount));
+			root.setAttribute(IApiXmlConstants.ATTR_TOTAL, Integer.toString(referenceCount.get()));
+			root.setAttribute(IApiXmlConstants.ATTR_COUNT_ILLEGAL, Integer.toString(illegalCount.get()));
+			root.setAttribute(IApiXmlConstants.ATTR_COUNT_INTERNAL, Integer.toString(internalCount.get()));
 			root.setAttribute(IApiXmlConstants.ATTR_COUNT_FILTERED, Integer.toString(AntFilterStore.filteredAPIProblems.size()));
 
 			try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));) {
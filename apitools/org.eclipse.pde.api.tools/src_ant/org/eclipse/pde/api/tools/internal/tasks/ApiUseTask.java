@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -118,6 +118,11 @@ public final class ApiUseTask extends CommonUtilsTask {
 	 */
 	private String filters = null;
 
+	/**
+	 * Number of components searched concurrently
+	 */
+	private int parallelism = 1;
+
 	/**
 	 * Set the location of the current product you want to search.
 	 *
@@ -314,7 +319,7 @@ public final class ApiUseTask extends CommonUtilsTask {
 			Set<String> ids = new HashSet<>();
 			TreeSet<IApiComponent> scope = new TreeSet<>(Util.componentsorter);
 			getContext(baseline, ids, scope);
-			ApiSearchEngine engine = new ApiSearchEngine();
+			ApiSearchEngine engine = new ApiSearchEngine(this.parallelism);
 			UseSearchRequestor requestor = new UseSearchRequestor(ids, scope.toArray(new IApiElement[scope.size()]), getSearchFlags());
 			requestor.setJarPatterns(archivePatterns);
 			requestor.setFilterRoot(filters);
@@ -641,4 +646,24 @@ public final class ApiUseTask extends CommonUtilsTask {
 	public void setFilters(String filters) {
 		this.filters = filters;
 	}
+
+	/**
+	 * Sets the number of components to search concurrently.
+	 * <p>
+	 * Default is <code>1</code>.
+	 * </p>
+	 *
+	 * @param parallelism the number of components to search concurrently
+	 * @throws BuildException if the value is not a positive number
+	 */
+	public void setParallelism(String parallelism) {
+		try {
+			this.parallelism = Integer.parseInt(parallelism.trim());
+		} catch (NumberFormatException e) {
+			throw new BuildException(NLS.bind(Messages.ApiUseTask_invalid_parallelism, parallelism), e);
+		}
+		if (this.parallelism < 1) {
+			throw new BuildException(NLS.bind(Messages.ApiUseTask_invalid_parallelism, parallelism));
+		}
+	}
 }
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which accompanies this distribution,
+ * and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *******************************************************************************/
+
+package org.eclipse.pde.build.internal.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jdt.launching.IVMInstall;
+import org.eclipse.jdt.launching.JavaRuntime;
+import org.eclipse.pde.internal.build.site.SystemPackagesCache;
+import org.eclipse.pde.internal.build.site.SystemPackagesCache.Scan;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SystemPackagesCacheTest {
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private IVMInstall vm;
+	private File file;
+	private final AtomicInteger scans = new AtomicInteger();
+
+	@Before
+	public void setUp() throws Exception {
+		vm = JavaRuntime.getDefaultVMInstall();
+		assertNotNull(vm);
+		assertNotNull(vm.getInstallLocation());
+		file = new File(tempFolder.getRoot(), "systemPackages");
+	}
+
+	@Test
+	public void testCompleteScanIsRemembered() {
+		SystemPackagesCache cache = new SystemPackagesCache(file);
+
+		assertEquals(List.of("a.b"), getPackages(cache, new Scan(List.of("a.b"), true)));
+		assertEquals(List.of("a.b"), getPackages(cache, new Scan(List.of("c.d"), true)));
+		assertEquals(1, scans.get());
+	}
+
+	@Test
+	public void testCompleteScanIsRead() {
+		getPackages(new SystemPackagesCache(file), new Scan(List.of("a.b"), true));
+
+		assertEquals(List.of("a.b"), getPackages(new SystemPackagesCache(file), new Scan(List.of("c.d"), true)));
+		assertEquals(1, scans.get());
+	}
+
+	@Test
+	public void testIncompleteScanIsNotRemembered() {
+		SystemPackagesCache cache = new SystemPackagesCache(file);
+
+		assertEquals(List.of("a.b"), getPackages(cache, new Scan(List.of("a.b"), false)));
+		assertEquals(List.of("c.d"), getPackages(cache, new Scan(List.of("c.d"), true)));
+		assertEquals(List.of("c.d"), getPackages(cache, new Scan(List.of("e.f"), true)));
+		assertEquals(2, scans.get());
+	}
+
+	@Test
+	public void testIncompleteScanIsNotWritten() {
+		getPackages(new SystemPackagesCache(file), new Scan(List.of("a.b"), false));
+
+		assertEquals(List.of("c.d"), getPackages(new SystemPackagesCache(file), new Scan(List.of("c.d"), true)));
+		assertEquals(2, scans.get());
+	}
+
+	@Test
+	public void testFailedScanIsNotRemembered() {
+		SystemPackagesCache cache = new SystemPackagesCache(file);
+
+		assertNull(getPackages(cache, new Scan(null, false)));
+		assertEquals(List.of("a.b"), getPackages(cache, new Scan(List.of("a.b"), true)));
+		assertEquals(2, scans.get());
+	}
+
+	@Test
+	public void testReleasesAreRememberedSeparately() {
+		SystemPackagesCache cache = new SystemPackagesCache(file);
+
+		cache.getSystemPackages(vm, "11", () -> scan(new Scan(List.of("a.b"), true)));
+		Collection<String> packages = cache.getSystemPackages(vm, "17", () -> scan(new Scan(List.of("c.d"), true)));
+
+		assertEquals(List.of("c.d"), packages);
+		assertEquals(2, scans.get());
+	}
+
+	private Collection<String> getPackages(SystemPackagesCache cache, Scan result) {
+		return cache.getSystemPackages(vm, null, () -> scan(result));
+	}
+
+	private Scan scan(Scan result) {
+		scans.incrementAndGet();
+		return result;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials are made available under the
  * terms of the Eclipse Public License 2.0 which accompanies this distribution,
@@ -18,12 +18,13 @@ import org.eclipse.pde.build.internal.tests.FetchTests;
 import org.eclipse.pde.build.internal.tests.ProductTests;
 import org.eclipse.pde.build.internal.tests.ScriptGenerationTests;
 import org.eclipse.pde.build.internal.tests.SourceTests;
+import org.eclipse.pde.build.internal.tests.SystemPackagesCacheTest;
 import org.eclipse.pde.build.internal.tests.p2.LicenseTests;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
 @RunWith(Suite.class)
 @Suite.SuiteClasses({ SourceTests.class, ScriptGenerationTests.class, ProductTests.class, LicenseTests.class,
-		AssembleTests.class, P2TestSuite.class, FetchTests.class })
+		AssembleTests.class, P2TestSuite.class, FetchTests.class, SystemPackagesCacheTest.class })
 public class PDEBuildTestSuite {
 }
@@ -648,8 +648,14 @@ public class PDEState implements IPDEBuildConstants, IBuildPropertiesConstants {
 					"java.util.zip"));
 
 	private static Collection<String> querySystemPackages(IVMInstall vm, IExecutionEnvironment environment) {
+		String release = environment != null && JavaRuntime.isModularJava(vm) ? environment.getProfileProperties().getProperty(JavaCore.COMPILER_COMPLIANCE) : null;
+		return SystemPackagesCache.getDefault().getSystemPackages(vm, release, () -> scanSystemPackages(vm, environment, release));
+	}
+
+	private static SystemPackagesCache.Scan scanSystemPackages(IVMInstall vm, IExecutionEnvironment environment, String release) {
 		if (!JavaRuntime.isModularJava(vm)) {
 			Set<String> classFileDirectories = new HashSet<>();
+			boolean complete = true;
 			for (LibraryLocation libLocation : JavaRuntime.getLibraryLocations(vm)) {
 				IPath path = libLocation.getSystemLibraryPath();
 				if (path != null) {
@@ -661,13 +667,13 @@ public class PDEState implements IPDEBuildConstants, IBuildPropertiesConstants {
 								.forEach(classFileDirectories::add);
 					} catch (Exception e) {
 						LOGGER.error("Failed to read packages in JVM library for " + vm + ", at " + path, e); //$NON-NLS-1$ //$NON-NLS-2$
+						complete = false;
 					}
 				}
 			}
-			return classFileDirectories.stream().map(n -> n.replace('/', '.')).sorted().toList();
+			return new SystemPackagesCache.Scan(classFileDirectories.stream().map(n -> n.replace('/', '.')).sorted().toList(), complete);
 		}
 
-		String release = environment != null ? environment.getProfileProperties().getProperty(JavaCore.COMPILER_COMPLIANCE) : null;
 		try {
 			Collection<String> packages = new TreeSet<>();
 			String jrtPath = "lib/" + org.eclipse.jdt.internal.compiler.util.JRTUtil.JRT_FS_JAR; //$NON-NLS-1$
@@ -684,11 +690,11 @@ public class PDEState implements IPDEBuildConstants, IBuildPropertiesConstants {
 					}
 				}
 			}
-			return packages;
+			return new SystemPackagesCache.Scan(packages, true);
 		} catch (CoreException e) {
 			ILog.of(PDEState.class).log(Status.error("Failed to read system packages for " + environment, e)); //$NON-NLS-1$
 		}
-		return null;
+		return new SystemPackagesCache.Scan(null, false);
 	}
 
 	private static Stream<IVMInstall> compatibleVMsFor(IExecutionEnvironment environment, UnaryOperator<Stream<IVMInstall>> vmInstallsFilter) {
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.internal.build.site;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.launching.IVMInstall;
+import org.eclipse.jdt.launching.JavaRuntime;
+import org.eclipse.jdt.launching.LibraryLocation;
+import org.eclipse.pde.internal.build.BundleHelper;
+
+/**
+ * Remembers the system packages of JVM installations, so that their library
+ * archives or module images are only scanned once and not again for every
+ * {@link PDEState} or in later builds.
+ * <p>
+ * Entries are keyed by the install location of the VM and the release the
+ * packages were computed for. They are stamped with the size and modification
+ * time of the scanned files, that is the system libraries of a non-modular VM
+ * or the <code>jrt-fs.jar</code> and the module image of a modular one, so an
+ * updated JDK in the same location is scanned again. The entries are written
+ * to the state location of PDE Build as soon as they are computed. Only
+ * complete scans are remembered, so a library that could not be read is tried
+ * again next time.
+ * </p>
+ */
+public final class SystemPackagesCache {
+
+	private static final int MAGIC = 0x50445350; // "PDSP"
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final String CACHE_FILE = ".systemPackages"; //$NON-NLS-1$
+
+	/**
+	 * The system packages of a VM and the stamp of the files they were read
+	 * from
+	 */
+	private record Entry(String stamp, List<String> packages) {
+	}
+
+	/**
+	 * The result of scanning a VM for its system packages.
+	 *
+	 * @param packages
+	 *            the packages found, or <code>null</code> if none could be read
+	 * @param complete
+	 *            whether all files of the VM could be read
+	 */
+	public record Scan(Collection<String> packages, boolean complete) {
+	}
+
+	private static SystemPackagesCache fInstance;
+
+	private final Map<String, Entry> fEntries = new ConcurrentHashMap<>();
+
+	private final File fFile;
+
+	/**
+	 * Creates a cache stored in the given file.
+	 *
+	 * @param file
+	 *            the file to read the entries from and write them to, or
+	 *            <code>null</code> to keep them in memory only
+	 */
+	public SystemPackagesCache(File file) {
+		fFile = file;
+		read();
+	}
+
+	static synchronized SystemPackagesCache getDefault() {
+		if (fInstance == null) {
+			fInstance = new SystemPackagesCache(getCacheFile());
+		}
+		return fInstance;
+	}
+
+	private static File getCacheFile() {
+		BundleHelper helper = BundleHelper.getDefault();
+		if (helper == null) {
+			return null;
+		}
+		try {
+			return helper.getStateLocation().append(CACHE_FILE).toFile();
+		} catch (IllegalStateException e) {
+			// no instance location, keep the packages in memory only
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the system packages of the given VM, scanning it only if they
+	 * are not known for its current files.
+	 *
+	 * @param vm
+	 *            the VM to get the packages of
+	 * @param release
+	 *            the release the packages are computed for, or
+	 *            <code>null</code>
+	 * @param scanner
+	 *            scans the VM for its packages, which are only remembered if
+	 *            the scan is complete
+	 * @return the system packages or <code>null</code>
+	 */
+	public Collection<String> getSystemPackages(IVMInstall vm, String release, Supplier<Scan> scanner) {
+		File location = vm.getInstallLocation();
+		if (location == null) {
+			return scanner.get().packages();
+		}
+		String key = location.getAbsolutePath() + '|' + (release != null ? release : ""); //$NON-NLS-1$
+		String stamp = getStamp(vm, location);
+		Entry entry = fEntries.get(key);
+		if (entry != null && entry.stamp().equals(stamp)) {
+			return entry.packages();
+		}
+		Scan scan = scanner.get();
+		if (scan.complete() && scan.packages() != null) {
+			fEntries.put(key, new Entry(stamp, List.copyOf(scan.packages())));
+			save();
+		}
+		return scan.packages();
+	}
+
+	private static String getStamp(IVMInstall vm, File location) {
+		StringBuilder stamp = new StringBuilder();
+		if (JavaRuntime.isModularJava(vm)) {
+			appendStamp(stamp, new File(location, "lib/" + org.eclipse.jdt.internal.compiler.util.JRTUtil.JRT_FS_JAR)); //$NON-NLS-1$
+			appendStamp(stamp, new File(location, "lib/modules")); //$NON-NLS-1$
+		} else {
+			for (LibraryLocation libLocation : JavaRuntime.getLibraryLocations(vm)) {
+				IPath path = libLocation.getSystemLibraryPath();
+				if (path != null) {
+					appendStamp(stamp, path.toFile());
+				}
+			}
+		}
+		return stamp.toString();
+	}
+
+	private static void appendStamp(StringBuilder stamp, File file) {
+		stamp.append(file.getAbsolutePath()).append(':').append(file.length()).append(':').append(file.lastModified()).append(';');
+	}
+
+	private synchronized void save() {
+		if (fFile == null) {
+			return;
+		}
+		Map<String, Entry> entries = new HashMap<>(fEntries);
+		File tmp = new File(fFile.getParentFile(), fFile.getName() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp.toPath())))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(entries.size());
+			for (Map.Entry<String, Entry> e : entries.entrySet()) {
+				out.writeUTF(e.getKey());
+				out.writeUTF(e.getValue().stamp());
+				List<String> packages = e.getValue().packages();
+				out.writeInt(packages.size());
+				for (String name : packages) {
+					out.writeUTF(name);
+				}
+			}
+		} catch (IOException e) {
+			// the packages are simply scanned again next time
+			tmp.delete();
+			return;
+		}
+		try {
+			Files.move(tmp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			tmp.delete();
+		}
+	}
+
+	private void read() {
+		if (fFile == null || !fFile.isFile()) {
+			return;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(fFile.toPath())))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+				return;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String key = in.readUTF();
+				String stamp = in.readUTF();
+				int length = in.readInt();
+				List<String> packages = new ArrayList<>(length);
+				for (int j = 0; j < length; j++) {
+					packages.add(in.readUTF());
+				}
+				fEntries.put(key, new Entry(stamp, List.copyOf(packages)));
+			}
+		} catch (IOException e) {
+			// a corrupt or truncated cache is simply rebuilt
+			fEntries.clear();
+		}
+	}
+}
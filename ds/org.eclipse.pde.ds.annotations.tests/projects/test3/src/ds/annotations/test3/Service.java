@@ -0,0 +1,5 @@
+package ds.annotations.test3;
+
+public interface Service {
+
+}
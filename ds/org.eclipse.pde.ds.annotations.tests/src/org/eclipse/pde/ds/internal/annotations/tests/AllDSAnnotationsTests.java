@@ -38,13 +38,16 @@ import org.osgi.framework.Bundle;
 	FullComponentTest.class,
 	ExtendedReferenceMethodComponentTest.class,
 	ExtendedLifeCycleMethodComponentTest.class,
+	BatchProcessingTest.class,
+	ProjectStateStoreTest.class,
 })
 public class AllDSAnnotationsTests {
 
 	private static final Map<String, String> projects = Map.of( //
 			"ds.annotations.test0", "projects/test0/", //
 			"ds.annotations.test1", "projects/test1/", //
-			"ds.annotations.test2", "projects/test2/");
+			"ds.annotations.test2", "projects/test2/", //
+			"ds.annotations.test3", "projects/test3/");
 
 	static Job wsJob;
 
@@ -0,0 +1,119 @@
+package org.eclipse.pde.ds.internal.annotations.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IncrementalProjectBuilder;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.pde.ds.internal.annotations.DSAnnotationCompilationParticipant;
+import org.junit.After;
+import org.junit.Test;
+
+public class BatchProcessingTest extends CompilationParticipantTest {
+
+	/** More components than fit in two batches */
+	private static final int COMPONENT_COUNT = 150;
+
+	@Override
+	protected String getTestProjectName() {
+		return "ds.annotations.test3";
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(DSAnnotationCompilationParticipant.PARALLEL_PROCESSING);
+	}
+
+	@Test
+	public void batchedProcessingMatchesSerialProcessing() throws Exception {
+		createComponents();
+
+		Map<String, String> batched = generateDescriptions(true);
+		Map<String, String> serial = generateDescriptions(false);
+
+		assertEquals(COMPONENT_COUNT, batched.size());
+		assertEquals(serial, batched);
+		IMarker[] markers = testProject.findMarkers(DS_PROBLEM_MARKER, true, IResource.DEPTH_INFINITE);
+		assertEquals(0, markers.length);
+	}
+
+	private void createComponents() throws CoreException {
+		IFolder folder = testProject.getFolder("src/ds/annotations/test3");
+		for (int i = 0; i < COMPONENT_COUNT; i++) {
+			IFile file = folder.getFile("Component" + i + ".java");
+			if (file.exists()) {
+				continue;
+			}
+
+			String source = "package ds.annotations.test3;\n\n" //
+					+ "import java.util.Map;\n\n" //
+					+ "import org.osgi.service.component.annotations.Activate;\n" //
+					+ "import org.osgi.service.component.annotations.Component;\n" //
+					+ "import org.osgi.service.component.annotations.Reference;\n" //
+					+ "import org.osgi.service.component.annotations.ReferenceCardinality;\n" //
+					+ "import org.osgi.service.component.annotations.ReferencePolicy;\n\n" //
+					+ "@Component(name = \"test.component" + i + "\", property = \"index:Integer=" + i + "\")\n" //
+					+ "public class Component" + i + " implements Service {\n\n" //
+					+ "\t@Activate\n" //
+					+ "\tvoid activate(Map<String, ?> properties) {\n\t}\n\n" //
+					+ "\t@Reference(cardinality = ReferenceCardinality.MULTIPLE, policy = ReferencePolicy.DYNAMIC)\n" //
+					+ "\tvoid addService(Service service) {\n\t}\n\n" //
+					+ "\tvoid removeService(Service service) {\n\t}\n" //
+					+ "}\n";
+			file.create(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)), true, null);
+		}
+	}
+
+	/**
+	 * Deletes the component descriptions of the test project and builds it
+	 * again, with batches processed in parallel or not.
+	 *
+	 * @return the content of the generated descriptions, by file name
+	 */
+	private Map<String, String> generateDescriptions(boolean parallel) throws Exception {
+		Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, null);
+		IFolder osgiInf = testProject.getFolder("OSGI-INF");
+		if (osgiInf.exists()) {
+			for (IResource member : osgiInf.members()) {
+				member.delete(true, null);
+			}
+		}
+
+		System.setProperty(DSAnnotationCompilationParticipant.PARALLEL_PROCESSING, Boolean.toString(parallel));
+		try {
+			testProject.build(IncrementalProjectBuilder.FULL_BUILD, null);
+			Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, null);
+		} finally {
+			System.clearProperty(DSAnnotationCompilationParticipant.PARALLEL_PROCESSING);
+		}
+
+		assertTrue("Folder OSGI-INF does not exist!", osgiInf.exists());
+		Map<String, String> descriptions = new TreeMap<>();
+		for (IResource member : osgiInf.members()) {
+			if (member instanceof IFile file && "xml".equals(file.getFileExtension())) {
+				descriptions.put(file.getName(), read(file));
+			}
+		}
+
+		return descriptions;
+	}
+
+	private static String read(IFile file) throws CoreException, IOException {
+		try (InputStream in = file.getContents(true)) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
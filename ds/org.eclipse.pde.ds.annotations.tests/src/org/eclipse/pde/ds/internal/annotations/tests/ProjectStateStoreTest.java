@@ -0,0 +1,210 @@
+package org.eclipse.pde.ds.internal.annotations.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import org.eclipse.pde.ds.internal.annotations.DSAnnotationVersion;
+import org.eclipse.pde.ds.internal.annotations.ProjectState;
+import org.eclipse.pde.ds.internal.annotations.ProjectStateStore;
+import org.eclipse.pde.ds.internal.annotations.ValidationErrorLevel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProjectStateStoreTest {
+
+	private static final int MAGIC = 0x44534153; // "DSAS"
+
+	private static final int FILE_VERSION = 1;
+
+	private static final int TAG_STRING = 1;
+
+	private static final int TAG_UNIT = 5;
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = Files.createTempFile("dsstate", ".dat").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	@Test
+	public void testSnapshotRoundTrip() throws IOException {
+		ProjectState state = createState();
+		ProjectStateStore.save(file, state);
+
+		assertEquals(state, ProjectStateStore.load(file));
+	}
+
+	@Test
+	public void testAppendedChangesAreReplayed() throws IOException {
+		ProjectState state = createState();
+		ProjectStateStore.save(file, state);
+		byte[] snapshot = Files.readAllBytes(file.toPath());
+
+		state.updateMappings("a/b/Component1.java", mappings("a.b.Component1", "OSGI-INF/a.b.Component1.xml", //
+				"a.b.Component1$Inner", "OSGI-INF/a.b.Component1$Inner.xml"));
+		// an empty unit record removes the mappings of the CU
+		state.removeMappings("a/b/Component2.java");
+		state.setErrorLevel(ValidationErrorLevel.warning);
+		state.setSpecVersion(DSAnnotationVersion.V1_2);
+		ProjectStateStore.save(file, state);
+
+		byte[] content = Files.readAllBytes(file.toPath());
+		assertTrue("Changes were not appended", content.length > snapshot.length);
+		assertArrayEquals("Changes were not appended", snapshot, Arrays.copyOf(content, snapshot.length));
+
+		ProjectState loaded = ProjectStateStore.load(file);
+		assertEquals(state, loaded);
+		assertNull(loaded.getModelFiles("a/b/Component2.java"));
+		assertEquals(ValidationErrorLevel.warning, loaded.getErrorLevel());
+		assertEquals(DSAnnotationVersion.V1_2, loaded.getSpecVersion());
+	}
+
+	@Test
+	public void testRewriteAfterAppendedRecords() throws IOException {
+		ProjectState state = createState();
+		ProjectStateStore.save(file, state);
+
+		long length = file.length();
+		for (int i = 1; i <= ProjectStateStore.MIN_APPENDED_RECORDS; i++) {
+			state.updateMappings("a/b/Component1.java", mappings("a.b.Component1", "OSGI-INF/component" + i + ".xml"));
+			ProjectStateStore.save(file, state);
+			assertTrue("Change " + i + " was not appended", file.length() > length);
+			length = file.length();
+		}
+
+		state.updateMappings("a/b/Component1.java", mappings("a.b.Component1", "OSGI-INF/component.xml"));
+		ProjectStateStore.save(file, state);
+		assertTrue("State file was not written anew", file.length() < length);
+
+		assertEquals(state, ProjectStateStore.load(file));
+	}
+
+	@Test
+	public void testLegacyFile() throws IOException {
+		ProjectState state = createState();
+		try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(file.toPath()))) {
+			out.writeObject(state);
+		}
+
+		ProjectState loaded = ProjectStateStore.load(file);
+		assertEquals(state, loaded);
+
+		// the first save replaces the legacy file
+		ProjectStateStore.save(file, loaded);
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(file.toPath()))) {
+			assertEquals(MAGIC, in.readInt());
+		}
+
+		assertEquals(state, ProjectStateStore.load(file));
+	}
+
+	@Test
+	public void testTruncatedFile() throws IOException {
+		ProjectStateStore.save(file, createState());
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(raf.length() - 1);
+		}
+
+		assertCorrupt();
+	}
+
+	@Test
+	public void testCorruptFiles() throws IOException {
+		// unknown record
+		writeStateFile(99);
+		assertCorrupt();
+
+		// negative count of a unit record
+		writeStateFile(TAG_UNIT, 1, 0xff, 0xff, 0xff, 0xff, 0x0f);
+		assertCorrupt();
+
+		// reference to a string that was not written
+		writeStateFile(TAG_UNIT, 2, 0);
+		assertCorrupt();
+
+		// negative string reference
+		writeStateFile(TAG_UNIT, 0xff, 0xff, 0xff, 0xff, 0x0f, 0);
+		assertCorrupt();
+
+		// overlong number
+		writeStateFile(TAG_UNIT, 1, 0xff, 0xff, 0xff, 0xff, 0xff, 0x01);
+		assertCorrupt();
+
+		// legacy file holding another object than a state
+		try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(file.toPath()))) {
+			out.writeObject("state");
+		}
+
+		assertCorrupt();
+	}
+
+	private static ProjectState createState() {
+		ProjectState state = new ProjectState();
+		state.setPath("OSGI-INF");
+		state.setSpecVersion(DSAnnotationVersion.V1_3);
+		state.setErrorLevel(ValidationErrorLevel.error);
+		state.setMissingUnbindMethodLevel(ValidationErrorLevel.ignore);
+		state.updateMappings("a/b/Component1.java", mappings("a.b.Component1", "OSGI-INF/a.b.Component1.xml"));
+		state.updateMappings("a/b/Component2.java", mappings("a.b.Component2", "OSGI-INF/a.b.Component2.xml"));
+		return state;
+	}
+
+	private static HashMap<String, String> mappings(String... typesAndFiles) {
+		HashMap<String, String> mappings = new HashMap<>();
+		for (int i = 0; i < typesAndFiles.length; i += 2) {
+			mappings.put(typesAndFiles[i], typesAndFiles[i + 1]);
+		}
+
+		return mappings;
+	}
+
+	/**
+	 * Writes a state file holding the string "a" followed by the given bytes.
+	 */
+	private void writeStateFile(int... bytes) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(buffer)) {
+			out.writeInt(MAGIC);
+			out.writeInt(FILE_VERSION);
+			out.writeByte(TAG_STRING);
+			out.writeUTF("a");
+			for (int b : bytes) {
+				out.writeByte(b);
+			}
+		}
+
+		try (OutputStream out = Files.newOutputStream(file.toPath())) {
+			buffer.writeTo(out);
+		}
+	}
+
+	private void assertCorrupt() {
+		try {
+			fail("Corrupt state file was loaded: " + ProjectStateStore.load(file));
+		} catch (IOException e) {
+			// expected
+		}
+	}
+}
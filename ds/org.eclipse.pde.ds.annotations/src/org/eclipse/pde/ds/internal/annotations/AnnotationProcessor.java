@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2017 Ecliptical Software Inc. and others.
+ * Copyright (c) 2012, 2023 Ecliptical Software Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,11 +13,23 @@
  *******************************************************************************/
 package org.eclipse.pde.ds.internal.annotations;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
+import org.eclipse.core.filebuffers.FileBuffers;
+import org.eclipse.core.filebuffers.ITextFileBuffer;
+import org.eclipse.core.filebuffers.ITextFileBufferManager;
+import org.eclipse.core.filebuffers.LocationKind;
 import org.eclipse.core.resources.ICommand;
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -27,23 +39,68 @@ import org.eclipse.core.resources.IProjectDescription;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.compiler.BuildContext;
 import org.eclipse.jdt.core.compiler.CategorizedProblem;
 import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentRewriteSession;
+import org.eclipse.jface.text.DocumentRewriteSessionType;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.link.LinkedModeModel;
+import org.eclipse.text.edits.MalformedTreeException;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
 
+/**
+ * Processes the annotations of one batch of compilation units.
+ * <p>
+ * Visiting the ASTs and generating the component models only reads the
+ * workspace, so batches may be processed concurrently. The results are kept
+ * until {@link #apply()} is called on the build thread, which updates the
+ * project state, reports the problems and writes the component descriptions.
+ * </p>
+ */
 public class AnnotationProcessor extends ASTRequestor {
 
 	private static final String DS_BUILDER = "org.eclipse.pde.ds.core.builder"; //$NON-NLS-1$
 
 	static final Debug debug = Debug.getDebug("ds-annotation-builder/processor"); //$NON-NLS-1$
 
+	/**
+	 * The result of processing one compilation unit
+	 */
+	private record ProcessedUnit(ICompilationUnit source, String cuKey, HashMap<String, String> dsKeys,
+			Set<DSAnnotationProblem> problems) {
+	}
+
+	/**
+	 * A component description generated for a component implementation class.
+	 *
+	 * @param file
+	 *            the file of the description
+	 * @param oldFile
+	 *            the file the description is to be moved from before it is
+	 *            written, or <code>null</code>
+	 * @param contents
+	 *            the new contents of the description, or <code>null</code> if
+	 *            it did not change
+	 */
+	record ModelFile(IFile file, IFile oldFile, String contents) {
+	}
+
 	private final ProjectContext context;
 
 	private final Map<ICompilationUnit, BuildContext> fileMap;
 
+	private final List<ProcessedUnit> processed = new ArrayList<>();
+
+	private final List<ModelFile> modelFiles = new ArrayList<>();
+
 	private boolean hasBuilder;
 
 	public AnnotationProcessor(ProjectContext context, Map<ICompilationUnit, BuildContext> fileMap) {
@@ -65,20 +122,10 @@ public class AnnotationProcessor extends ASTRequestor {
 		// determine CU key
 		String cuKey = getCompilationUnitKey(source);
 
-		context.getUnprocessed().remove(cuKey);
-
-		ProjectState state = context.getState();
 		HashMap<String, String> dsKeys = new HashMap<>();
 		HashSet<DSAnnotationProblem> problems = new HashSet<>();
 
-		ast.accept(new AnnotationVisitor(this, state, dsKeys, problems));
-
-		// track abandoned files (may be garbage)
-		Collection<String> oldDSKeys = state.updateMappings(cuKey, dsKeys);
-		if (oldDSKeys != null) {
-			oldDSKeys.removeAll(dsKeys.values());
-			context.getAbandoned().addAll(oldDSKeys);
-		}
+		ast.accept(new AnnotationVisitor(this, context.getState(), dsKeys, problems));
 
 		if (!problems.isEmpty()) {
 			char[] filename = source.getResource().getFullPath().toString().toCharArray();
@@ -88,10 +135,161 @@ public class AnnotationProcessor extends ASTRequestor {
 					problem.setSourceLineNumber(ast.getLineNumber(problem.getSourceStart()));
 				}
 			}
+		}
+
+		processed.add(new ProcessedUnit(source, cuKey, dsKeys, problems));
+	}
+
+	void addModelFile(ModelFile modelFile) {
+		modelFiles.add(modelFile);
+	}
+
+	/**
+	 * Returns the current contents of the given file, as seen by an open
+	 * editor if there is one, or an empty string if the file does not exist.
+	 */
+	String readContents(IFile file) throws CoreException {
+		ITextFileBuffer buffer = FileBuffers.getTextFileBufferManager().getTextFileBuffer(file.getFullPath(), LocationKind.IFILE);
+		if (buffer != null) {
+			return buffer.getDocument().get();
+		}
+
+		if (!file.exists()) {
+			return ""; //$NON-NLS-1$
+		}
+
+		try (InputStream in = file.getContents(true)) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			in.transferTo(out);
+			return out.toString(Charset.forName(file.getCharset()));
+		} catch (IOException e) {
+			throw new CoreException(Status.error(String.format("Unable to read model file '%s'.", file.getFullPath()), e)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Records the results of the processed compilation units in the project
+	 * context and writes the component descriptions that changed. Must be
+	 * called on the build thread.
+	 */
+	void apply() {
+		for (ProcessedUnit unit : processed) {
+			context.getUnprocessed().remove(unit.cuKey());
+
+			// track abandoned files (may be garbage)
+			Collection<String> oldDSKeys = context.getState().updateMappings(unit.cuKey(), unit.dsKeys());
+			if (oldDSKeys != null) {
+				oldDSKeys.removeAll(unit.dsKeys().values());
+				context.getAbandoned().addAll(oldDSKeys);
+			}
+
+			if (!unit.problems().isEmpty()) {
+				BuildContext buildContext = fileMap.get(unit.source());
+				if (buildContext != null) {
+					buildContext.recordNewProblems(unit.problems().toArray(new CategorizedProblem[unit.problems().size()]));
+				}
+			}
+		}
+
+		for (ModelFile modelFile : modelFiles) {
+			try {
+				writeModelFile(modelFile);
+			} catch (CoreException e) {
+				Activator.log(e);
+			}
+		}
+
+		processed.clear();
+		modelFiles.clear();
+	}
+
+	private void writeModelFile(ModelFile modelFile) throws CoreException {
+		IFile file = modelFile.file();
+		verifyOutputLocation(file);
+
+		// handle file move/rename
+		IFile oldFile = modelFile.oldFile();
+		if (oldFile != null && !file.exists() && oldFile.exists()) {
+			try {
+				oldFile.move(file.getFullPath(), true, true, null);
+			} catch (CoreException e) {
+				Activator.log(Status.warning(String.format("Unable to move model file from '%s' to '%s'.", oldFile.getFullPath(), file.getFullPath()), e)); //$NON-NLS-1$
+			}
+		}
+
+		String contents = modelFile.contents();
+		if (contents == null) {
+			return;
+		}
+
+		IPath filePath = file.getFullPath();
+		ITextFileBufferManager bufferManager = FileBuffers.getTextFileBufferManager();
+		bufferManager.connect(filePath, LocationKind.IFILE, null);
+		try {
+			ITextFileBuffer buffer = bufferManager.getTextFileBuffer(filePath, LocationKind.IFILE);
+			if (buffer.isDirty()) {
+				buffer.commit(null, true);
+			}
+
+			IDocument document = buffer.getDocument();
+			if (contents.equals(document.get())) {
+				return;
+			}
+
+			if (debug.isDebugging()) {
+				debug.trace(String.format("Saving model: %s", filePath)); //$NON-NLS-1$
+			}
+
+			// note: we can't use XMLTextChangeListener because it generates overlapping edits!
+			// thus we replace the entire content with one edit
+			ReplaceEdit edit = new ReplaceEdit(0, document.getLength(), contents);
+			if (buffer.isSynchronizationContextRequested()) {
+				final CoreException[] ex = new CoreException[1];
+				final CountDownLatch latch = new CountDownLatch(1);
+				bufferManager.execute(() -> {
+					try {
+						performEdit(document, edit);
+					} catch (CoreException e) {
+						ex[0] = e;
+					}
+
+					latch.countDown();
+				});
+
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+					if (debug.isDebugging())
+						debug.trace("Interrupted while waiting for edits to complete on display thread.", e); //$NON-NLS-1$
+				}
+
+				if (ex[0] != null) {
+					throw ex[0];
+				}
+			} else {
+				performEdit(document, edit);
+			}
+
+			buffer.commit(null, true);
+		} finally {
+			bufferManager.disconnect(filePath, LocationKind.IFILE, null);
+		}
+	}
+
+	private void performEdit(IDocument document, TextEdit edit) throws CoreException {
+		DocumentRewriteSession session = null;
+		try {
+			if (document instanceof IDocumentExtension4) {
+				session = ((IDocumentExtension4) document).startRewriteSession(DocumentRewriteSessionType.UNRESTRICTED);
+			}
 
-			BuildContext buildContext = fileMap.get(source);
-			if (buildContext != null) {
-				buildContext.recordNewProblems(problems.toArray(new CategorizedProblem[problems.size()]));
+			LinkedModeModel.closeAllModels(document);
+			edit.apply(document);
+		} catch (MalformedTreeException | BadLocationException e) {
+			throw new CoreException(Status.error("Error applying changes to component model.", e)); //$NON-NLS-1$
+		} finally {
+			if (session != null) {
+				((IDocumentExtension4) document).stopRewriteSession(session);
 			}
 		}
 	}
@@ -148,4 +346,4 @@ public class AnnotationProcessor extends ASTRequestor {
 			Activator.log(e);
 		}
 	}
-}
\ No newline at end of file
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017, 2018 Ecliptical Software Inc. and others.
+ * Copyright (c) 2017, 2023 Ecliptical Software Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -36,18 +36,12 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CountDownLatch;
 import java.util.regex.Pattern;
 
-import org.eclipse.core.filebuffers.FileBuffers;
-import org.eclipse.core.filebuffers.ITextFileBuffer;
-import org.eclipse.core.filebuffers.ITextFileBufferManager;
-import org.eclipse.core.filebuffers.LocationKind;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
-import org.eclipse.core.runtime.Status;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTVisitor;
@@ -69,12 +63,8 @@ import org.eclipse.jdt.core.dom.Modifier;
 import org.eclipse.jdt.core.dom.NormalAnnotation;
 import org.eclipse.jdt.core.dom.TypeDeclaration;
 import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
-import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.DocumentRewriteSession;
-import org.eclipse.jface.text.DocumentRewriteSessionType;
+import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
-import org.eclipse.jface.text.IDocumentExtension4;
-import org.eclipse.jface.text.link.LinkedModeModel;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.core.IModelChangedEvent;
 import org.eclipse.pde.core.ModelChangedEvent;
@@ -83,7 +73,6 @@ import org.eclipse.pde.internal.core.text.IDocumentAttributeNode;
 import org.eclipse.pde.internal.core.text.IDocumentElementNode;
 import org.eclipse.pde.internal.core.text.IDocumentObject;
 import org.eclipse.pde.internal.core.text.IDocumentTextNode;
-import org.eclipse.pde.internal.core.text.IModelTextChangeListener;
 import org.eclipse.pde.internal.ds.core.IDSComponent;
 import org.eclipse.pde.internal.ds.core.IDSConstants;
 import org.eclipse.pde.internal.ds.core.IDSDocumentFactory;
@@ -97,10 +86,6 @@ import org.eclipse.pde.internal.ds.core.IDSReference;
 import org.eclipse.pde.internal.ds.core.IDSService;
 import org.eclipse.pde.internal.ds.core.text.DSModel;
 import org.eclipse.pde.internal.ui.util.TextUtil;
-import org.eclipse.text.edits.MalformedTreeException;
-import org.eclipse.text.edits.MultiTextEdit;
-import org.eclipse.text.edits.ReplaceEdit;
-import org.eclipse.text.edits.TextEdit;
 import org.osgi.framework.BundleContext;
 
 @SuppressWarnings("restriction")
@@ -351,131 +336,41 @@ public class AnnotationVisitor extends ASTVisitor {
 
 		IProject project = typeBinding.getJavaElement().getJavaProject().getProject();
 		IFile file = PDEProject.getBundleRelativeFile(project, path);
-		IPath filePath = file.getFullPath();
 
-		processor.verifyOutputLocation(file);
-
-		// handle file move/rename
+		// handle file move/rename; the file is moved when the model is written
+		IFile oldFile = null;
+		IFile source = file;
 		String oldPath = state.getModelFile(implClass);
 		if (oldPath != null && !oldPath.equals(dsKey) && !file.exists()) {
-			IFile oldFile = PDEProject.getBundleRelativeFile(project, IPath.fromPortableString(oldPath));
+			oldFile = PDEProject.getBundleRelativeFile(project, IPath.fromPortableString(oldPath));
 			if (oldFile.exists()) {
-				try {
-					oldFile.move(file.getFullPath(), true, true, null);
-				} catch (CoreException e) {
-					Activator.log(Status.warning(String.format("Unable to move model file from '%s' to '%s'.", oldPath, file.getFullPath()), e)); //$NON-NLS-1$
-				}
+				source = oldFile;
 			}
 		}
 
-		ITextFileBufferManager bufferManager = FileBuffers.getTextFileBufferManager();
-		bufferManager.connect(filePath, LocationKind.IFILE, null);
-		ITextFileBuffer buffer = bufferManager.getTextFileBuffer(filePath, LocationKind.IFILE);
-		if (buffer.isDirty()) {
-			buffer.commit(null, true);
-		}
-
-		IDocument document = buffer.getDocument();
+		String contents = processor.readContents(source);
+		IDocument document = new Document(contents);
 
 		final DSModel dsModel = new DSModel(document, true);
 		dsModel.setUnderlyingResource(file);
 		dsModel.setCharset(StandardCharsets.UTF_8); // $NON-NLS-1$
 		dsModel.load();
 
-		// note: we can't use XMLTextChangeListener because it generates overlapping edits!
-		// thus we replace the entire content with one edit (if changed)
-		final IDocument fDoc = document;
-		dsModel.addModelChangedListener(new IModelTextChangeListener() {
-
-			private final IDocument document = fDoc;
-
-			private boolean changed;
-
-			@Override
-			public void modelChanged(IModelChangedEvent event) {
-				changed = true;
-			}
-
-			@Override
-			public TextEdit[] getTextOperations() {
-				if (!changed) {
-					return new TextEdit[0];
-				}
-
-				String text = dsModel.getContents();
-				ReplaceEdit edit = new ReplaceEdit(0, document.getLength(), text);
-				return new TextEdit[] { edit };
-			}
-
-			@Override
-			public String getReadableName(TextEdit edit) {
-				return null;
-			}
-		});
+		boolean[] changed = new boolean[1];
+		dsModel.addModelChangedListener(event -> changed[0] = true);
 
 		try {
 			processComponent(dsModel, type, typeBinding, annotation, annotationBinding, params, name, implClass);
 
-			TextEdit[] edits = dsModel.getLastTextChangeListener().getTextOperations();
-			if (edits.length > 0) {
-				if (debug.isDebugging()) {
-					debug.trace(String.format("Saving model: %s", file.getFullPath())); //$NON-NLS-1$
-				}
-
-				final MultiTextEdit edit = new MultiTextEdit();
-				edit.addChildren(edits);
-
-				if (buffer.isSynchronizationContextRequested()) {
-					final IDocument doc = document;
-					final CoreException[] ex = new CoreException[1];
-					final CountDownLatch latch = new CountDownLatch(1);
-					bufferManager.execute(() -> {
-						try {
-							performEdit(doc, edit);
-						} catch (CoreException e) {
-							ex[0] = e;
-						}
-
-						latch.countDown();
-					});
-
-					try {
-						latch.await();
-					} catch (InterruptedException e) {
-						if (debug.isDebugging())
-							debug.trace("Interrupted while waiting for edits to complete on display thread.", e); //$NON-NLS-1$
-					}
-
-					if (ex[0] != null) {
-						throw ex[0];
-					}
-				} else {
-					performEdit(document, edit);
-				}
-
-				buffer.commit(null, true);
+			// only write the model if its content actually changed
+			String text = changed[0] ? dsModel.getContents() : null;
+			if (text != null && text.equals(contents)) {
+				text = null;
 			}
-		} finally {
-			dsModel.dispose();
-			bufferManager.disconnect(buffer.getLocation(), LocationKind.IFILE, null);
-		}
-	}
 
-	private void performEdit(IDocument document, TextEdit edit) throws CoreException {
-		DocumentRewriteSession session = null;
-		try {
-			if (document instanceof IDocumentExtension4) {
-				session = ((IDocumentExtension4) document).startRewriteSession(DocumentRewriteSessionType.UNRESTRICTED);
-			}
-
-			LinkedModeModel.closeAllModels(document);
-			edit.apply(document);
-		} catch (MalformedTreeException | BadLocationException e) {
-			throw new CoreException(Status.error("Error applying changes to component model.", e)); //$NON-NLS-1$
+			processor.addModelFile(new AnnotationProcessor.ModelFile(file, oldFile, text));
 		} finally {
-			if (session != null) {
-				((IDocumentExtension4) document).stopRewriteSession(session);
-			}
+			dsModel.dispose();
 		}
 	}
 
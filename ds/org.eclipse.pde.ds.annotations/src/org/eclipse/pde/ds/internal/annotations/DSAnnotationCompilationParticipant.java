@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2021 Ecliptical Software Inc. and others.
+ * Copyright (c) 2012, 2023 Ecliptical Software Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,11 +16,7 @@
 package org.eclipse.pde.ds.internal.annotations;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -30,6 +26,10 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -38,12 +38,15 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.ProjectScope;
+import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.QualifiedName;
 import org.eclipse.core.runtime.Status;
@@ -106,6 +109,19 @@ public class DSAnnotationCompilationParticipant extends CompilationParticipant {
 
 	private static final Debug debug = Debug.getDebug("ds-annotation-builder"); //$NON-NLS-1$
 
+	/**
+	 * System property telling whether batches of compilation units are
+	 * processed concurrently; may be disabled with
+	 * <code>-Dpde.ds.annotations.parallel=false</code>
+	 */
+	public static final String PARALLEL_PROCESSING = "pde.ds.annotations.parallel"; //$NON-NLS-1$
+
+	/**
+	 * The number of compilation units parsed together with one binding
+	 * environment
+	 */
+	private static final int BATCH_SIZE = 64;
+
 	private final Map<IJavaProject, ProjectContext> processingContext = Collections.synchronizedMap(new HashMap<IJavaProject, ProjectContext>());
 
 	@Override
@@ -240,21 +256,21 @@ public class DSAnnotationCompilationParticipant extends CompilationParticipant {
 			return null;
 		}
 
-		try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(stateFile))) {
-			ProjectState state = (ProjectState) in.readObject();
+		ProjectState state = ProjectStateStore.load(stateFile);
+		if (state == null) {
+			if (debug.isDebugging())
+				debug.trace(String.format("Unknown project state file format: %s", stateFile)); //$NON-NLS-1$
 
-			if (debug.isDebugging()) {
-				debug.trace(String.format("Loaded state for project: %s", project.getName())); //$NON-NLS-1$
-				for (String cuKey : state.getCompilationUnits())
-					debug.trace(String.format("%s -> %s", cuKey, state.getModelFiles(cuKey))); //$NON-NLS-1$
-			}
+			return null;
+		}
 
-			return state;
-		} catch (ClassNotFoundException e) {
-			IOException ex = new IOException("Unable to deserialize project state."); //$NON-NLS-1$
-			ex.initCause(e);
-			throw ex;
+		if (debug.isDebugging()) {
+			debug.trace(String.format("Loaded state for project: %s", project.getName())); //$NON-NLS-1$
+			for (String cuKey : state.getCompilationUnits())
+				debug.trace(String.format("%s -> %s", cuKey, state.getModelFiles(cuKey))); //$NON-NLS-1$
 		}
+
+		return state;
 	}
 
 	@Override
@@ -435,9 +451,7 @@ public class DSAnnotationCompilationParticipant extends CompilationParticipant {
 			}
 		}
 
-		try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(stateFile))) {
-			out.writeObject(state);
-		}
+		ProjectStateStore.save(stateFile, state);
 	}
 
 	private void updateProject(IProject project, final Collection<String> retained, final Collection<String> abandoned) {
@@ -642,12 +656,32 @@ public class DSAnnotationCompilationParticipant extends CompilationParticipant {
 		}
 
 		// process all CUs in each project
+		boolean parallel = !"false".equals(System.getProperty(PARALLEL_PROCESSING)); //$NON-NLS-1$
+		ArrayList<AnnotationProcessor> processors = new ArrayList<>();
+		ArrayList<Runnable> batches = new ArrayList<>();
 		for (Map.Entry<IJavaProject, Map<ICompilationUnit, BuildContext>> entry : filesByProject.entrySet()) {
 			if (debug.isDebugging()) {
 				debug.trace(String.format("Processing compilation units in project %s.", entry.getKey().getElementName())); //$NON-NLS-1$
 			}
 
-			processAnnotations(entry.getKey(), entry.getValue());
+			createBatches(entry.getKey(), entry.getValue(), parallel, processors, batches);
+		}
+
+		if (processors.isEmpty()) {
+			return;
+		}
+
+		runBatches(batches, parallel);
+
+		// write all generated files in a single workspace operation
+		try {
+			ResourcesPlugin.getWorkspace().run(monitor -> {
+				for (AnnotationProcessor processor : processors) {
+					processor.apply();
+				}
+			}, null, IWorkspace.AVOID_UPDATE, null);
+		} catch (CoreException e) {
+			Activator.log(e);
 		}
 	}
 
@@ -697,21 +731,66 @@ public class DSAnnotationCompilationParticipant extends CompilationParticipant {
 		}
 	}
 
-	private void processAnnotations(IJavaProject javaProject, Map<ICompilationUnit, BuildContext> fileMap) {
-		@SuppressWarnings("deprecation")
-		ASTParser parser = ASTParser.newParser(AST.JLS4);
-		parser.setResolveBindings(true);
-		parser.setBindingsRecovery(true);
-		parser.setProject(javaProject);
-		parser.setKind(ASTParser.K_COMPILATION_UNIT);
-
+	private void createBatches(IJavaProject javaProject, Map<ICompilationUnit, BuildContext> fileMap, boolean parallel, Collection<AnnotationProcessor> processors, Collection<Runnable> batches) {
 		ProjectContext projectContext = processingContext.get(javaProject);
 		ProjectState state = projectContext.getState();
 
-		parser.setIgnoreMethodBodies(state.getErrorLevel() == ValidationErrorLevel.ignore);
+		// each batch resolves bindings in its own environment, so that
+		// batches can be processed concurrently
+		ArrayList<ICompilationUnit> cus = new ArrayList<>(fileMap.keySet());
+		int batchSize = parallel ? BATCH_SIZE : cus.size();
+		for (int i = 0; i < cus.size(); i += batchSize) {
+			ICompilationUnit[] cuArr = cus.subList(i, Math.min(i + batchSize, cus.size())).toArray(new ICompilationUnit[0]);
+			AnnotationProcessor processor = new AnnotationProcessor(projectContext, fileMap);
+			processors.add(processor);
+			batches.add(() -> {
+				@SuppressWarnings("deprecation")
+				ASTParser parser = ASTParser.newParser(AST.JLS4);
+				parser.setResolveBindings(true);
+				parser.setBindingsRecovery(true);
+				parser.setProject(javaProject);
+				parser.setKind(ASTParser.K_COMPILATION_UNIT);
+				parser.setIgnoreMethodBodies(state.getErrorLevel() == ValidationErrorLevel.ignore);
+				parser.createASTs(cuArr, new String[0], processor, null);
+			});
+		}
+	}
+
+	private void runBatches(Collection<Runnable> batches, boolean parallel) {
+		if (!parallel || batches.size() < 2) {
+			batches.forEach(Runnable::run);
+			return;
+		}
 
-		ICompilationUnit[] cuArr = fileMap.keySet().toArray(new ICompilationUnit[fileMap.size()]);
-		parser.createASTs(cuArr, new String[0], new AnnotationProcessor(projectContext, fileMap), null);
+		int threads = Math.min(Runtime.getRuntime().availableProcessors(), batches.size());
+		ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "DS annotation processor"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			ArrayList<Future<?>> futures = new ArrayList<>(batches.size());
+			for (Runnable batch : batches) {
+				futures.add(executor.submit(batch));
+			}
+
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof RuntimeException runtimeException) {
+						throw runtimeException;
+					}
+
+					throw new IllegalStateException(e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
 	}
 
 	public static boolean isManaged(IProject project) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2017 Ecliptical Software Inc. and others.
+ * Copyright (c) 2012, 2023 Ecliptical Software Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.eclipse.jdt.core.JavaCore;
@@ -51,12 +52,28 @@ public class ProjectState implements Serializable, Cloneable {
 	// (de)serialized state file format version
 	private int formatVersion = FORMAT_VERSION;
 
+	// strings of the state file by index, or null if the state file must be written anew (see ProjectStateStore)
+	transient Map<String, Integer> storedStrings;
+
+	// length of the state file when it was last read or written
+	transient long storedLength;
+
+	// number of CU records appended to the state file since it was last written anew
+	transient int appendedRecords;
+
+	// whether any setting changed since the state file was last read or written
+	transient boolean settingsChanged;
+
+	// CUs whose mappings changed since the state file was last read or written
+	private transient Set<String> changedUnits;
+
 	public int getFormatVersion() {
 		return formatVersion;
 	}
 
 	public void setFormatVersion(int formatVersion) {
 		this.formatVersion = formatVersion;
+		settingsChanged = true;
 	}
 
 	public Collection<String> getCompilationUnits() {
@@ -68,6 +85,7 @@ public class ProjectState implements Serializable, Cloneable {
 	}
 
 	public Collection<String> removeMappings(String cuKey) {
+		getChangedUnits().add(cuKey);
 		if (types == null) {
 			// fall back to (deprecated) mappings
 			return mappings.remove(toLegacyCUKey(cuKey));
@@ -139,6 +157,7 @@ public class ProjectState implements Serializable, Cloneable {
 
 	public void setPath(String path) {
 		this.path = path;
+		settingsChanged = true;
 	}
 
 	public DSAnnotationVersion getSpecVersion() {
@@ -147,6 +166,7 @@ public class ProjectState implements Serializable, Cloneable {
 
 	public void setSpecVersion(DSAnnotationVersion specVersion) {
 		this.specVersion = specVersion;
+		settingsChanged = true;
 	}
 
 	public ValidationErrorLevel getErrorLevel() {
@@ -155,6 +175,7 @@ public class ProjectState implements Serializable, Cloneable {
 
 	public void setErrorLevel(ValidationErrorLevel errorLevel) {
 		this.errorLevel = errorLevel;
+		settingsChanged = true;
 	}
 
 	public ValidationErrorLevel getMissingUnbindMethodLevel() {
@@ -163,6 +184,36 @@ public class ProjectState implements Serializable, Cloneable {
 
 	public void setMissingUnbindMethodLevel(ValidationErrorLevel missingUnbindMethodLevel) {
 		this.missingUnbindMethodLevel = missingUnbindMethodLevel;
+		settingsChanged = true;
+	}
+
+	Map<String, Collection<String>> getLegacyMappings() {
+		return mappings;
+	}
+
+	Map<String, Collection<String>> getComponentTypes() {
+		return types;
+	}
+
+	Set<String> getChangedUnits() {
+		if (changedUnits == null) {
+			changedUnits = new HashSet<>();
+		}
+
+		return changedUnits;
+	}
+
+	void restoreMappings(String cuKey, Collection<String> cuTypes, Map<String, String> cuFiles) {
+		removeMappings(cuKey);
+		if (!cuTypes.isEmpty()) {
+			getTypes().put(cuKey, new HashSet<>(cuTypes));
+			getFiles().putAll(cuFiles);
+		}
+	}
+
+	void restoreMappings() {
+		getTypes();
+		getFiles();
 	}
 
 	private Map<String, Collection<String>> getTypes() {
@@ -206,6 +257,10 @@ public class ProjectState implements Serializable, Cloneable {
 			clone.files = new HashMap<>(files);
 		}
 
+		// the clone is not tied to the state file
+		clone.storedStrings = null;
+		clone.changedUnits = null;
+
 		return clone;
 	}
 
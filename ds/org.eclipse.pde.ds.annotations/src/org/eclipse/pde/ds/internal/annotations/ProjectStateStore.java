@@ -0,0 +1,409 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.ds.internal.annotations;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the {@link ProjectState} of a project.
+ * <p>
+ * The state file is a sequence of records. Each distinct string is written
+ * once in a string record and is referred to by its index afterwards. A state
+ * file written anew holds a snapshot of the whole state; later saves of the
+ * same state only append the settings and the mappings of the compilation
+ * units that changed, until the appended records outgrow the snapshot and the
+ * file is written anew. Replaying the records in order yields the state.
+ * </p>
+ * <p>
+ * State files written with Java serialization by earlier versions are still
+ * read; they are replaced by the first save.
+ * </p>
+ * <p>
+ * Public for testing only.
+ * </p>
+ */
+public final class ProjectStateStore {
+
+	private static final int MAGIC = 0x44534153; // "DSAS"
+
+	private static final int FILE_VERSION = 1;
+
+	/**
+	 * Appended records tolerated before the state file is written anew, at
+	 * least. Visible for testing only.
+	 */
+	public static final int MIN_APPENDED_RECORDS = 64;
+
+	private static final int TAG_STRING = 1;
+
+	private static final int TAG_SETTINGS = 2;
+
+	private static final int TAG_LEGACY_MAPPING = 3;
+
+	private static final int TAG_MAPPINGS = 4;
+
+	private static final int TAG_UNIT = 5;
+
+	private ProjectStateStore() {
+	}
+
+	/**
+	 * Reads the state from the given file.
+	 *
+	 * @return the state, or <code>null</code> if the file was written in an
+	 *         unknown format
+	 * @throws IOException
+	 *             if the file cannot be read or is corrupt
+	 */
+	public static ProjectState load(File file) throws IOException {
+		try (InputStream stream = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+			stream.mark(Integer.BYTES);
+			DataInputStream in = new DataInputStream(stream);
+			if (in.readInt() != MAGIC) {
+				stream.reset();
+				return loadLegacy(stream);
+			}
+
+			if (in.readInt() != FILE_VERSION) {
+				return null;
+			}
+
+			ProjectState state = read(in);
+			state.storedLength = file.length();
+			return state;
+		} catch (RuntimeException e) {
+			// e.g. a legacy file holding another object than a state
+			throw new IOException("Corrupt project state file.", e); //$NON-NLS-1$
+		}
+	}
+
+	private static ProjectState loadLegacy(InputStream stream) throws IOException {
+		try (ObjectInputStream in = new ObjectInputStream(stream)) {
+			return (ProjectState) in.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Unable to deserialize project state.", e); //$NON-NLS-1$
+		}
+	}
+
+	private static ProjectState read(DataInputStream in) throws IOException {
+		ProjectState state = new ProjectState();
+		List<String> strings = new ArrayList<>();
+		int unitRecords = 0;
+		int tag;
+		while ((tag = in.read()) != -1) {
+			switch (tag) {
+				case TAG_STRING -> strings.add(in.readUTF());
+				case TAG_SETTINGS -> {
+					state.setFormatVersion(readInt(in));
+					state.setPath(readString(in, strings));
+					state.setSpecVersion(readEnum(in, strings, DSAnnotationVersion.class));
+					state.setErrorLevel(readEnum(in, strings, ValidationErrorLevel.class));
+					state.setMissingUnbindMethodLevel(readEnum(in, strings, ValidationErrorLevel.class));
+				}
+				case TAG_LEGACY_MAPPING -> {
+					String key = readString(in, strings);
+					int count = readCount(in);
+					Collection<String> values = new HashSet<>();
+					for (int i = 0; i < count; i++) {
+						values.add(readString(in, strings));
+					}
+					state.getLegacyMappings().put(key, values);
+				}
+				case TAG_MAPPINGS -> state.restoreMappings();
+				case TAG_UNIT -> {
+					String cuKey = readString(in, strings);
+					int count = readCount(in);
+					Collection<String> cuTypes = new HashSet<>();
+					Map<String, String> cuFiles = new HashMap<>();
+					for (int i = 0; i < count; i++) {
+						String type = readString(in, strings);
+						String dsKey = readString(in, strings);
+						cuTypes.add(type);
+						if (dsKey != null) {
+							cuFiles.put(type, dsKey);
+						}
+					}
+					state.restoreMappings(cuKey, cuTypes, cuFiles);
+					unitRecords++;
+				}
+				default -> throw new IOException("Corrupt project state file."); //$NON-NLS-1$
+			}
+		}
+
+		Map<String, Integer> indices = new HashMap<>(strings.size());
+		for (int i = 0; i < strings.size(); i++) {
+			indices.put(strings.get(i), i);
+		}
+
+		Map<String, Collection<String>> types = state.getComponentTypes();
+		state.storedStrings = indices;
+		state.appendedRecords = Math.max(0, unitRecords - (types == null ? 0 : types.size()));
+		state.settingsChanged = false;
+		state.getChangedUnits().clear();
+		return state;
+	}
+
+	/**
+	 * Writes the state to the given file, appending the changes since the
+	 * state was last read or written if possible.
+	 *
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public static void save(File file, ProjectState state) throws IOException {
+		Map<String, Collection<String>> types = state.getComponentTypes();
+		int units = types == null ? 0 : types.size();
+		boolean append = state.storedStrings != null && file.length() == state.storedLength
+				&& state.appendedRecords + state.getChangedUnits().size() <= Math.max(MIN_APPENDED_RECORDS, units);
+		try {
+			if (append) {
+				append(file, state);
+			} else {
+				rewrite(file, state);
+			}
+		} catch (IOException e) {
+			state.storedStrings = null;
+			throw e;
+		}
+
+		state.storedLength = file.length();
+		state.settingsChanged = false;
+		state.getChangedUnits().clear();
+	}
+
+	private static void append(File file, ProjectState state) throws IOException {
+		Writer writer = new Writer(new HashMap<>(state.storedStrings));
+		if (state.settingsChanged) {
+			writeSettings(writer, state);
+		}
+
+		int records = 0;
+		for (String cuKey : state.getChangedUnits()) {
+			writeUnit(writer, state, cuKey);
+			records++;
+		}
+
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file, true))) {
+			writer.writeTo(out);
+		}
+
+		state.storedStrings = writer.strings;
+		state.appendedRecords += records;
+	}
+
+	private static void rewrite(File file, ProjectState state) throws IOException {
+		Writer writer = new Writer(new HashMap<>());
+		writeSettings(writer, state);
+		for (Map.Entry<String, Collection<String>> entry : state.getLegacyMappings().entrySet()) {
+			writer.ref(entry.getKey());
+			for (String value : entry.getValue()) {
+				writer.ref(value);
+			}
+
+			writer.startRecord();
+			writer.writeRef(entry.getKey());
+			writer.writeInt(entry.getValue().size());
+			for (String value : entry.getValue()) {
+				writer.writeRef(value);
+			}
+			writer.endRecord(TAG_LEGACY_MAPPING);
+		}
+
+		Map<String, Collection<String>> types = state.getComponentTypes();
+		if (types != null) {
+			writer.startRecord();
+			writer.endRecord(TAG_MAPPINGS);
+			for (String cuKey : types.keySet()) {
+				writeUnit(writer, state, cuKey);
+			}
+		}
+
+		File tmp = new File(file.getParentFile(), file.getName() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp.toPath())))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FILE_VERSION);
+			writer.writeTo(out);
+		} catch (IOException e) {
+			tmp.delete();
+			throw e;
+		}
+
+		Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		state.storedStrings = writer.strings;
+		state.appendedRecords = 0;
+	}
+
+	private static void writeSettings(Writer writer, ProjectState state) throws IOException {
+		String path = state.getPath();
+		String specVersion = state.getSpecVersion().name();
+		String errorLevel = state.getErrorLevel().name();
+		String missingUnbindMethodLevel = state.getMissingUnbindMethodLevel().name();
+		writer.ref(path);
+		writer.ref(specVersion);
+		writer.ref(errorLevel);
+		writer.ref(missingUnbindMethodLevel);
+
+		writer.startRecord();
+		writer.writeInt(state.getFormatVersion());
+		writer.writeRef(path);
+		writer.writeRef(specVersion);
+		writer.writeRef(errorLevel);
+		writer.writeRef(missingUnbindMethodLevel);
+		writer.endRecord(TAG_SETTINGS);
+	}
+
+	private static void writeUnit(Writer writer, ProjectState state, String cuKey) throws IOException {
+		Map<String, Collection<String>> types = state.getComponentTypes();
+		Collection<String> cuTypes = types == null ? null : types.get(cuKey);
+		if (cuTypes == null) {
+			cuTypes = List.of();
+		}
+
+		writer.ref(cuKey);
+		for (String type : cuTypes) {
+			writer.ref(type);
+			writer.ref(state.getModelFile(type));
+		}
+
+		// an empty unit record removes the mappings of the CU
+		writer.startRecord();
+		writer.writeRef(cuKey);
+		writer.writeInt(cuTypes.size());
+		for (String type : cuTypes) {
+			writer.writeRef(type);
+			writer.writeRef(state.getModelFile(type));
+		}
+		writer.endRecord(TAG_UNIT);
+	}
+
+	private static int readInt(DataInputStream in) throws IOException {
+		int value = 0;
+		int shift = 0;
+		int b;
+		do {
+			if (shift > 28) {
+				throw new IOException("Corrupt project state file."); //$NON-NLS-1$
+			}
+
+			b = in.readUnsignedByte();
+			value |= (b & 0x7f) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	private static int readCount(DataInputStream in) throws IOException {
+		int count = readInt(in);
+		if (count < 0) {
+			throw new IOException("Corrupt project state file."); //$NON-NLS-1$
+		}
+
+		return count;
+	}
+
+	private static String readString(DataInputStream in, List<String> strings) throws IOException {
+		int ref = readInt(in);
+		if (ref == 0) {
+			return null;
+		}
+
+		if (ref < 0 || ref > strings.size()) {
+			throw new IOException("Corrupt project state file."); //$NON-NLS-1$
+		}
+
+		return strings.get(ref - 1);
+	}
+
+	private static <E extends Enum<E>> E readEnum(DataInputStream in, List<String> strings, Class<E> enumType) throws IOException {
+		String name = readString(in, strings);
+		if (name == null) {
+			return null;
+		}
+
+		try {
+			return Enum.valueOf(enumType, name);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Collects records, writing each new string in a string record before the
+	 * first record that refers to it.
+	 */
+	private static final class Writer {
+
+		final Map<String, Integer> strings;
+
+		private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+		private final DataOutputStream out = new DataOutputStream(buffer);
+
+		private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+
+		Writer(Map<String, Integer> strings) {
+			this.strings = strings;
+		}
+
+		void ref(String value) throws IOException {
+			if (value != null && !strings.containsKey(value)) {
+				strings.put(value, strings.size());
+				out.writeByte(TAG_STRING);
+				out.writeUTF(value);
+			}
+		}
+
+		void startRecord() {
+			record.reset();
+		}
+
+		void writeInt(int value) {
+			while ((value & ~0x7f) != 0) {
+				record.write((value & 0x7f) | 0x80);
+				value >>>= 7;
+			}
+			record.write(value);
+		}
+
+		void writeRef(String value) {
+			writeInt(value == null ? 0 : strings.get(value) + 1);
+		}
+
+		void endRecord(int tag) throws IOException {
+			out.writeByte(tag);
+			record.writeTo(out);
+		}
+
+		void writeTo(OutputStream stream) throws IOException {
+			out.flush();
+			buffer.writeTo(stream);
+		}
+	}
+}
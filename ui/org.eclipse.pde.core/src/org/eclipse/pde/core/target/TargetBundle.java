@@ -36,6 +36,7 @@ import org.eclipse.osgi.util.ManifestElement;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.pde.internal.core.ICoreConstants;
 import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.TargetManifestCache;
 import org.eclipse.pde.internal.core.target.Messages;
 import org.eclipse.pde.internal.core.util.ManifestUtils;
 import org.osgi.framework.BundleException;
@@ -172,7 +173,7 @@ public class TargetBundle {
 		if (file == null || !file.exists()) {
 			throw new CoreException(Status.error(NLS.bind(Messages.TargetFeature_FileDoesNotExist, file)));
 		}
-		Map<String, String> manifest = ManifestUtils.loadManifest(file);
+		Map<String, String> manifest = TargetManifestCache.getDefault().getManifest(file);
 		try {
 			fInfo = new BundleInfo(file.toURI()) {
 				private String manifestString;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2022 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,9 +13,15 @@
  *******************************************************************************/
 package org.eclipse.pde.internal.core;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -36,9 +42,44 @@ public class BundleValidationOperation implements IWorkspaceRunnable {
 
 	private static StateObjectFactory FACTORY;
 
+	/** Number of resolved states kept for different platform properties */
+	private static final int CACHED_STATES = 4;
+
+	/**
+	 * A resolved state along with the copies it holds of the bundle
+	 * descriptions it was created from, keyed by their bundle id. The state the
+	 * descriptions were copied from is only weakly referenced, and the copies
+	 * are only valid for its time stamp, so that no description of an older
+	 * target is kept alive or reused.
+	 */
+	private record ResolvedState(WeakReference<State> target, long timeStamp, State state,
+			Map<Long, BundleDescription> copies) {
+
+		boolean isValidFor(State currentTarget) {
+			return target.get() == currentTarget && timeStamp == currentTarget.getTimeStamp();
+		}
+	}
+
+	/**
+	 * The states of the last validations, keyed by their platform properties.
+	 * Guarded by the class.
+	 */
+	private static final Map<List<Map<Object, Object>>, ResolvedState> fResolvedStates = new LinkedHashMap<>(
+			CACHED_STATES, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<Map<Object, Object>>, ResolvedState> eldest) {
+			return size() > CACHED_STATES;
+		}
+	};
+
 	private final Set<IPluginModelBase> fModels;
 	private final Dictionary<String, String>[] fProperties;
-	private State fState;
+	private Map<String, BundleDescription> fBundlesByName;
+	private int fBundleCount;
+	private Map<Object, Object[]> fResolverErrors;
+	private boolean fHasErrors;
 
 	@SuppressWarnings("unchecked")
 	public BundleValidationOperation(Set<IPluginModelBase> models) {
@@ -50,34 +91,150 @@ public class BundleValidationOperation implements IWorkspaceRunnable {
 		fProperties = properties;
 	}
 
+	/**
+	 * Resolves the bundles of the models. The state resolved for the last
+	 * validation with the same platform properties is reused as long as the
+	 * state holding the bundles of the models did not change since, which
+	 * stands for the description stamps of the selected bundles. Only the
+	 * bundles that were added to or removed from the selection are then
+	 * updated, so an unchanged relaunch skips the resolution altogether.
+	 * <p>
+	 * Small changes of the selection are not resolved incrementally though:
+	 * once any bundle was added or removed, the whole state is resolved again,
+	 * because an incremental resolution does not rewire the bundles that are
+	 * already resolved and would miss a removed provider. Such a relaunch
+	 * still saves copying and adding the descriptions of the unchanged bundles.
+	 * </p>
+	 */
 	@Override
 	public void run(IProgressMonitor monitor) throws CoreException {
 		if (FACTORY == null) {
 			FACTORY = Platform.getPlatformAdmin().getFactory();
 		}
 		SubMonitor subMonitor = SubMonitor.convert(monitor, fModels.size() + 1);
-		fState = FACTORY.createState(true);
-		for (IPluginModelBase fModel : fModels) {
-			BundleDescription bundle = fModel.getBundleDescription();
+		List<BundleDescription> selected = new ArrayList<>(fModels.size());
+		for (IPluginModelBase model : fModels) {
+			BundleDescription bundle = model.getBundleDescription();
 			if (bundle != null) {
-				fState.addBundle(FACTORY.createBundleDescription(bundle));
+				selected.add(bundle);
+			}
+		}
+		State target = getTarget(selected);
+		long timeStamp = target != null ? target.getTimeStamp() : -1;
+		if (target != null && getTarget(selected) != target) {
+			// a bundle was replaced meanwhile, its copy would not match the time stamp
+			target = null;
+		}
+		List<Map<Object, Object>> properties = toMaps(fProperties);
+		synchronized (BundleValidationOperation.class) {
+			ResolvedState resolved = target != null ? fResolvedStates.get(properties) : null;
+			if (resolved == null || !resolved.isValidFor(target)) {
+				State state = FACTORY.createState(true);
+				state.setPlatformProperties(fProperties);
+				resolved = new ResolvedState(new WeakReference<>(target), timeStamp, state, new HashMap<>());
+				if (target != null) {
+					fResolvedStates.put(properties, resolved);
+				}
+				update(resolved, selected, subMonitor);
+				// a new state is always resolved, even without any bundle
+				resolved.state().resolve(false);
+			} else if (update(resolved, selected, subMonitor)) {
+				// an incremental resolution does not rewire the bundles that
+				// are already resolved, a removed provider would go unnoticed
+				resolved.state().resolve(false);
 			}
 			subMonitor.split(1);
+			// answer from the state as it is now, later validations may
+			// change it
+			fResolverErrors = computeResolverErrors(resolved.state());
+			fHasErrors = computeHasErrors(resolved.state());
+			fBundlesByName = computeBundlesByName(resolved.state());
+			fBundleCount = resolved.state().getBundles().length;
+		}
+	}
+
+	/**
+	 * Returns the state containing all the given bundles, or <code>null</code>
+	 * if there is none or they belong to different states, in which case the
+	 * validation state is not cached.
+	 */
+	private static State getTarget(List<BundleDescription> bundles) {
+		State target = null;
+		for (BundleDescription bundle : bundles) {
+			State state = bundle.getContainingState();
+			if (state == null || (target != null && state != target)) {
+				return null;
+			}
+			target = state;
 		}
-		fState.setPlatformProperties(fProperties);
-		fState.resolve(false);
-		subMonitor.split(1);
+		return target;
+	}
+
+	/**
+	 * Adds the selected bundles missing from the given state and removes the
+	 * ones that are no longer selected. The bundles of a state are identified
+	 * by their id for as long as its time stamp does not change.
+	 *
+	 * @return whether the bundles of the state changed
+	 */
+	private static boolean update(ResolvedState resolved, List<BundleDescription> selected,
+			SubMonitor subMonitor) {
+		Set<Long> selectedIds = new HashSet<>();
+		for (BundleDescription bundle : selected) {
+			selectedIds.add(bundle.getBundleId());
+		}
+		boolean changed = false;
+		State state = resolved.state();
+		Map<Long, BundleDescription> copies = resolved.copies();
+		for (Iterator<Map.Entry<Long, BundleDescription>> iterator = copies.entrySet().iterator(); iterator.hasNext();) {
+			Map.Entry<Long, BundleDescription> entry = iterator.next();
+			if (!selectedIds.contains(entry.getKey())) {
+				state.removeBundle(entry.getValue());
+				iterator.remove();
+				changed = true;
+			}
+		}
+		for (BundleDescription bundle : selected) {
+			if (!copies.containsKey(bundle.getBundleId())) {
+				BundleDescription copy = FACTORY.createBundleDescription(bundle);
+				state.addBundle(copy);
+				copies.put(bundle.getBundleId(), copy);
+				changed = true;
+			}
+			subMonitor.split(1);
+		}
+		return changed;
+	}
+
+	private static List<Map<Object, Object>> toMaps(Dictionary<String, String>[] properties) {
+		List<Map<Object, Object>> maps = new ArrayList<>(properties.length);
+		for (Dictionary<String, String> dictionary : properties) {
+			Map<Object, Object> map = new HashMap<>();
+			// values are not always strings, see TargetPlatformHelper
+			@SuppressWarnings("unchecked")
+			Dictionary<Object, Object> values = (Dictionary<Object, Object>) (Dictionary<?, ?>) dictionary;
+			for (Enumeration<Object> keys = values.keys(); keys.hasMoreElements();) {
+				Object key = keys.nextElement();
+				map.put(key, values.get(key));
+			}
+			maps.add(map);
+		}
+		return maps;
 	}
 
 	public Map<Object, Object[]> getResolverErrors() {
+		return fResolverErrors;
+	}
+
+	private static Map<Object, Object[]> computeResolverErrors(State state) {
 		Set<String> alreadyDuplicated = new HashSet<>();
 		Map<Object, Object[]> map = new LinkedHashMap<>();
-		BundleDescription[] bundles = fState.getBundles();
+		BundleDescription[] bundles = state.getBundles();
 		for (BundleDescription bundle : bundles) {
 			if (!bundle.isResolved()) {
-				map.put(bundle, fState.getResolverErrors(bundle));
+				map.put(bundle, state.getResolverErrors(bundle));
 			} else if (bundle.isSingleton() && !alreadyDuplicated.contains(bundle.getSymbolicName())) {
-				BundleDescription[] dups = fState.getBundles(bundle.getSymbolicName());
+				BundleDescription[] dups = state.getBundles(bundle.getSymbolicName());
 				if (dups.length > 1) {
 					// more than 1 singleton present
 					alreadyDuplicated.add(bundle.getSymbolicName());
@@ -92,18 +249,53 @@ public class BundleValidationOperation implements IWorkspaceRunnable {
 		return map;
 	}
 
-	public State getState() {
-		return fState;
+	private static Map<String, BundleDescription> computeBundlesByName(State state) {
+		Map<String, BundleDescription> bundles = new HashMap<>();
+		for (BundleDescription bundle : state.getBundles()) {
+			String name = bundle.getSymbolicName();
+			if (name != null && !bundles.containsKey(name)) {
+				bundles.put(name, state.getBundle(name, null));
+			}
+		}
+		return bundles;
+	}
+
+	/**
+	 * Returns the validated bundle with the given symbolic name, as
+	 * {@link State#getBundle(String, org.osgi.framework.Version)} with no
+	 * version answered when this operation was run. Later validations may
+	 * remove the bundle from the state it was resolved in.
+	 *
+	 * @param symbolicName
+	 *            the symbolic name of the bundle
+	 * @return the bundle or <code>null</code> if none of the validated models
+	 *         has the given name
+	 */
+	public BundleDescription getBundle(String symbolicName) {
+		return fBundlesByName.get(symbolicName);
+	}
+
+	/**
+	 * Returns the number of bundles that were validated.
+	 *
+	 * @return the number of validated bundles
+	 */
+	public int getBundleCount() {
+		return fBundleCount;
 	}
 
 	public boolean hasErrors() {
-		if (fState.getHighestBundleId() > -1) {
-			BundleDescription[] bundles = fState.getBundles();
+		return fHasErrors;
+	}
+
+	private static boolean computeHasErrors(State state) {
+		if (state.getHighestBundleId() > -1) {
+			BundleDescription[] bundles = state.getBundles();
 			for (BundleDescription bundle : bundles) {
 				if (!bundle.isResolved()) {
 					return true;
 				} else if (bundle.isSingleton()) {
-					BundleDescription[] dups = fState.getBundles(bundle.getSymbolicName());
+					BundleDescription[] dups = state.getBundles(bundle.getSymbolicName());
 					if (dups.length > 1) {
 						// more than one singleton
 						return true;
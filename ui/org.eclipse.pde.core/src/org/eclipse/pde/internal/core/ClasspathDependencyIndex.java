@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.osgi.service.resolver.BundleDelta;
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.ExportPackageDescription;
+import org.eclipse.osgi.service.resolver.HostSpecification;
+import org.eclipse.osgi.service.resolver.StateDelta;
+
+/**
+ * Records for each workspace project which bundles contributed entries or
+ * access rules to its {@link RequiredPluginsClasspathContainer}, together with
+ * the wiring of the project's bundle at the time the container was computed.
+ * <p>
+ * This allows {@link PluginModelManager} to only recompute the containers
+ * really affected by a {@link StateDelta}: the containers of bundles whose
+ * manifest changed, the containers that consumed one of those bundles and the
+ * containers of bundles whose resolution actually changed. Bundles that were
+ * merely re-resolved to the same wiring are skipped.
+ * </p>
+ * <p>
+ * An affected container is still computed as a whole rather than patching
+ * single entries, because JDT only accepts complete containers and the order
+ * of the entries depends on all dependencies. What is expensive per
+ * dependency, the access rules for the packages it exports, is reused from
+ * {@link VisiblePackageRules} for every exporting bundle that is not part of
+ * the delta, so only the rules of changed dependencies are computed again.
+ * </p>
+ * <p>
+ * What is recorded for a project is forgotten when the project is closed,
+ * deleted or renamed.
+ * </p>
+ * <p>
+ * Public for testing only
+ * </p>
+ */
+public class ClasspathDependencyIndex implements IResourceChangeListener {
+
+	private static final int STRUCTURAL_CHANGE = BundleDelta.ADDED | BundleDelta.REMOVED | BundleDelta.UPDATED;
+
+	private record Footprint(String wiring, Set<String> contributors) {
+	}
+
+	private final Map<String, Footprint> fFootprints = new ConcurrentHashMap<>();
+
+	private final AtomicBoolean fListening = new AtomicBoolean();
+
+	/**
+	 * Records the bundles that contributed to the classpath container of the
+	 * given project.
+	 *
+	 * @param project the project the container was computed for
+	 * @param desc the bundle description of the project
+	 * @param contributors the bundles that contributed entries or access rules
+	 */
+	public void record(IProject project, BundleDescription desc, Collection<BundleDescription> contributors) {
+		if (fListening.compareAndSet(false, true)) {
+			ResourcesPlugin.getWorkspace().addResourceChangeListener(this,
+					IResourceChangeEvent.PRE_CLOSE | IResourceChangeEvent.POST_CHANGE);
+		}
+		Set<String> names = new HashSet<>();
+		for (BundleDescription contributor : contributors) {
+			names.add(contributor.getSymbolicName());
+		}
+		fFootprints.put(project.getName(), new Footprint(wiringOf(desc), names));
+	}
+
+	/**
+	 * Forgets everything recorded, e.g. because the whole target changed.
+	 */
+	public void clear() {
+		fFootprints.clear();
+	}
+
+	/**
+	 * Forgets everything recorded and stops listening to the workspace.
+	 */
+	public void dispose() {
+		if (fListening.compareAndSet(true, false)) {
+			ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+		}
+		fFootprints.clear();
+	}
+
+	@Override
+	public void resourceChanged(IResourceChangeEvent event) {
+		if (event.getType() == IResourceChangeEvent.PRE_CLOSE) {
+			fFootprints.remove(event.getResource().getName());
+			return;
+		}
+		IResourceDelta delta = event.getDelta();
+		if (delta != null) {
+			// deleted and renamed projects
+			for (IResourceDelta projectDelta : delta.getAffectedChildren(IResourceDelta.REMOVED)) {
+				IResource project = projectDelta.getResource();
+				fFootprints.remove(project.getName());
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the given bundle delta describes a change of the bundle
+	 * itself, as opposed to a change of its resolution only.
+	 */
+	public static boolean isStructuralChange(BundleDelta delta) {
+		return (delta.getType() & STRUCTURAL_CHANGE) != 0;
+	}
+
+	/**
+	 * Returns whether the container of the given project has to be recomputed
+	 * because the resolution of its bundle is different from the one the
+	 * container was computed with, or because nothing is known about it.
+	 */
+	public boolean hasWiringChanged(IProject project, BundleDescription desc) {
+		Footprint footprint = fFootprints.get(project.getName());
+		return footprint == null || !footprint.wiring().equals(wiringOf(desc));
+	}
+
+	/**
+	 * Returns the names of the projects whose containers consumed one of the
+	 * bundles structurally changed in the given delta.
+	 */
+	public Set<String> getDependentProjects(StateDelta delta) {
+		Set<String> changed = new HashSet<>();
+		for (BundleDelta bundleDelta : delta.getChanges()) {
+			if (isStructuralChange(bundleDelta)) {
+				BundleDescription bundle = bundleDelta.getBundle();
+				changed.add(bundle.getSymbolicName());
+				HostSpecification host = bundle.getHost();
+				if (host != null) {
+					// fragments contribute through their host
+					changed.add(host.getName());
+				}
+			}
+		}
+		changed.remove(null);
+		Set<String> projects = new HashSet<>();
+		if (!changed.isEmpty()) {
+			fFootprints.forEach((project, footprint) -> {
+				for (String contributor : footprint.contributors()) {
+					if (changed.contains(contributor)) {
+						projects.add(project);
+						break;
+					}
+				}
+			});
+		}
+		return projects;
+	}
+
+	private static String wiringOf(BundleDescription desc) {
+		StringBuilder wiring = new StringBuilder();
+		wiring.append(desc.isResolved());
+		HostSpecification host = desc.getHost();
+		if (host != null) {
+			wiring.append(";host=").append(host.getSupplier()); //$NON-NLS-1$
+		}
+		for (BundleDescription required : desc.getResolvedRequires()) {
+			wiring.append(';').append(required);
+		}
+		for (ExportPackageDescription imported : desc.getResolvedImports()) {
+			wiring.append(';').append(imported.getName()).append('@').append(imported.getExporter());
+		}
+		return wiring.toString();
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2005, 2012 IBM Corporation and others.
+ *  Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -16,6 +16,7 @@ package org.eclipse.pde.internal.core;
 import static org.eclipse.jdt.core.JavaCore.newClasspathAttribute;
 
 import java.io.File;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -46,6 +47,38 @@ public class PDEClasspathContainer {
 	private static final Map<IPath, IAccessRule> ACCESSIBLE_RULES = new ConcurrentHashMap<>();
 	private static final Map<IPath, IAccessRule> DISCOURAGED_RULES = new ConcurrentHashMap<>();
 
+	/**
+	 * Rules shared by all containers that see the same packages of a
+	 * dependency, together with their access rules. The access rule array is
+	 * never modified, so it can be shared between entries as well.
+	 */
+	static final class SharedRules extends AbstractList<Rule> {
+
+		private final Rule[] fRules;
+		private volatile IAccessRule[] fAccessRules;
+
+		SharedRules(List<Rule> rules) {
+			fRules = rules.toArray(Rule[]::new);
+		}
+
+		@Override
+		public Rule get(int index) {
+			return fRules[index];
+		}
+
+		@Override
+		public int size() {
+			return fRules.length;
+		}
+
+		IAccessRule[] getAccessRules() {
+			if (fAccessRules == null) {
+				fAccessRules = createAccessRules(this);
+			}
+			return fAccessRules;
+		}
+	}
+
 	private static final IAccessRule EXCLUDE_ALL_RULE = JavaCore.newAccessRule(IPath.fromOSString("**/*"), IAccessRule.K_NON_ACCESSIBLE | IAccessRule.IGNORE_IF_BETTER); //$NON-NLS-1$
 
 	protected void addProjectEntry(IProject project, List<Rule> rules, boolean exportsExternalAnnotations,
@@ -138,6 +171,13 @@ public class PDEClasspathContainer {
 	}
 
 	protected static IAccessRule[] getAccessRules(List<Rule> rules) {
+		if (rules instanceof SharedRules sharedRules) {
+			return sharedRules.getAccessRules();
+		}
+		return createAccessRules(rules);
+	}
+
+	private static IAccessRule[] createAccessRules(List<Rule> rules) {
 		IAccessRule[] accessRules = new IAccessRule[rules.size() + 1];
 		int i = 0;
 		for (Rule rule : rules) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -40,10 +40,12 @@ import org.eclipse.pde.core.project.IBundleProjectService;
 import org.eclipse.pde.core.target.ITargetDefinition;
 import org.eclipse.pde.core.target.ITargetPlatformService;
 import org.eclipse.pde.internal.core.bnd.BndResourceChangeListener;
+import org.eclipse.pde.internal.core.builders.ClassReferenceChecker;
 import org.eclipse.pde.internal.core.builders.FeatureRebuilder;
 import org.eclipse.pde.internal.core.builders.PluginRebuilder;
 import org.eclipse.pde.internal.core.project.BundleProjectService;
 import org.eclipse.pde.internal.core.schema.SchemaRegistry;
+import org.eclipse.pde.internal.core.search.PluginSearchIndex;
 import org.eclipse.pde.internal.core.target.P2TargetUtils;
 import org.eclipse.pde.internal.core.target.TargetPlatformService;
 import org.osgi.framework.BundleContext;
@@ -361,6 +363,8 @@ public class PDECore extends Plugin implements DebugOptionsListener {
 		}
 
 		fJavaElementChangeListener.shutdown();
+		ClassReferenceChecker.shutdown();
+		PluginSearchIndex.shutdown();
 		fPluginRebuilder.stop();
 		fFeatureRebuilder.stop();
 
@@ -387,6 +391,7 @@ public class PDECore extends Plugin implements DebugOptionsListener {
 		}
 
 		PluginModelManager.shutdownInstance();
+		TargetManifestCache.shutdown();
 
 		if (fTargetPlatformService != null) {
 			fTargetPlatformService.unregister();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2012 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -67,6 +67,27 @@ public class PDEExtensionRegistry {
 		}
 	}
 
+	/**
+	 * Creates a registry of the given models that is stored in the given
+	 * directory and reads the extension descriptors of the models in parallel
+	 * or one after the other.
+	 * <p>
+	 * Visible for testing only
+	 * </p>
+	 *
+	 * @param models
+	 *            the models whose extensions are registered
+	 * @param extensionsDir
+	 *            the directory the registry is cached in
+	 * @param parallelReading
+	 *            whether the extension descriptors are read in parallel
+	 */
+	public PDEExtensionRegistry(IPluginModelBase[] models, File extensionsDir, boolean parallelReading) {
+		fModels = models;
+		fStrategy = new TargetPDERegistryStrategy(new File[] {extensionsDir}, new boolean[] {false}, fMasterKey, this);
+		fStrategy.setParallelReading(parallelReading);
+	}
+
 	// Methods used to control information/status of Extension Registry
 
 	protected IPluginModelBase[] getModels() {
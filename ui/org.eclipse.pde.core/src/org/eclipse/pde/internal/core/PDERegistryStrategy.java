@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2017 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,11 +13,17 @@
  *******************************************************************************/
 package org.eclipse.pde.internal.core;
 
-import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -26,6 +32,7 @@ import javax.xml.parsers.SAXParserFactory;
 import org.eclipse.core.runtime.IContributor;
 import org.eclipse.core.runtime.IExtensionRegistry;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.spi.IDynamicExtensionRegistry;
 import org.eclipse.core.runtime.spi.RegistryContributor;
 import org.eclipse.core.runtime.spi.RegistryStrategy;
@@ -38,6 +45,33 @@ import org.osgi.util.tracker.ServiceTracker;
 
 public class PDERegistryStrategy extends RegistryStrategy {
 
+	/**
+	 * Whether the extension descriptors of the bundles are read in parallel
+	 * before they are added to the registry, can be disabled with
+	 * <code>-Dpde.registry.parallelLoading=false</code>
+	 */
+	private static final boolean PARALLEL_DESCRIPTOR_READING = !"false" //$NON-NLS-1$
+			.equals(System.getProperty("pde.registry.parallelLoading")); //$NON-NLS-1$
+
+	/**
+	 * The contents of the plugin.xml or fragment.xml of a bundle
+	 *
+	 * @param file
+	 *            the bundle archive or the descriptor file of a directory
+	 *            bundle, used as name of the contribution
+	 * @param contents
+	 *            the bytes of the descriptor
+	 */
+	private record Descriptor(File file, byte[] contents) {
+	}
+
+	/**
+	 * A descriptor that is being read for a model whose contribution is
+	 * missing from the registry
+	 */
+	private record PendingDescriptor(IContributor contributor, Future<Descriptor> descriptor) {
+	}
+
 	/**
 	 * Tracker for the XML parser service
 	 */
@@ -49,6 +83,8 @@ public class PDERegistryStrategy extends RegistryStrategy {
 	private ExtensionListener fExtensionListener = null;
 	private PDEExtensionRegistry fPDERegistry = null;
 
+	private boolean fParallelReading = PARALLEL_DESCRIPTOR_READING;
+
 	class RegistryListener {
 		IExtensionRegistry fRegistry;
 
@@ -197,53 +233,123 @@ public class PDERegistryStrategy extends RegistryStrategy {
 	}
 
 	private void addBundles(IExtensionRegistry registry, IPluginModelBase[] bases) {
-		for (IPluginModelBase base : bases) {
-			addBundle(registry, base);
+		if (!fParallelReading || bases.length < 2) {
+			for (IPluginModelBase base : bases) {
+				addBundle(registry, base);
+			}
+			return;
 		}
+		// read the descriptors concurrently but add them to the registry in
+		// the given order, so that workspace models still come first. At most
+		// two reads per thread are pending, so only a few descriptors are held
+		// in memory at once.
+		int threads = Math.min(Runtime.getRuntime().availableProcessors(), bases.length);
+		ExecutorService executor = createDescriptorReaders(threads);
+		try {
+			Deque<PendingDescriptor> pending = new ArrayDeque<>(2 * threads);
+			for (IPluginModelBase base : bases) {
+				IContributor contributor = getMissingContributor(registry, base);
+				if (contributor == null) {
+					continue;
+				}
+				if (pending.size() == 2 * threads) {
+					addBundle(registry, pending.remove());
+				}
+				pending.add(new PendingDescriptor(contributor, executor.submit(() -> readDescriptor(base))));
+			}
+			while (!pending.isEmpty()) {
+				addBundle(registry, pending.remove());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static ExecutorService createDescriptorReaders(int threads) {
+		return Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "PDE extension registry reader"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private void addBundle(IExtensionRegistry registry, PendingDescriptor pending) {
+		Descriptor descriptor;
+		try {
+			descriptor = pending.descriptor().get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
+		}
+		addBundle(registry, pending.contributor(), descriptor);
 	}
 
 	private void addBundle(IExtensionRegistry registry, IPluginModelBase base) {
-		IContributor contributor = createContributor(base);
-		if (contributor == null) {
-			return;
+		IContributor contributor = getMissingContributor(registry, base);
+		if (contributor != null) {
+			addBundle(registry, contributor, readDescriptor(base));
 		}
-		if (((IDynamicExtensionRegistry) registry).hasContributor(contributor)) {
+	}
+
+	private void addBundle(IExtensionRegistry registry, IContributor contributor, Descriptor descriptor) {
+		// an earlier model may have added the same contribution meanwhile
+		if (descriptor == null || ((IDynamicExtensionRegistry) registry).hasContributor(contributor)) {
 			return;
 		}
+		registry.addContribution(new ByteArrayInputStream(descriptor.contents()), contributor, true,
+				descriptor.file().getPath(), null, fKey);
+	}
 
+	/**
+	 * Returns the contributor of the given model if it is not yet part of the
+	 * registry.
+	 *
+	 * @return the contributor or <code>null</code> if the model has none or it
+	 *         is already contributed
+	 */
+	private IContributor getMissingContributor(IExtensionRegistry registry, IPluginModelBase base) {
+		IContributor contributor = createContributor(base);
+		if (contributor == null || ((IDynamicExtensionRegistry) registry).hasContributor(contributor)) {
+			return null;
+		}
+		return contributor;
+	}
+
+	/**
+	 * Reads the extension descriptor of the given bundle.
+	 *
+	 * @return the descriptor or <code>null</code> if the bundle has none or it
+	 *         cannot be read
+	 */
+	private Descriptor readDescriptor(IPluginModelBase base) {
 		File input = getFile(base);
 		if (input == null) {
-			return;
+			return null;
 		}
-		InputStream is = null;
-		ZipFile jfile = null;
-
 		try {
 			if (new File(base.getInstallLocation()).isDirectory()) {
 				// Directory bundle, access the extensions file directly
-				is = new FileInputStream(input);
-			} else {
-				// Archived bundle, need to extract the file
-				jfile = new ZipFile(input, ZipFile.OPEN_READ);
+				return new Descriptor(input, Files.readAllBytes(input.toPath()));
+			}
+			// Archived bundle, need to extract the file
+			try (ZipFile jfile = new ZipFile(input, ZipFile.OPEN_READ)) {
 				String fileName = (base.isFragmentModel()) ? ICoreConstants.FRAGMENT_FILENAME_DESCRIPTOR
 						: ICoreConstants.PLUGIN_FILENAME_DESCRIPTOR;
 				ZipEntry entry = jfile.getEntry(fileName);
 				if (entry != null) {
-					is = jfile.getInputStream(entry);
+					try (InputStream is = jfile.getInputStream(entry)) {
+						return new Descriptor(input, is.readAllBytes());
+					}
 				}
 			}
-			if (is != null) {
-				registry.addContribution(new BufferedInputStream(is), contributor, true, input.getPath(), null, fKey);
-			}
 		} catch (IOException e) {
-		} finally {
-			if (jfile != null) {
-				try {
-					jfile.close();
-				} catch (IOException e) {
-				}
-			}
 		}
+		return null;
 	}
 
 	private void removeBundle(IExtensionRegistry registry, IPluginModelBase base) {
@@ -285,6 +391,17 @@ public class PDERegistryStrategy extends RegistryStrategy {
 		return (inputFile.exists()) ? inputFile : null;
 	}
 
+	/**
+	 * Sets whether the extension descriptors are read in parallel, by default
+	 * unless disabled with <code>-Dpde.registry.parallelLoading=false</code>.
+	 *
+	 * @param parallelReading
+	 *            whether the descriptors are read in parallel
+	 */
+	void setParallelReading(boolean parallelReading) {
+		fParallelReading = parallelReading;
+	}
+
 	public IContributor createContributor(IPluginModelBase base) {
 		BundleDescription desc = base == null ? null : base.getBundleDescription();
 		// return null if the IPluginModelBase does not have a BundleDescription (since then we won't have a valid 'id')
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,10 +18,16 @@ import java.io.File;
 import java.net.URI;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 
 import org.eclipse.core.filesystem.URIUtil;
@@ -30,6 +36,8 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.osgi.service.resolver.BaseDescription;
 import org.eclipse.osgi.service.resolver.BundleDescription;
@@ -48,6 +56,13 @@ public class PDEState extends MinimalState {
 	private final PDEAuxiliaryState fAuxiliaryState;
 	private final ArrayList<IPluginModelBase> fTargetModels = new ArrayList<>();
 
+	/**
+	 * Whether the manifests of the target bundles are read and parsed in
+	 * parallel, can be disabled with <code>-Dpde.state.parallelLoading=false</code>
+	 */
+	private static final boolean PARALLEL_MANIFEST_LOADING = !"false" //$NON-NLS-1$
+			.equals(System.getProperty("pde.state.parallelLoading")); //$NON-NLS-1$
+
 	/**
 	 * Creates a new PDE State containing bundles from the given URLs.
 	 *
@@ -57,11 +72,31 @@ public class PDEState extends MinimalState {
 	 * @param monitor progress monitor
 	 */
 	public PDEState(URI[] target, boolean addResolver, boolean removeDuplicates, IProgressMonitor monitor) {
+		this(target, addResolver, removeDuplicates, PARALLEL_MANIFEST_LOADING, TargetManifestCache.getDefault(),
+				monitor);
+	}
+
+	/**
+	 * Creates a new PDE State containing bundles from the given URLs.
+	 * <p>
+	 * Visible for testing only
+	 * </p>
+	 *
+	 * @param target urls of target bundles
+	 * @param addResolver whether to add a resolver to the state
+	 * @param removeDuplicates whether to remove duplicate conflicting bundles from the state
+	 * @param parallel whether the bundle manifests are read in parallel
+	 * @param manifestCache the cache the bundle manifests are read through
+	 * @param monitor progress monitor
+	 */
+	public PDEState(URI[] target, boolean addResolver, boolean removeDuplicates, boolean parallel,
+			TargetManifestCache manifestCache, IProgressMonitor monitor) {
 		long start = System.currentTimeMillis();
 		fAuxiliaryState = new PDEAuxiliaryState();
 
-		// We no longer try and restore from a cached state as it had no performance benefit
-		createNewTargetState(addResolver, target, monitor);
+		// The resolved OSGi state is not restored from disk, only the manifests
+		// of unchanged target bundles are (see TargetManifestCache)
+		createNewTargetState(addResolver, target, parallel, manifestCache, monitor);
 
 		if (removeDuplicates) {
 			removeDuplicatesFromState(fState);
@@ -76,7 +111,8 @@ public class PDEState extends MinimalState {
 		}
 	}
 
-	private void createNewTargetState(boolean resolve, URI[] uris, IProgressMonitor monitor) {
+	private void createNewTargetState(boolean resolve, URI[] uris, boolean parallel,
+			TargetManifestCache manifestCache, IProgressMonitor monitor) {
 		fState = stateObjectFactory.createState(resolve);
 		if (resolve) {
 			final String systemBSN = getSystemBundle();
@@ -87,20 +123,64 @@ public class PDEState extends MinimalState {
 		}
 		SubMonitor subMonitor = SubMonitor.convert(monitor, PDECoreMessages.PDEState_CreatingTargetModelState,
 				uris.length);
-		for (URI uri : uris) {
-			File file = toFile(uri);
-			if (file == null) {
-				continue;
+		if (uris.length == 0) {
+			return;
+		}
+		File[] files = Arrays.stream(uris).map(PDEState::toFile).toArray(File[]::new);
+		// Manifests may be read concurrently, but bundles are always added to
+		// the state in the given order so that the bundle ids are stable
+		ExecutorService executor = parallel && files.length > 1 ? createManifestReaders(files.length) : null;
+		try {
+			List<Future<Map<String, String>>> manifests = new ArrayList<>(files.length);
+			if (executor != null) {
+				for (File file : files) {
+					manifests.add(file == null ? null : executor.submit(() -> manifestCache.getManifest(file)));
+				}
 			}
-			try {
-				subMonitor.subTask(file.getName());
-				addBundle(file, -1);
-			} catch (CoreException e) {
-				if (e.getStatus().getCode() != ManifestUtils.STATUS_CODE_NOT_A_BUNDLE_MANIFEST) {
-					PDECore.log(e);
+			for (int i = 0; i < files.length; i++) {
+				File file = files[i];
+				if (file == null) {
+					continue;
 				}
+				try {
+					subMonitor.subTask(file.getName());
+					Map<String, String> manifest = executor != null ? getManifest(manifests.get(i))
+							: manifestCache.getManifest(file);
+					addBundle(file, -1, manifest);
+				} catch (CoreException e) {
+					if (e.getStatus().getCode() != ManifestUtils.STATUS_CODE_NOT_A_BUNDLE_MANIFEST) {
+						PDECore.log(e);
+					}
+				}
+				subMonitor.split(1);
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	private static ExecutorService createManifestReaders(int bundleCount) {
+		int threads = Math.min(Runtime.getRuntime().availableProcessors(), bundleCount);
+		return Executors.newFixedThreadPool(threads, r -> {
+			Thread thread = new Thread(r, "PDE target manifest reader"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private static Map<String, String> getManifest(Future<Map<String, String>> manifest) throws CoreException {
+		try {
+			return manifest.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof CoreException coreException) {
+				throw coreException;
 			}
-			subMonitor.split(1);
+			throw new CoreException(Status.error(e.getCause().getMessage(), e.getCause()));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new OperationCanceledException();
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -33,10 +33,13 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 
+import org.eclipse.core.filesystem.URIUtil;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
@@ -136,6 +139,18 @@ public class PluginModelManager implements IModelProviderListener {
 	 */
 	private final UpdateClasspathsJob fUpdateJob = new UpdateClasspathsJob();
 
+	/**
+	 * Knows which bundles contributed to the classpath containers of workspace
+	 * plug-ins, so that only affected containers are recomputed on state changes
+	 */
+	private final ClasspathDependencyIndex fClasspathIndex = new ClasspathDependencyIndex();
+
+	/**
+	 * Shares the access rules of dependencies between the classpath containers
+	 * of workspace plug-ins, as long as the exporting bundles do not change
+	 */
+	private final VisiblePackageRules fVisiblePackageRules = new VisiblePackageRules();
+
 	/**
 	 * Subclass of ModelEntry
 	 * It adds methods that add/remove model from the entry.
@@ -301,6 +316,8 @@ public class PluginModelManager implements IModelProviderListener {
 				// resolve based on added bundles, in case there are multiple versions of the added bundles
 				stateDelta = fState.resolveState(addedBSNs.toArray(new String[addedBSNs.size()]));
 			}
+			// drop the shared access rules of changed bundles before the classpath updates below
+			fVisiblePackageRules.stateResolved(stateDelta);
 			// trigger a classpath update for all workspace plug-ins affected by the
 			// processed batch of changes, run asynch for manifest changes
 			updateAffectedEntries(stateDelta, (e.getEventTypes() & IModelProviderEvent.MODELS_CHANGED) != 0);
@@ -325,6 +342,7 @@ public class PluginModelManager implements IModelProviderListener {
 		if (delta == null) {
 			// if the delta is null, then the entire target changed.
 			// Therefore, we should update the classpath for all workspace plug-ins.
+			fClasspathIndex.clear();
 			IPluginModelBase[] models = getWorkspaceModels();
 			for (IPluginModelBase model : models) {
 				IProject project = model.getUnderlyingResource().getProject();
@@ -341,11 +359,14 @@ public class PluginModelManager implements IModelProviderListener {
 				try {
 					// update classpath for workspace plug-ins that are housed in a
 					// Java project hand have been affected by the processd model changes.
+					// Bundles that were only re-resolved to the same wiring are skipped.
 					IPluginModelBase model = findModel(bundleDelta.getBundle());
 					IResource resource = model == null ? null : model.getUnderlyingResource();
 					if (resource != null) {
 						IProject project = resource.getProject();
-						if (project.hasNature(JavaCore.NATURE_ID)) {
+						if (project.hasNature(JavaCore.NATURE_ID)
+								&& (ClasspathDependencyIndex.isStructuralChange(bundleDelta)
+										|| fClasspathIndex.hasWiringChanged(project, bundleDelta.getBundle()))) {
 							IJavaProject jProject = JavaCore.create(project);
 							if (!map.containsKey(jProject)) {
 								map.put(jProject, new RequiredPluginsClasspathContainer(model, project));
@@ -355,6 +376,21 @@ public class PluginModelManager implements IModelProviderListener {
 				} catch (CoreException e) {
 				}
 			}
+			// update classpath for workspace plug-ins that consumed a changed bundle
+			IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+			for (String projectName : fClasspathIndex.getDependentProjects(delta)) {
+				IProject project = root.getProject(projectName);
+				IPluginModelBase model = findModel(project);
+				try {
+					if (model != null && project.hasNature(JavaCore.NATURE_ID)) {
+						IJavaProject jProject = JavaCore.create(project);
+						if (!map.containsKey(jProject)) {
+							map.put(jProject, new RequiredPluginsClasspathContainer(model, project));
+						}
+					}
+				} catch (CoreException e) {
+				}
+			}
 			// do secondary dependencies
 			IPluginModelBase[] models = getWorkspaceModels();
 			for (IPluginModelBase model : models) {
@@ -615,6 +651,9 @@ public class PluginModelManager implements IModelProviderListener {
 		}
 
 		fState = new PDEState(externalUris, true, true, subMon.split(15));
+		if (!fCancelled) {
+			pruneManifestCache(externalUris);
+		}
 		fExternalManager.setModels(fState.getTargetModels());
 		addToTable(entries, fExternalManager.getAllModels());
 
@@ -644,6 +683,7 @@ public class PluginModelManager implements IModelProviderListener {
 
 		// Resolve the state for all external and workspace models
 		fState.resolveState(true);
+		fVisiblePackageRules.stateChanged(fState.getState());
 		subMon.split(5);
 
 		fEntries = entries;
@@ -720,6 +760,29 @@ public class PluginModelManager implements IModelProviderListener {
 
 	}
 
+	/**
+	 * Drops the cached manifests of all bundles that are not part of the target
+	 * platform and saves the manifest cache. This is only done for the state of
+	 * the target platform, other {@link PDEState}s such as the ones of the
+	 * target editor or the import wizard only add to the cache, so that they do
+	 * not evict the manifests of the target.
+	 *
+	 * @param targetUris
+	 *            the locations of the target bundles
+	 */
+	private static void pruneManifestCache(URI[] targetUris) {
+		List<File> bundles = new ArrayList<>(targetUris.length);
+		for (URI uri : targetUris) {
+			IPath path = URIUtil.toPath(uri);
+			if (path != null) {
+				bundles.add(path.toFile());
+			}
+		}
+		TargetManifestCache manifestCache = TargetManifestCache.getDefault();
+		manifestCache.retain(bundles);
+		manifestCache.save();
+	}
+
 	/**
 	 * Adds the given models to the corresponding ModelEntry in the master table
 	 *
@@ -1229,6 +1292,26 @@ public class PluginModelManager implements IModelProviderListener {
 		}
 	}
 
+	/**
+	 * Returns the index of bundles contributing to the classpath containers of
+	 * workspace plug-ins
+	 *
+	 * @return the classpath dependency index
+	 */
+	ClasspathDependencyIndex getClasspathDependencyIndex() {
+		return fClasspathIndex;
+	}
+
+	/**
+	 * Returns the access rules of dependencies shared by the classpath
+	 * containers of workspace plug-ins
+	 *
+	 * @return the shared access rules
+	 */
+	VisiblePackageRules getVisiblePackageRules() {
+		return fVisiblePackageRules;
+	}
+
 	/**
 	 * Returns the state containing bundle descriptions for workspace plug-ins and target plug-ins
 	 * that form the current PDE state
@@ -1255,6 +1338,7 @@ public class PluginModelManager implements IModelProviderListener {
 	protected void shutdown() {
 		fWorkspaceManager.shutdown();
 		fExternalManager.shutdown();
+		fClasspathIndex.dispose();
 
 		if (fListeners != null) {
 			fListeners.clear();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2018 IBM Corporation and others.
+ *  Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -48,7 +48,6 @@ import org.eclipse.osgi.service.resolver.BundleSpecification;
 import org.eclipse.osgi.service.resolver.ExportPackageDescription;
 import org.eclipse.osgi.service.resolver.HostSpecification;
 import org.eclipse.osgi.service.resolver.ImportPackageSpecification;
-import org.eclipse.osgi.service.resolver.StateHelper;
 import org.eclipse.pde.core.IClasspathContributor;
 import org.eclipse.pde.core.build.IBuild;
 import org.eclipse.pde.core.build.IBuildEntry;
@@ -224,6 +223,11 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 
 			addJunit5RuntimeDependencies(added, entries);
 
+			if (!addImportedPackages && project != null) {
+				Set<BundleDescription> contributors = new HashSet<>(added);
+				contributors.addAll(map.keySet());
+				PluginModelManager.getInstance().getClasspathDependencyIndex().record(project, desc, contributors);
+			}
 		} catch (CoreException e) {
 		}
 		return entries;
@@ -251,41 +255,15 @@ public class RequiredPluginsClasspathContainer extends PDEClasspathContainer imp
 	}
 
 	private Map<BundleDescription, List<Rule>> retrieveVisiblePackagesFromState(BundleDescription desc) {
-		Map<BundleDescription, List<Rule>> visiblePackages = new HashMap<>();
-		StateHelper helper = Platform.getPlatformAdmin().getStateHelper();
-		addVisiblePackagesFromState(helper, desc, visiblePackages);
-		if (desc.getHost() != null) {
-			addVisiblePackagesFromState(helper, (BundleDescription) desc.getHost().getSupplier(), visiblePackages);
+		VisiblePackageRules rules = PluginModelManager.getInstance().getVisiblePackageRules();
+		Map<BundleDescription, List<Rule>> visiblePackages = rules.getVisiblePackages(desc);
+		if (desc.getHost() != null && desc.getHost().getSupplier() instanceof BundleDescription host) {
+			rules.getVisiblePackages(host).forEach(
+					(exporter, hostRules) -> VisiblePackageRules.addRules(visiblePackages, exporter, hostRules));
 		}
 		return visiblePackages;
 	}
 
-	private void addVisiblePackagesFromState(StateHelper helper, BundleDescription desc,
-			Map<BundleDescription, List<Rule>> visiblePackages) {
-		if (desc == null) {
-			return;
-		}
-		ExportPackageDescription[] exports = helper.getVisiblePackages(desc);
-		for (ExportPackageDescription export : exports) {
-			BundleDescription exporter = export.getExporter();
-			if (exporter == null) {
-				continue;
-			}
-			List<Rule> list = visiblePackages.computeIfAbsent(exporter, e -> new ArrayList<>());
-			Rule rule = getRule(helper, desc, export);
-			if (!list.contains(rule)) {
-				list.add(rule);
-			}
-		}
-	}
-
-	private Rule getRule(StateHelper helper, BundleDescription desc, ExportPackageDescription export) {
-		boolean discouraged = helper.getAccessCode(desc, export) == StateHelper.ACCESS_DISCOURAGED;
-		String name = export.getName();
-		IPath path = name.equals(".") ? IPath.fromOSString("*") : IPath.fromOSString(name.replace('.', '/') + "/*"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-		return new Rule(path, discouraged);
-	}
-
 	protected void addDependencyViaImportPackage(BundleDescription desc, Set<BundleDescription> added,
 			Map<BundleDescription, List<Rule>> map, List<IClasspathEntry> entries) throws CoreException {
 		if (desc == null || !added.add(desc)) {
@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.jar.JarFile;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.pde.core.target.TargetBundle;
+import org.eclipse.pde.internal.core.util.CacheFile;
+import org.eclipse.pde.internal.core.util.ManifestUtils;
+import org.eclipse.pde.internal.core.util.UtilMessages;
+
+/**
+ * Persistent cache of the raw manifest headers of target bundles. It is used
+ * by {@link PDEState} to avoid opening and parsing every bundle of the target
+ * on each startup, and by {@link TargetBundle} so that resolving a directory,
+ * installation or feature location whose content did not change only has to
+ * look at the file system meta data of its bundles.
+ * <p>
+ * Entries are keyed by the absolute bundle location and are only reused as
+ * long as the size and modification time of the bundle archive (or of the
+ * <code>META-INF/MANIFEST.MF</code> of a directory bundle) are unchanged.
+ * Locations that are known not to be bundles are remembered as well. The
+ * cached headers are the ones read from disk, before any
+ * {@link TargetWeaver weaving} is applied, so the auxiliary data of the
+ * {@link PDEAuxiliaryState} is derived from them exactly as from a freshly
+ * parsed manifest. Entries of bundles that were not part of the target
+ * platform when it was last loaded are dropped, so the cache does not grow
+ * with every target that was ever used. Other {@link PDEState}s, such as the
+ * ones created for a target preview, only add entries.
+ * </p>
+ */
+public class TargetManifestCache {
+
+	private static final String CACHE_FILE = ".targetManifests"; //$NON-NLS-1$
+
+	/** Marks the file format, "PDMF" */
+	private static final int MAGIC = 0x50444D46;
+	/** Must be incremented whenever the file format changes */
+	private static final int FORMAT_VERSION = 2;
+
+	/** Header count written for locations that are not bundles */
+	private static final int NOT_A_BUNDLE = -1;
+
+	private static TargetManifestCache fInstance;
+
+	/**
+	 * A cached manifest together with the fingerprint of the file it was read
+	 * from. <code>headers</code> holds alternating keys and values or is
+	 * <code>null</code> if the location is not a bundle.
+	 */
+	private record Entry(long size, long lastModified, String[] headers) {
+
+		boolean matches(File stampFile) {
+			return size == stampFile.length() && lastModified == stampFile.lastModified();
+		}
+	}
+
+	private final CacheFile fFile;
+	private final Map<String, Entry> fEntries = new ConcurrentHashMap<>();
+	private final AtomicBoolean fDirty = new AtomicBoolean();
+
+	/**
+	 * Creates a cache backed by the given file and reads the manifests cached
+	 * in it.
+	 * <p>
+	 * Visible for testing only
+	 * </p>
+	 *
+	 * @param file
+	 *            the file the cache is saved to, or <code>null</code> to keep
+	 *            the cache in memory only
+	 */
+	public TargetManifestCache(File file) {
+		fFile = file != null ? new CacheFile(file, MAGIC, FORMAT_VERSION) : null;
+		read();
+	}
+
+	/**
+	 * Returns the shared cache, reading it from the PDE metadata area the first
+	 * time it is requested.
+	 *
+	 * @return the shared manifest cache
+	 */
+	public static synchronized TargetManifestCache getDefault() {
+		if (fInstance == null) {
+			File file = null;
+			PDECore pdeCore = PDECore.getDefault();
+			if (pdeCore != null) {
+				try {
+					file = new File(pdeCore.getStateLocation().toFile(), CACHE_FILE);
+				} catch (IllegalStateException e) {
+					// no instance location, the cache is kept in memory only
+				}
+			}
+			fInstance = new TargetManifestCache(file);
+		}
+		return fInstance;
+	}
+
+	/**
+	 * Saves the shared cache if it was used in this session.
+	 */
+	static synchronized void shutdown() {
+		if (fInstance != null) {
+			fInstance.save();
+			fInstance = null;
+		}
+	}
+
+	/**
+	 * Returns the manifest headers of the bundle at the given location, either
+	 * from this cache if the bundle did not change since it was cached, or by
+	 * loading them with {@link ManifestUtils#loadManifest(File)}. The returned
+	 * map is a private copy that may be modified by the caller.
+	 *
+	 * @param bundleLocation
+	 *            root location of the bundle, may be an archive or a directory
+	 * @return map of the bundle manifest headers
+	 * @throws CoreException
+	 *             see {@link ManifestUtils#loadManifest(File)}
+	 */
+	public Map<String, String> getManifest(File bundleLocation) throws CoreException {
+		String key = bundleLocation.getAbsolutePath();
+		File stampFile = bundleLocation.isFile() ? bundleLocation : new File(bundleLocation, JarFile.MANIFEST_NAME);
+		Entry entry = fEntries.get(key);
+		if (entry != null && entry.matches(stampFile)) {
+			if (entry.headers() == null) {
+				throw notABundle(bundleLocation);
+			}
+			return toMap(entry.headers());
+		}
+		long size = stampFile.length();
+		long lastModified = stampFile.lastModified();
+		try {
+			Map<String, String> manifest = ManifestUtils.loadManifest(bundleLocation);
+			if (lastModified != 0) {
+				fEntries.put(key, new Entry(size, lastModified, toArray(manifest)));
+				fDirty.set(true);
+			}
+			return manifest;
+		} catch (CoreException e) {
+			if (lastModified != 0 && e.getStatus().getCode() == ManifestUtils.STATUS_CODE_NOT_A_BUNDLE_MANIFEST) {
+				fEntries.put(key, new Entry(size, lastModified, null));
+				fDirty.set(true);
+			} else if (entry != null) {
+				fEntries.remove(key);
+				fDirty.set(true);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Drops the entries of all bundles but the given ones, which are the
+	 * bundles of the target platform that was just loaded.
+	 *
+	 * @param bundleLocations
+	 *            root locations of the bundles whose entries are kept
+	 */
+	public void retain(Collection<File> bundleLocations) {
+		Set<String> keys = new HashSet<>();
+		for (File bundleLocation : bundleLocations) {
+			keys.add(bundleLocation.getAbsolutePath());
+		}
+		if (fEntries.keySet().retainAll(keys)) {
+			fDirty.set(true);
+		}
+	}
+
+	/**
+	 * Returns whether this cache has an entry for the given bundle location.
+	 * <p>
+	 * Visible for testing only
+	 * </p>
+	 *
+	 * @param bundleLocation
+	 *            root location of the bundle
+	 * @return whether the location is cached
+	 */
+	public boolean contains(File bundleLocation) {
+		return fEntries.containsKey(bundleLocation.getAbsolutePath());
+	}
+
+	/**
+	 * Writes this cache to disk if any entry was added, changed or dropped
+	 * since it was last read or saved. Entries of bundles that no longer exist
+	 * are dropped.
+	 */
+	public synchronized void save() {
+		if (fFile == null || !fDirty.getAndSet(false)) {
+			return;
+		}
+		fEntries.keySet().removeIf(location -> !new File(location).exists());
+		Map<String, Entry> entries = new HashMap<>(fEntries);
+		try {
+			fFile.write(out -> {
+				out.writeInt(entries.size());
+				for (Map.Entry<String, Entry> e : entries.entrySet()) {
+					Entry entry = e.getValue();
+					CacheFile.writeString(out, e.getKey());
+					out.writeLong(entry.size());
+					out.writeLong(entry.lastModified());
+					String[] headers = entry.headers();
+					if (headers == null) {
+						out.writeInt(NOT_A_BUNDLE);
+						continue;
+					}
+					out.writeInt(headers.length);
+					for (String header : headers) {
+						// header values such as Export-Package can exceed the
+						// 64k limit of writeUTF
+						CacheFile.writeString(out, header);
+					}
+				}
+			});
+		} catch (IOException e) {
+			PDECore.log(e);
+		}
+	}
+
+	private void read() {
+		if (fFile == null) {
+			return;
+		}
+		try {
+			fFile.read(in -> {
+				int count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					String location = CacheFile.readString(in);
+					long size = in.readLong();
+					long lastModified = in.readLong();
+					int length = in.readInt();
+					String[] headers = null;
+					if (length != NOT_A_BUNDLE) {
+						headers = new String[length];
+						for (int j = 0; j < length; j++) {
+							headers[j] = CacheFile.readString(in);
+						}
+					}
+					fEntries.put(location, new Entry(size, lastModified, headers));
+				}
+			});
+		} catch (IOException | RuntimeException e) {
+			// a corrupt or truncated cache is simply rebuilt
+			fEntries.clear();
+			fDirty.set(true);
+		}
+	}
+
+	private static String[] toArray(Map<String, String> manifest) {
+		String[] headers = new String[manifest.size() * 2];
+		int i = 0;
+		for (Map.Entry<String, String> header : manifest.entrySet()) {
+			headers[i++] = header.getKey();
+			headers[i++] = header.getValue();
+		}
+		return headers;
+	}
+
+	private static Map<String, String> toMap(String[] headers) {
+		// manifest header names are case insensitive
+		Map<String, String> manifest = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (int i = 0; i < headers.length; i += 2) {
+			manifest.put(headers[i], headers[i + 1]);
+		}
+		return manifest;
+	}
+
+	private static CoreException notABundle(File bundleLocation) {
+		return new CoreException(new Status(IStatus.ERROR, PDECore.PLUGIN_ID,
+				ManifestUtils.STATUS_CODE_NOT_A_BUNDLE_MANIFEST,
+				NLS.bind(UtilMessages.ErrorReadingManifest, bundleLocation.getAbsolutePath()), null));
+	}
+
+}
@@ -0,0 +1,355 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.internal.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.osgi.service.resolver.BundleDelta;
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.BundleSpecification;
+import org.eclipse.osgi.service.resolver.ExportPackageDescription;
+import org.eclipse.osgi.service.resolver.ImportPackageSpecification;
+import org.eclipse.osgi.service.resolver.State;
+import org.eclipse.osgi.service.resolver.StateDelta;
+import org.eclipse.osgi.service.resolver.StateHelper;
+import org.eclipse.pde.internal.core.PDEClasspathContainer.Rule;
+import org.eclipse.pde.internal.core.PDEClasspathContainer.SharedRules;
+
+/**
+ * Computes the packages a bundle sees of its dependencies as access rules per
+ * exporting bundle, for the {@link RequiredPluginsClasspathContainer}s of all
+ * workspace plug-ins.
+ * <p>
+ * The result is the one of
+ * {@link StateHelper#getVisiblePackages(BundleDescription)}, but the rules for
+ * the packages a bundle exports to the bundles requiring it are computed only
+ * once per exporting bundle and access kind. They are shared by all
+ * containers, together with their access rule array. Only the packages a
+ * bundle imports are computed for each container. The {@link StateHelper} is
+ * still used for a bundle if one of its dependencies substitutes exports,
+ * splits an imported package with the bundles it requires or names the bundle
+ * as a friend, and if the state is resolved in strict mode.
+ * </p>
+ * <p>
+ * When the state is resolved again, only the rules of the bundles in the
+ * {@link StateDelta} and of bundles no longer in the state are dropped, the
+ * rules of all other exporters remain shared with the containers computed
+ * before. All rules are dropped when the state is replaced.
+ * </p>
+ * <p>
+ * Public for testing only
+ * </p>
+ */
+public class VisiblePackageRules implements IStateDeltaListener {
+
+	private static final String RESOLVER_MODE = "osgi.resolverMode"; //$NON-NLS-1$
+	private static final String STRICT_MODE = "strict"; //$NON-NLS-1$
+	private static final String EE_DIRECTIVE = "x-equinox-ee"; //$NON-NLS-1$
+
+	/**
+	 * The packages a bundle exports to the bundles requiring it.
+	 *
+	 * @param rules the rules for the exported packages, as seen by bundles that
+	 *            are not a friend of the exporter
+	 * @param names the names of the exported packages, in the order of their
+	 *            rules
+	 * @param friends the friends named by any of the exported packages
+	 * @param substitutes whether the bundle substitutes any of its exports
+	 */
+	private record Exports(SharedRules rules, List<String> names, Set<String> friends, boolean substitutes) {
+	}
+
+	/**
+	 * The rules computed for one resolution of the state. Computations that
+	 * are still running when the state is resolved again only fill the
+	 * generation they started with, which is no longer used.
+	 */
+	private static class Generation {
+		final Map<BundleDescription, Exports> exports = new ConcurrentHashMap<>();
+		final Map<BundleDescription, Set<String>> requiredPackages = new ConcurrentHashMap<>();
+		final Map<String, Rule> accessibleRules = new ConcurrentHashMap<>();
+		final Map<String, Rule> discouragedRules = new ConcurrentHashMap<>();
+	}
+
+	private volatile Generation fGeneration = new Generation();
+
+	@Override
+	public void stateResolved(StateDelta delta) {
+		if (delta == null) {
+			clear();
+			return;
+		}
+		// the exports of a bundle only change if it is part of the delta, the
+		// packages of the bundles it requires are collected again
+		Generation generation = new Generation();
+		generation.exports.putAll(fGeneration.exports);
+		for (BundleDelta bundleDelta : delta.getChanges()) {
+			generation.exports.remove(bundleDelta.getBundle());
+		}
+		State state = delta.getState();
+		generation.exports.keySet().removeIf(bundle -> state.getBundle(bundle.getBundleId()) != bundle);
+		fGeneration = generation;
+	}
+
+	@Override
+	public void stateChanged(State newState) {
+		clear();
+	}
+
+	/**
+	 * Drops all rules computed so far.
+	 */
+	public void clear() {
+		fGeneration = new Generation();
+	}
+
+	/**
+	 * Returns the rules for the packages the given bundle sees, per exporting
+	 * bundle. The rule lists must not be modified.
+	 *
+	 * @param desc the bundle whose visible packages are returned
+	 * @return the rules for the visible packages, keyed by their exporter
+	 */
+	public Map<BundleDescription, List<Rule>> getVisiblePackages(BundleDescription desc) {
+		Generation generation = fGeneration;
+		Map<BundleDescription, List<Rule>> visiblePackages = new LinkedHashMap<>();
+		if (isStrict(desc.getContainingState()) || !addVisiblePackages(generation, desc, visiblePackages)) {
+			visiblePackages.clear();
+			addVisiblePackagesFromState(generation, desc, visiblePackages);
+		}
+		return visiblePackages;
+	}
+
+	private boolean addVisiblePackages(Generation generation, BundleDescription desc,
+			Map<BundleDescription, List<Rule>> visiblePackages) {
+		BundleDescription host = desc.getHost() == null ? desc : (BundleDescription) desc.getHost().getSupplier();
+		Set<String> importNames = new HashSet<>();
+		for (ImportPackageSpecification importPackage : desc.getImportPackages()) {
+			ExportPackageDescription export = (ExportPackageDescription) importPackage.getSupplier();
+			if (export == null || export.getExporter() == host) {
+				continue;
+			}
+			BundleDescription exporter = export.getExporter();
+			if (exporter == null || getRequiredPackages(generation, exporter).contains(importPackage.getName())) {
+				// the package may be split with the bundles the exporter requires
+				return false;
+			}
+			if (!isSystemExport(export)) {
+				addRules(visiblePackages, exporter, List.of(getRule(generation, desc, export)));
+			}
+			importNames.add(importPackage.getName());
+		}
+		Set<BundleDescription> visited = new HashSet<>();
+		visited.add(desc);
+		for (BundleSpecification requiredBundle : desc.getRequiredBundles()) {
+			BundleDescription supplier = (BundleDescription) requiredBundle.getSupplier();
+			if (supplier != null && !addRequiredPackages(generation, desc, supplier, importNames, visited, visiblePackages)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean addRequiredPackages(Generation generation, BundleDescription desc, BundleDescription required,
+			Set<String> importNames, Set<BundleDescription> visited, Map<BundleDescription, List<Rule>> visiblePackages) {
+		if (!visited.add(required)) {
+			return true;
+		}
+		Exports exports = getExports(generation, required);
+		if (exports.substitutes() || exports.friends().contains(desc.getSymbolicName())) {
+			return false;
+		}
+		List<Rule> rules = exports.rules();
+		if (!Collections.disjoint(exports.names(), importNames)) {
+			// packages that are imported are only visible from their importer
+			rules = new ArrayList<>();
+			for (int i = 0; i < exports.names().size(); i++) {
+				if (!importNames.contains(exports.names().get(i))) {
+					rules.add(exports.rules().get(i));
+				}
+			}
+		}
+		if (!rules.isEmpty()) {
+			addRules(visiblePackages, required, rules);
+		}
+		for (BundleSpecification requiredBundle : required.getRequiredBundles()) {
+			BundleDescription supplier = (BundleDescription) requiredBundle.getSupplier();
+			if (requiredBundle.isExported() && supplier != null
+					&& !addRequiredPackages(generation, desc, supplier, importNames, visited, visiblePackages)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private Exports getExports(Generation generation, BundleDescription bundle) {
+		return generation.exports.computeIfAbsent(bundle, b -> {
+			List<Rule> rules = new ArrayList<>();
+			List<String> names = new ArrayList<>();
+			Set<String> friends = new HashSet<>();
+			for (ExportPackageDescription export : b.getSelectedExports()) {
+				// only the first export of a package is visible
+				if (isSystemExport(export) || names.contains(export.getName())) {
+					continue;
+				}
+				names.add(export.getName());
+				String[] exportFriends = (String[]) export.getDirective(ICoreConstants.FRIENDS_DIRECTIVE);
+				if (exportFriends != null) {
+					Collections.addAll(friends, exportFriends);
+				}
+				rules.add(getPackageRule(generation, export.getName(), isDiscouraged(null, export)));
+			}
+			return new Exports(new SharedRules(rules), names, friends, b.getSubstitutedExports().length > 0);
+		});
+	}
+
+	/**
+	 * Returns the names of all packages exported or substituted by the bundles
+	 * the given bundle requires and the bundles they re-export.
+	 */
+	private Set<String> getRequiredPackages(Generation generation, BundleDescription bundle) {
+		return generation.requiredPackages.computeIfAbsent(bundle, b -> {
+			Set<String> names = new HashSet<>();
+			Set<BundleDescription> visited = new HashSet<>();
+			visited.add(b);
+			for (BundleSpecification requiredBundle : b.getRequiredBundles()) {
+				addPackageNames((BundleDescription) requiredBundle.getSupplier(), visited, names);
+			}
+			return names;
+		});
+	}
+
+	private void addPackageNames(BundleDescription bundle, Set<BundleDescription> visited, Set<String> names) {
+		if (bundle == null || !visited.add(bundle)) {
+			return;
+		}
+		for (ExportPackageDescription export : bundle.getSelectedExports()) {
+			names.add(export.getName());
+		}
+		for (ExportPackageDescription export : bundle.getSubstitutedExports()) {
+			names.add(export.getName());
+		}
+		for (BundleSpecification requiredBundle : bundle.getRequiredBundles()) {
+			if (requiredBundle.isExported()) {
+				addPackageNames((BundleDescription) requiredBundle.getSupplier(), visited, names);
+			}
+		}
+	}
+
+	private void addVisiblePackagesFromState(Generation generation, BundleDescription desc,
+			Map<BundleDescription, List<Rule>> visiblePackages) {
+		StateHelper helper = Platform.getPlatformAdmin().getStateHelper();
+		for (ExportPackageDescription export : helper.getVisiblePackages(desc)) {
+			BundleDescription exporter = export.getExporter();
+			if (exporter != null) {
+				boolean discouraged = helper.getAccessCode(desc, export) == StateHelper.ACCESS_DISCOURAGED;
+				addRules(visiblePackages, exporter, List.of(getPackageRule(generation, export.getName(), discouraged)));
+			}
+		}
+	}
+
+	/**
+	 * Adds the given rules to the ones of the exporter, copying the shared rules
+	 * of the exporter only if they are extended.
+	 *
+	 * @param visiblePackages the rules of all exporters
+	 * @param exporter the exporter of the rules' packages
+	 * @param rules the rules to add
+	 */
+	static void addRules(Map<BundleDescription, List<Rule>> visiblePackages, BundleDescription exporter, List<Rule> rules) {
+		List<Rule> current = visiblePackages.get(exporter);
+		if (current == null) {
+			visiblePackages.put(exporter, rules);
+			return;
+		}
+		List<Rule> merged = null;
+		for (Rule rule : rules) {
+			if (!current.contains(rule)) {
+				if (merged == null) {
+					merged = new ArrayList<>(current);
+					current = merged;
+				}
+				merged.add(rule);
+			}
+		}
+		if (merged != null) {
+			visiblePackages.put(exporter, merged);
+		}
+	}
+
+	private Rule getRule(Generation generation, BundleDescription desc, ExportPackageDescription export) {
+		return getPackageRule(generation, export.getName(), isDiscouraged(desc, export));
+	}
+
+	private static Rule getPackageRule(Generation generation, String packageName, boolean discouraged) {
+		Map<String, Rule> rules = discouraged ? generation.discouragedRules : generation.accessibleRules;
+		return rules.computeIfAbsent(packageName, name -> {
+			IPath path = name.equals(".") ? IPath.fromOSString("*") : IPath.fromOSString(name.replace('.', '/') + "/*"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			return new Rule(path, discouraged);
+		});
+	}
+
+	/**
+	 * Mirrors {@link StateHelper#getAccessCode(BundleDescription, ExportPackageDescription)}.
+	 *
+	 * @param desc the bundle accessing the package, or <code>null</code> for
+	 *            any bundle that is not a friend of the exporter
+	 * @param export the exported package
+	 * @return whether access to the package is discouraged
+	 */
+	private static boolean isDiscouraged(BundleDescription desc, ExportPackageDescription export) {
+		if (Boolean.TRUE.equals(export.getDirective(ICoreConstants.INTERNAL_DIRECTIVE))) {
+			return true;
+		}
+		String[] friends = (String[]) export.getDirective(ICoreConstants.FRIENDS_DIRECTIVE);
+		if (friends == null) {
+			return false;
+		}
+		String symbolicName = desc != null ? desc.getSymbolicName() : null;
+		for (String friend : friends) {
+			if (friend.equals(symbolicName)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether the package is provided by the execution environment,
+	 * these are not visible packages for the {@link StateHelper}.
+	 */
+	private static boolean isSystemExport(ExportPackageDescription export) {
+		return export.getDirective(EE_DIRECTIVE) instanceof Integer ee && ee.intValue() >= 0;
+	}
+
+	private static boolean isStrict(State state) {
+		if (state == null) {
+			return false;
+		}
+		for (Dictionary<?, ?> properties : state.getPlatformProperties()) {
+			if (properties != null && STRICT_MODE.equals(properties.get(RESOLVER_MODE))) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
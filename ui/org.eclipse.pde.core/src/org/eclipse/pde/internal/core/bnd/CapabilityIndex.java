@@ -0,0 +1,187 @@
+/*******************************************************************************
+ *  Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.bnd;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.State;
+import org.osgi.resource.Capability;
+import org.osgi.resource.Namespace;
+import org.osgi.resource.Requirement;
+
+import aQute.bnd.osgi.resource.ResourceUtils;
+
+/**
+ * Index of the capabilities of the bundles in a {@link State}, keyed by
+ * namespace and by the value of the attribute named like the namespace, such
+ * as the package name of an <code>osgi.wiring.package</code> capability or
+ * the symbolic name of an <code>osgi.identity</code> capability.
+ * <p>
+ * The capabilities of a namespace are indexed when a requirement in that
+ * namespace is first looked up. A requirement whose filter demands an exact
+ * value for that attribute is only matched against the capabilities with that
+ * value, any other requirement against all capabilities of its namespace.
+ * </p>
+ */
+public final class CapabilityIndex {
+
+	/**
+	 * The capabilities of one namespace
+	 *
+	 * @param all
+	 *            all capabilities of the namespace, in bundle order
+	 * @param byValue
+	 *            the capabilities by the string values of the attribute named
+	 *            like the namespace
+	 * @param unkeyed
+	 *            the capabilities without a string value for that attribute,
+	 *            which are candidates for every requirement
+	 */
+	private record NamespaceIndex(List<Capability> all, Map<String, List<Capability>> byValue,
+			List<Capability> unkeyed) {
+	}
+
+	private final State state;
+
+	private final long timeStamp;
+
+	private final long generation;
+
+	private final Map<String, NamespaceIndex> namespaces = new ConcurrentHashMap<>();
+
+	/**
+	 * @param generation
+	 *            the generation of the repository state the index is created
+	 *            in, which is increased whenever the state is modified
+	 */
+	CapabilityIndex(State state, long generation) {
+		this.state = state;
+		this.timeStamp = state.getTimeStamp();
+		this.generation = generation;
+	}
+
+	/**
+	 * Returns whether this index still describes the given state in the given
+	 * generation.
+	 */
+	boolean isValid(State currentState, long currentGeneration) {
+		return state == currentState && timeStamp == currentState.getTimeStamp()
+				&& generation == currentGeneration;
+	}
+
+	/**
+	 * Returns the capabilities of the bundles in the state that match the
+	 * given requirement.
+	 */
+	List<Capability> findProviders(Requirement requirement) {
+		String namespace = requirement.getNamespace();
+		NamespaceIndex index = namespaces.computeIfAbsent(namespace, this::createIndex);
+		String value = getRequiredValue(namespace, requirement.getDirectives().get(Namespace.REQUIREMENT_FILTER_DIRECTIVE));
+		Stream<Capability> candidates;
+		if (value == null) {
+			candidates = index.all().stream();
+		} else {
+			candidates = Stream.concat(index.byValue().getOrDefault(value, List.of()).stream(), index.unkeyed().stream());
+		}
+		return candidates.filter(ResourceUtils.matcher(requirement, ResourceUtils::filterPredicate))
+				.collect(ResourceUtils.toCapabilities());
+	}
+
+	private NamespaceIndex createIndex(String namespace) {
+		List<Capability> all = new ArrayList<>();
+		Map<String, List<Capability>> byValue = new HashMap<>();
+		List<Capability> unkeyed = new ArrayList<>();
+		for (BundleDescription bundle : state.getBundles()) {
+			for (Capability capability : bundle.getCapabilities(namespace)) {
+				all.add(capability);
+				Object value = capability.getAttributes().get(namespace);
+				if (value instanceof String string) {
+					byValue.computeIfAbsent(string, v -> new ArrayList<>(1)).add(capability);
+				} else if (value instanceof Collection<?> values && values.stream().allMatch(String.class::isInstance)) {
+					for (Object element : values) {
+						List<Capability> capabilities = byValue.computeIfAbsent((String) element, v -> new ArrayList<>(1));
+						if (!capabilities.contains(capability)) {
+							capabilities.add(capability);
+						}
+					}
+				} else {
+					unkeyed.add(capability);
+				}
+			}
+		}
+		return new NamespaceIndex(all, byValue, unkeyed);
+	}
+
+	/**
+	 * Returns the value the given filter requires for the given attribute, if
+	 * the filter is a single <code>(attribute=value)</code> term or a
+	 * conjunction, possibly nested, containing such a term and the value has no
+	 * wildcards or escapes, <code>null</code> otherwise.
+	 */
+	public static String getRequiredValue(String attribute, String filter) {
+		if (filter == null) {
+			return null;
+		}
+		if (!filter.startsWith("(&") || !filter.endsWith(")")) { //$NON-NLS-1$ //$NON-NLS-2$
+			return getTermValue(filter, '(' + attribute + '=');
+		}
+		int depth = 0;
+		int start = -1;
+		for (int i = 2; i < filter.length() - 1; i++) {
+			char c = filter.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '(') {
+				if (depth == 0) {
+					start = i;
+				}
+				depth++;
+			} else if (c == ')') {
+				depth--;
+				if (depth < 0) {
+					return null;
+				}
+				if (depth == 0) {
+					String value = getRequiredValue(attribute, filter.substring(start, i + 1));
+					if (value != null) {
+						return value;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	private static String getTermValue(String term, String prefix) {
+		if (!term.startsWith(prefix) || !term.endsWith(")")) { //$NON-NLS-1$
+			return null;
+		}
+		String value = term.substring(prefix.length(), term.length() - 1);
+		if (value.isEmpty() || !value.strip().equals(value)) {
+			return null;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '*' || c == '\\' || c == '(' || c == ')') {
+				return null;
+			}
+		}
+		return value;
+	}
+}
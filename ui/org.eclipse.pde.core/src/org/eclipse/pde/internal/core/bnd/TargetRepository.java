@@ -24,6 +24,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.jar.Attributes;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
@@ -32,10 +34,12 @@ import java.util.stream.Stream;
 
 import org.eclipse.osgi.service.resolver.BundleDescription;
 import org.eclipse.osgi.service.resolver.State;
+import org.eclipse.osgi.service.resolver.StateDelta;
 import org.eclipse.pde.core.plugin.IPluginLibrary;
 import org.eclipse.pde.core.plugin.IPluginModelBase;
 import org.eclipse.pde.core.plugin.PluginRegistry;
 import org.eclipse.pde.internal.core.ClasspathUtilCore;
+import org.eclipse.pde.internal.core.IStateDeltaListener;
 import org.eclipse.pde.internal.core.PDECore;
 import org.osgi.resource.Capability;
 import org.osgi.resource.Requirement;
@@ -49,6 +53,29 @@ public class TargetRepository extends BaseRepository implements RepositoryPlugin
 
 	private static final TargetRepository instance = new TargetRepository();
 
+	private final AtomicReference<CapabilityIndex> capabilityIndex = new AtomicReference<>();
+
+	/**
+	 * Increased whenever the state is modified or replaced, so that an index
+	 * created before cannot be published or used afterwards
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	private boolean listening;
+
+	private final IStateDeltaListener stateListener = new IStateDeltaListener() {
+
+		@Override
+		public void stateResolved(StateDelta delta) {
+			invalidateCapabilityIndex();
+		}
+
+		@Override
+		public void stateChanged(State newState) {
+			invalidateCapabilityIndex();
+		}
+	};
+
 	private TargetRepository() {
 	}
 
@@ -115,6 +142,7 @@ public class TargetRepository extends BaseRepository implements RepositoryPlugin
 		if (!result.alreadyReleased) {
 			state.addBundle(description);
 		}
+		invalidateCapabilityIndex();
 		result.digest = options.digest;
 		return result;
 	}
@@ -152,10 +180,42 @@ public class TargetRepository extends BaseRepository implements RepositoryPlugin
 	}
 
 	public List<Capability> findProvider(Requirement requirement) {
-		String namespace = requirement.getNamespace();
-		return bundles(null).flatMap(resource -> ResourceUtils.capabilityStream(resource, namespace))
-				.filter(ResourceUtils.matcher(requirement, ResourceUtils::filterPredicate))
-				.collect(ResourceUtils.toCapabilities());
+		Optional<State> state = getTargetPlatformState();
+		if (state.isEmpty()) {
+			return List.of();
+		}
+		return getCapabilityIndex(state.get()).findProviders(requirement);
+	}
+
+	/**
+	 * Returns the capability index of the given state, creating a new one if
+	 * the state was changed or replaced since the current index was created
+	 */
+	private CapabilityIndex getCapabilityIndex(State state) {
+		long currentGeneration = generation.get();
+		CapabilityIndex current = capabilityIndex.get();
+		if (current != null && current.isValid(state, currentGeneration)) {
+			return current;
+		}
+		synchronized (this) {
+			if (!listening) {
+				PDECore.getDefault().getModelManager().addStateDeltaListener(stateListener);
+				listening = true;
+			}
+		}
+		CapabilityIndex index = new CapabilityIndex(state, currentGeneration);
+		// an index of a newer generation might have been published meanwhile
+		capabilityIndex.compareAndSet(current, index);
+		return index;
+	}
+
+	/**
+	 * Makes every index created so far invalid, including one that is still
+	 * being created from the previous state
+	 */
+	private void invalidateCapabilityIndex() {
+		generation.incrementAndGet();
+		capabilityIndex.set(null);
 	}
 
 	/**
@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.builders;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.ExportPackageDescription;
+import org.eclipse.osgi.service.resolver.State;
+import org.eclipse.osgi.service.resolver.StateHelper;
+import org.eclipse.pde.internal.core.util.PDEJavaHelper;
+
+/**
+ * Answers the class lookups of the {@link ExtensionsErrorReporter} for one
+ * project, with the same results as
+ * {@link PDEJavaHelper#isOnClasspath(String, IJavaProject)} and
+ * {@link PDEJavaHelper#isDiscouraged(String, IJavaProject, BundleDescription)}.
+ * <p>
+ * The package fragments of the project and the discouraged packages visible
+ * to its bundle are computed once for all the attributes instead of once per
+ * attribute. The answers are kept per project until a change of the Java
+ * model that may add or remove types in the project or in a project on its
+ * classpath, or a change of the bundle description of the project, so that
+ * incremental builds of an extensions file only look up the class names that
+ * were not checked before. The checker of a project is dropped when the
+ * project or a project on its classpath is closed or deleted.
+ * </p>
+ */
+public final class ClassReferenceChecker {
+
+	/**
+	 * Source of the change stamps of the projects
+	 */
+	private static final AtomicLong fChangeCounter = new AtomicLong();
+
+	private static final Long NO_CHANGE = Long.valueOf(0);
+
+	/**
+	 * The stamp of the last change of each open project that may affect the
+	 * result of a type lookup, projects that did not change since PDE started
+	 * have no entry
+	 */
+	private static final Map<IProject, Long> fProjectStamps = new ConcurrentHashMap<>();
+
+	private static final IElementChangedListener fJavaModelListener = event -> javaModelChanged(event.getDelta());
+
+	private static final Map<IProject, ClassReferenceChecker> fCheckers = new ConcurrentHashMap<>();
+
+	private static boolean fListening;
+
+	private final IJavaProject fProject;
+	private final BundleDescription fDescription;
+	private final long fStateTimeStamp;
+	/**
+	 * The stamps of the project and of the projects on its classpath when the
+	 * checker was created
+	 */
+	private final Map<IProject, Long> fDependencyStamps;
+
+	private final Map<String, Boolean> fOnClasspath = new ConcurrentHashMap<>();
+	private final Map<String, Boolean> fDiscouraged = new ConcurrentHashMap<>();
+	private volatile Set<IPackageFragment> fProjectFragments;
+	private volatile Set<String> fDiscouragedPackages;
+
+	private ClassReferenceChecker(IJavaProject project, BundleDescription description) {
+		fProject = project;
+		fDescription = description;
+		fStateTimeStamp = getStateTimeStamp(description);
+		fDependencyStamps = new HashMap<>();
+		addDependencyStamps(project, fDependencyStamps);
+	}
+
+	/**
+	 * Returns the checker for the given project, reusing the answers of the
+	 * previous build if nothing they depend on changed.
+	 *
+	 * @param project
+	 *            the Java project the class names are looked up in
+	 * @param description
+	 *            the bundle description of the project or <code>null</code>
+	 * @return the checker for the project
+	 */
+	public static ClassReferenceChecker getChecker(IJavaProject project, BundleDescription description) {
+		startListening();
+		return fCheckers.compute(project.getProject(), (p, checker) -> {
+			if (checker != null && checker.isValid(project, description)) {
+				return checker;
+			}
+			return new ClassReferenceChecker(project, description);
+		});
+	}
+
+	/**
+	 * Returns whether answers are kept for the given project.
+	 *
+	 * @param project
+	 *            the project
+	 * @return <code>true</code> if a checker of the project is kept
+	 */
+	public static boolean hasChecker(IProject project) {
+		return fCheckers.containsKey(project);
+	}
+
+	/**
+	 * Stops tracking changes of the Java model and forgets all answers.
+	 */
+	public static synchronized void shutdown() {
+		if (fListening) {
+			JavaCore.removeElementChangedListener(fJavaModelListener);
+			fListening = false;
+		}
+		fCheckers.clear();
+		fProjectStamps.clear();
+	}
+
+	private static synchronized void startListening() {
+		if (!fListening) {
+			JavaCore.addElementChangedListener(fJavaModelListener, ElementChangedEvent.POST_CHANGE);
+			fListening = true;
+			// changes that happened while not listening are unknown
+			fCheckers.clear();
+		}
+	}
+
+	private static void javaModelChanged(IJavaElementDelta delta) {
+		if (delta.getKind() != IJavaElementDelta.CHANGED
+				|| delta.getElement().getElementType() != IJavaElement.JAVA_MODEL) {
+			fCheckers.clear();
+			return;
+		}
+		for (IJavaElementDelta projectDelta : delta.getAffectedChildren()) {
+			IProject project = projectDelta.getElement().getJavaProject().getProject();
+			if (projectDelta.getKind() == IJavaElementDelta.REMOVED
+					|| (projectDelta.getFlags() & IJavaElementDelta.F_CLOSED) != 0) {
+				fProjectStamps.remove(project);
+				fCheckers.remove(project);
+				fCheckers.values().removeIf(checker -> checker.fDependencyStamps.containsKey(project));
+			} else if (affectsTypes(projectDelta)) {
+				fProjectStamps.put(project, Long.valueOf(fChangeCounter.incrementAndGet()));
+			}
+		}
+	}
+
+	/**
+	 * Records the current stamps of the given project and of the projects on
+	 * its classpath, including the ones exported by these projects, into the
+	 * given map.
+	 */
+	private static void addDependencyStamps(IJavaProject project, Map<IProject, Long> stamps) {
+		IProject resource = project.getProject();
+		if (stamps.containsKey(resource)) {
+			return;
+		}
+		stamps.put(resource, fProjectStamps.getOrDefault(resource, NO_CHANGE));
+		try {
+			for (String name : project.getRequiredProjectNames()) {
+				addDependencyStamps(JavaCore.create(resource.getWorkspace().getRoot().getProject(name)), stamps);
+			}
+		} catch (JavaModelException e) {
+			// not open, only its own stamp matters
+		}
+	}
+
+	private boolean isValid(IJavaProject project, BundleDescription description) {
+		if (!fProject.equals(project) || fDescription != description
+				|| fStateTimeStamp != getStateTimeStamp(description)) {
+			return false;
+		}
+		for (Map.Entry<IProject, Long> entry : fDependencyStamps.entrySet()) {
+			IProject dependency = entry.getKey();
+			if (!dependency.isOpen()
+					|| !entry.getValue().equals(fProjectStamps.getOrDefault(dependency, NO_CHANGE))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @see PDEJavaHelper#isOnClasspath(String, IJavaProject)
+	 */
+	public boolean isOnClasspath(String fullyQualifiedName) {
+		return fOnClasspath.computeIfAbsent(fullyQualifiedName,
+				name -> Boolean.valueOf(PDEJavaHelper.isOnClasspath(name, fProject))).booleanValue();
+	}
+
+	/**
+	 * @see PDEJavaHelper#isDiscouraged(String, IJavaProject, BundleDescription)
+	 */
+	public boolean isDiscouraged(String fullyQualifiedName) {
+		if (fDescription == null) {
+			return false;
+		}
+		return fDiscouraged.computeIfAbsent(fullyQualifiedName, this::computeDiscouraged).booleanValue();
+	}
+
+	private Boolean computeDiscouraged(String fullyQualifiedName) {
+		// allow classes within the project itself
+		try {
+			IType type = fProject.findType(fullyQualifiedName.replace('$', '.'));
+			if (type != null && type.exists() && getProjectFragments().contains(type.getPackageFragment())) {
+				return Boolean.FALSE;
+			}
+		} catch (JavaModelException e) {
+		}
+		int dot = fullyQualifiedName.lastIndexOf('.');
+		String packageName = dot != -1 ? fullyQualifiedName.substring(0, dot) : "."; //$NON-NLS-1$
+		return Boolean.valueOf(getDiscouragedPackages().contains(packageName));
+	}
+
+	private Set<IPackageFragment> getProjectFragments() {
+		Set<IPackageFragment> fragments = fProjectFragments;
+		if (fragments == null) {
+			fragments = new HashSet<>(
+					PDEJavaHelper.getPackageFragmentsHash(fProject, Collections.emptyList(), false).values());
+			fProjectFragments = fragments;
+		}
+		return fragments;
+	}
+
+	private Set<String> getDiscouragedPackages() {
+		Set<String> packages = fDiscouragedPackages;
+		if (packages == null) {
+			packages = new HashSet<>();
+			StateHelper helper = fDescription.getContainingState().getStateHelper();
+			for (ExportPackageDescription export : helper.getVisiblePackages(fDescription)) {
+				if (export.getExporter() != null
+						&& helper.getAccessCode(fDescription, export) == StateHelper.ACCESS_DISCOURAGED) {
+					packages.add(export.getName());
+				}
+			}
+			fDiscouragedPackages = packages;
+		}
+		return packages;
+	}
+
+	private static long getStateTimeStamp(BundleDescription description) {
+		State state = description != null ? description.getContainingState() : null;
+		return state != null ? state.getTimeStamp() : -1;
+	}
+
+	/**
+	 * Returns whether the given delta may add or remove types, as opposed to
+	 * only touching non-Java resources like the extensions file itself.
+	 */
+	private static boolean affectsTypes(IJavaElementDelta delta) {
+		if (delta.getKind() != IJavaElementDelta.CHANGED) {
+			return true;
+		}
+		int classpathFlags = IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+				| IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH
+				| IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_OPENED
+				| IJavaElementDelta.F_CLOSED;
+		if ((delta.getFlags() & classpathFlags) != 0) {
+			return true;
+		}
+		if (delta.getElement().getElementType() >= IJavaElement.COMPILATION_UNIT) {
+			return true;
+		}
+		for (IJavaElementDelta child : delta.getAffectedChildren()) {
+			if (affectsTypes(child)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
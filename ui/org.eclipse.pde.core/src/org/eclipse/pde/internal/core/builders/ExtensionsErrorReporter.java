@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2017 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -62,7 +62,6 @@ import org.eclipse.pde.internal.core.project.PDEProject;
 import org.eclipse.pde.internal.core.schema.SchemaRegistry;
 import org.eclipse.pde.internal.core.util.CoreUtility;
 import org.eclipse.pde.internal.core.util.IdUtil;
-import org.eclipse.pde.internal.core.util.PDEJavaHelper;
 import org.eclipse.pde.internal.core.util.PDESchemaHelper;
 import org.w3c.dom.Attr;
 import org.w3c.dom.Element;
@@ -78,6 +77,7 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 	 */
 	private final IPluginModelBase fModel;
 	private IBuild fBuildModel;
+	private ClassReferenceChecker fClassChecker;
 
 	public ExtensionsErrorReporter(IFile file) {
 		super(file);
@@ -633,7 +633,7 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 		boolean onClasspath = true;
 		int severity = CompilerFlags.getFlag(fProject, CompilerFlags.P_UNKNOWN_CLASS);
 		if (severity != CompilerFlags.IGNORE && javaProject.isOpen()) {
-			onClasspath = PDEJavaHelper.isOnClasspath(value, javaProject);
+			onClasspath = getClassChecker(javaProject).isOnClasspath(value);
 			if (!onClasspath) {
 				VirtualMarker marker = report(NLS.bind(PDECoreMessages.Builders_Manifest_class, (new String[] {value, attr.getName()})), getLine(element, attr.getName()), severity, PDEMarkerFactory.P_UNKNOWN_CLASS, element, attr.getName() + F_ATT_VALUE_PREFIX + attr.getValue(), PDEMarkerFactory.CAT_FATAL);
 				addMarkerAttribute(marker, PDEMarkerFactory.compilerKey, CompilerFlags.P_UNKNOWN_CLASS);
@@ -650,13 +650,21 @@ public class ExtensionsErrorReporter extends ManifestErrorReporter {
 				return;
 			}
 			// only check if we're discouraged if there is something on the classpath
-			if (onClasspath && PDEJavaHelper.isDiscouraged(value, javaProject, desc)) {
+			if (onClasspath && getClassChecker(javaProject).isDiscouraged(value)) {
 				VirtualMarker marker = report(NLS.bind(PDECoreMessages.Builders_Manifest_discouragedClass, (new String[] {value, attr.getName()})), getLine(element, attr.getName()), severity, PDEMarkerFactory.M_DISCOURAGED_CLASS, element, attr.getName() + F_ATT_VALUE_PREFIX + attr.getValue(), PDEMarkerFactory.CAT_OTHER);
 				addMarkerAttribute(marker, PDEMarkerFactory.compilerKey, CompilerFlags.P_DISCOURAGED_CLASS);
 			}
 		}
 	}
 
+	private ClassReferenceChecker getClassChecker(IJavaProject javaProject) {
+		if (fClassChecker == null) {
+			fClassChecker = ClassReferenceChecker.getChecker(javaProject,
+					fModel != null ? fModel.getBundleDescription() : null);
+		}
+		return fClassChecker;
+	}
+
 	protected void validateRestrictionAttribute(Element element, Attr attr, ISchemaRestriction restriction) {
 		Object[] children = restriction.getChildren();
 		String value = attr.getValue();
@@ -0,0 +1,462 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.schema;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.runtime.URIUtil;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.ischema.ISchemaAttribute;
+import org.eclipse.pde.internal.core.ischema.ISchemaComplexType;
+import org.eclipse.pde.internal.core.ischema.ISchemaCompositor;
+import org.eclipse.pde.internal.core.ischema.ISchemaElement;
+import org.eclipse.pde.internal.core.ischema.ISchemaEnumeration;
+import org.eclipse.pde.internal.core.ischema.ISchemaInclude;
+import org.eclipse.pde.internal.core.ischema.ISchemaObject;
+import org.eclipse.pde.internal.core.ischema.ISchemaRestriction;
+import org.eclipse.pde.internal.core.ischema.ISchemaSimpleType;
+import org.eclipse.pde.internal.core.ischema.ISchemaType;
+import org.eclipse.pde.internal.core.util.CacheFile;
+
+/**
+ * Persistent cache of the abbreviated schemas loaded by the
+ * {@link SchemaRegistry}. A schema is kept in a compact compiled form holding
+ * its elements, attributes, restrictions, compositors and includes, so that a
+ * schema that did not change since it was cached is created without parsing
+ * its XML.
+ * <p>
+ * Entries are keyed by the schema URL and are only reused as long as the size
+ * and modification time of the schema file, or of the archive containing it,
+ * are unchanged. Descriptions are not part of the compiled form, they are read
+ * from the schema file on demand like for any abbreviated schema.
+ * </p>
+ */
+public final class CompiledSchemaCache {
+
+	private static final String CACHE_FILE = ".compiledSchemas"; //$NON-NLS-1$
+
+	/** Marks the file format, "PDCS" */
+	private static final int MAGIC = 0x50444353;
+	/** Must be incremented whenever the file format or the compiled form changes */
+	private static final int FORMAT_VERSION = 2;
+
+	private static final byte TYPE_NONE = 0;
+	private static final byte TYPE_SIMPLE = 1;
+	private static final byte TYPE_COMPLEX = 2;
+
+	private static final byte CHILD_REFERENCE = 0;
+	private static final byte CHILD_COMPOSITOR = 1;
+
+	/**
+	 * A compiled schema together with the fingerprint of the file it was read
+	 * from
+	 */
+	private record Entry(long size, long lastModified, byte[] compiled) {
+
+		boolean matches(File stampFile) {
+			return size == stampFile.length() && lastModified == stampFile.lastModified();
+		}
+	}
+
+	private final CacheFile fFile;
+	private final Map<String, Entry> fEntries = new ConcurrentHashMap<>();
+	private final AtomicBoolean fDirty = new AtomicBoolean();
+
+	private CompiledSchemaCache(File file) {
+		fFile = file != null ? new CacheFile(file, MAGIC, FORMAT_VERSION) : null;
+	}
+
+	/**
+	 * Creates a cache backed by a file in the PDE metadata area and reads the
+	 * schemas compiled in previous sessions.
+	 *
+	 * @return the new cache
+	 */
+	static CompiledSchemaCache create() {
+		File file = null;
+		PDECore pdeCore = PDECore.getDefault();
+		if (pdeCore != null) {
+			try {
+				file = new File(pdeCore.getStateLocation().toFile(), CACHE_FILE);
+			} catch (IllegalStateException e) {
+				// no instance location, the cache is kept in memory only
+			}
+		}
+		CompiledSchemaCache cache = new CompiledSchemaCache(file);
+		cache.read();
+		return cache;
+	}
+
+	/**
+	 * Loads the given schema from its compiled form if the schema file did not
+	 * change since it was cached, or by parsing it otherwise. Schemas that were
+	 * parsed successfully are added to this cache.
+	 *
+	 * @param schema
+	 *            the schema to load
+	 */
+	void load(Schema schema) {
+		URL url = schema.getURL();
+		File stampFile = url != null ? getStampFile(url) : null;
+		if (stampFile == null) {
+			schema.parse();
+			return;
+		}
+		String key = url.toExternalForm();
+		Entry entry = fEntries.get(key);
+		if (entry != null && entry.matches(stampFile)) {
+			try {
+				decode(schema, entry.compiled());
+				return;
+			} catch (IOException | RuntimeException e) {
+				// an entry of an older format, compile it again
+				fEntries.remove(key);
+				fDirty.set(true);
+			}
+		}
+		long size = stampFile.length();
+		long lastModified = stampFile.lastModified();
+		schema.parse();
+		if (lastModified != 0 && schema.isLoaded()) {
+			try {
+				fEntries.put(key, new Entry(size, lastModified, encode(schema)));
+				fDirty.set(true);
+			} catch (IOException e) {
+				// values too long for the compiled form, always parse it
+			}
+		}
+	}
+
+	/**
+	 * Writes this cache to disk if any schema was compiled since it was last
+	 * read or saved. Entries of schemas that no longer exist are dropped.
+	 */
+	synchronized void save() {
+		if (fFile == null || !fDirty.getAndSet(false)) {
+			return;
+		}
+		fEntries.keySet().removeIf(key -> {
+			File stampFile = getStampFile(key);
+			return stampFile == null || !stampFile.exists();
+		});
+		Map<String, Entry> entries = new HashMap<>(fEntries);
+		try {
+			fFile.write(out -> {
+				out.writeInt(entries.size());
+				for (Map.Entry<String, Entry> e : entries.entrySet()) {
+					Entry entry = e.getValue();
+					CacheFile.writeString(out, e.getKey());
+					out.writeLong(entry.size());
+					out.writeLong(entry.lastModified());
+					out.writeInt(entry.compiled().length);
+					out.write(entry.compiled());
+				}
+			});
+		} catch (IOException e) {
+			PDECore.log(e);
+		}
+	}
+
+	private void read() {
+		if (fFile == null) {
+			return;
+		}
+		try {
+			fFile.read(in -> {
+				int count = in.readInt();
+				for (int i = 0; i < count; i++) {
+					String key = CacheFile.readString(in);
+					long size = in.readLong();
+					long lastModified = in.readLong();
+					byte[] compiled = new byte[in.readInt()];
+					in.readFully(compiled);
+					fEntries.put(key, new Entry(size, lastModified, compiled));
+				}
+			});
+		} catch (IOException | RuntimeException e) {
+			// a corrupt or truncated cache is simply rebuilt
+			fEntries.clear();
+			fDirty.set(true);
+		}
+	}
+
+	private static File getStampFile(String key) {
+		try {
+			return getStampFile(new URL(key));
+		} catch (MalformedURLException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the file whose size and modification time tell whether the
+	 * schema at the given URL changed, or <code>null</code> if the schema is
+	 * not stored in a local file or archive.
+	 */
+	private static File getStampFile(URL url) {
+		try {
+			if ("file".equals(url.getProtocol())) { //$NON-NLS-1$
+				return URIUtil.toFile(URIUtil.toURI(url));
+			}
+			if ("jar".equals(url.getProtocol())) { //$NON-NLS-1$
+				String path = url.getPath();
+				int separator = path.indexOf("!/"); //$NON-NLS-1$
+				if (separator != -1 && path.startsWith("file:")) { //$NON-NLS-1$
+					return URIUtil.toFile(URIUtil.toURI(new URL(path.substring(0, separator))));
+				}
+			}
+		} catch (MalformedURLException | URISyntaxException | IllegalArgumentException e) {
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the compiled form of the given loaded schema.
+	 *
+	 * @param schema
+	 *            the schema to compile
+	 * @return the compiled schema
+	 * @throws IOException
+	 *             if a value is too long for the compiled form
+	 */
+	public static byte[] encode(Schema schema) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			CacheFile.writeString(out, schema.getName());
+			CacheFile.writeString(out, schema.getPluginId());
+			CacheFile.writeString(out, schema.getPointId());
+			out.writeBoolean(schema.isValid());
+			ISchemaInclude[] includes = schema.getIncludes();
+			out.writeInt(includes.length);
+			for (ISchemaInclude include : includes) {
+				CacheFile.writeString(out, include.getLocation());
+			}
+			ISchemaElement[] elements = schema.getElements();
+			out.writeInt(elements.length);
+			for (ISchemaElement element : elements) {
+				writeElement(out, (SchemaElement) element);
+			}
+		}
+		return bytes.toByteArray();
+	}
+
+	private static void writeElement(DataOutputStream out, SchemaElement element) throws IOException {
+		out.writeBoolean(element instanceof SchemaRootElement);
+		CacheFile.writeString(out, element.getName());
+		out.writeInt(element.getMinOccurs());
+		out.writeInt(element.getMaxOccurs());
+		CacheFile.writeString(out, element.getExplicitLabelProperty());
+		CacheFile.writeString(out, element.getExplicitIconProperty());
+		out.writeBoolean(element.hasTranslatableContent());
+		out.writeBoolean(element.isDeprecated());
+		if (element instanceof SchemaRootElement rootElement) {
+			CacheFile.writeString(out, rootElement.getDeprecatedSuggestion());
+			out.writeBoolean(rootElement.isInternal());
+		}
+		ISchemaType type = element.getType();
+		if (type instanceof ISchemaComplexType complexType) {
+			out.writeByte(TYPE_COMPLEX);
+			CacheFile.writeString(out, complexType.getName());
+			out.writeBoolean(complexType.isMixed());
+			ISchemaAttribute[] attributes = complexType.getAttributes();
+			out.writeInt(attributes.length);
+			for (ISchemaAttribute attribute : attributes) {
+				writeAttribute(out, attribute);
+			}
+			ISchemaCompositor compositor = complexType.getCompositor();
+			out.writeBoolean(compositor != null);
+			if (compositor != null) {
+				writeCompositor(out, compositor);
+			}
+		} else if (type != null) {
+			out.writeByte(TYPE_SIMPLE);
+			CacheFile.writeString(out, type.getName());
+		} else {
+			out.writeByte(TYPE_NONE);
+		}
+	}
+
+	private static void writeAttribute(DataOutputStream out, ISchemaAttribute attribute) throws IOException {
+		CacheFile.writeString(out, attribute.getName());
+		out.writeInt(attribute.getUse());
+		CacheFile.writeString(out, (String) attribute.getValue());
+		out.writeInt(attribute.getKind());
+		CacheFile.writeString(out, attribute.getBasedOn());
+		out.writeBoolean(attribute.isTranslatable());
+		out.writeBoolean(attribute.isDeprecated());
+		ISchemaSimpleType type = attribute.getType();
+		out.writeBoolean(type != null);
+		if (type != null) {
+			CacheFile.writeString(out, type.getName());
+			ISchemaRestriction restriction = type.getRestriction();
+			out.writeBoolean(restriction != null);
+			if (restriction != null) {
+				Object[] choices = restriction.getChildren();
+				out.writeInt(choices.length);
+				for (Object choice : choices) {
+					CacheFile.writeString(out, ((ISchemaEnumeration) choice).getName());
+				}
+			}
+		}
+	}
+
+	private static void writeCompositor(DataOutputStream out, ISchemaCompositor compositor) throws IOException {
+		out.writeInt(compositor.getKind());
+		out.writeInt(compositor.getMinOccurs());
+		out.writeInt(compositor.getMaxOccurs());
+		ISchemaObject[] children = compositor.getChildren();
+		out.writeInt(children.length);
+		for (ISchemaObject child : children) {
+			if (child instanceof ISchemaCompositor childCompositor) {
+				out.writeByte(CHILD_COMPOSITOR);
+				writeCompositor(out, childCompositor);
+			} else {
+				SchemaElementReference reference = (SchemaElementReference) child;
+				out.writeByte(CHILD_REFERENCE);
+				CacheFile.writeString(out, reference.getReferenceName());
+				out.writeInt(reference.getMinOccurs());
+				out.writeInt(reference.getMaxOccurs());
+			}
+		}
+	}
+
+	/**
+	 * Creates the objects of the given compiled schema and only hands them to
+	 * the schema once all of them could be read.
+	 *
+	 * @param schema
+	 *            the schema to load, not loaded yet
+	 * @param compiled
+	 *            the compiled form created by {@link #encode(Schema)}
+	 * @throws IOException
+	 *             if the compiled form could not be read
+	 */
+	public static void decode(Schema schema, byte[] compiled) throws IOException {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(compiled))) {
+			String name = CacheFile.readString(in);
+			String pluginId = CacheFile.readString(in);
+			String pointId = CacheFile.readString(in);
+			boolean valid = in.readBoolean();
+			int includeCount = in.readInt();
+			List<ISchemaInclude> includes = new ArrayList<>(includeCount);
+			for (int i = 0; i < includeCount; i++) {
+				includes.add(new SchemaInclude(schema, CacheFile.readString(in), true, schema.getSchemaProvider()));
+			}
+			int elementCount = in.readInt();
+			List<ISchemaElement> elements = new ArrayList<>(elementCount);
+			Vector<SchemaElementReference> references = new Vector<>();
+			for (int i = 0; i < elementCount; i++) {
+				elements.add(readElement(in, schema, references));
+			}
+			schema.load(name, pluginId, pointId, valid, includes, elements, references);
+		}
+	}
+
+	private static SchemaElement readElement(DataInputStream in, Schema schema,
+			List<SchemaElementReference> references) throws IOException {
+		boolean root = in.readBoolean();
+		String name = CacheFile.readString(in);
+		SchemaElement element = root ? new SchemaRootElement(schema, name) : new SchemaElement(schema, name);
+		element.setMinOccurs(in.readInt());
+		element.setMaxOccurs(in.readInt());
+		element.setLabelProperty(CacheFile.readString(in));
+		element.setIconProperty(CacheFile.readString(in));
+		element.setTranslatableProperty(in.readBoolean());
+		element.setDeprecatedProperty(in.readBoolean());
+		if (element instanceof SchemaRootElement rootElement) {
+			rootElement.setDeprecatedSuggestion(CacheFile.readString(in));
+			rootElement.setInternal(in.readBoolean());
+		}
+		byte kind = in.readByte();
+		if (kind == TYPE_COMPLEX) {
+			SchemaComplexType complexType = new SchemaComplexType(schema, CacheFile.readString(in));
+			complexType.setMixed(in.readBoolean());
+			int attributeCount = in.readInt();
+			for (int i = 0; i < attributeCount; i++) {
+				complexType.addAttribute(readAttribute(in, schema, element));
+			}
+			if (in.readBoolean()) {
+				complexType.setCompositor(readCompositor(in, element, references));
+			}
+			element.setType(complexType);
+		} else if (kind == TYPE_SIMPLE) {
+			element.setType(new SchemaSimpleType(schema, CacheFile.readString(in)));
+		} else if (kind != TYPE_NONE) {
+			throw new IOException("Unknown type kind " + kind); //$NON-NLS-1$
+		}
+		return element;
+	}
+
+	private static SchemaAttribute readAttribute(DataInputStream in, Schema schema, SchemaElement element)
+			throws IOException {
+		SchemaAttribute attribute = new SchemaAttribute(element, CacheFile.readString(in));
+		attribute.setUse(in.readInt());
+		attribute.setValue(CacheFile.readString(in));
+		attribute.setKind(in.readInt());
+		attribute.setBasedOn(CacheFile.readString(in));
+		attribute.setTranslatableProperty(in.readBoolean());
+		attribute.setDeprecatedProperty(in.readBoolean());
+		if (in.readBoolean()) {
+			SchemaSimpleType type = new SchemaSimpleType(schema, CacheFile.readString(in));
+			if (in.readBoolean()) {
+				int choiceCount = in.readInt();
+				Vector<ISchemaEnumeration> choices = new Vector<>(choiceCount);
+				for (int i = 0; i < choiceCount; i++) {
+					choices.add(new SchemaEnumeration(schema, CacheFile.readString(in)));
+				}
+				ChoiceRestriction restriction = new ChoiceRestriction(schema);
+				restriction.setChildren(choices);
+				type.setRestriction(restriction);
+			}
+			attribute.setType(type);
+		}
+		return attribute;
+	}
+
+	private static SchemaCompositor readCompositor(DataInputStream in, ISchemaObject parent,
+			List<SchemaElementReference> references) throws IOException {
+		SchemaCompositor compositor = new SchemaCompositor(parent, in.readInt());
+		compositor.setMinOccurs(in.readInt());
+		compositor.setMaxOccurs(in.readInt());
+		int childCount = in.readInt();
+		for (int i = 0; i < childCount; i++) {
+			byte kind = in.readByte();
+			if (kind == CHILD_COMPOSITOR) {
+				compositor.addChild(readCompositor(in, compositor, references));
+			} else if (kind == CHILD_REFERENCE) {
+				SchemaElementReference reference = new SchemaElementReference(compositor, CacheFile.readString(in));
+				reference.setMinOccurs(in.readInt());
+				reference.setMaxOccurs(in.readInt());
+				references.add(reference);
+				compositor.addChild(reference);
+			} else {
+				throw new IOException("Unknown compositor child " + kind); //$NON-NLS-1$
+			}
+		}
+		return compositor;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2013 IBM Corporation and others.
+ *  Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -29,8 +29,10 @@ import org.eclipse.pde.internal.core.ischema.ISchemaDescriptor;
 public class IncludedSchemaDescriptor implements ISchemaDescriptor {
 	private final URL fSchemaURL;
 	private String fSchemaLocation;
-	private Schema fSchema;
+	private volatile Schema fSchema;
+	private Schema fLoadingSchema;
 	private long fLastModified;
+	private CompiledSchemaCache fCompiledSchemas;
 
 	public IncludedSchemaDescriptor(URL schemaURL) {
 		fSchemaURL = schemaURL;
@@ -157,13 +159,41 @@ public class IncludedSchemaDescriptor implements ISchemaDescriptor {
 		return fSchemaURL;
 	}
 
+	/**
+	 * Sets the cache to load the schema from. Must be set before the schema is
+	 * first requested.
+	 *
+	 * @param cache the cache of compiled schemas
+	 */
+	void setCompiledSchemaCache(CompiledSchemaCache cache) {
+		fCompiledSchemas = cache;
+	}
+
 	@Override
 	public ISchema getSchema(boolean abbreviated) {
-		if (fSchema == null && fSchemaURL != null) {
-			fSchema = new Schema(this, fSchemaURL, abbreviated);
-			fSchema.load();
+		Schema schema = fSchema;
+		if (schema != null || fSchemaURL == null) {
+			return schema;
+		}
+		synchronized (SchemaRegistry.LOAD_LOCK) {
+			if (fSchema != null) {
+				return fSchema;
+			}
+			if (fLoadingSchema != null) {
+				// included by a schema it includes, still being loaded by this thread
+				return fLoadingSchema;
+			}
+			schema = new Schema(this, fSchemaURL, abbreviated);
+			schema.setCompiledSchemaCache(fCompiledSchemas);
+			fLoadingSchema = schema;
+			try {
+				schema.load();
+			} finally {
+				fLoadingSchema = null;
+			}
+			fSchema = schema;
+			return schema;
 		}
-		return fSchema;
 	}
 
 	@Override
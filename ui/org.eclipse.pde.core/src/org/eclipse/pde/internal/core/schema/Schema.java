@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2016 IBM Corporation and others.
+ *  Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,7 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Vector;
 
@@ -100,6 +101,8 @@ public class Schema extends PlatformObject implements ISchema {
 
 	private SchemaProvider schemaProvider;
 
+	private CompiledSchemaCache fCompiledSchemas;
+
 	public Schema(String pluginId, String pointId, String name, boolean abbreviated) {
 		fPluginID = pluginId;
 		fPointID = pointId;
@@ -425,6 +428,17 @@ public class Schema extends PlatformObject implements ISchema {
 	}
 
 	public void load() {
+		if (fCompiledSchemas != null) {
+			fCompiledSchemas.load(this);
+		} else {
+			parse();
+		}
+	}
+
+	/**
+	 * Loads this schema by parsing the file at its URL.
+	 */
+	void parse() {
 		URLConnection connection = null;
 		try {
 			connection = SchemaUtil.getURLConnection(fURL);
@@ -462,6 +476,27 @@ public class Schema extends PlatformObject implements ISchema {
 		}
 	}
 
+	/**
+	 * Loads this schema from the objects created out of its compiled form, the
+	 * same way {@link #traverseDocumentTree(Node)} loads them from XML.
+	 */
+	void load(String name, String pluginId, String pointId, boolean valid, List<ISchemaInclude> includes,
+			List<ISchemaElement> elements, Vector<SchemaElementReference> references) {
+		fName = name;
+		fPluginID = pluginId;
+		fPointID = pointId;
+		fValid = valid;
+		if (!includes.isEmpty()) {
+			fIncludes = new Vector<>(includes);
+		}
+		fElements.addAll(elements);
+		addOmittedDocumentSections();
+		fLoaded = true;
+		if (!references.isEmpty()) {
+			resolveReferences(references);
+		}
+	}
+
 	private ISchemaAttribute processAttribute(ISchemaElement element, Node elementNode) {
 		String aname = getAttribute(elementNode, "name"); //$NON-NLS-1$
 		if (aname == null) {
@@ -1017,6 +1052,23 @@ public class Schema extends PlatformObject implements ISchema {
 		schemaProvider = provider;
 	}
 
+	/**
+	 * @return the provider of additional schema to search for included schema, may be <code>null</code>
+	 */
+	SchemaProvider getSchemaProvider() {
+		return schemaProvider;
+	}
+
+	/**
+	 * Sets the cache to load this schema from, and to add it to once parsed.
+	 * Must be set before {@link #load()} is called.
+	 *
+	 * @param cache the cache of compiled schemas or <code>null</code> to always parse the schema
+	 */
+	void setCompiledSchemaCache(CompiledSchemaCache cache) {
+		fCompiledSchemas = cache;
+	}
+
 	@Override
 	public String toString() {
 		return fName;
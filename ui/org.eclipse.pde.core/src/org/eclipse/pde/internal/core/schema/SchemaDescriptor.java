@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2005, 2013 IBM Corporation and others.
+ *  Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -25,10 +25,12 @@ public class SchemaDescriptor implements ISchemaDescriptor {
 
 	private String fPoint;
 	private URL fSchemaURL;
-	private Schema fSchema;
+	private volatile Schema fSchema;
+	private Schema fLoadingSchema;
 	private long fLastModified;
 	private boolean fEditable;
 	private SchemaProvider schemaProvider;
+	private CompiledSchemaCache fCompiledSchemas;
 
 	public SchemaDescriptor(String extPointID, URL schemaURL) {
 		this(extPointID, schemaURL, null);
@@ -77,18 +79,46 @@ public class SchemaDescriptor implements ISchemaDescriptor {
 		return (fSchema == null) ? null : fSchema.getQualifiedPointId();
 	}
 
+	/**
+	 * Sets the cache to load the schema from. Must be set before the schema is
+	 * first requested.
+	 *
+	 * @param cache the cache of compiled schemas
+	 */
+	void setCompiledSchemaCache(CompiledSchemaCache cache) {
+		fCompiledSchemas = cache;
+	}
+
 	@Override
 	public ISchema getSchema(boolean abbreviated) {
-		if (fSchema == null && fSchemaURL != null) {
+		Schema schema = fSchema;
+		if (schema != null || fSchemaURL == null) {
+			return schema;
+		}
+		synchronized (SchemaRegistry.LOAD_LOCK) {
+			if (fSchema != null) {
+				return fSchema;
+			}
+			if (fLoadingSchema != null) {
+				// included by a schema it includes, still being loaded by this thread
+				return fLoadingSchema;
+			}
 			if (fEditable) {
-				fSchema = new EditableSchema(this, fSchemaURL, abbreviated);
+				schema = new EditableSchema(this, fSchemaURL, abbreviated);
 			} else {
-				fSchema = new Schema(this, fSchemaURL, abbreviated);
+				schema = new Schema(this, fSchemaURL, abbreviated);
+			}
+			schema.setSchemaProvider(schemaProvider);
+			schema.setCompiledSchemaCache(fCompiledSchemas);
+			fLoadingSchema = schema;
+			try {
+				schema.load();
+			} finally {
+				fLoadingSchema = null;
 			}
-			fSchema.setSchemaProvider(schemaProvider);
-			fSchema.load();
+			fSchema = schema;
+			return schema;
 		}
-		return fSchema;
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2014 IBM Corporation and others.
+ *  Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -201,6 +201,22 @@ public class SchemaElement extends RepeatableSchemaObject implements ISchemaElem
 		return null;
 	}
 
+	/**
+	 * @return the label property declared by the schema, without falling back
+	 *         to a translatable attribute
+	 */
+	String getExplicitLabelProperty() {
+		return labelProperty;
+	}
+
+	/**
+	 * @return the icon property declared by the schema, without falling back
+	 *         to a resource attribute
+	 */
+	String getExplicitIconProperty() {
+		return iconName;
+	}
+
 	private boolean isValidLabelProperty(ISchemaAttribute a) {
 		return a.getKind() == IMetaAttribute.STRING && a.getType().getName().equals(ISchemaAttribute.TYPES[ISchemaAttribute.STR_IND]) && a.isTranslatable();
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2013 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,7 +16,8 @@ package org.eclipse.pde.internal.core.schema;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.pde.core.plugin.IFragment;
@@ -33,17 +34,30 @@ import org.eclipse.pde.internal.core.ischema.ISchemaDescriptor;
 import org.eclipse.pde.internal.core.text.plugin.PluginExtensionPointNode;
 import org.eclipse.pde.internal.core.util.CoreUtility;
 
+/**
+ * Registry of the abbreviated schemas of the extension points known to PDE.
+ * The registry may be used from several threads. Schemas are loaded from the
+ * compiled form kept by a {@link CompiledSchemaCache} when their file did not
+ * change since an earlier load, in this or a previous session.
+ */
 public class SchemaRegistry {
 
-	private final HashMap<String, ISchemaDescriptor> fRegistry = new HashMap<>();
+	/**
+	 * Held while a descriptor loads its schema. Loading a schema loads the
+	 * schemas it includes, so a lock per descriptor would deadlock two
+	 * threads loading schemas that include each other.
+	 */
+	static final Object LOAD_LOCK = new Object();
+
+	private final Map<String, ISchemaDescriptor> fRegistry = new ConcurrentHashMap<>();
+
+	private final CompiledSchemaCache fCompiledSchemas = CompiledSchemaCache.create();
 
 	public ISchema getSchema(String extPointID) {
 		IPluginExtensionPoint point = PDECore.getDefault().getExtensionsRegistry().findExtensionPoint(extPointID);
 		if (point == null) {
 			// if there is an old schema associated with this extension point, release it.
-			if (fRegistry.containsKey(extPointID)) {
-				fRegistry.remove(extPointID);
-			}
+			fRegistry.remove(extPointID);
 			return null;
 		}
 
@@ -52,12 +66,15 @@ public class SchemaRegistry {
 			return null;
 		}
 
-		ISchemaDescriptor desc = getExistingDescriptor(extPointID, url);
-		if (desc == null) {
-			desc = new SchemaDescriptor(extPointID, url);
-			fRegistry.put(extPointID, desc);
-		}
-
+		ISchemaDescriptor desc = fRegistry.compute(extPointID, (key, existing) -> {
+			if (existing != null && !hasSchemaChanged(existing, url)) {
+				return existing;
+			}
+			SchemaDescriptor descriptor = new SchemaDescriptor(extPointID, url);
+			descriptor.setCompiledSchemaCache(fCompiledSchemas);
+			return descriptor;
+		});
+		// loaded outside of the map update, loading may look up included schemas
 		return desc.getSchema(true);
 	}
 
@@ -68,28 +85,20 @@ public class SchemaRegistry {
 				return null;
 			}
 
-			ISchemaDescriptor desc = getExistingDescriptor(url.toString(), url);
-			if (desc == null) {
-				desc = new IncludedSchemaDescriptor(url);
-				fRegistry.put(url.toString(), desc);
-			}
+			ISchemaDescriptor desc = fRegistry.compute(url.toString(), (key, existing) -> {
+				if (existing != null && !hasSchemaChanged(existing, url)) {
+					return existing;
+				}
+				IncludedSchemaDescriptor descriptor = new IncludedSchemaDescriptor(url);
+				descriptor.setCompiledSchemaCache(fCompiledSchemas);
+				return descriptor;
+			});
 			return desc.getSchema(true);
 		} catch (MalformedURLException e) {
 		}
 		return null;
 	}
 
-	private ISchemaDescriptor getExistingDescriptor(String key, URL url) {
-		ISchemaDescriptor desc = null;
-		if (fRegistry.containsKey(key)) {
-			desc = fRegistry.get(key);
-			if (hasSchemaChanged(desc, url)) {
-				desc = null;
-			}
-		}
-		return desc;
-	}
-
 	public static URL getSchemaURL(IPluginExtensionPoint point, IPluginModelBase base) {
 		URL url = getSchemaURL(point);
 		if (url != null) {
@@ -184,6 +193,7 @@ public class SchemaRegistry {
 
 	public void shutdown() {
 		fRegistry.clear();
+		fCompiledSchemas.save();
 	}
 
 	private static String getId(IPluginExtensionPoint point, IPluginModelBase base) {
@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+import org.eclipse.pde.core.plugin.IFragment;
+import org.eclipse.pde.core.plugin.IPlugin;
+import org.eclipse.pde.core.plugin.IPluginBase;
+import org.eclipse.pde.core.plugin.IPluginExtension;
+import org.eclipse.pde.core.plugin.IPluginExtensionPoint;
+import org.eclipse.pde.core.plugin.IPluginImport;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.core.plugin.ModelEntry;
+import org.eclipse.pde.internal.core.IExtensionDeltaEvent;
+import org.eclipse.pde.internal.core.IExtensionDeltaListener;
+import org.eclipse.pde.internal.core.IPluginModelListener;
+import org.eclipse.pde.internal.core.PDECore;
+import org.eclipse.pde.internal.core.PDEState;
+import org.eclipse.pde.internal.core.PluginModelDelta;
+import org.eclipse.pde.internal.core.PluginModelManager;
+import org.eclipse.pde.internal.core.util.PatternConstructor;
+
+/**
+ * Index of the identifiers declared and referenced by plug-in models, used by
+ * the {@link PluginSearchOperation} to only look at the models that may
+ * contain a match instead of matching the pattern against every model.
+ * <p>
+ * The index is kept up to date with the deltas of the
+ * {@link PluginModelManager} and with the extension deltas of workspace
+ * models. Models of a search scope that were not indexed yet, for example
+ * after the target platform was reloaded, are indexed when they are first
+ * searched. Identifiers are compared ignoring case, so the candidates of a
+ * query are a superset of the models that match it, whether the search is
+ * case sensitive or not.
+ * </p>
+ */
+public final class PluginSearchIndex {
+
+	/**
+	 * The kinds of identifiers kept by the index
+	 */
+	public enum Kind {
+		/** Identifiers of plug-ins */
+		PLUGIN,
+		/** Identifiers of fragments */
+		FRAGMENT,
+		/** Plug-ins referenced as fragment host or as import */
+		PLUGIN_REFERENCE,
+		/** Full identifiers of extension points */
+		EXTENSION_POINT,
+		/** Extension points referenced by extensions */
+		EXTENSION
+	}
+
+	/**
+	 * The identifiers of one indexed model
+	 */
+	private record Entry(String id, Map<Kind, List<String>> keys) {
+	}
+
+	private static PluginSearchIndex fInstance;
+
+	private final IPluginModelListener fModelListener = this::modelsChanged;
+	private final IExtensionDeltaListener fExtensionListener = this::extensionsChanged;
+
+	private final Map<Kind, NavigableMap<String, Set<IPluginModelBase>>> fIndex = new EnumMap<>(Kind.class);
+	private final Map<IPluginModelBase, Entry> fEntries = new IdentityHashMap<>();
+	private final Map<String, List<IPluginModelBase>> fModelsById = new HashMap<>();
+	private PDEState fState;
+
+	private PluginSearchIndex() {
+		for (Kind kind : Kind.values()) {
+			fIndex.put(kind, new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+		}
+	}
+
+	/**
+	 * Returns the shared index, listening to model changes from the first time
+	 * it is requested.
+	 *
+	 * @return the shared plug-in search index
+	 */
+	public static synchronized PluginSearchIndex getDefault() {
+		if (fInstance == null) {
+			fInstance = new PluginSearchIndex();
+			PluginModelManager manager = PDECore.getDefault().getModelManager();
+			manager.addPluginModelListener(fInstance.fModelListener);
+			manager.addExtensionDeltaListener(fInstance.fExtensionListener);
+		}
+		return fInstance;
+	}
+
+	/**
+	 * Stops listening to model changes and forgets the shared index.
+	 */
+	public static synchronized void shutdown() {
+		if (fInstance != null) {
+			PluginModelManager manager = PDECore.getDefault().getModelManager();
+			manager.removePluginModelListener(fInstance.fModelListener);
+			manager.removeExtensionDeltaListener(fInstance.fExtensionListener);
+			fInstance = null;
+		}
+	}
+
+	/**
+	 * Returns the models among the given ones that may contain an identifier
+	 * of one of the given kinds matching the search string.
+	 *
+	 * @param models
+	 *            the models to search
+	 * @param kinds
+	 *            the kinds of identifiers to match
+	 * @param searchString
+	 *            the search string, may contain <code>*</code> and
+	 *            <code>?</code> wildcards
+	 * @return the candidate models, a set using identity
+	 */
+	public Set<IPluginModelBase> findCandidates(IPluginModelBase[] models, Set<Kind> kinds, String searchString) {
+		// the state changes when the target platform is reloaded, which does
+		// not send any model delta
+		PDEState state = PDECore.getDefault().getModelManager().getState();
+		synchronized (this) {
+			if (fState != state) {
+				clear();
+				fState = state;
+			}
+			for (IPluginModelBase model : models) {
+				if (!fEntries.containsKey(model)) {
+					add(model);
+				}
+			}
+			Set<IPluginModelBase> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+			int wildcard = indexOfWildcard(searchString);
+			Pattern pattern = wildcard != -1 ? PatternConstructor.createPattern(searchString, false) : null;
+			for (Kind kind : kinds) {
+				NavigableMap<String, Set<IPluginModelBase>> ids = fIndex.get(kind);
+				if (wildcard == -1) {
+					Set<IPluginModelBase> matches = ids.get(searchString);
+					if (matches != null) {
+						candidates.addAll(matches);
+					}
+					continue;
+				}
+				String prefix = searchString.substring(0, wildcard);
+				Map<String, Set<IPluginModelBase>> range = prefix.isEmpty() ? ids
+						: ids.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+				for (Map.Entry<String, Set<IPluginModelBase>> id : range.entrySet()) {
+					if (pattern.matcher(id.getKey()).matches()) {
+						candidates.addAll(id.getValue());
+					}
+				}
+			}
+			return candidates;
+		}
+	}
+
+	private synchronized void modelsChanged(PluginModelDelta delta) {
+		updateEntries(delta.getRemovedEntries());
+		updateEntries(delta.getAddedEntries());
+		updateEntries(delta.getChangedEntries());
+	}
+
+	private synchronized void extensionsChanged(IExtensionDeltaEvent event) {
+		for (IPluginModelBase model : event.getRemovedModels()) {
+			remove(model);
+		}
+		for (IPluginModelBase model : event.getChangedModels()) {
+			remove(model);
+			add(model);
+		}
+		for (IPluginModelBase model : event.getAddedModels()) {
+			remove(model);
+			add(model);
+		}
+	}
+
+	private void updateEntries(ModelEntry[] entries) {
+		for (ModelEntry entry : entries) {
+			List<IPluginModelBase> indexed = fModelsById.get(entry.getId());
+			if (indexed != null) {
+				for (IPluginModelBase model : new ArrayList<>(indexed)) {
+					remove(model);
+				}
+			}
+			for (IPluginModelBase model : entry.getWorkspaceModels()) {
+				add(model);
+			}
+			for (IPluginModelBase model : entry.getExternalModels()) {
+				add(model);
+			}
+		}
+	}
+
+	private void add(IPluginModelBase model) {
+		IPluginBase pluginBase = model.getPluginBase();
+		Map<Kind, List<String>> keys = new EnumMap<>(Kind.class);
+		if (pluginBase instanceof IPlugin) {
+			addKey(keys, Kind.PLUGIN, pluginBase.getId());
+		} else if (pluginBase instanceof IFragment fragment) {
+			addKey(keys, Kind.FRAGMENT, fragment.getId());
+			addKey(keys, Kind.PLUGIN_REFERENCE, fragment.getPluginId());
+		}
+		for (IPluginImport pluginImport : pluginBase.getImports()) {
+			addKey(keys, Kind.PLUGIN_REFERENCE, pluginImport.getId());
+		}
+		for (IPluginExtensionPoint extensionPoint : pluginBase.getExtensionPoints()) {
+			addKey(keys, Kind.EXTENSION_POINT, extensionPoint.getFullId());
+		}
+		for (IPluginExtension extension : pluginBase.getExtensions()) {
+			addKey(keys, Kind.EXTENSION, extension.getPoint());
+		}
+		String id = pluginBase.getId();
+		fEntries.put(model, new Entry(id, keys));
+		fModelsById.computeIfAbsent(id, i -> new ArrayList<>(1)).add(model);
+		keys.forEach((kind, values) -> {
+			NavigableMap<String, Set<IPluginModelBase>> ids = fIndex.get(kind);
+			for (String value : values) {
+				ids.computeIfAbsent(value, v -> Collections.newSetFromMap(new IdentityHashMap<>())).add(model);
+			}
+		});
+	}
+
+	private void remove(IPluginModelBase model) {
+		Entry entry = fEntries.remove(model);
+		if (entry == null) {
+			return;
+		}
+		List<IPluginModelBase> models = fModelsById.get(entry.id());
+		if (models != null) {
+			models.remove(model);
+			if (models.isEmpty()) {
+				fModelsById.remove(entry.id());
+			}
+		}
+		entry.keys().forEach((kind, values) -> {
+			NavigableMap<String, Set<IPluginModelBase>> ids = fIndex.get(kind);
+			for (String value : values) {
+				Set<IPluginModelBase> indexed = ids.get(value);
+				if (indexed != null) {
+					indexed.remove(model);
+					if (indexed.isEmpty()) {
+						ids.remove(value);
+					}
+				}
+			}
+		});
+	}
+
+	private void clear() {
+		fIndex.values().forEach(Map::clear);
+		fEntries.clear();
+		fModelsById.clear();
+	}
+
+	private static void addKey(Map<Kind, List<String>> keys, Kind kind, String value) {
+		if (value != null) {
+			keys.computeIfAbsent(kind, k -> new ArrayList<>()).add(value);
+		}
+	}
+
+	private static int indexOfWildcard(String searchString) {
+		for (int i = 0; i < searchString.length(); i++) {
+			char c = searchString.charAt(i);
+			if (c == '*' || c == '?') {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
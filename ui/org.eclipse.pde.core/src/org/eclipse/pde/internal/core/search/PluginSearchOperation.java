@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,9 @@
 package org.eclipse.pde.internal.core.search;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Pattern;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -30,9 +32,18 @@ import org.eclipse.pde.core.plugin.IPluginImport;
 import org.eclipse.pde.core.plugin.IPluginModelBase;
 import org.eclipse.pde.internal.core.ifeature.IFeatureModel;
 import org.eclipse.pde.internal.core.ifeature.IFeaturePlugin;
+import org.eclipse.pde.internal.core.search.PluginSearchIndex.Kind;
 import org.eclipse.pde.internal.core.util.PatternConstructor;
 
 public class PluginSearchOperation {
+
+	/**
+	 * System property telling whether only the models found in the
+	 * {@link PluginSearchIndex} are matched against the pattern,
+	 * <code>-Dpde.search.indexed=false</code> matches every model of the scope
+	 */
+	public static final String INDEXED_SEARCH = "pde.search.indexed"; //$NON-NLS-1$
+
 	protected PluginSearchInput fInput;
 	private final ISearchResultCollector fCollector;
 	private final Pattern fPattern;
@@ -48,8 +59,15 @@ public class PluginSearchOperation {
 		IFeatureModel[] features = fInput.getSearchScope().getMatchingFeatureModels();
 		SubMonitor subMonitor = SubMonitor.convert(monitor, plugins.length + features.length);
 
+		Set<IPluginModelBase> candidates = null;
+		if (!"false".equals(System.getProperty(INDEXED_SEARCH)) && fInput.getSearchString() != null) { //$NON-NLS-1$
+			candidates = PluginSearchIndex.getDefault().findCandidates(plugins, getIndexedKinds(),
+					fInput.getSearchString());
+		}
 		for (IPluginModelBase candidate : plugins) {
-			visit(candidate);
+			if (candidates == null || candidates.contains(candidate)) {
+				visit(candidate);
+			}
 			subMonitor.split(1);
 		}
 
@@ -59,6 +77,37 @@ public class PluginSearchOperation {
 		}
 	}
 
+	/**
+	 * Returns the kinds of identifiers {@link #findMatch(IPluginModelBase)}
+	 * matches for the search input.
+	 */
+	private Set<Kind> getIndexedKinds() {
+		Set<Kind> kinds = EnumSet.noneOf(Kind.class);
+		int searchLimit = fInput.getSearchLimit();
+		switch (fInput.getSearchElement()) {
+			case PluginSearchInput.ELEMENT_PLUGIN :
+				if (searchLimit != PluginSearchInput.LIMIT_REFERENCES) {
+					kinds.add(Kind.PLUGIN);
+				}
+				if (searchLimit != PluginSearchInput.LIMIT_DECLARATIONS) {
+					kinds.add(Kind.PLUGIN_REFERENCE);
+				}
+				break;
+			case PluginSearchInput.ELEMENT_FRAGMENT :
+				kinds.add(Kind.FRAGMENT);
+				break;
+			case PluginSearchInput.ELEMENT_EXTENSION_POINT :
+				if (searchLimit != PluginSearchInput.LIMIT_REFERENCES) {
+					kinds.add(Kind.EXTENSION_POINT);
+				}
+				if (searchLimit != PluginSearchInput.LIMIT_DECLARATIONS) {
+					kinds.add(Kind.EXTENSION);
+				}
+				break;
+		}
+		return kinds;
+	}
+
 	private void visit(IPluginModelBase model) {
 		ArrayList<IIdentifiable> matches = findMatch(model);
 		for (int i = 0; i < matches.size(); i++) {
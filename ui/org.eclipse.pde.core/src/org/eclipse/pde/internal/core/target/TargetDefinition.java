@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2018 IBM Corporation and others.
+ * Copyright (c) 2008, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.ParserConfigurationException;
@@ -45,6 +46,8 @@ import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobGroup;
 import org.eclipse.core.variables.IStringVariableManager;
 import org.eclipse.core.variables.VariablesPlugin;
 import org.eclipse.debug.core.DebugPlugin;
@@ -116,8 +119,24 @@ public class TargetDefinition implements ITargetDefinition {
 	public static final int MODE_PLUGIN = 0;
 	public static final int MODE_FEATURE = 1;
 
+	/**
+	 * Maximum number of locations that are resolved concurrently, can be set
+	 * with <code>-Dpde.target.resolveParallelism=n</code>. A value of one
+	 * resolves all locations one after the other.
+	 */
+	private static final int RESOLVE_PARALLELISM = Integer.getInteger("pde.target.resolveParallelism", //$NON-NLS-1$
+			Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+	/**
+	 * Whether locations contributed by other bundles are resolved concurrently
+	 * too, can be enabled with
+	 * <code>-Dpde.target.resolveThirdPartyInParallel=true</code>
+	 */
+	private static final boolean RESOLVE_THIRD_PARTY_IN_PARALLEL = Boolean
+			.getBoolean("pde.target.resolveThirdPartyInParallel"); //$NON-NLS-1$
+
 	// cache of features found for a given location, maps a string path location to a array of IFeatureModels (IFeatureModel[])
-	private static Map<String, TargetFeature[]> fFeaturesInLocation = new HashMap<>();
+	private static Map<String, TargetFeature[]> fFeaturesInLocation = new ConcurrentHashMap<>();
 
 	// internal cache for features.  A target managed by features will contain a set of features as well as a set of plug-ins that don't belong to a feature
 	private TargetFeature[] fFeatures;
@@ -370,50 +389,97 @@ public class TargetDefinition implements ITargetDefinition {
 		}
 		fResolutionStatus = null;
 		SubMonitor subMonitor = SubMonitor.convert(monitor, Messages.TargetDefinition_1, targetLocations.length * 100);
+		JobGroup jobGroup = null;
 		try {
 			MultiStatus status = new MultiStatus(PDECore.PLUGIN_ID, 0, Messages.TargetDefinition_2, null);
+			List<ITargetLocation> locations = new ArrayList<>();
 			Map<P2TargetUtils, List<ITargetLocation>> synchronizers = new HashMap<>();
 			// clear all previous maps
 			P2TargetUtils.fgTargetArtifactRepo.clear();
 			P2TargetUtils.fgArtifactKeyRepoFile.clear();
 			for (ITargetLocation location : targetLocations) {
-				subMonitor.checkCanceled();
-				subMonitor.subTask(Messages.TargetDefinition_4);
 				P2TargetUtils synchronizer = location.getAdapter(P2TargetUtils.class);
 				if (synchronizer == null) {
 					// a usual target definition location
-					IStatus s = location.resolve(this, subMonitor.split(100));
-					if (!s.isOK()) {
-						status.add(s);
-					}
+					locations.add(location);
 				} else {
 					// has to be performed later on in a separate batch
 					synchronizers.computeIfAbsent(synchronizer, nil -> new ArrayList<>()).add(location);
 				}
 			}
+			// PDE's own locations do not depend on each other nor on the p2
+			// based ones, so they are resolved by jobs running concurrently to
+			// each other and to the p2 synchronization. Locations contributed by
+			// other bundles are resolved here one after the other, as they may
+			// not expect to be resolved concurrently.
+			int parallelism = Math.min(RESOLVE_PARALLELISM, locations.size());
+			List<LocationResolveJob> jobs = new ArrayList<>(locations.size());
+			IStatus[] resolutions = new IStatus[locations.size()];
+			if (parallelism > 1) {
+				jobGroup = new JobGroup(Messages.TargetDefinition_4, parallelism, 0);
+				for (int i = 0; i < locations.size(); i++) {
+					ITargetLocation location = locations.get(i);
+					if (RESOLVE_THIRD_PARTY_IN_PARALLEL || isResolvedInParallel(location)) {
+						LocationResolveJob job = new LocationResolveJob(this, location, i);
+						job.setJobGroup(jobGroup);
+						job.schedule();
+						jobs.add(job);
+					}
+				}
+			}
+			int serialCount = locations.size() - jobs.size();
+			subMonitor.setWorkRemaining(serialCount * 100 + (jobs.isEmpty() ? 0 : 100)
+					+ synchronizers.size() * 100 + synchronizers.values().stream().mapToInt(List::size).sum());
+			for (int i = 0, j = 0; i < locations.size(); i++) {
+				if (j < jobs.size() && jobs.get(j).fIndex == i) {
+					j++;
+					continue;
+				}
+				subMonitor.checkCanceled();
+				subMonitor.subTask(Messages.TargetDefinition_4);
+				resolutions[i] = locations.get(i).resolve(this, subMonitor.split(100));
+			}
+			List<IStatus> p2Status = new ArrayList<>();
 			if (!synchronizers.isEmpty()) {
 				List<ITargetLocation> delayedLocations = synchronizers.values().stream().flatMap(Collection::stream)
 						.toList();
-				subMonitor.setWorkRemaining(synchronizers.size() * 100 + delayedLocations.size());
 				for (Entry<P2TargetUtils, List<ITargetLocation>> entry : synchronizers.entrySet()) {
 					subMonitor.checkCanceled();
 					try {
 						entry.getKey().synchronize(this, subMonitor.split(100));
 						entry.getValue().stream().map(loc -> loc.getStatus()).filter(Objects::nonNull)
-								.filter(s -> !s.isOK()).forEach(status::add);
+								.filter(s -> !s.isOK()).forEach(p2Status::add);
 					} catch (CoreException e) {
 						PDECore.log(e.getStatus());
-						status.add(e.getStatus());
+						p2Status.add(e.getStatus());
 					}
 				}
 				for (ITargetLocation location : delayedLocations) {
 					subMonitor.checkCanceled();
 					IStatus s = location.resolve(this, subMonitor.split(1));
 					if (!s.isOK()) {
-						status.add(s);
+						p2Status.add(s);
 					}
 				}
 			}
+			if (!jobs.isEmpty()) {
+				subMonitor.subTask(Messages.TargetDefinition_4);
+				try {
+					jobGroup.join(0, subMonitor.split(100));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new OperationCanceledException();
+				}
+				for (LocationResolveJob job : jobs) {
+					resolutions[job.fIndex] = job.getResolution();
+				}
+			}
+			for (IStatus s : resolutions) {
+				if (!s.isOK()) {
+					status.add(s);
+				}
+			}
+			p2Status.forEach(status::add);
 			if (status.isOK()) {
 				return fResolutionStatus = Status.OK_STATUS;
 			}
@@ -421,12 +487,69 @@ public class TargetDefinition implements ITargetDefinition {
 		} catch (OperationCanceledException e) {
 			return Status.CANCEL_STATUS;
 		} finally {
+			if (jobGroup != null) {
+				// only has an effect if the resolution was canceled
+				jobGroup.cancel();
+			}
 			// keep a list of resolved targets with key as handle
 			TargetPlatformHelper.addTargetDefinitionMap(this);
 			subMonitor.done();
 		}
 	}
 
+	/**
+	 * @return whether the location is one of PDE's own ones, which are known
+	 *         to be safe to resolve concurrently
+	 */
+	private static boolean isResolvedInParallel(ITargetLocation location) {
+		return location instanceof DirectoryBundleContainer || location instanceof ProfileBundleContainer
+				|| location instanceof FeatureBundleContainer || location instanceof TargetReferenceBundleContainer;
+	}
+
+	/**
+	 * Resolves one location of a target on behalf of
+	 * {@link TargetDefinition#resolve(IProgressMonitor)}. The resolution status
+	 * is kept for the target instead of being returned by the job, so that
+	 * resolution problems are reported with the target and not as failed
+	 * jobs.
+	 */
+	private static final class LocationResolveJob extends Job {
+
+		private final TargetDefinition fTarget;
+		private final ITargetLocation fLocation;
+		final int fIndex;
+		private volatile IStatus fResolution;
+
+		LocationResolveJob(TargetDefinition target, ITargetLocation location, int index) {
+			super(Messages.TargetDefinition_4);
+			fTarget = target;
+			fLocation = location;
+			fIndex = index;
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			try {
+				fResolution = fLocation.resolve(fTarget, monitor);
+			} catch (OperationCanceledException e) {
+				fResolution = Status.CANCEL_STATUS;
+			} catch (RuntimeException e) {
+				fResolution = Status.error(String.valueOf(e.getMessage()), e);
+			}
+			return fResolution.matches(IStatus.CANCEL) ? Status.CANCEL_STATUS : Status.OK_STATUS;
+		}
+
+		IStatus getResolution() {
+			IStatus resolution = fResolution;
+			if (resolution == null || resolution.matches(IStatus.CANCEL)) {
+				// canceled before or while running
+				throw new OperationCanceledException();
+			}
+			return resolution;
+		}
+	}
+
 	@Override
 	public boolean isResolved() {
 		ITargetLocation[] containers = getTargetLocations();
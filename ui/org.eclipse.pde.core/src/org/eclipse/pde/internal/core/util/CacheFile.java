@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.internal.core.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A binary file used to persist a cache across sessions.
+ * <p>
+ * The file starts with a magic number and a format version, a file with any
+ * other header is ignored. The content is first written to a temporary file
+ * which then replaces the cache file, so that a crash while saving never
+ * leaves a truncated cache behind.
+ * </p>
+ */
+public final class CacheFile {
+
+	/**
+	 * Reads the content of a cache file
+	 */
+	@FunctionalInterface
+	public interface ContentReader {
+		void read(DataInputStream in) throws IOException;
+	}
+
+	/**
+	 * Writes the content of a cache file
+	 */
+	@FunctionalInterface
+	public interface ContentWriter {
+		void write(DataOutputStream out) throws IOException;
+	}
+
+	/** Length written for <code>null</code> strings */
+	private static final int NULL_LENGTH = -1;
+
+	private final File fFile;
+	private final int fMagic;
+	private final int fFormatVersion;
+
+	/**
+	 * @param file
+	 *            the cache file
+	 * @param magic
+	 *            the magic number marking the kind of cache
+	 * @param formatVersion
+	 *            the version of the format of the content, must be
+	 *            incremented whenever the format changes
+	 */
+	public CacheFile(File file, int magic, int formatVersion) {
+		fFile = file;
+		fMagic = magic;
+		fFormatVersion = formatVersion;
+	}
+
+	/**
+	 * @return the cache file
+	 */
+	public File getFile() {
+		return fFile;
+	}
+
+	/**
+	 * Reads the content of the cache file if it exists and has the expected
+	 * header.
+	 *
+	 * @param reader
+	 *            reads the content following the header
+	 * @return <code>true</code> if the content was read, <code>false</code>
+	 *         if there is no cache file of the expected format
+	 * @throws IOException
+	 *             if the cache file is corrupt or cannot be read
+	 */
+	public boolean read(ContentReader reader) throws IOException {
+		if (!fFile.isFile()) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(fFile.toPath())))) {
+			if (in.readInt() != fMagic || in.readInt() != fFormatVersion) {
+				return false;
+			}
+			reader.read(in);
+			return true;
+		}
+	}
+
+	/**
+	 * Replaces the cache file with the given content. The cache file is left
+	 * unchanged if the content cannot be written.
+	 *
+	 * @param writer
+	 *            writes the content following the header
+	 * @throws IOException
+	 *             if the content cannot be written
+	 */
+	public void write(ContentWriter writer) throws IOException {
+		File tmp = new File(fFile.getParentFile(), fFile.getName() + ".tmp"); //$NON-NLS-1$
+		try {
+			Files.createDirectories(tmp.toPath().getParent());
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(tmp.toPath())))) {
+				out.writeInt(fMagic);
+				out.writeInt(fFormatVersion);
+				writer.write(out);
+			}
+			Files.move(tmp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			tmp.delete();
+			throw e;
+		}
+	}
+
+	/**
+	 * Deletes the cache file.
+	 */
+	public void delete() {
+		fFile.delete();
+	}
+
+	/**
+	 * Writes a string of any length as its UTF-8 bytes preceded by their
+	 * count. Unlike {@link DataOutputStream#writeUTF(String)} this is not
+	 * limited to 64k and accepts <code>null</code>.
+	 *
+	 * @param out
+	 *            the stream to write to
+	 * @param value
+	 *            the string to write, may be <code>null</code>
+	 * @throws IOException
+	 *             if the string cannot be written
+	 */
+	public static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(NULL_LENGTH);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Reads a string written with {@link #writeString(DataOutputStream, String)}.
+	 *
+	 * @param in
+	 *            the stream to read from
+	 * @return the string, may be <code>null</code>
+	 * @throws IOException
+	 *             if the string cannot be read
+	 */
+	public static String readString(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		if (length < 0) {
+			throw new IOException("Invalid string length " + length); //$NON-NLS-1$
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -149,7 +149,7 @@ public abstract class AbstractEditingModel extends PlatformObject implements IEd
 					adjustOffsets(document);
 					setStale(false);
 				} else {
-					reload(getInputStream(document), false);
+					reconcile(document);
 				}
 			} catch (CoreException e) {
 			}
@@ -159,6 +159,17 @@ public abstract class AbstractEditingModel extends PlatformObject implements IEd
 		}
 	}
 
+	/**
+	 * Updates the model from the given document after the document was
+	 * edited. By default, the whole document is loaded again.
+	 *
+	 * @param document
+	 *            the edited document
+	 */
+	protected void reconcile(IDocument document) throws CoreException {
+		reload(getInputStream(document), false);
+	}
+
 	public abstract void adjustOffsets(IDocument document) throws CoreException;
 
 	protected InputStream getInputStream(IDocument document) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2017 IBM Corporation and others.
+ * Copyright (c) 2003, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -50,6 +50,23 @@ public abstract class DocumentHandler extends DefaultHandler {
 		fLastError = null;
 	}
 
+	/**
+	 * Prepares this handler to parse the text of a single element of the
+	 * document instead of the whole document. The element is parsed as a child
+	 * of the given node.
+	 *
+	 * @param parent
+	 *            the parent of the element
+	 * @param offset
+	 *            the offset of the element in the document
+	 */
+	void startFragment(IDocumentElementNode parent, int offset) {
+		fDocumentNodeStack.clear();
+		fDocumentNodeStack.push(parent);
+		fHighestOffset = offset - 1;
+		fLastError = null;
+	}
+
 	protected IDocumentElementNode getLastParsedDocumentNode() {
 		if (fDocumentNodeStack.isEmpty()) {
 			return null;
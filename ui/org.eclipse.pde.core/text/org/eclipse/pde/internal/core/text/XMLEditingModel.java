@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,8 +18,13 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
+import java.io.StringReader;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 
 import javax.xml.parsers.FactoryConfigurationError;
 import javax.xml.parsers.ParserConfigurationException;
@@ -28,18 +33,32 @@ import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
 import org.eclipse.pde.core.IModel;
+import org.eclipse.pde.core.IModelChangedEvent;
 import org.eclipse.pde.core.IWritable;
+import org.eclipse.pde.core.ModelChangedEvent;
 import org.eclipse.pde.internal.core.NLResourceHelper;
 import org.eclipse.pde.internal.core.PDECore;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
 import org.xml.sax.helpers.DefaultHandler;
 
 public abstract class XMLEditingModel extends AbstractEditingModel {
 
 	private IStatus status;
 
+	/**
+	 * The text of the document the model was last parsed from, or
+	 * <code>null</code> if the next reconcile has to parse the whole document
+	 */
+	private String fParsedText;
+
 	public XMLEditingModel(IDocument document, boolean isReconciling) {
 		super(document, isReconciling);
 	}
@@ -47,6 +66,7 @@ public abstract class XMLEditingModel extends AbstractEditingModel {
 	@Override
 	@SuppressWarnings("restriction")
 	public void load(InputStream source, boolean outOfSync) {
+		fParsedText = null;
 		try {
 			fLoaded = true;
 			status = Status.OK_STATUS;
@@ -70,6 +90,7 @@ public abstract class XMLEditingModel extends AbstractEditingModel {
 	@Override
 	@SuppressWarnings("restriction")
 	public void adjustOffsets(IDocument document) {
+		fParsedText = null;
 		try {
 			org.eclipse.core.internal.runtime.XmlProcessorFactory.createSAXParserWithErrorOnDOCTYPE()
 					.parse(getInputStream(document), createDocumentHandler(this, false));
@@ -77,6 +98,290 @@ public abstract class XMLEditingModel extends AbstractEditingModel {
 		}
 	}
 
+	/**
+	 * Reconciles the model with the edited document. Only the innermost
+	 * element that encloses all changes since the last reconcile is parsed
+	 * again, its nodes are reused and the offsets of the following nodes are
+	 * shifted. The whole document is parsed if the changes are not enclosed in
+	 * an element below the root, if the element cannot be parsed on its own or
+	 * if the last parse reported errors.
+	 */
+	@Override
+	protected void reconcile(IDocument document) throws CoreException {
+		long stamp = getModificationStamp(document);
+		String text = document.get();
+		String parsedText = fParsedText;
+		fParsedText = null;
+		if (parsedText == null || !reconcileElement(document, parsedText, text)) {
+			reload(new ByteArrayInputStream(text.getBytes(getCharset())), false);
+		}
+		// the next reconcile can only be incremental if the model reflects
+		// exactly this text
+		if (isLoaded() && status != null && status.isOK() && stamp != IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP
+				&& stamp == getModificationStamp(document) && getRoot() instanceof IDocumentElementNode root
+				&& !root.isErrorNode()) {
+			fParsedText = text;
+		}
+	}
+
+	private static long getModificationStamp(IDocument document) {
+		if (document instanceof IDocumentExtension4 extension) {
+			return extension.getModificationStamp();
+		}
+		return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+	}
+
+	/**
+	 * Parses the innermost element enclosing the changes between the old and
+	 * the new text of the document again.
+	 *
+	 * @return <code>true</code> if the model reflects the new text,
+	 *         <code>false</code> if the whole document has to be parsed
+	 */
+	@SuppressWarnings("restriction")
+	private boolean reconcileElement(IDocument document, String oldText, String newText) {
+		if (document != getDocument() || !(getRoot() instanceof IDocumentElementNode root)
+				|| !(createDocumentHandler(this, true) instanceof DocumentHandler handler)) {
+			return false;
+		}
+		int oldLength = oldText.length();
+		int newLength = newText.length();
+		int max = Math.min(oldLength, newLength);
+		int start = 0;
+		while (start < max && oldText.charAt(start) == newText.charAt(start)) {
+			start++;
+		}
+		if (start == oldLength && start == newLength) {
+			return true;
+		}
+		int suffix = 0;
+		while (suffix < max - start && oldText.charAt(oldLength - suffix - 1) == newText.charAt(newLength - suffix - 1)) {
+			suffix++;
+		}
+		IDocumentElementNode node = findEnclosingElement(root, start, oldLength - suffix);
+		if (node == null || node == root) {
+			return false;
+		}
+		IDocumentElementNode parent = node.getParentNode();
+		IDocumentElementNode[] siblings = parent.getChildNodes();
+		for (IDocumentElementNode sibling : siblings) {
+			if (sibling.getOffset() < 0) {
+				return false;
+			}
+		}
+		int delta = newLength - oldLength;
+		int offset = node.getOffset();
+		int oldEnd = offset + node.getLength();
+		int newEnd = oldEnd + delta;
+		if (newEnd > newLength || !isStartTag(newText, offset, node.getXMLTagName())) {
+			return false;
+		}
+		List<String> oldContent = getContent(node);
+		try {
+			int line = document.getLineOfOffset(offset);
+			int column = offset - document.getLineOffset(line);
+			// let the handler find the element again as the first child of its
+			// parent without an offset
+			node.setOffset(-1);
+			node.setLength(-1);
+			handler.startFragment(parent, offset);
+			org.eclipse.core.internal.runtime.XmlProcessorFactory.createSAXParserWithErrorOnDOCTYPE().parse(
+					new InputSource(new StringReader(newText.substring(offset, newEnd))),
+					new FragmentHandler(handler, line, column));
+		} catch (BadLocationException | SAXException | IOException | ParserConfigurationException
+				| FactoryConfigurationError e) {
+			return false;
+		}
+		IDocumentElementNode[] children = parent.getChildNodes();
+		if (node.getParentNode() != parent || node.getOffset() != offset || node.getOffset() + node.getLength() != newEnd
+				|| node.isErrorNode() || children.length != siblings.length) {
+			return false;
+		}
+		for (int i = 0; i < children.length; i++) {
+			if (children[i] != siblings[i]) {
+				return false;
+			}
+		}
+		shiftOffsets(root, node, oldEnd, delta);
+		if (!oldContent.equals(getContent(node))) {
+			fireModelChanged(new ModelChangedEvent(this, IModelChangedEvent.WORLD_CHANGED, new Object[] {this}, null));
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the innermost element that encloses the given range without
+	 * its first and last character, so that its tags stay recognizable, or
+	 * <code>null</code> if the given node does not enclose the range.
+	 */
+	private static IDocumentElementNode findEnclosingElement(IDocumentElementNode node, int start, int end) {
+		if (node.isErrorNode() || node.isContentCollapsed() || node.getOffset() < 0 || node.getOffset() >= start
+				|| node.getOffset() + node.getLength() <= end) {
+			return null;
+		}
+		for (IDocumentElementNode child : node.getChildNodes()) {
+			IDocumentElementNode enclosing = findEnclosingElement(child, start, end);
+			if (enclosing != null) {
+				return enclosing;
+			}
+		}
+		return node;
+	}
+
+	private static boolean isStartTag(String text, int offset, String tagName) {
+		int end = offset + tagName.length() + 1;
+		if (end >= text.length() || text.charAt(offset) != '<' || !text.startsWith(tagName, offset + 1)) {
+			return false;
+		}
+		char c = text.charAt(end);
+		return Character.isWhitespace(c) || c == '>' || c == '/';
+	}
+
+	/**
+	 * Shifts the offsets of all nodes after the given offset by the given
+	 * delta and adjusts the lengths of the nodes enclosing it, skipping the
+	 * subtree of the given node that was parsed again.
+	 */
+	private static void shiftOffsets(IDocumentElementNode node, IDocumentElementNode skip, int from, int delta) {
+		if (node == skip || node.getOffset() + node.getLength() < from) {
+			return;
+		}
+		if (node.getOffset() >= from) {
+			node.setOffset(node.getOffset() + delta);
+		} else {
+			node.setLength(node.getLength() + delta);
+		}
+		for (IDocumentAttributeNode attribute : node.getNodeAttributes()) {
+			if (attribute.getNameOffset() >= from) {
+				attribute.setNameOffset(attribute.getNameOffset() + delta);
+				attribute.setValueOffset(attribute.getValueOffset() + delta);
+			}
+		}
+		IDocumentTextNode textNode = node.getTextNode();
+		if (textNode != null && textNode.getOffset() >= 0) {
+			if (textNode.getOffset() >= from) {
+				textNode.setOffset(textNode.getOffset() + delta);
+			} else if (textNode.getOffset() + textNode.getLength() > from) {
+				textNode.setLength(textNode.getLength() + delta);
+			}
+		}
+		for (IDocumentElementNode child : node.getChildNodes()) {
+			shiftOffsets(child, skip, from, delta);
+		}
+	}
+
+	/**
+	 * Returns the tags, attributes and texts of the given subtree, to find out
+	 * whether parsing it again changed the model.
+	 */
+	private static List<String> getContent(IDocumentElementNode node) {
+		List<String> content = new ArrayList<>();
+		appendContent(node, content);
+		return content;
+	}
+
+	private static void appendContent(IDocumentElementNode node, List<String> content) {
+		content.add(node.getXMLTagName());
+		IDocumentAttributeNode[] attributes = node.getNodeAttributes();
+		Arrays.sort(attributes, Comparator.comparing(IDocumentAttributeNode::getAttributeName));
+		content.add(String.valueOf(attributes.length));
+		for (IDocumentAttributeNode attribute : attributes) {
+			content.add(attribute.getAttributeName());
+			content.add(attribute.getAttributeValue());
+		}
+		IDocumentTextNode textNode = node.getTextNode();
+		content.add(textNode != null ? textNode.getText() : null);
+		IDocumentElementNode[] children = node.getChildNodes();
+		content.add(String.valueOf(children.length));
+		for (IDocumentElementNode child : children) {
+			appendContent(child, content);
+		}
+	}
+
+	/**
+	 * Passes the elements of a fragment of the document to a
+	 * {@link DocumentHandler}, translating the locations reported by the
+	 * parser from the fragment to the document. Document level events are not
+	 * passed on and errors abort the parse.
+	 */
+	private static class FragmentHandler extends DefaultHandler {
+
+		private final DocumentHandler fHandler;
+		private final int fLine;
+		private final int fColumn;
+
+		/**
+		 * @param line
+		 *            the zero based line of the fragment in the document
+		 * @param column
+		 *            the zero based column of the fragment in its line
+		 */
+		FragmentHandler(DocumentHandler handler, int line, int column) {
+			fHandler = handler;
+			fLine = line;
+			fColumn = column;
+		}
+
+		@Override
+		public void setDocumentLocator(Locator locator) {
+			fHandler.setDocumentLocator(new Locator() {
+
+				@Override
+				public String getPublicId() {
+					return locator.getPublicId();
+				}
+
+				@Override
+				public String getSystemId() {
+					return locator.getSystemId();
+				}
+
+				@Override
+				public int getLineNumber() {
+					int line = locator.getLineNumber();
+					return line < 0 ? line : line + fLine;
+				}
+
+				@Override
+				public int getColumnNumber() {
+					int column = locator.getColumnNumber();
+					return column < 0 || locator.getLineNumber() != 1 ? column : column + fColumn;
+				}
+			});
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes)
+				throws SAXException {
+			fHandler.startElement(uri, localName, qName, attributes);
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			fHandler.endElement(uri, localName, qName);
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) throws SAXException {
+			fHandler.characters(ch, start, length);
+		}
+
+		@Override
+		public InputSource resolveEntity(String publicId, String systemId) throws SAXException {
+			return fHandler.resolveEntity(publicId, systemId);
+		}
+
+		@Override
+		public void error(SAXParseException e) throws SAXException {
+			throw e;
+		}
+
+		@Override
+		public void fatalError(SAXParseException e) throws SAXException {
+			throw e;
+		}
+	}
+
 	private boolean isResourceFile() {
 		if (getUnderlyingResource() == null) {
 			return false;
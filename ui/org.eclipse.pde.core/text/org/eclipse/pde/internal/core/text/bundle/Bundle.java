@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2012 IBM Corporation and others.
+ *  Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -15,10 +15,12 @@ package org.eclipse.pde.internal.core.text.bundle;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.TextUtilities;
 import org.eclipse.pde.internal.core.ibundle.IBundle;
 import org.eclipse.pde.internal.core.ibundle.IBundleModel;
 import org.eclipse.pde.internal.core.ibundle.IManifestHeader;
@@ -30,6 +32,8 @@ public class Bundle implements IBundle {
 
 	private final BundleModel fModel;
 	private final Map<String, IManifestHeader> fDocumentHeaders = new HeaderMap<>();
+	// the values the headers were created from, cleared when headers are changed through the model
+	private final Map<String, String> fLoadedValues = new HeaderMap<>();
 
 	public Bundle(BundleModel model) {
 		fModel = model;
@@ -44,6 +48,7 @@ public class Bundle implements IBundle {
 	 */
 	public void load(Map<String, String> headers) {
 		fDocumentHeaders.clear();
+		fLoadedValues.clear();
 		Iterator<String> iter = headers.keySet().iterator();
 		while (iter.hasNext()) {
 			String key = iter.next();
@@ -51,6 +56,7 @@ public class Bundle implements IBundle {
 				String value = headers.get(key);
 				IManifestHeader header = fModel.getFactory().createHeader(key, value);
 				fDocumentHeaders.put(key, header);
+				fLoadedValues.put(key, value);
 				break;
 			}
 		}
@@ -64,10 +70,70 @@ public class Bundle implements IBundle {
 			String value = headers.get(key).toString();
 			IManifestHeader header = fModel.getFactory().createHeader(key, value);
 			fDocumentHeaders.put(key, header);
+			fLoadedValues.put(key, value);
 		}
 		adjustOffsets(fModel.getDocument());
 	}
 
+	/**
+	 * Loads the given map like {@link #load(Map)}, but keeps the header
+	 * objects whose name and value did not change since they were loaded, so
+	 * that only the headers affected by an edit of the document are parsed
+	 * again.
+	 *
+	 * @param headers the headers to load in this model
+	 * @return <code>true</code> if a header was added, removed or created
+	 *         again, <code>false</code> if all headers were kept
+	 */
+	public boolean reconcile(Map<String, String> headers) {
+		String manifestVersion = null;
+		for (Entry<String, String> entry : headers.entrySet()) {
+			if (entry.getKey().equals(Constants.BUNDLE_MANIFESTVERSION)) {
+				manifestVersion = entry.getValue();
+				break;
+			}
+		}
+		// the manifest version changes how other headers are parsed
+		if (fLoadedValues.isEmpty() || manifestVersion == null
+				|| !manifestVersion.equals(fLoadedValues.get(Constants.BUNDLE_MANIFESTVERSION))) {
+			load(headers);
+			return true;
+		}
+		String lineDelimiter = TextUtilities.getDefaultLineDelimiter(fModel.getDocument());
+		Map<String, IManifestHeader> oldHeaders = new HeaderMap<>();
+		oldHeaders.putAll(fDocumentHeaders);
+		Map<String, String> oldValues = new HeaderMap<>();
+		oldValues.putAll(fLoadedValues);
+		fDocumentHeaders.clear();
+		fLoadedValues.clear();
+		// headers that are created again read the manifest version
+		fDocumentHeaders.put(Constants.BUNDLE_MANIFESTVERSION, oldHeaders.get(Constants.BUNDLE_MANIFESTVERSION));
+		boolean changed = false;
+		for (Entry<String, String> entry : headers.entrySet()) {
+			String key = entry.getKey();
+			String value = entry.getValue();
+			ManifestHeader header = (ManifestHeader) oldHeaders.remove(key);
+			if (header == null || !key.equals(header.getName()) || !value.equals(oldValues.get(key))
+					|| !lineDelimiter.equals(header.getLineLimiter())) {
+				header = (ManifestHeader) fModel.getFactory().createHeader(key, value);
+				changed = true;
+			}
+			fDocumentHeaders.put(key, header);
+			fLoadedValues.put(key, value);
+		}
+		adjustOffsets(fModel.getDocument());
+		return changed || !oldHeaders.isEmpty();
+	}
+
+	/**
+	 * Forgets the values the headers were loaded from, after the headers were
+	 * changed through the model, so that the next {@link #reconcile(Map)}
+	 * creates all headers again.
+	 */
+	public void clearLoadedValues() {
+		fLoadedValues.clear();
+	}
+
 	public void clearOffsets() {
 		Iterator<IManifestHeader> iter = fDocumentHeaders.values().iterator();
 		while (iter.hasNext()) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2012 IBM Corporation and others.
+ *  Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -15,10 +15,13 @@ package org.eclipse.pde.internal.core.text.bundle;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.osgi.util.ManifestElement;
+import org.eclipse.pde.core.IModelChangedEvent;
+import org.eclipse.pde.core.ModelChangedEvent;
 import org.eclipse.pde.internal.core.NLResourceHelper;
 import org.eclipse.pde.internal.core.ibundle.IBundle;
 import org.eclipse.pde.internal.core.ibundle.IBundleModel;
@@ -61,6 +64,37 @@ public class BundleModel extends AbstractEditingModel implements IBundleModel {
 		}
 	}
 
+	/**
+	 * Reconciles the headers with the edited document, creating only the
+	 * headers again whose value changed. Listeners are only notified if a
+	 * header was added, removed or changed.
+	 */
+	@Override
+	protected void reconcile(IDocument document) throws CoreException {
+		boolean wasLoaded = fLoaded;
+		boolean changed;
+		try {
+			Map<String, String> headers = ManifestElement.parseBundleManifest(getInputStream(document), null);
+			fLoaded = true;
+			changed = ((Bundle) getBundle()).reconcile(headers);
+		} catch (BundleException | IOException e) {
+			fLoaded = false;
+			changed = true;
+		}
+		if (changed || !wasLoaded) {
+			fireModelChanged(new ModelChangedEvent(this, IModelChangedEvent.WORLD_CHANGED, new Object[] {this}, null));
+		}
+	}
+
+	@Override
+	public void fireModelChanged(IModelChangedEvent event) {
+		if (event.getChangeType() != IModelChangedEvent.WORLD_CHANGED) {
+			// the headers no longer match the values they were loaded from
+			((Bundle) getBundle()).clearLoadedValues();
+		}
+		super.fireModelChanged(event);
+	}
+
 	@Override
 	public synchronized void adjustOffsets(IDocument document) {
 		((Bundle) getBundle()).clearOffsets();
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.genericeditor.extension.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.pde.internal.genericeditor.target.extension.model.RepositoryCacheStore;
+import org.eclipse.pde.internal.genericeditor.target.extension.model.UnitNode;
+import org.eclipse.pde.internal.genericeditor.target.extension.p2.P2Fetcher.RepositoryUnits;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RepositoryCacheStoreTest {
+
+	private static final String LOCATION = "https://download.eclipse.org/releases/latest";
+
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private File folder;
+
+	@Before
+	public void setUp() throws Exception {
+		folder = tempFolder.newFolder("repositoryUnits");
+	}
+
+	@Test
+	public void testWrittenUnitsAreRead() {
+		RepositoryUnits units = new RepositoryUnits("1234",
+				UnitIndexTest.createUnits(List.of("org.eclipse.pde.core", "org.eclipse.pde.ui")));
+
+		new RepositoryCacheStore(folder).write(LOCATION, units);
+		RepositoryUnits read = new RepositoryCacheStore(folder).read(LOCATION);
+
+		assertNotNull(read);
+		assertEquals("1234", read.timestamp());
+		assertEquals(2, read.units().size());
+		for (int i = 0; i < 2; i++) {
+			UnitNode expected = units.units().get(i);
+			UnitNode actual = read.units().get(i);
+			assertEquals(expected.getId(), actual.getId());
+			assertEquals(expected.getVersion(), actual.getVersion());
+			assertEquals(expected.getAvailableVersions(), actual.getAvailableVersions());
+		}
+	}
+
+	@Test
+	public void testMissingTimestampIsRead() {
+		new RepositoryCacheStore(folder).write(LOCATION, new RepositoryUnits(null, List.of()));
+
+		RepositoryUnits read = new RepositoryCacheStore(folder).read(LOCATION);
+
+		assertNotNull(read);
+		assertNull(read.timestamp());
+		assertTrue(read.units().isEmpty());
+	}
+
+	@Test
+	public void testUnknownLocationIsNotRead() {
+		new RepositoryCacheStore(folder).write(LOCATION, new RepositoryUnits("1", List.of()));
+
+		assertNull(new RepositoryCacheStore(folder).read(LOCATION + "/other"));
+	}
+
+	@Test
+	public void testLocationsWithSameHashCodeAreKeptApart() {
+		// "Aa" and "BB" have the same String hash code
+		String first = LOCATION + "/Aa";
+		String second = LOCATION + "/BB";
+		assertEquals(first.hashCode(), second.hashCode());
+		assertNotEquals(RepositoryCacheStore.getFileName(first), RepositoryCacheStore.getFileName(second));
+
+		RepositoryCacheStore store = new RepositoryCacheStore(folder);
+		store.write(first, new RepositoryUnits("1", UnitIndexTest.createUnits(List.of("first"))));
+		store.write(second, new RepositoryUnits("2", UnitIndexTest.createUnits(List.of("second"))));
+
+		assertEquals("first", store.read(first).units().get(0).getId());
+		assertEquals("second", store.read(second).units().get(0).getId());
+	}
+
+	@Test
+	public void testFileNameIsDigestOfLocation() {
+		String name = RepositoryCacheStore.getFileName(LOCATION);
+
+		assertTrue(name, name.matches("[0-9a-f]{64}\\.units"));
+		assertEquals(name, RepositoryCacheStore.getFileName(LOCATION));
+	}
+
+	@Test
+	public void testCorruptFileIsIgnored() throws Exception {
+		RepositoryCacheStore store = new RepositoryCacheStore(folder);
+		store.write(LOCATION, new RepositoryUnits("1", UnitIndexTest.createUnits(List.of("unit"))));
+		File file = new File(folder, RepositoryCacheStore.getFileName(LOCATION));
+		byte[] content = Files.readAllBytes(file.toPath());
+		Files.write(file.toPath(), Arrays.copyOf(content, content.length / 2));
+
+		assertNull(store.read(LOCATION));
+
+		store.write(LOCATION, new RepositoryUnits("2", UnitIndexTest.createUnits(List.of("unit"))));
+		assertEquals("2", store.read(LOCATION).timestamp());
+	}
+
+	@Test
+	public void testClearDeletesUnits() {
+		RepositoryCacheStore store = new RepositoryCacheStore(folder);
+		store.write(LOCATION, new RepositoryUnits("1", List.of()));
+
+		store.clear();
+
+		assertNull(store.read(LOCATION));
+	}
+
+	@Test
+	public void testNoFolderStoresNothing() {
+		RepositoryCacheStore store = new RepositoryCacheStore(null);
+		store.write(LOCATION, new RepositoryUnits("1", List.of()));
+
+		assertNull(store.read(LOCATION));
+	}
+}
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.genericeditor.extension.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.eclipse.pde.internal.genericeditor.target.extension.model.UnitIndex;
+import org.eclipse.pde.internal.genericeditor.target.extension.model.UnitNode;
+import org.junit.Test;
+
+public class UnitIndexTest {
+
+	private static final List<String> IDS = List.of("org.eclipse.pde.core", "org.eclipse.pde.ui", "Org.Eclipse.Upper",
+			"org.eclipse.jdt.core", "com.example.core", "com.example", "a", "ab", "org.eclipse.pde", "core");
+
+	private final List<UnitNode> units = createUnits(IDS);
+
+	private final UnitIndex index = new UnitIndex(units);
+
+	@Test
+	public void testUnitsAreSortedIgnoringCase() {
+		List<String> ids = ids(index.getUnits());
+
+		assertEquals(List.of("a", "ab", "com.example", "com.example.core", "core", "org.eclipse.jdt.core",
+				"org.eclipse.pde", "org.eclipse.pde.core", "org.eclipse.pde.ui", "Org.Eclipse.Upper"), ids);
+	}
+
+	@Test
+	public void testUnitById() {
+		for (UnitNode unit : units) {
+			assertSame(unit, index.getUnit(unit.getId()));
+		}
+		assertNull(index.getUnit("org.eclipse"));
+		assertNull(index.getUnit("org.eclipse.upper"));
+	}
+
+	@Test
+	public void testPrefixLookups() {
+		for (String prefix : List.of("", "a", "ab", "abc", "org.", "org.eclipse.pde", "org.eclipse.pde.", "Org",
+				"com.example", "core", "z", "org.eclipse.pde.ui.more")) {
+			assertEquals(prefix, scan(id -> id.startsWith(prefix)), ids(index.getUnitsByPrefix(prefix)));
+		}
+	}
+
+	@Test
+	public void testSubstringLookups() {
+		for (String term : List.of("", "a", "e", "co", "cor", "core", ".core", "pde", "eclipse.pde.", "Eclipse",
+				"xyz", "ple.co", "org.eclipse.pde.ui", "org.eclipse.pde.ui.more")) {
+			assertEquals(term, scan(id -> id.contains(term)), ids(index.getUnitsBySearchTerm(term)));
+		}
+	}
+
+	@Test
+	public void testEmptyIndex() {
+		assertTrue(UnitIndex.EMPTY.getUnits().isEmpty());
+		assertTrue(UnitIndex.EMPTY.getUnitsByPrefix("org").isEmpty());
+		assertTrue(UnitIndex.EMPTY.getUnitsBySearchTerm("org").isEmpty());
+		assertNull(UnitIndex.EMPTY.getUnit("org"));
+	}
+
+	@Test
+	public void testIndexDoesNotChangeUnits() {
+		List<UnitNode> original = new ArrayList<>(units);
+
+		new UnitIndex(units).getUnitsBySearchTerm("core");
+
+		assertEquals(original, units);
+	}
+
+	/**
+	 * Returns the ids of the sorted units matching the given predicate, by
+	 * checking each of them
+	 */
+	private List<String> scan(Predicate<String> predicate) {
+		return ids(index.getUnits()).stream().filter(predicate).toList();
+	}
+
+	private static List<String> ids(List<UnitNode> units) {
+		return units.stream().map(UnitNode::getId).toList();
+	}
+
+	static List<UnitNode> createUnits(List<String> ids) {
+		List<UnitNode> units = new ArrayList<>();
+		for (String id : ids) {
+			UnitNode unit = new UnitNode();
+			unit.setId(id);
+			unit.setVersion("1.0.0");
+			unit.setAvailableVersions(List.of("1.0.0", "0.9.0"));
+			units.add(unit);
+		}
+		return units;
+	}
+}
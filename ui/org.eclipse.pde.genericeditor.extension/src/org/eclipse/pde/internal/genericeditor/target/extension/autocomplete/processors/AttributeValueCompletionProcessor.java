@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018, 2020 Red Hat Inc. and others
+ * Copyright (c) 2018, 2023 Red Hat Inc. and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -100,15 +100,9 @@ public class AttributeValueCompletionProcessor extends DelegateProcessor {
 					return getErrorCompletion();
 				}
 				RepositoryCache cache = RepositoryCache.getDefault();
-				List<UnitNode> repositoryUnits = cache.fetchP2UnitsFromRepo(repoLocation, false);
-				List<String> versions = null;
-				for (UnitNode unit : repositoryUnits) {
-					if (unit.getId().equals(node.getId())) {
-						versions = unit.getAvailableVersions();
-					}
-				}
-				if (versions != null)
-					return convertToVersionProposals(versions);
+				UnitNode unit = cache.getUnit(repoLocation, node.getId());
+				if (unit != null)
+					return convertToVersionProposals(unit.getAvailableVersions());
 
 			}
 
@@ -137,7 +131,7 @@ public class AttributeValueCompletionProcessor extends DelegateProcessor {
 	}
 
 	private ICompletionProposal[] convertToProposals(List<UnitNode> units) {
-		Collections.sort(units, (node1, node2) -> String.CASE_INSENSITIVE_ORDER.compare(node1.getId(), node2.getId()));
+		// the units of the cache are sorted by id already
 		List<ICompletionProposal> result = new ArrayList<>();
 		for (UnitNode unit : units) {
 			StyledString displayString = TargetDefinitionContentAssist.getFilteredStyledString(unit.getId(),
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2017 Red Hat Inc. and others
+ * Copyright (c) 2016, 2023 Red Hat Inc. and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,12 +14,19 @@
  *******************************************************************************/
 package org.eclipse.pde.internal.genericeditor.target.extension.model;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.pde.internal.genericeditor.target.extension.p2.Messages;
 import org.eclipse.pde.internal.genericeditor.target.extension.p2.P2Fetcher;
+import org.eclipse.pde.internal.genericeditor.target.extension.p2.P2Fetcher.RepositoryUnits;
 
 /**
  * This class is used to cache the p2 repositories completion information order
@@ -28,12 +35,39 @@ import org.eclipse.pde.internal.genericeditor.target.extension.p2.P2Fetcher;
  *
  * There will be only one cache shared between editors. In the future a function
  * will be added for the user to be able to flush this cache.
+ * <p>
+ * The cache is safe to use from several threads. Concurrent requests for the
+ * same repository wait for a single fetch. The units of a repository are also
+ * kept on disk, they are returned right away in a new session while a
+ * background job checks the timestamp of the repository and only queries its
+ * units again if it changed.
+ * </p>
  */
 public class RepositoryCache {
 
+	private static final RepositoryUnits NO_UNITS = new RepositoryUnits(null, List.of());
+
 	private static RepositoryCache instance;
 
-	Map<String, List<UnitNode>> cache = new HashMap<>();
+	/**
+	 * The units of a repository
+	 *
+	 * @param units
+	 *            the units as fetched or stored
+	 * @param index
+	 *            the index of the units
+	 * @param upToDate
+	 *            whether the units were checked against the repository in
+	 *            this session
+	 */
+	private record Entry(RepositoryUnits units, UnitIndex index, boolean upToDate) {
+	}
+
+	private final Map<String, CompletableFuture<Entry>> cache = new ConcurrentHashMap<>();
+
+	private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+	private final RepositoryCacheStore store = new RepositoryCacheStore();
 
 	private RepositoryCache() {
 		//avoid instantiation
@@ -43,7 +77,7 @@ public class RepositoryCache {
 	 * @return default instance of this cache.
 	 */
 
-	public static RepositoryCache getDefault() {
+	public static synchronized RepositoryCache getDefault() {
 		if (instance == null) {
 			instance = new RepositoryCache();
 		}
@@ -57,15 +91,23 @@ public class RepositoryCache {
 	 *            repository URL
 	 * @param flush
 	 *            whether a flush is needed
-	 * @return list of IUs available in the 'repo' repository. Never
-	 *         <code>null</code>.
+	 * @return list of IUs available in the 'repo' repository, sorted by their
+	 *         id ignoring case. Never <code>null</code>.
 	 */
 	public List<UnitNode> fetchP2UnitsFromRepo(String repo, boolean flush) {
-		if ((flush) || (cache.get(repo) == null)) {
-			List<UnitNode> units = P2Fetcher.fetchAvailableUnits(repo);
-			cache.put(repo, units);
-		}
-		return cache.get(repo);
+		return getEntry(repo, flush).index().getUnits();
+	}
+
+	/**
+	 * @param repo
+	 *            repository URL
+	 * @param id
+	 *            the id of an IU
+	 * @return the IU with the given id in the 'repo' repository, or
+	 *         <code>null</code>
+	 */
+	public UnitNode getUnit(String repo, String id) {
+		return getEntry(repo, false).index().getUnit(id);
 	}
 
 	/**
@@ -86,14 +128,7 @@ public class RepositoryCache {
 	 * @return A list of IUs whose id starts with 'prefix'
 	 */
 	public List<UnitNode> getUnitsByPrefix(String repo, String prefix) {
-		List<UnitNode> allUnits = fetchP2UnitsFromRepo(repo, false);
-		List<UnitNode> result = new ArrayList<>();
-		for (UnitNode unit : allUnits) {
-			if (unit.getId().startsWith(prefix)) {
-				result.add(unit);
-			}
-		}
-		return result;
+		return getEntry(repo, false).index().getUnitsByPrefix(prefix);
 	}
 
 	/**
@@ -113,14 +148,7 @@ public class RepositoryCache {
 	 * @return A list of IUs whose id contains 'searchTerm'
 	 */
 	public List<UnitNode> getUnitsBySearchTerm(String repo, String searchTerm) {
-		List<UnitNode> allUnits = fetchP2UnitsFromRepo(repo, false);
-		List<UnitNode> result = new ArrayList<>();
-		for (UnitNode unit : allUnits) {
-			if (unit.getId().contains(searchTerm)) {
-				result.add(unit);
-			}
-		}
-		return result;
+		return getEntry(repo, false).index().getUnitsBySearchTerm(searchTerm);
 	}
 
 	/**
@@ -131,7 +159,8 @@ public class RepositoryCache {
 	 * @return whether the cache is up to date for this repo
 	 */
 	public boolean isUpToDate(String repo) {
-		return cache.get(repo) != null;
+		CompletableFuture<Entry> future = cache.get(repo);
+		return future != null && future.isDone() && !future.isCompletedExceptionally() && future.join().upToDate();
 	}
 
 	/**
@@ -139,5 +168,96 @@ public class RepositoryCache {
 	 */
 	public void flush() {
 		cache.clear();
+		store.clear();
+	}
+
+	private Entry getEntry(String repo, boolean flush) {
+		CompletableFuture<Entry> created = new CompletableFuture<>();
+		Entry[] previous = new Entry[1];
+		CompletableFuture<Entry> future = cache.compute(repo, (r, existing) -> {
+			if (existing == null) {
+				return created;
+			}
+			// a pending fetch is as good as a flush
+			if (flush && existing.isDone()) {
+				previous[0] = existing.isCompletedExceptionally() ? null : existing.join();
+				return created;
+			}
+			return existing;
+		});
+		if (future == created) {
+			try {
+				created.complete(previous[0] != null ? fetch(repo, previous[0]) : load(repo, flush));
+			} catch (RuntimeException e) {
+				cache.remove(repo, created);
+				created.completeExceptionally(e);
+			}
+		}
+		Entry entry = future.join();
+		if (!entry.upToDate()) {
+			if (flush) {
+				return refresh(repo, future, entry);
+			}
+			scheduleRefresh(repo, future, entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Returns the units stored on disk if they are not to be flushed,
+	 * otherwise fetches them from the repository.
+	 */
+	private Entry load(String repo, boolean flush) {
+		RepositoryUnits stored = store.read(repo);
+		Entry entry = stored != null ? new Entry(stored, new UnitIndex(stored.units()), false) : null;
+		if (entry != null && !flush) {
+			return entry;
+		}
+		return fetch(repo, entry);
+	}
+
+	/**
+	 * Fetches the units of the repository, reusing the known entry if the
+	 * repository did not change since.
+	 */
+	private Entry fetch(String repo, Entry known) {
+		RepositoryUnits units = P2Fetcher.fetchAvailableUnits(repo, known != null ? known.units() : null);
+		if (units == null) {
+			// the repository could not be loaded, keep what is known until the
+			// next flush
+			return known != null ? new Entry(known.units(), known.index(), true)
+					: new Entry(NO_UNITS, UnitIndex.EMPTY, true);
+		}
+		if (known != null && units == known.units()) {
+			return new Entry(units, known.index(), true);
+		}
+		store.write(repo, units);
+		return new Entry(units, new UnitIndex(units.units()), true);
+	}
+
+	private Entry refresh(String repo, CompletableFuture<Entry> future, Entry stale) {
+		Entry entry = fetch(repo, stale);
+		// the entry may have been flushed meanwhile
+		cache.replace(repo, future, CompletableFuture.completedFuture(entry));
+		return entry;
+	}
+
+	private void scheduleRefresh(String repo, CompletableFuture<Entry> future, Entry stale) {
+		if (!refreshing.add(repo)) {
+			return;
+		}
+		Job job = new Job(Messages.UpdateJob_P2DataFetch + repo) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					refresh(repo, future, stale);
+				} finally {
+					refreshing.remove(repo);
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.schedule();
 	}
 }
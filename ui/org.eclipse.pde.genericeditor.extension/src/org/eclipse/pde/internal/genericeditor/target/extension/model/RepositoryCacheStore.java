@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.internal.genericeditor.target.extension.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.pde.internal.core.util.CacheFile;
+import org.eclipse.pde.internal.genericeditor.target.extension.p2.P2Fetcher.RepositoryUnits;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Keeps the units of p2 repositories in the state location of this bundle, so
+ * that completion in a new session has them without querying the repository
+ * first. There is one file per repository, named by the SHA-256 digest of its
+ * location and holding the location and the timestamp of the repository
+ * followed by its units.
+ */
+public final class RepositoryCacheStore {
+
+	private static final int MAGIC = 0x50444555; // "PDEU"
+
+	private static final int FORMAT_VERSION = 2;
+
+	private static final String CACHE_FOLDER = "repositoryUnits"; //$NON-NLS-1$
+
+	private final File fFolder;
+
+	RepositoryCacheStore() {
+		this(getCacheFolder());
+	}
+
+	/**
+	 * Creates a store keeping its files in the given folder.
+	 *
+	 * @param folder
+	 *            the folder to keep the files in, or <code>null</code> to not
+	 *            store any units
+	 */
+	public RepositoryCacheStore(File folder) {
+		fFolder = folder;
+	}
+
+	private static File getCacheFolder() {
+		try {
+			return Platform.getStateLocation(FrameworkUtil.getBundle(RepositoryCacheStore.class)).append(CACHE_FOLDER)
+					.toFile();
+		} catch (RuntimeException e) {
+			// no instance location or not running in OSGi, keep the units in
+			// memory only
+			return null;
+		}
+	}
+
+	private CacheFile getFile(String location) {
+		File file = new File(fFolder, getFileName(location));
+		return new CacheFile(file, MAGIC, FORMAT_VERSION);
+	}
+
+	/**
+	 * @return the name of the file the units of the given repository are
+	 *         stored in
+	 */
+	public static String getFileName(String location) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(location.getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+			return HexFormat.of().formatHex(digest) + ".units"; //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			// every Java platform supports SHA-256
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @return the units last stored for the given repository, or
+	 *         <code>null</code> if there are none
+	 */
+	public RepositoryUnits read(String location) {
+		if (fFolder == null) {
+			return null;
+		}
+		RepositoryUnits[] units = new RepositoryUnits[1];
+		try {
+			getFile(location).read(in -> {
+				if (!location.equals(CacheFile.readString(in))) {
+					return;
+				}
+				String timestamp = CacheFile.readString(in);
+				int count = in.readInt();
+				List<UnitNode> nodes = new ArrayList<>(count);
+				for (int i = 0; i < count; i++) {
+					UnitNode unit = new UnitNode();
+					unit.setId(CacheFile.readString(in));
+					unit.setVersion(CacheFile.readString(in));
+					int length = in.readInt();
+					List<String> versions = new ArrayList<>(length);
+					for (int j = 0; j < length; j++) {
+						versions.add(CacheFile.readString(in));
+					}
+					unit.setAvailableVersions(versions);
+					nodes.add(unit);
+				}
+				units[0] = new RepositoryUnits(timestamp, nodes);
+			});
+		} catch (IOException | RuntimeException e) {
+			// a corrupt or truncated file is simply written again
+			return null;
+		}
+		return units[0];
+	}
+
+	/**
+	 * Stores the units of the given repository, replacing the ones stored
+	 * before.
+	 */
+	public synchronized void write(String location, RepositoryUnits units) {
+		if (fFolder == null) {
+			return;
+		}
+		try {
+			getFile(location).write(out -> {
+				CacheFile.writeString(out, location);
+				CacheFile.writeString(out, units.timestamp());
+				out.writeInt(units.units().size());
+				for (UnitNode unit : units.units()) {
+					CacheFile.writeString(out, unit.getId());
+					CacheFile.writeString(out, unit.getVersion());
+					List<String> versions = unit.getAvailableVersions();
+					out.writeInt(versions.size());
+					for (String version : versions) {
+						CacheFile.writeString(out, version);
+					}
+				}
+			});
+		} catch (IOException e) {
+			// the repository is simply queried again next time
+		}
+	}
+
+	/**
+	 * Deletes all stored units.
+	 */
+	public synchronized void clear() {
+		if (fFolder == null) {
+			return;
+		}
+		File[] files = fFolder.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+	}
+}
@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.internal.genericeditor.target.extension.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable index of the units of a repository, used to answer the completion
+ * lookups without scanning all units.
+ * <p>
+ * Prefix lookups are a binary search over the ids in their natural order.
+ * Substring lookups of at least {@link #GRAM_LENGTH} characters only check the
+ * units containing every trigram of the term, the trigrams are indexed on the
+ * first such lookup.
+ * </p>
+ */
+public final class UnitIndex {
+
+	public static final UnitIndex EMPTY = new UnitIndex(List.of());
+
+	private static final int GRAM_LENGTH = 3;
+
+	private static final Comparator<UnitNode> BY_ID = Comparator
+			.comparing(UnitNode::getId, String.CASE_INSENSITIVE_ORDER).thenComparing(UnitNode::getId);
+
+	// sorted by id ignoring case, the order of the completion proposals
+	private final List<UnitNode> units;
+
+	private final Map<String, UnitNode> unitsById;
+
+	// ids in their natural order and the position of their unit in 'units'
+	private final String[] sortedIds;
+
+	private final int[] sortedPositions;
+
+	private volatile Map<String, BitSet> grams;
+
+	public UnitIndex(List<UnitNode> units) {
+		List<UnitNode> sorted = new ArrayList<>(units);
+		sorted.sort(BY_ID);
+		this.units = Collections.unmodifiableList(sorted);
+		this.unitsById = new HashMap<>(sorted.size() * 4 / 3 + 1);
+		Integer[] order = new Integer[sorted.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+			unitsById.put(sorted.get(i).getId(), sorted.get(i));
+		}
+		Arrays.sort(order, Comparator.comparing(i -> sorted.get(i).getId()));
+		this.sortedIds = new String[order.length];
+		this.sortedPositions = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			sortedIds[i] = sorted.get(order[i]).getId();
+			sortedPositions[i] = order[i];
+		}
+	}
+
+	/**
+	 * @return all units, sorted by their id ignoring case
+	 */
+	public List<UnitNode> getUnits() {
+		return units;
+	}
+
+	/**
+	 * @return the unit with the given id, or <code>null</code>
+	 */
+	public UnitNode getUnit(String id) {
+		return unitsById.get(id);
+	}
+
+	/**
+	 * @return the units whose id starts with the given prefix, sorted by their
+	 *         id ignoring case
+	 */
+	public List<UnitNode> getUnitsByPrefix(String prefix) {
+		if (prefix.isEmpty()) {
+			return units;
+		}
+		int start = Arrays.binarySearch(sortedIds, prefix);
+		if (start < 0) {
+			start = -start - 1;
+		}
+		BitSet matches = new BitSet(units.size());
+		for (int i = start; i < sortedIds.length && sortedIds[i].startsWith(prefix); i++) {
+			matches.set(sortedPositions[i]);
+		}
+		return collect(matches);
+	}
+
+	/**
+	 * @return the units whose id contains the given term, sorted by their id
+	 *         ignoring case
+	 */
+	public List<UnitNode> getUnitsBySearchTerm(String searchTerm) {
+		if (searchTerm.isEmpty()) {
+			return units;
+		}
+		BitSet candidates;
+		if (searchTerm.length() < GRAM_LENGTH) {
+			candidates = new BitSet(units.size());
+			candidates.set(0, units.size());
+		} else {
+			Map<String, BitSet> index = getGrams();
+			candidates = null;
+			for (int i = 0; i + GRAM_LENGTH <= searchTerm.length(); i++) {
+				BitSet withGram = index.get(searchTerm.substring(i, i + GRAM_LENGTH));
+				if (withGram == null) {
+					return List.of();
+				}
+				if (candidates == null) {
+					candidates = (BitSet) withGram.clone();
+				} else {
+					candidates.and(withGram);
+				}
+			}
+		}
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+			if (!units.get(i).getId().contains(searchTerm)) {
+				candidates.clear(i);
+			}
+		}
+		return collect(candidates);
+	}
+
+	private List<UnitNode> collect(BitSet positions) {
+		List<UnitNode> result = new ArrayList<>(positions.cardinality());
+		for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+			result.add(units.get(i));
+		}
+		return result;
+	}
+
+	private Map<String, BitSet> getGrams() {
+		Map<String, BitSet> index = grams;
+		if (index == null) {
+			index = new HashMap<>();
+			for (int position = 0; position < units.size(); position++) {
+				String id = units.get(position).getId();
+				for (int i = 0; i + GRAM_LENGTH <= id.length(); i++) {
+					index.computeIfAbsent(id.substring(i, i + GRAM_LENGTH), g -> new BitSet()).set(position);
+				}
+			}
+			grams = index;
+		}
+		return index;
+	}
+}
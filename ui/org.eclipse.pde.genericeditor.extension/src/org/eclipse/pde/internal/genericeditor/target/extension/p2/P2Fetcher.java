@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2018 Red Hat Inc. and others
+ * Copyright (c) 2016, 2023 Red Hat Inc. and others
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,15 +17,19 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.eclipse.equinox.p2.core.IProvisioningAgent;
 import org.eclipse.equinox.p2.core.IProvisioningAgentProvider;
 import org.eclipse.equinox.p2.core.ProvisionException;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
-import org.eclipse.equinox.p2.query.IQueryResult;
+import org.eclipse.equinox.p2.metadata.Version;
 import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.repository.IRepository;
 import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
 import org.eclipse.equinox.p2.repository.metadata.IMetadataRepositoryManager;
 import org.eclipse.pde.internal.genericeditor.target.extension.model.UnitNode;
@@ -39,6 +43,19 @@ import org.osgi.framework.ServiceReference;
  */
 public class P2Fetcher {
 
+	/**
+	 * The units of a repository
+	 *
+	 * @param timestamp
+	 *            the timestamp of the repository when the units were read, or
+	 *            <code>null</code> if the repository has none
+	 * @param units
+	 *            the units sorted by their id, ignoring case, each with its
+	 *            versions sorted from the newest to the oldest
+	 */
+	public record RepositoryUnits(String timestamp, List<UnitNode> units) {
+	}
+
 	/**
 	 * This methods goes 'online' to make contact with a p2 repo and query it.
 	 *
@@ -47,14 +64,30 @@ public class P2Fetcher {
 	 * @return List of available installable unit models. See {@link UnitNode}
 	 */
 	public static List<UnitNode> fetchAvailableUnits(String repositoryLocation) {
-		List<UnitNode> units = new ArrayList<>();
-		IQueryResult<IInstallableUnit> result = null;
+		RepositoryUnits units = fetchAvailableUnits(repositoryLocation, null);
+		return units != null ? units.units() : Collections.emptyList();
+	}
+
+	/**
+	 * Queries the units of a p2 repo, grouping the versions of each unit in a
+	 * single pass over the repository.
+	 *
+	 * @param repositoryLocation
+	 *            URL string of a p2 repository
+	 * @param known
+	 *            units read from the repository before, returned again
+	 *            without querying the repository if its timestamp did not
+	 *            change, or <code>null</code>
+	 * @return the units of the repository, or <code>null</code> if the
+	 *         repository could not be loaded
+	 */
+	public static RepositoryUnits fetchAvailableUnits(String repositoryLocation, RepositoryUnits known) {
 		try {
 			URI uri;
 			try {
 				uri = new URI(repositoryLocation);
 			} catch (URISyntaxException e) {
-				return units;
+				return null;
 			}
 			BundleContext context = FrameworkUtil.getBundle(P2Fetcher.class).getBundleContext();
 			ServiceReference<IProvisioningAgentProvider> sr = context
@@ -71,26 +104,34 @@ public class P2Fetcher {
 			IMetadataRepositoryManager manager = (IMetadataRepositoryManager) agent
 					.getService(IMetadataRepositoryManager.SERVICE_NAME);
 			IMetadataRepository repository = manager.loadRepository(uri, null);
-			result = repository.query(QueryUtil.createLatestIUQuery(), null);
+			String timestamp = repository.getProperty(IRepository.PROP_TIMESTAMP);
+			if (known != null && timestamp != null && timestamp.equals(known.timestamp())) {
+				return known;
+			}
 
-			Iterator<IInstallableUnit> iterator = result.iterator();
-			while (iterator.hasNext()) {
-				IInstallableUnit unit = iterator.next();
+			Map<String, List<Version>> versionsById = new HashMap<>();
+			for (IInstallableUnit unit : repository.query(QueryUtil.createIUAnyQuery(), null)) {
+				versionsById.computeIfAbsent(unit.getId(), id -> new ArrayList<>(1)).add(unit.getVersion());
+			}
+			List<UnitNode> units = new ArrayList<>(versionsById.size());
+			for (Entry<String, List<Version>> entry : versionsById.entrySet()) {
+				List<Version> versions = entry.getValue();
+				versions.sort(Comparator.reverseOrder());
 				UnitNode modelUnit = new UnitNode();
-				modelUnit.setId(unit.getId());
-				modelUnit.setVersion(unit.getVersion().getOriginal());
-				IQueryResult<IInstallableUnit> versions = repository.query(QueryUtil.createIUQuery(unit.getId()), null);
-				for (IInstallableUnit version : versions) {
-					modelUnit.getAvailableVersions().add(version.getVersion().getOriginal());
+				modelUnit.setId(entry.getKey());
+				modelUnit.setVersion(versions.get(0).getOriginal());
+				for (Version version : versions) {
+					modelUnit.getAvailableVersions().add(version.getOriginal());
 				}
 				units.add(modelUnit);
 			}
-
-			return units;
+			units.sort(Comparator.comparing(UnitNode::getId, String.CASE_INSENSITIVE_ORDER)
+					.thenComparing(UnitNode::getId));
+			return new RepositoryUnits(timestamp, units);
 
 		} catch (Exception e) {
 			e.printStackTrace();
-			return Collections.emptyList();
+			return null;
 		}
 	}
 
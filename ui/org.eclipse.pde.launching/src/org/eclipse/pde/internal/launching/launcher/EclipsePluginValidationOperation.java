@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2022 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -55,7 +55,7 @@ public class EclipsePluginValidationOperation extends LaunchValidationOperation
 		try {
 			List<String> required = RequirementHelper.getApplicationLaunchRequirements(fLaunchConfiguration);
 			for (String element : required) {
-				BundleDescription bundle = getState().getBundle(element, null);
+				BundleDescription bundle = getBundle(element);
 				if (bundle == null) {
 					String message = NLS.bind(PDEMessages.EclipsePluginValidationOperation_pluginMissing, element);
 					Status status = new Status(IStatus.ERROR, IPDEConstants.PLUGIN_ID, CREATE_EXTENSION_ERROR_CODE, message, null);
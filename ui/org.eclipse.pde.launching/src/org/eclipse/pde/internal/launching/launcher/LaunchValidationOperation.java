@@ -33,7 +33,7 @@ import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.jdt.launching.IVMInstall;
 import org.eclipse.jdt.launching.JavaRuntime;
 import org.eclipse.jdt.launching.environments.IExecutionEnvironment;
-import org.eclipse.osgi.service.resolver.State;
+import org.eclipse.osgi.service.resolver.BundleDescription;
 import org.eclipse.pde.core.plugin.IPluginModelBase;
 import org.eclipse.pde.core.plugin.PluginRegistry;
 import org.eclipse.pde.internal.core.BundleValidationOperation;
@@ -132,11 +132,11 @@ public class LaunchValidationOperation implements IWorkspaceRunnable {
 	}
 
 	public boolean isEmpty() {
-		return fOperation.getState().getHighestBundleId() == -1;
+		return fOperation.getBundleCount() == 0;
 	}
 
-	protected State getState() {
-		return fOperation.getState();
+	protected BundleDescription getBundle(String symbolicName) {
+		return fOperation.getBundle(symbolicName);
 	}
 
 }
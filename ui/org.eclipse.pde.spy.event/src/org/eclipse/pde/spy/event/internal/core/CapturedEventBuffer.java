@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.spy.event.internal.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.pde.spy.event.internal.model.CapturedEvent;
+
+/**
+ * Fixed-size ring buffer of the most recently captured events. When the
+ * buffer is full, the oldest event is dropped to make room for a new one and
+ * the drop is counted, so capturing never allocates more than the capacity.
+ * Events can be added from any thread.
+ */
+public class CapturedEventBuffer {
+
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	private final CapturedEvent[] events;
+
+	private int start;
+
+	private int size;
+
+	// number of the most recent events not yet taken by takeNewEvents()
+	private int pending;
+
+	private long dropped;
+
+	public CapturedEventBuffer(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException();
+		}
+		events = new CapturedEvent[capacity];
+	}
+
+	public int getCapacity() {
+		return events.length;
+	}
+
+	public synchronized void add(CapturedEvent event) {
+		if (size == events.length) {
+			events[start] = event;
+			start = (start + 1) % events.length;
+			dropped++;
+		} else {
+			events[(start + size) % events.length] = event;
+			size++;
+		}
+		pending = Math.min(pending + 1, events.length);
+	}
+
+	/**
+	 * Returns the events added since the last call that are still retained,
+	 * oldest first.
+	 */
+	public synchronized List<CapturedEvent> takeNewEvents() {
+		List<CapturedEvent> result = copy(size - pending);
+		pending = 0;
+		return result;
+	}
+
+	/**
+	 * Returns all retained events, oldest first.
+	 */
+	public synchronized List<CapturedEvent> getEvents() {
+		return copy(0);
+	}
+
+	/**
+	 * Returns the number of events that were dropped because the buffer was
+	 * full.
+	 */
+	public synchronized long getDroppedCount() {
+		return dropped;
+	}
+
+	public synchronized void clear() {
+		for (int i = 0; i < events.length; i++) {
+			events[i] = null;
+		}
+		start = 0;
+		size = 0;
+		pending = 0;
+		dropped = 0;
+	}
+
+	private List<CapturedEvent> copy(int from) {
+		List<CapturedEvent> result = new ArrayList<>(size - from);
+		for (int i = from; i < size; i++) {
+			result.add(events[(start + i) % events.length]);
+		}
+		return result;
+	}
+}
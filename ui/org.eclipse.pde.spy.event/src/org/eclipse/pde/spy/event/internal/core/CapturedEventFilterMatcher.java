@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2022 IBM Corporation and others.
+ * Copyright (c) 2013, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,19 +14,37 @@
 package org.eclipse.pde.spy.event.internal.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
+import org.eclipse.e4.ui.workbench.UIEvents;
 import org.eclipse.pde.spy.event.internal.model.CapturedEvent;
 import org.eclipse.pde.spy.event.internal.model.CapturedEventFilter;
 import org.eclipse.pde.spy.event.internal.model.ItemToFilter;
 import org.eclipse.pde.spy.event.internal.model.Operator;
 import org.eclipse.pde.spy.event.internal.model.Parameter;
 import org.eclipse.pde.spy.event.internal.model.SpecialValue;
+import org.osgi.service.event.Event;
 
 public class CapturedEventFilterMatcher {
 	public boolean matches(CapturedEvent event, CapturedEventFilter filter) {
-		Object value = getItemToFilterValue(event, filter.getItemToFilter());
+		return matches(getItemToFilterValue(event, filter.getItemToFilter()), filter);
+	}
+
+	/**
+	 * Matches the filter against an event that was not captured yet, so that
+	 * filtered out events are never materialized.
+	 *
+	 * @param publisherClassName
+	 *            supplies the publisher of the event, only called by filters
+	 *            on the publisher
+	 */
+	public boolean matches(Event event, CapturedEventFilter filter, Supplier<String> publisherClassName) {
+		return matches(getItemToFilterValue(event, filter.getItemToFilter(), publisherClassName), filter);
+	}
 
+	private boolean matches(Object value, CapturedEventFilter filter) {
 		if (value instanceof List) {
 			List<?> list = (List<?>) value;
 			for (Object item : list) {
@@ -76,6 +94,42 @@ public class CapturedEventFilterMatcher {
 		throw new IllegalArgumentException(Messages.CapturedEventFilterMatcher_NoSupportedItem + itemToFilter.toString());
 	}
 
+	private Object getItemToFilterValue(Event event, ItemToFilter itemToFilter, Supplier<String> publisherClassName) {
+		if (itemToFilter.equals(ItemToFilter.Topic)) {
+			return event.getTopic();
+		}
+		if (itemToFilter.equals(ItemToFilter.Publisher)) {
+			return publisherClassName.get();
+		}
+		if (itemToFilter.equals(ItemToFilter.ChangedElement)) {
+			Object element = event.getProperty(UIEvents.EventTags.ELEMENT);
+			return element != null ? element.getClass().getName() : ""; //$NON-NLS-1$
+		}
+		String[] propertyNames = event.getPropertyNames();
+		if (itemToFilter.equals(ItemToFilter.ParameterName)) {
+			return Arrays.asList(propertyNames);
+		}
+		if (itemToFilter.equals(ItemToFilter.ParameterValue)) {
+			List<Object> values = new ArrayList<>(propertyNames.length);
+			for (String name : propertyNames) {
+				values.add(event.getProperty(name));
+			}
+			return values;
+		}
+		if (itemToFilter.equals(ItemToFilter.ParameterNameAndValue)) {
+			List<String> nameAndValues = new ArrayList<>(propertyNames.length);
+			for (String name : propertyNames) {
+				Object value = event.getProperty(name);
+				String nameAndValue = String.format(SpecialValue.NameAndValue.toString(), name.trim(),
+						(value == null ? SpecialValue.Null : value.toString().trim()));
+				nameAndValues.add(nameAndValue);
+			}
+			return nameAndValues;
+		}
+
+		throw new IllegalArgumentException(Messages.CapturedEventFilterMatcher_NoSupportedItem + itemToFilter.toString());
+	}
+
 	private boolean matches(String expected, Object current, Operator operator) {
 		if (SpecialValue.Null.toString().equalsIgnoreCase(expected)) {
 			return operator.isPositive() ? matchesToNull(current) : !matchesToNull(current);
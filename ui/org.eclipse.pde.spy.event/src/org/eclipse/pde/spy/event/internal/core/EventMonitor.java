@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2022 IBM Corporation and others.
+ * Copyright (c) 2013, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,9 +13,11 @@
  *******************************************************************************/
 package org.eclipse.pde.spy.event.internal.core;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.internal.workbench.UIEventPublisher;
@@ -23,54 +25,67 @@ import org.eclipse.e4.ui.services.internal.events.EventBroker;
 import org.eclipse.e4.ui.workbench.UIEvents;
 import org.eclipse.pde.spy.event.internal.model.CapturedEvent;
 import org.eclipse.pde.spy.event.internal.model.CapturedEventFilter;
+import org.eclipse.pde.spy.event.internal.model.ItemToFilter;
+import org.osgi.service.event.Event;
 import org.osgi.service.event.EventHandler;
 
+/**
+ * Captures the events of an {@link IEventBroker} into a
+ * {@link CapturedEventBuffer}.
+ * <p>
+ * Filters are evaluated on the raw event, so that filtered out events are
+ * never materialized as {@link CapturedEvent}. The publisher of an event is
+ * only looked up when the event passes the other filters, with a stack walk
+ * limited to the frames near the event broker.
+ * </p>
+ */
 @SuppressWarnings("restriction")
 public class EventMonitor {
 
-	public interface NewEventListener {
-		void newEvent(CapturedEvent event);
-	}
-
-	private static Set<Integer> EVENT_HELPER_CLASSES = Set.of(UIEvents.class.getName().hashCode(),
-			UIEventPublisher.class.getName().hashCode());
+	private static final Set<String> EVENT_HELPER_CLASSES = Set.of(UIEvents.class.getName(),
+			UIEventPublisher.class.getName());
 
-	private Collection<CapturedEventFilter> filters;
+	/**
+	 * The number of frames searched for the publisher of an event
+	 */
+	private static final int MAX_STACK_DEPTH = 64;
 
 	private final IEventBroker eventBroker;
 
-	private NewEventListener listener;
+	private final CapturedEventBuffer buffer;
 
-	private CapturedEventFilterMatcher eventFilterMatcher;
+	private final CapturedEventFilterMatcher eventFilterMatcher = new CapturedEventFilterMatcher();
 
-	private final EventHandler eventHandler = event -> {
-		if (listener == null) {
-			return;
-		}
+	// filters that do not need the publisher of the event
+	private volatile List<CapturedEventFilter> eventFilters = List.of();
 
-		CapturedEvent capturedEvent = new CapturedEvent();
-		capturedEvent.setTopic(event.getTopic());
-		capturedEvent.setPublisherClassName(getPublisherClassName());
+	private volatile List<CapturedEventFilter> publisherFilters = List.of();
 
-		for (String propertyName : event.getPropertyNames()) {
-			Object value = event.getProperty(propertyName);
-			capturedEvent.addParameter(propertyName, value);
-			if (value != null && UIEvents.EventTags.ELEMENT.equals(propertyName)) {
-				capturedEvent.setChangedElementClassName(value.getClass().getName());
-			}
-		}
-
-		if (shouldBeCaptured(capturedEvent)) {
-			listener.newEvent(capturedEvent);
-		}
-	};
+	private final EventHandler eventHandler = this::handleEvent;
 
 	public EventMonitor(IEventBroker eventBroker) {
+		this(eventBroker, CapturedEventBuffer.DEFAULT_CAPACITY);
+	}
+
+	public EventMonitor(IEventBroker eventBroker, int capacity) {
 		this.eventBroker = eventBroker;
+		this.buffer = new CapturedEventBuffer(capacity);
 	}
 
 	public void start(String baseTopic, Collection<CapturedEventFilter> filters) {
-		this.filters = filters;
+		List<CapturedEventFilter> newEventFilters = new ArrayList<>();
+		List<CapturedEventFilter> newPublisherFilters = new ArrayList<>();
+		if (filters != null) {
+			for (CapturedEventFilter filter : filters) {
+				if (ItemToFilter.Publisher.equals(filter.getItemToFilter())) {
+					newPublisherFilters.add(filter);
+				} else {
+					newEventFilters.add(filter);
+				}
+			}
+		}
+		eventFilters = newEventFilters;
+		publisherFilters = newPublisherFilters;
 		eventBroker.subscribe(baseTopic, eventHandler);
 	}
 
@@ -78,41 +93,64 @@ public class EventMonitor {
 		eventBroker.unsubscribe(eventHandler);
 	}
 
-	public void setNewEventListener(NewEventListener listener) {
-		this.listener = listener;
+	/**
+	 * Returns the buffer the captured events are added to.
+	 */
+	public CapturedEventBuffer getBuffer() {
+		return buffer;
 	}
 
-	private boolean shouldBeCaptured(CapturedEvent event) {
-		if (filters != null) {
-			Iterator<CapturedEventFilter> iter = filters.iterator();
-			while (iter.hasNext()) {
-				if (!getEventFilterMatcher().matches(event, iter.next())) {
-					return false;
-				}
+	private void handleEvent(Event event) {
+		String[] publisher = new String[1];
+		Supplier<String> publisherClassName = () -> {
+			if (publisher[0] == null) {
+				publisher[0] = getPublisherClassName();
 			}
+			return publisher[0];
+		};
+
+		if (!shouldBeCaptured(event, eventFilters, publisherClassName)
+				|| !shouldBeCaptured(event, publisherFilters, publisherClassName)) {
+			return;
 		}
-		return true;
-	}
 
-	private String getPublisherClassName() {
-		StackTraceElement[] items = Thread.currentThread().getStackTrace();
-		boolean foundEventBroker = false;
+		CapturedEvent capturedEvent = new CapturedEvent();
+		capturedEvent.setTopic(event.getTopic());
+		capturedEvent.setPublisherClassName(publisherClassName.get());
 
-		for (int i = 0; i < items.length; i++) {
-			String clsName = items[i].getClassName();
-			if (!foundEventBroker && clsName.equals(EventBroker.class.getName())) {
-				foundEventBroker = true;
-			} else if (foundEventBroker && !EVENT_HELPER_CLASSES.contains(clsName.hashCode())) {
-				return String.format("%s (%s:%d)", clsName, items[i].getMethodName(), items[i].getLineNumber()); //$NON-NLS-1$
+		for (String propertyName : event.getPropertyNames()) {
+			Object value = event.getProperty(propertyName);
+			capturedEvent.addParameter(propertyName, value);
+			if (value != null && UIEvents.EventTags.ELEMENT.equals(propertyName)) {
+				capturedEvent.setChangedElementClassName(value.getClass().getName());
 			}
 		}
-		return ""; //$NON-NLS-1$
+
+		buffer.add(capturedEvent);
 	}
 
-	private CapturedEventFilterMatcher getEventFilterMatcher() {
-		if (eventFilterMatcher == null) {
-			eventFilterMatcher = new CapturedEventFilterMatcher();
+	private boolean shouldBeCaptured(Event event, List<CapturedEventFilter> filters, Supplier<String> publisherClassName) {
+		for (CapturedEventFilter filter : filters) {
+			if (!eventFilterMatcher.matches(event, filter, publisherClassName)) {
+				return false;
+			}
 		}
-		return eventFilterMatcher;
+		return true;
+	}
+
+	private static String getPublisherClassName() {
+		return StackWalker.getInstance().walk(frames -> {
+			boolean[] foundEventBroker = new boolean[1];
+			return frames.limit(MAX_STACK_DEPTH).filter(frame -> {
+				String clsName = frame.getClassName();
+				if (!foundEventBroker[0] && clsName.equals(EventBroker.class.getName())) {
+					foundEventBroker[0] = true;
+					return false;
+				}
+				return foundEventBroker[0] && !EVENT_HELPER_CLASSES.contains(clsName);
+			}).findFirst()
+					.map(frame -> String.format("%s (%s:%d)", frame.getClassName(), frame.getMethodName(), frame.getLineNumber())) //$NON-NLS-1$
+					.orElse(""); //$NON-NLS-1$
+		});
 	}
 }
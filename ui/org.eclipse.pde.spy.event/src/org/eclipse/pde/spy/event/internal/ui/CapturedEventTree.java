@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2022 IBM Corporation and others.
+ * Copyright (c) 2013, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,8 @@
 package org.eclipse.pde.spy.event.internal.ui;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 
 import org.eclipse.core.databinding.beans.typed.PojoProperties;
 import org.eclipse.core.databinding.observable.IObservable;
@@ -353,6 +355,18 @@ public class CapturedEventTree extends TreeViewer {
 		capturedEvents.add(event);
 	}
 
+	/**
+	 * Adds the given events, removing the oldest ones so that no more than the
+	 * given number of events is shown.
+	 */
+	public void addEvents(List<CapturedEvent> events, int maxEvents) {
+		capturedEvents.addAll(events);
+		int excess = capturedEvents.size() - maxEvents;
+		if (excess > 0) {
+			capturedEvents.removeAll(new HashSet<>(capturedEvents.subList(0, excess)));
+		}
+	}
+
 	public void setListener(ICapturedEventTreeListener listener) {
 		this.listener = listener;
 	}
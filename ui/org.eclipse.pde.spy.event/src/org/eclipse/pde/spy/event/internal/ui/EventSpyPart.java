@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2013, 2022 IBM Corporation and others.
+ * Copyright (c) 2013, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,15 +17,24 @@
  *******************************************************************************/
 package org.eclipse.pde.spy.event.internal.ui;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
+import java.util.List;
 
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.services.events.IEventBroker;
 import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.pde.spy.event.internal.core.CapturedEventBuffer;
 import org.eclipse.pde.spy.event.internal.core.EventMonitor;
 import org.eclipse.pde.spy.event.internal.model.CapturedEvent;
 import org.eclipse.pde.spy.event.internal.model.CapturedEventFilter;
+import org.eclipse.pde.spy.event.internal.model.ItemToFilter;
+import org.eclipse.pde.spy.event.internal.model.Parameter;
 import org.eclipse.pde.spy.event.internal.util.JDTUtils;
 import org.eclipse.pde.spy.event.internal.util.LoggerWrapper;
 import org.eclipse.swt.SWT;
@@ -34,12 +43,15 @@ import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.layout.RowData;
 import org.eclipse.swt.layout.RowLayout;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.FileDialog;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Link;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 
-public class EventSpyPart implements EventMonitor.NewEventListener {
+public class EventSpyPart {
 
 	private static final String[] SHOW_FILTER_LINK_TEXT = new String[] { Messages.EventSpyPart_ShowFilters, Messages.EventSpyPart_HideFilters };
 
@@ -53,6 +65,15 @@ public class EventSpyPart implements EventMonitor.NewEventListener {
 
 	private ToggleLink showFiltersLink;
 
+	private Label droppedEventsLabel;
+
+	private boolean capturing;
+
+	private final Runnable capturedEventsRefresher = this::refreshCapturedEvents;
+
+	// interval in ms at which captured events are moved to the tree
+	private static final int REFRESH_INTERVAL = 250;
+
 	@Inject
 	private LoggerWrapper logger;
 
@@ -142,6 +163,13 @@ public class EventSpyPart implements EventMonitor.NewEventListener {
 		showFiltersLink.setText(new String[] { SHOW_FILTER_LINK_TEXT[0], SHOW_FILTER_LINK_TEXT[1] });
 		showFiltersLink.getControl().setLayoutData(new RowData(130, SWT.DEFAULT));
 		showFiltersLink.setClickListener(this::showFilters);
+
+		Link exportLink = new Link(actionBar, SWT.NONE);
+		exportLink.setText(String.format("<a>%s</a>", Messages.EventSpyPart_ExportCapturedEvents)); //$NON-NLS-1$
+		exportLink.addListener(SWT.Selection, event -> exportCapturedEvents());
+
+		droppedEventsLabel = new Label(actionBar, SWT.NONE);
+		droppedEventsLabel.setLayoutData(new RowData(200, SWT.DEFAULT));
 	}
 
 	private void createFilters(SpyPartMemento memento) {
@@ -169,9 +197,12 @@ public class EventSpyPart implements EventMonitor.NewEventListener {
 		capturedEventTree.removeAll();
 		if (eventMonitor == null) {
 			eventMonitor = new EventMonitor(eventBroker);
-			eventMonitor.setNewEventListener(this);
+		} else {
+			eventMonitor.getBuffer().clear();
 		}
 		eventMonitor.start(capturedEventFilters.getBaseTopic(), capturedEventFilters.getFilters());
+		capturing = true;
+		outer.getDisplay().timerExec(REFRESH_INTERVAL, capturedEventsRefresher);
 		// getShell().setText(DIALOG_TITLE + " - capturing...");
 	}
 
@@ -179,12 +210,73 @@ public class EventSpyPart implements EventMonitor.NewEventListener {
 		if (eventMonitor != null) {
 			eventMonitor.stop();
 		}
+		capturing = false;
+		refreshCapturedEvents();
 		// getShell().setText(DIALOG_TITLE);
 	}
 
-	@Override
-	public void newEvent(CapturedEvent event) {
-		capturedEventTree.addEvent(event);
+	/**
+	 * Moves the events captured since the last refresh to the tree, in one
+	 * batch instead of one update per event.
+	 */
+	private void refreshCapturedEvents() {
+		if (eventMonitor == null || outer.isDisposed()) {
+			return;
+		}
+		CapturedEventBuffer buffer = eventMonitor.getBuffer();
+		List<CapturedEvent> events = buffer.takeNewEvents();
+		if (!events.isEmpty()) {
+			capturedEventTree.addEvents(events, buffer.getCapacity());
+		}
+		long dropped = buffer.getDroppedCount();
+		droppedEventsLabel.setText(dropped > 0 ? String.format(Messages.EventSpyPart_DroppedEvents, dropped) : ""); //$NON-NLS-1$
+		if (capturing) {
+			outer.getDisplay().timerExec(REFRESH_INTERVAL, capturedEventsRefresher);
+		}
+	}
+
+	/**
+	 * Writes the retained captured events to a tab separated file for offline
+	 * analysis.
+	 */
+	private void exportCapturedEvents() {
+		if (eventMonitor == null) {
+			return;
+		}
+		FileDialog dialog = new FileDialog(outer.getShell(), SWT.SAVE);
+		dialog.setFilterExtensions(new String[] { "*.tsv", "*.*" }); //$NON-NLS-1$ //$NON-NLS-2$
+		dialog.setFileName("events.tsv"); //$NON-NLS-1$
+		dialog.setOverwrite(true);
+		String path = dialog.open();
+		if (path == null) {
+			return;
+		}
+		try (BufferedWriter writer = Files.newBufferedWriter(Path.of(path), StandardCharsets.UTF_8)) {
+			writer.write(String.join("\t", ItemToFilter.Topic.toString(), ItemToFilter.Publisher.toString(), //$NON-NLS-1$
+					ItemToFilter.ChangedElement.toString(), ItemToFilter.ParameterNameAndValue.toString()));
+			writer.newLine();
+			for (CapturedEvent event : eventMonitor.getBuffer().getEvents()) {
+				StringBuilder line = new StringBuilder();
+				line.append(escape(event.getTopic())).append('\t');
+				line.append(escape(event.getPublisherClassName())).append('\t');
+				line.append(escape(event.getChangedElementClassName()));
+				for (Parameter parameter : event.getParameters()) {
+					line.append('\t').append(escape(parameter.getName())).append('=')
+							.append(escape(String.valueOf(parameter.getValue())));
+				}
+				writer.write(line.toString());
+				writer.newLine();
+			}
+		} catch (IOException e) {
+			logger.error(e, String.format(Messages.EventSpyPart_ExportFailed, path));
+		}
+	}
+
+	private static String escape(String value) {
+		if (value == null) {
+			return ""; //$NON-NLS-1$
+		}
+		return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
 	}
 
 	@SuppressWarnings("restriction")
@@ -22,6 +22,9 @@ public class Messages extends NLS {
 	public static String CapturedEventTree_Name;
 	public static String CapturedEventTree_Param1;
 	public static String CapturedEventTree_Param2;
+	public static String EventSpyPart_DroppedEvents;
+	public static String EventSpyPart_ExportCapturedEvents;
+	public static String EventSpyPart_ExportFailed;
 	public static String EventSpyPart_HideFilters;
 	public static String EventSpyPart_ShowFilters;
 	public static String EventSpyPart_StartCapturingEvents;
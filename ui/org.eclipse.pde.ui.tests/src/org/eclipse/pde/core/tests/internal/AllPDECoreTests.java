@@ -6,7 +6,11 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({ //
+	BundleValidationOperationTest.class, //
 	DependencyManagerTest.class, //
+	PDEExtensionRegistryTest.class, //
+	PDEStateTest.class, //
+	TargetManifestCacheTest.class, //
 	WorkspaceModelManagerTest.class, //
 	WorkspaceProductModelManagerTest.class, //
 })
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ *  Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.core.tests.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Dictionary;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.ResolverError;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.core.plugin.PluginRegistry;
+import org.eclipse.pde.core.project.IBundleProjectDescription;
+import org.eclipse.pde.core.project.IBundleProjectService;
+import org.eclipse.pde.core.project.IRequiredBundleDescription;
+import org.eclipse.pde.internal.core.BundleValidationOperation;
+import org.eclipse.pde.internal.core.TargetPlatformHelper;
+import org.eclipse.pde.ui.tests.project.ProjectCreationTests;
+import org.eclipse.pde.ui.tests.runtime.TestUtils;
+import org.eclipse.pde.ui.tests.util.ProjectUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+public class BundleValidationOperationTest {
+
+	@Rule
+	public final TestRule deleteCreatedTestProjectsAfter = ProjectUtils.DELETE_CREATED_WORKSPACE_PROJECTS_AFTER;
+
+	private static int freshValidations;
+
+	private IProject provider;
+	private IProject consumer;
+
+	@Before
+	public void setUp() throws CoreException {
+		provider = ProjectUtils.createPluginProject("validation.provider", "validation.provider", "1.0.0");
+		consumer = ProjectUtils.createPluginProject("validation.consumer", "validation.consumer", "1.0.0",
+				(description, service) -> description.setRequiredBundles(new IRequiredBundleDescription[] {
+						service.newRequiredBundle("validation.provider", null, false, false) }));
+		waitForModels();
+	}
+
+	@Test
+	public void testRemovedProviderIsReported() throws CoreException {
+		assertThat(validate(provider, consumer)).isEmpty();
+
+		Map<String, Set<String>> errors = validate(consumer);
+
+		assertThat(errors).containsOnlyKeys("validation.consumer");
+		assertThat(errors).isEqualTo(validateFresh(consumer));
+	}
+
+	@Test
+	public void testAddedProviderIsResolved() throws CoreException {
+		assertThat(validate(consumer)).containsOnlyKeys("validation.consumer");
+
+		Map<String, Set<String>> errors = validate(provider, consumer);
+
+		assertThat(errors).isEmpty();
+		assertThat(errors).isEqualTo(validateFresh(provider, consumer));
+	}
+
+	@Test
+	public void testUnchangedSelectionReportsSameErrors() throws CoreException {
+		Map<String, Set<String>> errors = validate(consumer);
+
+		assertThat(validate(consumer)).isEqualTo(errors);
+		assertThat(errors).isEqualTo(validateFresh(consumer));
+	}
+
+	@Test
+	public void testChangedManifestIsValidatedAgain() throws CoreException {
+		assertThat(validate(provider, consumer)).isEmpty();
+
+		IBundleProjectService service = ProjectCreationTests.getBundleProjectService();
+		IBundleProjectDescription description = service.getDescription(consumer);
+		description.setRequiredBundles(new IRequiredBundleDescription[] {
+				service.newRequiredBundle("validation.provider", null, false, false),
+				service.newRequiredBundle("validation.missing", null, false, false) });
+		description.apply(null);
+		waitForModels();
+
+		Map<String, Set<String>> errors = validate(provider, consumer);
+		assertThat(errors).containsOnlyKeys("validation.consumer");
+		assertThat(errors.get("validation.consumer")).anyMatch(error -> error.contains("validation.missing"));
+		assertThat(errors).isEqualTo(validateFresh(provider, consumer));
+	}
+
+	@Test
+	public void testBundlesAreKeptAfterLaterValidations() throws CoreException {
+		BundleValidationOperation operation = new BundleValidationOperation(models(provider, consumer));
+		operation.run(null);
+
+		new BundleValidationOperation(models(consumer)).run(null);
+
+		assertThat(operation.getBundleCount()).isEqualTo(2);
+		assertThat(operation.getBundle("validation.provider")).isNotNull()
+				.extracting(BundleDescription::getSymbolicName).isEqualTo("validation.provider");
+		assertThat(operation.getBundle("validation.consumer")).isNotNull();
+		assertThat(operation.getBundle("validation.missing")).isNull();
+		assertThat(operation.hasErrors()).isFalse();
+	}
+
+	/**
+	 * Validates the bundles of the given projects, reusing the state of earlier
+	 * validations
+	 */
+	private static Map<String, Set<String>> validate(IProject... projects) throws CoreException {
+		BundleValidationOperation operation = new BundleValidationOperation(models(projects));
+		operation.run(null);
+		return toNames(operation.getResolverErrors());
+	}
+
+	/**
+	 * Validates the bundles of the given projects in a new state, using
+	 * platform properties no earlier validation used
+	 */
+	@SuppressWarnings("unchecked")
+	private static Map<String, Set<String>> validateFresh(IProject... projects) throws CoreException {
+		Dictionary<String, String> properties = TargetPlatformHelper.getTargetEnvironment();
+		properties.put("validation.test.fresh", Integer.toString(freshValidations++));
+		BundleValidationOperation operation = new BundleValidationOperation(models(projects),
+				new Dictionary[] { properties });
+		operation.run(null);
+		return toNames(operation.getResolverErrors());
+	}
+
+	private static Set<IPluginModelBase> models(IProject... projects) {
+		Set<IPluginModelBase> models = new HashSet<>();
+		for (IProject project : projects) {
+			models.add(PluginRegistry.findModel(project));
+		}
+		return models;
+	}
+
+	/**
+	 * Returns the errors of each bundle by symbolic name, the bundles being
+	 * different copies in each state
+	 */
+	private static Map<String, Set<String>> toNames(Map<Object, Object[]> resolverErrors) {
+		Map<String, Set<String>> errors = new TreeMap<>();
+		resolverErrors.forEach((bundle, bundleErrors) -> {
+			Set<String> messages = errors.computeIfAbsent(((BundleDescription) bundle).getSymbolicName(),
+					name -> new TreeSet<>());
+			for (Object error : bundleErrors) {
+				if (error instanceof ResolverError resolverError) {
+					messages.add(resolverError.getType() + " " + resolverError.getData());
+				} else if (error instanceof IStatus status) {
+					messages.add(status.getMessage());
+				} else {
+					messages.add(String.valueOf(error));
+				}
+			}
+		});
+		return errors;
+	}
+
+	private static void waitForModels() {
+		TestUtils.waitForJobs("BundleValidationOperationTest", 100, 10000);
+	}
+}
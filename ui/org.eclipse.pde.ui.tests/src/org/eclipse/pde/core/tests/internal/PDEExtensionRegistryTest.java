@@ -0,0 +1,63 @@
+/*******************************************************************************
+ *  Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.core.tests.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.pde.core.plugin.IPluginExtension;
+import org.eclipse.pde.core.plugin.IPluginExtensionPoint;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.core.plugin.PluginRegistry;
+import org.eclipse.pde.internal.core.PDEExtensionRegistry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PDEExtensionRegistryTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testParallelReadingRegistersSameContributions() throws IOException {
+		IPluginModelBase[] models = PluginRegistry.getExternalModels();
+
+		List<String> serial = getContributions(models, false);
+		List<String> parallel = getContributions(models, true);
+
+		assertThat(serial).anyMatch(contribution -> contribution.contains(" extension "));
+		assertThat(parallel).isEqualTo(serial);
+	}
+
+	private List<String> getContributions(IPluginModelBase[] models, boolean parallelReading) throws IOException {
+		PDEExtensionRegistry registry = new PDEExtensionRegistry(models, folder.newFolder(), parallelReading);
+		try {
+			List<String> contributions = new ArrayList<>();
+			for (IPluginModelBase model : models) {
+				String id = model.getPluginBase().getId();
+				for (IPluginExtensionPoint point : registry.findExtensionPointsForPlugin(model)) {
+					contributions.add(id + " extension point " + point.getFullId());
+				}
+				for (IPluginExtension extension : registry.findExtensionsForPlugin(model)) {
+					contributions.add(id + " extension " + extension.getPoint() + ' ' + extension.getId());
+				}
+			}
+			return contributions;
+		} finally {
+			registry.stop();
+		}
+	}
+}
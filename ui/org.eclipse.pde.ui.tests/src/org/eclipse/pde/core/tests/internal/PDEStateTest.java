@@ -0,0 +1,150 @@
+/*******************************************************************************
+ *  Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.core.tests.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.ExportPackageDescription;
+import org.eclipse.pde.internal.core.PDEState;
+import org.eclipse.pde.internal.core.TargetManifestCache;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osgi.framework.Constants;
+
+public class PDEStateTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testParallelManifestLoadingCreatesSameState() throws Exception {
+		Path pluginsDirectory = folder.newFolder("plugins").toPath();
+		List<URI> uris = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			Manifest manifest = new Manifest();
+			Attributes attributes = manifest.getMainAttributes();
+			attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+			attributes.putValue(Constants.BUNDLE_MANIFESTVERSION, "2");
+			attributes.putValue(Constants.BUNDLE_SYMBOLICNAME, "bundle" + i);
+			attributes.putValue(Constants.BUNDLE_VERSION, "1.0." + i);
+			attributes.putValue(Constants.EXPORT_PACKAGE, "bundle" + i + ".pack");
+			if (i > 0) {
+				attributes.putValue(Constants.IMPORT_PACKAGE, "bundle" + (i - 1) + ".pack");
+			}
+			uris.add(writeBundle(pluginsDirectory, "bundle" + i, manifest));
+		}
+		// not a bundle, must be skipped in both modes
+		Path notABundle = pluginsDirectory.resolve("notABundle.jar");
+		try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(notABundle))) {
+			out.putNextEntry(new ZipEntry("readme.txt"));
+		}
+		uris.add(25, notABundle.toUri());
+		URI[] target = uris.toArray(URI[]::new);
+
+		// each state reads through its own empty cache, so that both actually
+		// parse all manifests instead of reusing the ones read before
+		TargetManifestCache serialCache = new TargetManifestCache(null);
+		PDEState serial = new PDEState(target, true, true, false, serialCache, new NullProgressMonitor());
+		serial.resolveState(false);
+		TargetManifestCache parallelCache = new TargetManifestCache(null);
+		PDEState parallel = new PDEState(target, true, true, true, parallelCache, new NullProgressMonitor());
+		parallel.resolveState(false);
+
+		assertThat(parallelCache.contains(notABundle.toFile())).isTrue();
+		assertThat(describe(parallel)).isEqualTo(describe(serial)).hasSize(50);
+		assertThat(parallel.getState().getResolvedBundles()).hasSize(50);
+		for (BundleDescription bundle : serial.getState().getBundles()) {
+			BundleDescription other = parallel.getState().getBundle(bundle.getBundleId());
+			assertThat(other.getSymbolicName()).isEqualTo(bundle.getSymbolicName());
+			assertThat(other.isResolved()).isEqualTo(bundle.isResolved());
+			assertThat(describeWiring(other)).isEqualTo(describeWiring(bundle));
+		}
+	}
+
+	@Test
+	public void testSecondaryStateKeepsCachedManifestsOfTarget() throws Exception {
+		Path pluginsDirectory = folder.newFolder("plugins").toPath();
+		URI[] target = new URI[3];
+		for (int i = 0; i < target.length; i++) {
+			target[i] = writeBundle(pluginsDirectory, "bundle" + i, createManifest("bundle" + i));
+		}
+		File cacheFile = new File(folder.newFolder("state"), ".targetManifests");
+		TargetManifestCache cache = new TargetManifestCache(cacheFile);
+		new PDEState(target, true, true, false, cache, new NullProgressMonitor());
+		cache.save();
+
+		// a state of a single bundle, like the ones of the target editor or
+		// the import wizard
+		URI other = writeBundle(pluginsDirectory, "other", createManifest("other"));
+		new PDEState(new URI[] { target[0], other }, true, false, false, cache, new NullProgressMonitor());
+		cache.save();
+
+		TargetManifestCache restored = new TargetManifestCache(cacheFile);
+		for (URI uri : target) {
+			assertThat(restored.contains(new File(uri))).as(uri.toString()).isTrue();
+		}
+		assertThat(restored.contains(new File(other))).isTrue();
+	}
+
+	private static Manifest createManifest(String symbolicName) {
+		Manifest manifest = new Manifest();
+		Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attributes.putValue(Constants.BUNDLE_MANIFESTVERSION, "2");
+		attributes.putValue(Constants.BUNDLE_SYMBOLICNAME, symbolicName);
+		attributes.putValue(Constants.BUNDLE_VERSION, "1.0.0");
+		return manifest;
+	}
+
+	private static URI writeBundle(Path directory, String name, Manifest manifest) throws IOException {
+		Path jar = directory.resolve(name + ".jar");
+		try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+			out.putNextEntry(new ZipEntry(JarFile.MANIFEST_NAME));
+			manifest.write(out);
+		}
+		return jar.toUri();
+	}
+
+	private static List<String> describeWiring(BundleDescription bundle) {
+		return Arrays.stream(bundle.getResolvedImports())
+				.map(export -> export.getName() + "@" + export.getExporter().getSymbolicName()).toList();
+	}
+
+	private static List<String> describe(PDEState state) {
+		return Arrays.stream(state.getTargetModels()).map(model -> {
+			BundleDescription description = model.getBundleDescription();
+			return String.join(",", description.getSymbolicName(), description.getVersion().toString(),
+					Long.toString(description.getBundleId()), model.getInstallLocation(),
+					Boolean.toString(description.isResolved()), Arrays.stream(description.getResolvedImports())
+							.map(ExportPackageDescription::getName).collect(Collectors.joining(";")));
+		}).toList();
+	}
+
+}
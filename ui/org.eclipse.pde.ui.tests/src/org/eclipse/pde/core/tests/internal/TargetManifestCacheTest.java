@@ -0,0 +1,162 @@
+/*******************************************************************************
+ *  Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.core.tests.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.JarFile;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.internal.core.TargetManifestCache;
+import org.eclipse.pde.internal.core.util.ManifestUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.osgi.framework.Constants;
+
+public class TargetManifestCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File cacheFile;
+
+	@Before
+	public void setUp() throws IOException {
+		cacheFile = new File(folder.newFolder("state"), ".targetManifests");
+	}
+
+	@Test
+	public void testLongAndNonAsciiHeadersAreRestored() throws Exception {
+		String exports = "bundle.\u00fc\u65e5\u672c.pack;version=\"1.0.0\"," + "a".repeat(70_000);
+		File bundle = writeBundle("bundle", "1.0.0", exports);
+
+		TargetManifestCache cache = new TargetManifestCache(cacheFile);
+		Map<String, String> manifest = cache.getManifest(bundle);
+		cache.save();
+
+		TargetManifestCache restored = new TargetManifestCache(cacheFile);
+		assertThat(restored.contains(bundle)).isTrue();
+		assertThat(restored.getManifest(bundle)).isEqualTo(manifest).containsEntry(Constants.EXPORT_PACKAGE, exports);
+	}
+
+	@Test
+	public void testUnchangedBundleIsNotReadAgain() throws Exception {
+		File bundle = writeBundle("bundle", "1.0.0", "bundle.pack");
+		TargetManifestCache cache = new TargetManifestCache(cacheFile);
+		cache.getManifest(bundle);
+		cache.save();
+
+		// same size and modification time, so the cached headers are used
+		File manifestFile = new File(bundle, JarFile.MANIFEST_NAME);
+		long lastModified = manifestFile.lastModified();
+		writeBundle("bundle", "2.0.0", "bundle.pack");
+		manifestFile.setLastModified(lastModified);
+
+		Map<String, String> manifest = new TargetManifestCache(cacheFile).getManifest(bundle);
+		assertThat(manifest).containsEntry(Constants.BUNDLE_VERSION, "1.0.0");
+	}
+
+	@Test
+	public void testChangedBundleIsReadAgain() throws Exception {
+		File bundle = writeBundle("bundle", "1.0.0", "bundle.pack");
+		TargetManifestCache cache = new TargetManifestCache(cacheFile);
+		cache.getManifest(bundle);
+		cache.save();
+
+		File manifestFile = new File(bundle, JarFile.MANIFEST_NAME);
+		long lastModified = manifestFile.lastModified();
+		writeBundle("bundle", "2.0.0", "bundle.pack");
+		manifestFile.setLastModified(lastModified + 2000);
+
+		Map<String, String> manifest = new TargetManifestCache(cacheFile).getManifest(bundle);
+		assertThat(manifest).containsEntry(Constants.BUNDLE_VERSION, "2.0.0");
+	}
+
+	@Test
+	public void testNotABundleIsRemembered() throws Exception {
+		File notABundle = folder.newFolder("notABundle");
+		Path manifestFile = notABundle.toPath().resolve(JarFile.MANIFEST_NAME);
+		Files.createDirectories(manifestFile.getParent());
+		Files.writeString(manifestFile, "Manifest-Version: 1.0\n");
+
+		TargetManifestCache cache = new TargetManifestCache(cacheFile);
+		assertNotABundle(cache, notABundle);
+		cache.save();
+
+		TargetManifestCache restored = new TargetManifestCache(cacheFile);
+		assertThat(restored.contains(notABundle)).isTrue();
+		assertNotABundle(restored, notABundle);
+	}
+
+	@Test
+	public void testBundlesNotRetainedAreDropped() throws Exception {
+		File bundle1 = writeBundle("bundle1", "1.0.0", "bundle1.pack");
+		File bundle2 = writeBundle("bundle2", "1.0.0", "bundle2.pack");
+		TargetManifestCache cache = new TargetManifestCache(cacheFile);
+		cache.getManifest(bundle1);
+		cache.getManifest(bundle2);
+		cache.save();
+
+		TargetManifestCache restored = new TargetManifestCache(cacheFile);
+		restored.getManifest(bundle1);
+		restored.retain(List.of(bundle1));
+		restored.save();
+
+		TargetManifestCache pruned = new TargetManifestCache(cacheFile);
+		assertThat(pruned.contains(bundle1)).isTrue();
+		assertThat(pruned.contains(bundle2)).isFalse();
+	}
+
+	@Test
+	public void testCorruptCacheIsIgnored() throws Exception {
+		File bundle = writeBundle("bundle", "1.0.0", "bundle.pack");
+		TargetManifestCache cache = new TargetManifestCache(cacheFile);
+		cache.getManifest(bundle);
+		cache.save();
+		byte[] content = Files.readAllBytes(cacheFile.toPath());
+		Files.write(cacheFile.toPath(), Arrays.copyOf(content, content.length / 2));
+
+		TargetManifestCache restored = new TargetManifestCache(cacheFile);
+		assertThat(restored.contains(bundle)).isFalse();
+		assertThat(restored.getManifest(bundle)).containsEntry(Constants.BUNDLE_SYMBOLICNAME, "bundle");
+	}
+
+	private File writeBundle(String name, String version, String exports) throws IOException {
+		Path bundle = folder.getRoot().toPath().resolve(name);
+		Path manifestFile = bundle.resolve(JarFile.MANIFEST_NAME);
+		Files.createDirectories(manifestFile.getParent());
+		String manifest = "Manifest-Version: 1.0\n" //
+				+ Constants.BUNDLE_MANIFESTVERSION + ": 2\n" //
+				+ Constants.BUNDLE_SYMBOLICNAME + ": " + name + "\n" //
+				+ Constants.BUNDLE_VERSION + ": " + version + "\n" //
+				+ Constants.EXPORT_PACKAGE + ": " + exports + "\n";
+		Files.writeString(manifestFile, manifest, StandardCharsets.UTF_8);
+		return bundle.toFile();
+	}
+
+	private static void assertNotABundle(TargetManifestCache cache, File location) {
+		assertThatThrownBy(() -> cache.getManifest(location)).isInstanceOf(CoreException.class)
+				.matches(e -> ((CoreException) e).getStatus()
+						.getCode() == ManifestUtils.STATUS_CODE_NOT_A_BUNDLE_MANIFEST);
+	}
+}
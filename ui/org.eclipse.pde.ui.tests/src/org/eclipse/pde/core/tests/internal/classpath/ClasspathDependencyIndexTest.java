@@ -0,0 +1,145 @@
+/*******************************************************************************
+ *  Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.core.tests.internal.classpath;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Hashtable;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.State;
+import org.eclipse.osgi.service.resolver.StateDelta;
+import org.eclipse.osgi.service.resolver.StateObjectFactory;
+import org.eclipse.pde.internal.core.ClasspathDependencyIndex;
+import org.eclipse.pde.ui.tests.util.ProjectUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.Constants;
+
+public class ClasspathDependencyIndexTest {
+
+	@Rule
+	public final TestRule deleteCreatedTestProjectsAfter = ProjectUtils.DELETE_CREATED_WORKSPACE_PROJECTS_AFTER;
+
+	private final StateObjectFactory factory = Platform.getPlatformAdmin().getFactory();
+	private final ClasspathDependencyIndex index = new ClasspathDependencyIndex();
+	private final IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+
+	private State state;
+	private BundleDescription provider;
+	private BundleDescription consumer;
+	private BundleDescription other;
+
+	@Before
+	public void setUp() throws BundleException {
+		state = factory.createState(true);
+		provider = addBundle(1, "provider", "1.0.0", "provider.pack", null);
+		consumer = addBundle(2, "consumer", "1.0.0", null, "provider.pack");
+		other = addBundle(3, "other", "1.0.0", "other.pack", null);
+		state.resolve(false);
+		index.record(root.getProject("consumer"), consumer, List.of(provider));
+		index.record(root.getProject("other"), other, List.of());
+	}
+
+	@After
+	public void tearDown() {
+		index.dispose();
+	}
+
+	@Test
+	public void testUnchangedBundlesAreSkipped() {
+		StateDelta delta = state.resolve(new BundleDescription[] { provider, consumer, other });
+
+		assertThat(index.hasWiringChanged(root.getProject("consumer"), consumer)).isFalse();
+		assertThat(index.hasWiringChanged(root.getProject("other"), other)).isFalse();
+		assertThat(index.getDependentProjects(delta)).isEmpty();
+	}
+
+	@Test
+	public void testConsumerOfChangedBundleIsRecomputed() throws BundleException {
+		// same wiring of the consumer, but the provider itself changed
+		state.updateBundle(bundle(1, "provider", "1.0.0", "provider.pack,provider.internal", null));
+		StateDelta delta = state.resolve(false);
+
+		assertThat(index.getDependentProjects(delta)).containsExactly("consumer");
+		assertThat(index.hasWiringChanged(root.getProject("other"), other)).isFalse();
+	}
+
+	@Test
+	public void testChangedWiringIsRecomputed() throws BundleException {
+		state.updateBundle(bundle(1, "provider", "2.0.0", "provider.pack", null));
+		state.resolve(false);
+
+		assertThat(index.hasWiringChanged(root.getProject("consumer"), state.getBundle(2))).isTrue();
+		assertThat(index.hasWiringChanged(root.getProject("other"), state.getBundle(3))).isFalse();
+	}
+
+	@Test
+	public void testUnknownProjectIsRecomputed() {
+		assertThat(index.hasWiringChanged(root.getProject("provider"), provider)).isTrue();
+	}
+
+	@Test
+	public void testClosedProjectIsForgotten() throws Exception {
+		IProject project = ProjectUtils.createPluginProject("closed.project", "closed.project", "1.0.0");
+		index.record(project, consumer, List.of(provider));
+		assertThat(index.hasWiringChanged(project, consumer)).isFalse();
+
+		project.close(null);
+
+		assertThat(index.hasWiringChanged(project, consumer)).isTrue();
+	}
+
+	@Test
+	public void testDeletedProjectIsForgotten() throws Exception {
+		IProject project = ProjectUtils.createPluginProject("deleted.project", "deleted.project", "1.0.0");
+		index.record(project, consumer, List.of(provider));
+		state.updateBundle(bundle(1, "provider", "1.0.0", "provider.pack,provider.internal", null));
+		StateDelta delta = state.resolve(false);
+		assertThat(index.getDependentProjects(delta)).contains("deleted.project");
+
+		project.delete(true, null);
+
+		assertThat(index.getDependentProjects(delta)).containsExactly("consumer");
+	}
+
+	private BundleDescription addBundle(long id, String name, String version, String exports, String imports)
+			throws BundleException {
+		BundleDescription description = bundle(id, name, version, exports, imports);
+		state.addBundle(description);
+		return description;
+	}
+
+	private BundleDescription bundle(long id, String name, String version, String exports, String imports)
+			throws BundleException {
+		Hashtable<String, String> manifest = new Hashtable<>();
+		manifest.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		manifest.put(Constants.BUNDLE_SYMBOLICNAME, name);
+		manifest.put(Constants.BUNDLE_VERSION, version);
+		if (exports != null) {
+			manifest.put(Constants.EXPORT_PACKAGE, exports);
+		}
+		if (imports != null) {
+			manifest.put(Constants.IMPORT_PACKAGE, imports);
+		}
+		return factory.createBundleDescription(state, manifest, name, id);
+	}
+}
@@ -0,0 +1,210 @@
+/*******************************************************************************
+ *  Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.core.tests.internal.classpath;
+
+import static java.util.Map.entry;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.pde.ui.tests.util.TargetPlatformUtil.bundle;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.jdt.core.IAccessRule;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.osgi.service.resolver.BundleDescription;
+import org.eclipse.osgi.service.resolver.ExportPackageDescription;
+import org.eclipse.osgi.service.resolver.State;
+import org.eclipse.osgi.service.resolver.StateDelta;
+import org.eclipse.osgi.service.resolver.StateHelper;
+import org.eclipse.osgi.service.resolver.StateObjectFactory;
+import org.eclipse.pde.core.plugin.IPluginModelBase;
+import org.eclipse.pde.core.plugin.PluginRegistry;
+import org.eclipse.pde.core.project.IRequiredBundleDescription;
+import org.eclipse.pde.internal.core.RequiredPluginsClasspathContainer;
+import org.eclipse.pde.internal.core.VisiblePackageRules;
+import org.eclipse.pde.ui.tests.runtime.TestUtils;
+import org.eclipse.pde.ui.tests.util.ProjectUtils;
+import org.eclipse.pde.ui.tests.util.TargetPlatformUtil;
+import org.junit.Before;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.TestRule;
+import org.osgi.framework.BundleException;
+import org.osgi.framework.Constants;
+
+public class VisiblePackageRulesTest {
+
+	@ClassRule
+	public static final TestRule RESTORE_TARGET_DEFINITION = TargetPlatformUtil.RESTORE_CURRENT_TARGET_DEFINITION_AFTER;
+	@Rule
+	public final TestRule deleteCreatedTestProjectsAfter = ProjectUtils.DELETE_CREATED_WORKSPACE_PROJECTS_AFTER;
+	@Rule
+	public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+	private final StateObjectFactory factory = Platform.getPlatformAdmin().getFactory();
+	private final VisiblePackageRules rules = new VisiblePackageRules();
+
+	private State state;
+
+	@Before
+	public void setUp() throws BundleException {
+		state = factory.createState(true);
+		addBundle(1, "base", Constants.EXPORT_PACKAGE,
+				"base.api,base.internal;x-internal:=true,base.friend;x-friends:=\"friend\"");
+		addBundle(2, "lib", Constants.EXPORT_PACKAGE, "lib.api,base.api", //
+				Constants.REQUIRE_BUNDLE, "base;visibility:=reexport");
+		addBundle(3, "consumer.a", Constants.REQUIRE_BUNDLE, "lib,other");
+		addBundle(4, "consumer.b", Constants.REQUIRE_BUNDLE, "lib,base");
+		addBundle(5, "friend", Constants.REQUIRE_BUNDLE, "base");
+		addBundle(6, "importer", Constants.IMPORT_PACKAGE, "lib.api,base.internal", //
+				Constants.REQUIRE_BUNDLE, "base");
+		addBundle(7, "split.importer", Constants.IMPORT_PACKAGE, "base.api");
+		addBundle(8, "fragment", Constants.FRAGMENT_HOST, "consumer.a", //
+				Constants.IMPORT_PACKAGE, "lib.api");
+		addBundle(9, "self.importer", Constants.EXPORT_PACKAGE, "self.pack", //
+				Constants.IMPORT_PACKAGE, "self.pack,lib.api", //
+				Constants.REQUIRE_BUNDLE, "consumer.b");
+		addBundle(10, "other", Constants.EXPORT_PACKAGE, "other.api");
+		state.resolve(false);
+	}
+
+	@Test
+	public void testRequiringBundlesShareRules() {
+		BundleDescription lib = state.getBundle(2);
+		BundleDescription base = state.getBundle(1);
+
+		Map<BundleDescription, ?> consumerA = rules.getVisiblePackages(state.getBundle(3));
+		Map<BundleDescription, ?> consumerB = rules.getVisiblePackages(state.getBundle(4));
+
+		assertThat(consumerA.get(lib)).isSameAs(consumerB.get(lib));
+		assertThat(consumerA.get(base)).isSameAs(consumerB.get(base));
+		assertThat(consumerA.get(base))
+				.hasToString("[base/api/*, base/internal/* [discouraged], base/friend/* [discouraged]]");
+	}
+
+	@Test
+	public void testStateChangeDropsRules() throws BundleException {
+		Object before = rules.getVisiblePackages(state.getBundle(3)).get(state.getBundle(1));
+
+		state.updateBundle(description(1, "base", Constants.EXPORT_PACKAGE, "base.api,base.more"));
+		StateDelta delta = state.resolve(false);
+		rules.stateResolved(delta);
+
+		Object after = rules.getVisiblePackages(state.getBundle(3)).get(state.getBundle(1));
+		assertThat(after).isNotSameAs(before).hasToString("[base/api/*, base/more/*]");
+	}
+
+	@Test
+	public void testStateChangeKeepsRulesOfUnchangedBundles() throws BundleException {
+		Object before = rules.getVisiblePackages(state.getBundle(3)).get(state.getBundle(10));
+
+		state.updateBundle(description(1, "base", Constants.EXPORT_PACKAGE, "base.api,base.more"));
+		StateDelta delta = state.resolve(false);
+		rules.stateResolved(delta);
+
+		assertThat(rules.getVisiblePackages(state.getBundle(3)).get(state.getBundle(10))).isSameAs(before);
+	}
+
+	@Test
+	public void testSameAsStateHelper() {
+		StateHelper helper = Platform.getPlatformAdmin().getStateHelper();
+		for (BundleDescription bundle : state.getBundles()) {
+			Map<BundleDescription, List<String>> expected = new HashMap<>();
+			for (ExportPackageDescription export : helper.getVisiblePackages(bundle)) {
+				if (export.getExporter() == null) {
+					continue;
+				}
+				String rule = export.getName().replace('.', '/') + "/*";
+				if (helper.getAccessCode(bundle, export) == StateHelper.ACCESS_DISCOURAGED) {
+					rule += " [discouraged]";
+				}
+				List<String> list = expected.computeIfAbsent(export.getExporter(), e -> new ArrayList<>());
+				if (!list.contains(rule)) {
+					list.add(rule);
+				}
+			}
+			Map<BundleDescription, ? extends List<?>> visiblePackages = rules.getVisiblePackages(bundle);
+			Map<BundleDescription, List<String>> actual = new HashMap<>();
+			for (Map.Entry<BundleDescription, ? extends List<?>> e : visiblePackages.entrySet()) {
+				actual.put(e.getKey(), e.getValue().stream().map(Object::toString).toList());
+			}
+
+			assertThat(actual).as(bundle.getSymbolicName()).isEqualTo(expected);
+		}
+	}
+
+	@Test
+	public void testContainersShareAccessRules() throws Exception {
+		setProviderAsTarget("provider.api,provider.internal;x-internal:=true");
+		IProject consumerA = createConsumer("consumer.a");
+		IProject consumerB = createConsumer("consumer.b");
+		TestUtils.waitForJobs("testContainersShareAccessRules", 100, 10_000);
+
+		IAccessRule[] accessRules = getProviderAccessRules(consumerA);
+		assertThat(accessRules).isSameAs(getProviderAccessRules(consumerB));
+		assertThat(Arrays.stream(accessRules).map(rule -> rule.getPattern().toString()))
+				.containsExactly("provider/api/*", "provider/internal/*", "**/*");
+
+		// replaces the provider
+		setProviderAsTarget("provider.api,provider.internal;x-internal:=true,provider.more");
+		TestUtils.waitForJobs("testContainersShareAccessRules", 100, 10_000);
+
+		IAccessRule[] changedRules = getProviderAccessRules(consumerA);
+		assertThat(changedRules).isNotSameAs(accessRules).isSameAs(getProviderAccessRules(consumerB));
+		assertThat(Arrays.stream(changedRules).map(rule -> rule.getPattern().toString()))
+				.containsExactly("provider/api/*", "provider/internal/*", "provider/more/*", "**/*");
+	}
+
+	private void setProviderAsTarget(String exports) throws Exception {
+		Path jarsDirectory = tempFolder.newFolder().toPath();
+		TargetPlatformUtil.setDummyBundlesAsTarget(
+				Map.ofEntries(bundle("provider", "1.0.0", entry(Constants.EXPORT_PACKAGE, exports))), List.of(),
+				jarsDirectory);
+	}
+
+	private static IProject createConsumer(String name) throws Exception {
+		return ProjectUtils.createPluginProject(name, name, "1.0.0",
+				(description, service) -> description.setRequiredBundles(new IRequiredBundleDescription[] {
+						service.newRequiredBundle("provider", null, false, false) }));
+	}
+
+	private static IAccessRule[] getProviderAccessRules(IProject project) throws Exception {
+		IPluginModelBase model = PluginRegistry.findModel(project);
+		IClasspathEntry[] entries = new RequiredPluginsClasspathContainer(model, project).getClasspathEntries();
+		return Arrays.stream(entries).filter(e -> e.getPath().lastSegment().startsWith("provider_")).findFirst()
+				.orElseThrow().getAccessRules();
+	}
+
+	private void addBundle(long id, String name, String... headers) throws BundleException {
+		state.addBundle(description(id, name, headers));
+	}
+
+	private BundleDescription description(long id, String name, String... headers) throws BundleException {
+		Hashtable<String, String> manifest = new Hashtable<>();
+		manifest.put(Constants.BUNDLE_MANIFESTVERSION, "2");
+		manifest.put(Constants.BUNDLE_SYMBOLICNAME, name);
+		manifest.put(Constants.BUNDLE_VERSION, "1.0.0");
+		for (int i = 0; i < headers.length; i += 2) {
+			manifest.put(headers[i], headers[i + 1]);
+		}
+		return factory.createBundleDescription(state, manifest, name, id);
+	}
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *  Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.core.tests.internal.core.bnd;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.eclipse.pde.internal.core.bnd.CapabilityIndex;
+import org.junit.Test;
+
+public class CapabilityIndexTest {
+
+	private static final String PACKAGE = "osgi.wiring.package";
+
+	@Test
+	public void testSingleTerm() {
+		assertThat(requiredValue("(osgi.wiring.package=org.example)")).isEqualTo("org.example");
+		assertThat(requiredValue("(osgi.wiring.package=org.example*)")).isNull();
+		assertThat(requiredValue("(osgi.wiring.package>=org.example)")).isNull();
+		assertThat(requiredValue("(osgi.wiring.package~=org.example)")).isNull();
+		assertThat(requiredValue("(osgi.wiring.package= org.example)")).isNull();
+		assertThat(requiredValue("(osgi.wiring.package=)")).isNull();
+	}
+
+	@Test
+	public void testConjunction() {
+		assertThat(requiredValue("(&(osgi.wiring.package=org.example)(version>=1.0.0))")).isEqualTo("org.example");
+		assertThat(requiredValue("(&(version>=1.0.0)(!(version>=2.0.0))(osgi.wiring.package=org.example))"))
+				.isEqualTo("org.example");
+	}
+
+	@Test
+	public void testNestedConjunction() {
+		assertThat(requiredValue("(&(&(osgi.wiring.package=org.example)(version>=1.0.0))(!(version>=2.0.0)))"))
+				.isEqualTo("org.example");
+		assertThat(requiredValue("(&(version>=1.0.0)(&(bundle-symbolic-name=b)(&(osgi.wiring.package=org.example))))"))
+				.isEqualTo("org.example");
+	}
+
+	@Test
+	public void testDisjunction() {
+		assertThat(requiredValue("(|(osgi.wiring.package=org.example)(osgi.wiring.package=org.other))")).isNull();
+		assertThat(requiredValue("(&(|(osgi.wiring.package=org.example)(osgi.wiring.package=org.other))(version>=1))"))
+				.isNull();
+		assertThat(requiredValue("(&(|(version=1)(version=2))(osgi.wiring.package=org.example))"))
+				.isEqualTo("org.example");
+	}
+
+	@Test
+	public void testNegation() {
+		assertThat(requiredValue("(!(osgi.wiring.package=org.example))")).isNull();
+		assertThat(requiredValue("(&(!(osgi.wiring.package=org.example))(version>=1.0.0))")).isNull();
+	}
+
+	@Test
+	public void testEscapedValues() {
+		assertThat(requiredValue("(osgi.wiring.package=org\\*example)")).isNull();
+		assertThat(requiredValue("(&(osgi.wiring.package=org\\(example\\))(version>=1.0.0))")).isNull();
+		assertThat(requiredValue("(&(other=a\\)b)(osgi.wiring.package=org.example))")).isEqualTo("org.example");
+		assertThat(requiredValue("(&(other=a\\(b)(osgi.wiring.package=org.example))")).isEqualTo("org.example");
+		assertThat(requiredValue("(&(other=a\\\\)(osgi.wiring.package=org.example))")).isEqualTo("org.example");
+	}
+
+	@Test
+	public void testMissingAttribute() {
+		assertThat(requiredValue(null)).isNull();
+		assertThat(requiredValue("(version>=1.0.0)")).isNull();
+		assertThat(requiredValue("(&(version>=1.0.0)(bundle-symbolic-name=b))")).isNull();
+		assertThat(requiredValue("(osgi.wiring.package.other=org.example)")).isNull();
+		assertThat(requiredValue("(&(x.osgi.wiring.package=org.example))")).isNull();
+	}
+
+	@Test
+	public void testMalformedFilter() {
+		assertThat(requiredValue("(&(osgi.wiring.package=org.example)")).isNull();
+		assertThat(requiredValue("(&))(osgi.wiring.package=org.example))")).isNull();
+	}
+
+	private static String requiredValue(String filter) {
+		return CapabilityIndex.getRequiredValue(PACKAGE, filter);
+	}
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ *  Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.core.tests.internal.core.builders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.pde.internal.core.builders.ClassReferenceChecker;
+import org.eclipse.pde.ui.tests.runtime.TestUtils;
+import org.eclipse.pde.ui.tests.util.ProjectUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+public class ClassReferenceCheckerTest {
+
+	@Rule
+	public final TestRule deleteCreatedTestProjectsAfter = ProjectUtils.DELETE_CREATED_WORKSPACE_PROJECTS_AFTER;
+
+	private IJavaProject consumer;
+	private IJavaProject provider;
+	private IJavaProject other;
+
+	@Before
+	public void setUp() throws Exception {
+		consumer = ProjectUtils.createPluginProject("checker.consumer", null);
+		provider = ProjectUtils.createPluginProject("checker.provider", null);
+		other = ProjectUtils.createPluginProject("checker.other", null);
+		// put the provider on the classpath of the consumer
+		List<IClasspathEntry> entries = new ArrayList<>(Arrays.asList(consumer.getRawClasspath()));
+		entries.add(JavaCore.newProjectEntry(provider.getPath()));
+		consumer.setRawClasspath(entries.toArray(IClasspathEntry[]::new), null);
+		TestUtils.waitForJobs("ClassReferenceCheckerTest", 100, 10000);
+	}
+
+	@Test
+	public void testCheckerIsReused() {
+		ClassReferenceChecker checker = ClassReferenceChecker.getChecker(consumer, null);
+
+		assertThat(ClassReferenceChecker.getChecker(consumer, null)).isSameAs(checker);
+	}
+
+	@Test
+	public void testChangeOfUnrelatedProjectKeepsChecker() throws CoreException {
+		ClassReferenceChecker checker = ClassReferenceChecker.getChecker(consumer, null);
+
+		createType(other, "p.Other");
+
+		assertThat(ClassReferenceChecker.getChecker(consumer, null)).isSameAs(checker);
+	}
+
+	@Test
+	public void testChangeOfProjectRecreatesChecker() throws CoreException {
+		ClassReferenceChecker checker = ClassReferenceChecker.getChecker(consumer, null);
+		assertThat(checker.isOnClasspath("p.Consumer")).isFalse();
+
+		createType(consumer, "p.Consumer");
+
+		ClassReferenceChecker newChecker = ClassReferenceChecker.getChecker(consumer, null);
+		assertThat(newChecker).isNotSameAs(checker);
+		assertThat(newChecker.isOnClasspath("p.Consumer")).isTrue();
+	}
+
+	@Test
+	public void testChangeOfRequiredProjectRecreatesChecker() throws CoreException {
+		ClassReferenceChecker checker = ClassReferenceChecker.getChecker(consumer, null);
+		ClassReferenceChecker otherChecker = ClassReferenceChecker.getChecker(other, null);
+		assertThat(checker.isOnClasspath("p.Provider")).isFalse();
+
+		createType(provider, "p.Provider");
+
+		ClassReferenceChecker newChecker = ClassReferenceChecker.getChecker(consumer, null);
+		assertThat(newChecker).isNotSameAs(checker);
+		assertThat(newChecker.isOnClasspath("p.Provider")).isTrue();
+		assertThat(ClassReferenceChecker.getChecker(other, null)).isSameAs(otherChecker);
+	}
+
+	@Test
+	public void testClosedProjectIsForgotten() throws CoreException {
+		ClassReferenceChecker.getChecker(consumer, null);
+		ClassReferenceChecker.getChecker(other, null);
+
+		consumer.getProject().close(null);
+
+		assertThat(ClassReferenceChecker.hasChecker(consumer.getProject())).isFalse();
+		assertThat(ClassReferenceChecker.hasChecker(other.getProject())).isTrue();
+	}
+
+	@Test
+	public void testDeletedRequiredProjectIsForgotten() throws CoreException {
+		ClassReferenceChecker.getChecker(consumer, null);
+		ClassReferenceChecker.getChecker(provider, null);
+		ClassReferenceChecker.getChecker(other, null);
+
+		provider.getProject().delete(true, null);
+
+		assertThat(ClassReferenceChecker.hasChecker(provider.getProject())).isFalse();
+		assertThat(ClassReferenceChecker.hasChecker(consumer.getProject())).isFalse();
+		assertThat(ClassReferenceChecker.hasChecker(other.getProject())).isTrue();
+	}
+
+	private static void createType(IJavaProject project, String qualifiedName) throws CoreException {
+		int dot = qualifiedName.lastIndexOf('.');
+		String packageName = qualifiedName.substring(0, dot);
+		String simpleName = qualifiedName.substring(dot + 1);
+		project.getPackageFragmentRoot(project.getProject().getFolder(ProjectUtils.SRC_FOLDER))
+				.createPackageFragment(packageName, true, null).createCompilationUnit(simpleName + ".java",
+						"package " + packageName + ";\npublic class " + simpleName + " {}\n", true, null);
+	}
+}
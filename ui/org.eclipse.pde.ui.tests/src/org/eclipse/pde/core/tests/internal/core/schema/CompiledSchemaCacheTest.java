@@ -0,0 +1,314 @@
+/*******************************************************************************
+ *  Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.core.tests.internal.core.schema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.eclipse.pde.internal.core.ischema.ISchemaAttribute;
+import org.eclipse.pde.internal.core.ischema.ISchemaComplexType;
+import org.eclipse.pde.internal.core.ischema.ISchemaCompositor;
+import org.eclipse.pde.internal.core.ischema.ISchemaElement;
+import org.eclipse.pde.internal.core.ischema.ISchemaEnumeration;
+import org.eclipse.pde.internal.core.ischema.ISchemaInclude;
+import org.eclipse.pde.internal.core.ischema.ISchemaObject;
+import org.eclipse.pde.internal.core.ischema.ISchemaObjectReference;
+import org.eclipse.pde.internal.core.ischema.ISchemaRestriction;
+import org.eclipse.pde.internal.core.ischema.ISchemaSimpleType;
+import org.eclipse.pde.internal.core.ischema.ISchemaType;
+import org.eclipse.pde.internal.core.schema.CompiledSchemaCache;
+import org.eclipse.pde.internal.core.schema.Schema;
+import org.eclipse.pde.internal.core.schema.SchemaDescriptor;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CompiledSchemaCacheTest {
+
+	private static final String SCHEMA = """
+			<?xml version='1.0' encoding='UTF-8'?>
+			<schema targetNamespace="org.example" xmlns="http://www.w3.org/2001/XMLSchema">
+			<annotation>
+			   <appInfo>
+			      <meta.schema plugin="org.example" id="things" name="Things"/>
+			   </appInfo>
+			</annotation>
+			<include schemaLocation="included.exsd"/>
+			<element name="extension">
+			   <annotation>
+			      <appInfo>
+			         <meta.element internal="true"/>
+			      </appInfo>
+			   </annotation>
+			   <complexType>
+			      <sequence>
+			         <element ref="thing" minOccurs="1" maxOccurs="unbounded"/>
+			         <choice minOccurs="0" maxOccurs="1">
+			            <element ref="shared"/>
+			            <element ref="old"/>
+			         </choice>
+			      </sequence>
+			      <attribute name="point" type="string" use="required"/>
+			      <attribute name="id" type="string"/>
+			   </complexType>
+			</element>
+			<element name="thing">
+			   <annotation>
+			      <appInfo>
+			         <meta.element labelAttribute="name" icon="icon"/>
+			      </appInfo>
+			   </annotation>
+			   <complexType>
+			      <attribute name="name" type="string" use="required">
+			         <annotation>
+			            <appInfo>
+			               <meta.attribute translatable="true"/>
+			            </appInfo>
+			         </annotation>
+			      </attribute>
+			      <attribute name="class" type="string">
+			         <annotation>
+			            <appInfo>
+			               <meta.attribute kind="java" basedOn="org.example.Base:org.example.IThing"/>
+			            </appInfo>
+			         </annotation>
+			      </attribute>
+			      <attribute name="icon" type="string">
+			         <annotation>
+			            <appInfo>
+			               <meta.attribute kind="resource"/>
+			            </appInfo>
+			         </annotation>
+			      </attribute>
+			      <attribute name="mode" use="default" value="fast">
+			         <simpleType>
+			            <restriction base="string">
+			               <enumeration value="fast"/>
+			               <enumeration value="slow"/>
+			            </restriction>
+			         </simpleType>
+			      </attribute>
+			   </complexType>
+			</element>
+			<element name="old">
+			   <annotation>
+			      <appInfo>
+			         <meta.element deprecated="true"/>
+			      </appInfo>
+			   </annotation>
+			   <complexType>
+			      <attribute name="value" type="boolean">
+			         <annotation>
+			            <appInfo>
+			               <meta.attribute deprecated="true"/>
+			            </appInfo>
+			         </annotation>
+			      </attribute>
+			   </complexType>
+			</element>
+			<element name="text" type="string"/>
+			</schema>
+			""";
+
+	private static final String INCLUDED_SCHEMA = """
+			<?xml version='1.0' encoding='UTF-8'?>
+			<schema targetNamespace="org.example" xmlns="http://www.w3.org/2001/XMLSchema">
+			<element name="shared">
+			   <complexType>
+			      <attribute name="ref" type="string"/>
+			   </complexType>
+			</element>
+			</schema>
+			""";
+
+	@Rule
+	public final TemporaryFolder folder = new TemporaryFolder();
+
+	private File schemaFile;
+
+	@Before
+	public void setUp() throws IOException {
+		schemaFile = folder.newFile("things.exsd");
+		Files.writeString(schemaFile.toPath(), SCHEMA, StandardCharsets.UTF_8);
+		Files.writeString(folder.newFile("included.exsd").toPath(), INCLUDED_SCHEMA, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		Schema parsed = newSchema();
+		parsed.load();
+		assertThat(parsed.isLoaded()).isTrue();
+		assertThat(parsed.getElements()).hasSize(4);
+
+		byte[] compiled = CompiledSchemaCache.encode(parsed);
+		Schema decoded = newSchema();
+		CompiledSchemaCache.decode(decoded, compiled);
+
+		assertThat(decoded.isLoaded()).isTrue();
+		assertThat(decoded.getName()).isEqualTo(parsed.getName());
+		assertThat(decoded.getPluginId()).isEqualTo(parsed.getPluginId());
+		assertThat(decoded.getPointId()).isEqualTo(parsed.getPointId());
+		assertThat(decoded.isValid()).isEqualTo(parsed.isValid());
+		assertSameIncludes(parsed.getIncludes(), decoded.getIncludes());
+		assertSameElements(parsed.getElements(), decoded.getElements());
+		assertThat(CompiledSchemaCache.encode(decoded)).isEqualTo(compiled);
+	}
+
+	@Test
+	public void testReferencesAreResolved() throws IOException {
+		Schema parsed = newSchema();
+		parsed.load();
+		Schema decoded = newSchema();
+		CompiledSchemaCache.decode(decoded, CompiledSchemaCache.encode(parsed));
+
+		ISchemaCompositor sequence = ((ISchemaComplexType) decoded.findElement("extension").getType())
+				.getCompositor();
+		ISchemaObjectReference thing = (ISchemaObjectReference) sequence.getChildren()[0];
+		ISchemaObjectReference shared = (ISchemaObjectReference) ((ISchemaCompositor) sequence.getChildren()[1])
+				.getChildren()[0];
+		assertThat(thing.getReferencedObject()).isSameAs(decoded.findElement("thing"));
+		assertThat(shared.getReferencedObject()).isNotNull();
+		assertThat(shared.getReferencedObject().getName()).isEqualTo("shared");
+	}
+
+	@Test(expected = IOException.class)
+	public void testTruncatedFormIsRejected() throws IOException {
+		Schema parsed = newSchema();
+		parsed.load();
+		byte[] compiled = CompiledSchemaCache.encode(parsed);
+
+		Schema decoded = newSchema();
+		try {
+			CompiledSchemaCache.decode(decoded, Arrays.copyOf(compiled, compiled.length / 2));
+		} finally {
+			assertThat(decoded.isLoaded()).isFalse();
+		}
+	}
+
+	private Schema newSchema() throws IOException {
+		return new Schema(new SchemaDescriptor(schemaFile), schemaFile.toURI().toURL(), true);
+	}
+
+	private static void assertSameIncludes(ISchemaInclude[] expected, ISchemaInclude[] actual) {
+		assertThat(actual).hasSameSizeAs(expected);
+		for (int i = 0; i < expected.length; i++) {
+			assertThat(actual[i].getLocation()).isEqualTo(expected[i].getLocation());
+			assertThat(actual[i].getIncludedSchema()).isNotNull();
+			assertThat(actual[i].getIncludedSchema().getURL()).isEqualTo(expected[i].getIncludedSchema().getURL());
+		}
+	}
+
+	private static void assertSameElements(ISchemaElement[] expected, ISchemaElement[] actual) {
+		assertThat(actual).hasSameSizeAs(expected);
+		for (int i = 0; i < expected.length; i++) {
+			ISchemaElement expectedElement = expected[i];
+			ISchemaElement element = actual[i];
+			assertThat(element.getClass()).isEqualTo(expectedElement.getClass());
+			assertThat(element.getName()).isEqualTo(expectedElement.getName());
+			assertThat(element.getMinOccurs()).isEqualTo(expectedElement.getMinOccurs());
+			assertThat(element.getMaxOccurs()).isEqualTo(expectedElement.getMaxOccurs());
+			assertThat(element.getLabelProperty()).isEqualTo(expectedElement.getLabelProperty());
+			assertThat(element.getIconProperty()).isEqualTo(expectedElement.getIconProperty());
+			assertThat(element.hasTranslatableContent()).isEqualTo(expectedElement.hasTranslatableContent());
+			assertThat(element.isDeprecated()).isEqualTo(expectedElement.isDeprecated());
+			assertSameType(expectedElement.getType(), element.getType());
+		}
+	}
+
+	private static void assertSameType(ISchemaType expected, ISchemaType actual) {
+		if (expected == null) {
+			assertThat(actual).isNull();
+			return;
+		}
+		assertThat(actual.getName()).isEqualTo(expected.getName());
+		if (expected instanceof ISchemaComplexType expectedType) {
+			assertThat(actual).isInstanceOf(ISchemaComplexType.class);
+			ISchemaComplexType type = (ISchemaComplexType) actual;
+			assertThat(type.isMixed()).isEqualTo(expectedType.isMixed());
+			assertSameAttributes(expectedType.getAttributes(), type.getAttributes());
+			assertSameCompositor(expectedType.getCompositor(), type.getCompositor());
+		} else {
+			assertThat(actual).isNotInstanceOf(ISchemaComplexType.class);
+		}
+	}
+
+	private static void assertSameAttributes(ISchemaAttribute[] expected, ISchemaAttribute[] actual) {
+		assertThat(actual).hasSameSizeAs(expected);
+		for (int i = 0; i < expected.length; i++) {
+			ISchemaAttribute expectedAttribute = expected[i];
+			ISchemaAttribute attribute = actual[i];
+			assertThat(attribute.getName()).isEqualTo(expectedAttribute.getName());
+			assertThat(attribute.getUse()).isEqualTo(expectedAttribute.getUse());
+			assertThat(attribute.getValue()).isEqualTo(expectedAttribute.getValue());
+			assertThat(attribute.getKind()).isEqualTo(expectedAttribute.getKind());
+			assertThat(attribute.getBasedOn()).isEqualTo(expectedAttribute.getBasedOn());
+			assertThat(attribute.isTranslatable()).isEqualTo(expectedAttribute.isTranslatable());
+			assertThat(attribute.isDeprecated()).isEqualTo(expectedAttribute.isDeprecated());
+			ISchemaSimpleType expectedType = expectedAttribute.getType();
+			ISchemaSimpleType type = attribute.getType();
+			if (expectedType == null) {
+				assertThat(type).isNull();
+				continue;
+			}
+			assertThat(type.getName()).isEqualTo(expectedType.getName());
+			ISchemaRestriction expectedRestriction = expectedType.getRestriction();
+			if (expectedRestriction == null) {
+				assertThat(type.getRestriction()).isNull();
+				continue;
+			}
+			assertThat(choices(type.getRestriction())).containsExactly(choices(expectedRestriction));
+		}
+	}
+
+	private static String[] choices(ISchemaRestriction restriction) {
+		Object[] children = restriction.getChildren();
+		String[] choices = new String[children.length];
+		for (int i = 0; i < children.length; i++) {
+			choices[i] = ((ISchemaEnumeration) children[i]).getName();
+		}
+		return choices;
+	}
+
+	private static void assertSameCompositor(ISchemaCompositor expected, ISchemaCompositor actual) {
+		if (expected == null) {
+			assertThat(actual).isNull();
+			return;
+		}
+		assertThat(actual.getKind()).isEqualTo(expected.getKind());
+		assertThat(actual.getMinOccurs()).isEqualTo(expected.getMinOccurs());
+		assertThat(actual.getMaxOccurs()).isEqualTo(expected.getMaxOccurs());
+		ISchemaObject[] expectedChildren = expected.getChildren();
+		ISchemaObject[] children = actual.getChildren();
+		assertThat(children).hasSameSizeAs(expectedChildren);
+		for (int i = 0; i < expectedChildren.length; i++) {
+			if (expectedChildren[i] instanceof ISchemaCompositor expectedCompositor) {
+				assertSameCompositor(expectedCompositor, (ISchemaCompositor) children[i]);
+			} else {
+				ISchemaObjectReference expectedReference = (ISchemaObjectReference) expectedChildren[i];
+				ISchemaObjectReference reference = (ISchemaObjectReference) children[i];
+				assertThat(reference.getName()).isEqualTo(expectedReference.getName());
+				assertThat(((ISchemaElement) reference).getMinOccurs())
+						.isEqualTo(((ISchemaElement) expectedReference).getMinOccurs());
+				assertThat(((ISchemaElement) reference).getMaxOccurs())
+						.isEqualTo(((ISchemaElement) expectedReference).getMaxOccurs());
+				assertThat(reference.getReferencedObject() != null)
+						.isEqualTo(expectedReference.getReferencedObject() != null);
+			}
+		}
+	}
+}
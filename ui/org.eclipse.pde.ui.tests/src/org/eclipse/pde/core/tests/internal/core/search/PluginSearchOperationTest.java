@@ -0,0 +1,231 @@
+/*******************************************************************************
+ *  Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.core.tests.internal.core.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.pde.core.IIdentifiable;
+import org.eclipse.pde.core.plugin.IFragment;
+import org.eclipse.pde.core.plugin.IPlugin;
+import org.eclipse.pde.core.plugin.IPluginExtension;
+import org.eclipse.pde.core.plugin.IPluginExtensionPoint;
+import org.eclipse.pde.core.plugin.IPluginImport;
+import org.eclipse.pde.core.project.IBundleProjectDescription;
+import org.eclipse.pde.core.project.IBundleProjectService;
+import org.eclipse.pde.core.project.IRequiredBundleDescription;
+import org.eclipse.pde.internal.core.search.PluginSearchInput;
+import org.eclipse.pde.internal.core.search.PluginSearchOperation;
+import org.eclipse.pde.internal.core.search.PluginSearchScope;
+import org.eclipse.pde.ui.tests.project.ProjectCreationTests;
+import org.eclipse.pde.ui.tests.runtime.TestUtils;
+import org.eclipse.pde.ui.tests.util.ProjectUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestRule;
+
+public class PluginSearchOperationTest {
+
+	private static final int[] ELEMENTS = { PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.ELEMENT_FRAGMENT,
+			PluginSearchInput.ELEMENT_EXTENSION_POINT };
+	private static final int[] LIMITS = { PluginSearchInput.LIMIT_DECLARATIONS, PluginSearchInput.LIMIT_REFERENCES,
+			PluginSearchInput.LIMIT_ALL };
+
+	@Rule
+	public final TestRule deleteCreatedTestProjectsAfter = ProjectUtils.DELETE_CREATED_WORKSPACE_PROJECTS_AFTER;
+
+	private IProject consumer;
+
+	@Before
+	public void setUp() throws CoreException {
+		IProject provider = ProjectUtils.createPluginProject("search.test.provider", "search.test.provider", "1.0.0",
+				(description, service) -> description.setSingleton(true));
+		writePluginXml(provider, "<extension-point id=\"things\" name=\"Things\"/>");
+		consumer = ProjectUtils.createPluginProject("search.test.consumer", "search.test.consumer", "1.0.0",
+				(description, service) -> description.setRequiredBundles(new IRequiredBundleDescription[] {
+						service.newRequiredBundle("search.test.provider", null, false, false) }));
+		writePluginXml(consumer, "<extension point=\"search.test.provider.things\"/>");
+		ProjectUtils.createPluginProject("search.test.fragment", "search.test.fragment", "1.0.0",
+				(description, service) -> description.setHost(service.newHost("search.test.provider", null)));
+		waitForModels();
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(PluginSearchOperation.INDEXED_SEARCH);
+	}
+
+	@Test
+	public void testExactQuery() {
+		List<IIdentifiable> matches = search(PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_ALL,
+				"search.test.provider", true);
+
+		assertThat(matches).hasSize(3);
+		assertThat(matches).filteredOn(IPlugin.class::isInstance).hasSize(1);
+		assertThat(matches).filteredOn(IPluginImport.class::isInstance).hasSize(1);
+		assertThat(matches).filteredOn(IFragment.class::isInstance).hasSize(1);
+		assertSameAsFullScan(PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_ALL, "search.test.provider");
+		assertThat(search(PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_ALL, "search.test", true))
+				.isEmpty();
+	}
+
+	@Test
+	public void testCaseInsensitiveQuery() {
+		assertThat(search(PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_DECLARATIONS,
+				"SEARCH.TEST.PROVIDER", true)).isEmpty();
+		assertThat(search(PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_DECLARATIONS,
+				"SEARCH.TEST.PROVIDER", false)).hasSize(1);
+		assertSameAsFullScan("SEARCH.TEST.PROVIDER");
+		assertSameAsFullScan("Search.Test.*");
+	}
+
+	@Test
+	public void testPrefixQuery() {
+		assertThat(search(PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_DECLARATIONS, "search.test.*",
+				true)).hasSize(2);
+		assertThat(search(PluginSearchInput.ELEMENT_EXTENSION_POINT, PluginSearchInput.LIMIT_ALL, "search.test.*",
+				true)).hasSize(2);
+		assertSameAsFullScan("search.test.*");
+		assertSameAsFullScan("org.eclipse.core.*");
+		assertSameAsFullScan("org.eclipse.core.runtime");
+	}
+
+	@Test
+	public void testWildcardQuery() {
+		assertThat(search(PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_DECLARATIONS,
+				"*.test.?onsumer", true)).hasSize(1);
+		assertThat(search(PluginSearchInput.ELEMENT_EXTENSION_POINT, PluginSearchInput.LIMIT_REFERENCES, "*things",
+				true)).hasSize(1).allMatch(IPluginExtension.class::isInstance);
+		assertSameAsFullScan("*.test.?onsumer");
+		assertSameAsFullScan("*things");
+		assertSameAsFullScan("*.core.*");
+		assertSameAsFullScan("*");
+	}
+
+	@Test
+	public void testAddedModelIsFound() throws CoreException {
+		assertThat(search(PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_DECLARATIONS, "search.test.added",
+				true)).isEmpty();
+
+		ProjectUtils.createPluginProject("search.test.added", "search.test.added", "1.0.0");
+		waitForModels();
+
+		assertThat(search(PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_DECLARATIONS, "search.test.added",
+				true)).hasSize(1);
+		assertSameAsFullScan("search.test.*");
+	}
+
+	@Test
+	public void testRemovedModelIsNotFound() throws CoreException {
+		assertThat(search(PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_DECLARATIONS,
+				"search.test.consumer", true)).hasSize(1);
+
+		consumer.delete(true, null);
+		waitForModels();
+
+		assertThat(search(PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_DECLARATIONS,
+				"search.test.consumer", true)).isEmpty();
+		assertThat(search(PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_REFERENCES,
+				"search.test.provider", true)).hasSize(1).allMatch(IFragment.class::isInstance);
+		assertSameAsFullScan("search.test.*");
+	}
+
+	@Test
+	public void testChangedManifestIsReindexed() throws CoreException {
+		IBundleProjectService service = ProjectCreationTests.getBundleProjectService();
+		IBundleProjectDescription description = service.getDescription(consumer);
+		description.setRequiredBundles(new IRequiredBundleDescription[] {
+				service.newRequiredBundle("search.test.other", null, true, false) });
+		description.apply(null);
+		waitForModels();
+
+		assertThat(search(PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_REFERENCES,
+				"search.test.provider", true)).noneMatch(IPluginImport.class::isInstance);
+		assertThat(search(PluginSearchInput.ELEMENT_PLUGIN, PluginSearchInput.LIMIT_REFERENCES, "search.test.other",
+				true)).hasSize(1).allMatch(IPluginImport.class::isInstance);
+		assertSameAsFullScan("search.test.*");
+	}
+
+	@Test
+	public void testChangedExtensionsAreReindexed() throws CoreException {
+		IFile pluginXml = consumer.getFile("plugin.xml");
+		pluginXml.setContents(pluginXml("<extension-point id=\"stuff\"/>"), true, false, null);
+		waitForModels();
+
+		assertThat(search(PluginSearchInput.ELEMENT_EXTENSION_POINT, PluginSearchInput.LIMIT_REFERENCES,
+				"search.test.provider.things", true)).isEmpty();
+		assertThat(search(PluginSearchInput.ELEMENT_EXTENSION_POINT, PluginSearchInput.LIMIT_DECLARATIONS,
+				"search.test.consumer.stuff", true)).hasSize(1).allMatch(IPluginExtensionPoint.class::isInstance);
+		assertSameAsFullScan("search.test.*");
+	}
+
+	/**
+	 * Asserts that the indexed search finds the same matches as matching every
+	 * model, for all elements and limits, with and without case sensitivity.
+	 */
+	private static void assertSameAsFullScan(String searchString) {
+		for (int element : ELEMENTS) {
+			for (int limit : LIMITS) {
+				assertSameAsFullScan(element, limit, searchString);
+			}
+		}
+	}
+
+	private static void assertSameAsFullScan(int element, int limit, String searchString) {
+		for (boolean caseSensitive : new boolean[] { true, false }) {
+			List<IIdentifiable> indexed = search(element, limit, searchString, caseSensitive);
+			System.setProperty(PluginSearchOperation.INDEXED_SEARCH, Boolean.FALSE.toString());
+			try {
+				List<IIdentifiable> scanned = search(element, limit, searchString, caseSensitive);
+				assertThat(indexed).as("%s element %d limit %d case sensitive %b", searchString, element, limit,
+						caseSensitive).containsExactlyElementsOf(scanned);
+			} finally {
+				System.clearProperty(PluginSearchOperation.INDEXED_SEARCH);
+			}
+		}
+	}
+
+	private static List<IIdentifiable> search(int element, int limit, String searchString, boolean caseSensitive) {
+		PluginSearchInput input = new PluginSearchInput();
+		input.setSearchElement(element);
+		input.setSearchLimit(limit);
+		input.setSearchString(searchString);
+		input.setCaseSensitive(caseSensitive);
+		input.setSearchScope(new PluginSearchScope());
+		List<IIdentifiable> matches = new ArrayList<>();
+		new PluginSearchOperation(input, match -> matches.add((IIdentifiable) match)).execute(null);
+		return matches;
+	}
+
+	private static void writePluginXml(IProject project, String content) throws CoreException {
+		project.getFile("plugin.xml").create(pluginXml(content), true, null);
+	}
+
+	private static ByteArrayInputStream pluginXml(String content) {
+		String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<?eclipse version=\"3.4\"?>\n<plugin>\n" + content
+				+ "\n</plugin>\n";
+		return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void waitForModels() {
+		TestUtils.waitForJobs("PluginSearchOperationTest", 100, 10000);
+	}
+}
@@ -14,8 +14,14 @@
 package org.eclipse.pde.ui.tests;
 
 import org.eclipse.pde.core.tests.internal.AllPDECoreTests;
+import org.eclipse.pde.core.tests.internal.classpath.ClasspathDependencyIndexTest;
 import org.eclipse.pde.core.tests.internal.classpath.ClasspathResolutionTest;
+import org.eclipse.pde.core.tests.internal.classpath.VisiblePackageRulesTest;
 import org.eclipse.pde.core.tests.internal.core.builders.BundleErrorReporterTest;
+import org.eclipse.pde.core.tests.internal.core.bnd.CapabilityIndexTest;
+import org.eclipse.pde.core.tests.internal.core.builders.ClassReferenceCheckerTest;
+import org.eclipse.pde.core.tests.internal.core.schema.CompiledSchemaCacheTest;
+import org.eclipse.pde.core.tests.internal.core.search.PluginSearchOperationTest;
 import org.eclipse.pde.core.tests.internal.util.PDESchemaHelperTest;
 import org.eclipse.pde.ui.tests.build.properties.AllValidatorTests;
 import org.eclipse.pde.ui.tests.classpathcontributor.ClasspathContributorTest;
@@ -64,7 +70,13 @@ import org.junit.runners.Suite.SuiteClasses;
 	ClasspathContributorTest.class, //
 	DynamicPluginProjectReferencesTest.class, //
 	ClasspathResolutionTest.class, //
+	ClasspathDependencyIndexTest.class, //
+	VisiblePackageRulesTest.class, //
 	BundleErrorReporterTest.class, //
+	ClassReferenceCheckerTest.class, //
+	CompiledSchemaCacheTest.class, //
+	PluginSearchOperationTest.class, //
+	CapabilityIndexTest.class, //
 	AllPDECoreTests.class, //
 	ProjectSmartImportTest.class, //
 })
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2005, 2017 IBM Corporation and others.
+ *  Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -23,6 +23,6 @@ import org.junit.runners.Suite.SuiteClasses;
 	BundleActivatorTestCase.class, BundleNameTestCase.class, BundleLocalizationTestCase.class,
 	LazyStartTestCase.class, RequireBundleTestCase.class, ExecutionEnvironmentTestCase.class,
 	BundleSymbolicNameTestCase.class, BundleVendorTestCase.class, BundleVersionTestCase.class,
-	FragmentHostTestCase.class })
+	FragmentHostTestCase.class, ReconcileBundleModelTestCase.class })
 public class AllBundleModelTests {
 }
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ *  Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.model.bundle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.pde.core.IModelChangedEvent;
+import org.eclipse.pde.internal.core.ibundle.IManifestHeader;
+import org.eclipse.pde.internal.core.text.bundle.BundleModel;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.Constants;
+
+public class ReconcileBundleModelTestCase {
+
+	private Document fDocument;
+	private BundleModel fModel;
+	private final List<IModelChangedEvent> fEvents = new ArrayList<>();
+
+	@Before
+	public void setUp() throws Exception {
+		StringBuilder buffer = new StringBuilder();
+		buffer.append("Manifest-Version: 1.0\n");
+		buffer.append("Bundle-ManifestVersion: 2\n");
+		buffer.append("Bundle-SymbolicName: com.example.xyz\n");
+		buffer.append("Export-Package: com.example.abc,\n");
+		buffer.append(" com.example.abc.actions\n");
+		buffer.append("Import-Package: com.example.def,\n");
+		buffer.append(" com.example.ghi\n");
+		fDocument = new Document(buffer.toString());
+		fModel = new BundleModel(fDocument, true);
+		fModel.load();
+		fModel.addModelChangedListener(fEvents::add);
+	}
+
+	@Test
+	public void testChangeHeader() throws Exception {
+		IManifestHeader exportHeader = getHeader(Constants.EXPORT_PACKAGE);
+		IManifestHeader importHeader = getHeader(Constants.IMPORT_PACKAGE);
+
+		replace("com.example.ghi", "com.example.jkl");
+		fModel.reconciled(fDocument);
+
+		assertSame(exportHeader, getHeader(Constants.EXPORT_PACKAGE));
+		assertNotSame(importHeader, getHeader(Constants.IMPORT_PACKAGE));
+		assertEquals("com.example.def,com.example.jkl", getHeader(Constants.IMPORT_PACKAGE).getValue().replaceAll("\\s", ""));
+		assertEquals(1, fEvents.size());
+		assertEquals(IModelChangedEvent.WORLD_CHANGED, fEvents.get(0).getChangeType());
+		assertSameOffsets();
+	}
+
+	@Test
+	public void testShiftHeader() throws Exception {
+		IManifestHeader importHeader = getHeader(Constants.IMPORT_PACKAGE);
+
+		replace("com.example.abc.actions", "com.example.abc.actions,\n com.example.abc.views");
+		fModel.reconciled(fDocument);
+
+		assertSame(importHeader, getHeader(Constants.IMPORT_PACKAGE));
+		assertSameOffsets();
+	}
+
+	@Test
+	public void testRemoveHeader() throws Exception {
+		replace("Bundle-SymbolicName: com.example.xyz\n", "");
+		fModel.reconciled(fDocument);
+
+		assertEquals(null, getHeader(Constants.BUNDLE_SYMBOLICNAME));
+		assertEquals(1, fEvents.size());
+		assertSameOffsets();
+	}
+
+	@Test
+	public void testUnchangedHeaders() throws Exception {
+		fModel.reconciled(fDocument);
+
+		assertEquals(0, fEvents.size());
+	}
+
+	@Test
+	public void testChangeManifestVersion() throws Exception {
+		IManifestHeader exportHeader = getHeader(Constants.EXPORT_PACKAGE);
+
+		replace("Bundle-ManifestVersion: 2", "Bundle-ManifestVersion: 1");
+		fModel.reconciled(fDocument);
+
+		assertNotSame(exportHeader, getHeader(Constants.EXPORT_PACKAGE));
+		assertSameOffsets();
+	}
+
+	@Test
+	public void testChangeThroughModel() throws Exception {
+		fModel.getBundle().setHeader(Constants.BUNDLE_SYMBOLICNAME, "com.example.uvw");
+		IManifestHeader exportHeader = getHeader(Constants.EXPORT_PACKAGE);
+
+		fModel.reconciled(fDocument);
+
+		assertNotSame(exportHeader, getHeader(Constants.EXPORT_PACKAGE));
+		assertEquals("com.example.xyz", getHeader(Constants.BUNDLE_SYMBOLICNAME).getValue());
+	}
+
+	private IManifestHeader getHeader(String name) {
+		return fModel.getBundle().getManifestHeader(name);
+	}
+
+	private void replace(String text, String replacement) throws Exception {
+		int offset = fDocument.get().indexOf(text);
+		fDocument.replace(offset, text.length(), replacement);
+	}
+
+	/**
+	 * Compares the header offsets of the reconciled model with a model that
+	 * loaded the whole document
+	 */
+	private void assertSameOffsets() throws Exception {
+		BundleModel expected = new BundleModel(fDocument, false);
+		expected.load();
+		assertEquals(expected.getBundle().getManifestHeaders().keySet(), fModel.getBundle().getManifestHeaders().keySet());
+		for (IManifestHeader header : expected.getBundle().getManifestHeaders().values()) {
+			IManifestHeader actual = getHeader(header.getName());
+			assertEquals(header.getValue(), actual.getValue());
+			assertEquals(header.getOffset(), actual.getOffset());
+			assertEquals(header.getLength(), actual.getLength());
+		}
+	}
+}
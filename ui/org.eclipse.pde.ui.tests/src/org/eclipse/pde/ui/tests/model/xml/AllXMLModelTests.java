@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2005, 2017 IBM Corporation and others.
+ *  Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -26,6 +26,6 @@ import org.junit.runners.Suite.SuiteClasses;
 	 */
 	// suite.addTest(SwapXMLModelTestCase.suite());
 	StructureXMLModelTestCase.class, ExtensionAttributeTestCase.class, ExtensionElementTestCase.class,
-	ManifestEditorSpellCheckTestCase.class, FeatureDataTestCase.class })
+	ReconcileXMLModelTestCase.class, ManifestEditorSpellCheckTestCase.class, FeatureDataTestCase.class })
 public class AllXMLModelTests {
 }
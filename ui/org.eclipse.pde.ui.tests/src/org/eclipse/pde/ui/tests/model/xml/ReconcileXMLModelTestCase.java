@@ -0,0 +1,177 @@
+/*******************************************************************************
+ *  Copyright (c) 2023 Eclipse Contributors and others.
+ *
+ *  This program and the accompanying materials
+ *  are made available under the terms of the Eclipse Public License 2.0
+ *  which accompanies this distribution, and is available at
+ *  https://www.eclipse.org/legal/epl-2.0/
+ *
+ *  SPDX-License-Identifier: EPL-2.0
+ *
+ *******************************************************************************/
+package org.eclipse.pde.ui.tests.model.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.pde.core.IModelChangedEvent;
+import org.eclipse.pde.core.plugin.IPluginElement;
+import org.eclipse.pde.core.plugin.IPluginExtension;
+import org.eclipse.pde.internal.core.text.IDocumentAttributeNode;
+import org.eclipse.pde.internal.core.text.IDocumentElementNode;
+import org.eclipse.pde.internal.core.text.plugin.PluginModel;
+import org.junit.Test;
+
+public class ReconcileXMLModelTestCase extends XMLModelTestCase {
+
+	private final List<IModelChangedEvent> fEvents = new ArrayList<>();
+
+	@Test
+	public void testChangeAttributeLF() throws Exception {
+		testChangeAttribute(LF);
+	}
+
+	@Test
+	public void testChangeAttributeCRLF() throws Exception {
+		testChangeAttribute(CRLF);
+	}
+
+	@Test
+	public void testChangeWhitespaceLF() throws Exception {
+		testChangeWhitespace(LF);
+	}
+
+	@Test
+	public void testChangeWhitespaceCRLF() throws Exception {
+		testChangeWhitespace(CRLF);
+	}
+
+	@Test
+	public void testAddElementLF() throws Exception {
+		testAddElement(LF);
+	}
+
+	@Test
+	public void testAddElementCRLF() throws Exception {
+		testAddElement(CRLF);
+	}
+
+	@Test
+	public void testAddExtensionLF() throws Exception {
+		testAddExtension(LF);
+	}
+
+	@Test
+	public void testAddExtensionCRLF() throws Exception {
+		testAddExtension(CRLF);
+	}
+
+	private void testChangeAttribute(String newLine) throws Exception {
+		loadExtensions(newLine);
+		IPluginExtension[] extensions = fModel.getPluginBase().getExtensions();
+
+		replace("id=\"sample2\"", "id=\"sample2.renamed\"");
+		reconcile();
+
+		assertSame(extensions[1], fModel.getPluginBase().getExtensions()[1]);
+		IPluginElement element = (IPluginElement) extensions[1].getChildren()[0];
+		assertEquals("sample2.renamed", element.getAttribute("id").getValue());
+		assertEquals(1, fEvents.size());
+		assertEquals(IModelChangedEvent.WORLD_CHANGED, fEvents.get(0).getChangeType());
+		assertSameOffsets();
+	}
+
+	private void testChangeWhitespace(String newLine) throws Exception {
+		loadExtensions(newLine);
+
+		replace("<sample id=\"sample2\"", "<sample   id=\"sample2\"");
+		reconcile();
+
+		assertEquals(0, fEvents.size());
+		assertSameOffsets();
+	}
+
+	private void testAddElement(String newLine) throws Exception {
+		loadExtensions(newLine);
+		IPluginExtension[] extensions = fModel.getPluginBase().getExtensions();
+
+		replace("<sample id=\"sample2\"/>", "<sample id=\"sample2\"/>" + newLine + "\t\t<sample id=\"sample2b\"/>");
+		reconcile();
+
+		assertSame(extensions[1], fModel.getPluginBase().getExtensions()[1]);
+		assertEquals(2, extensions[1].getChildCount());
+		assertEquals(1, fEvents.size());
+		assertSameOffsets();
+	}
+
+	private void testAddExtension(String newLine) throws Exception {
+		loadExtensions(newLine);
+
+		replace("</plugin>", "<extension point=\"org.eclipse.pde.ui.samples\"/>" + newLine + "</plugin>");
+		reconcile();
+
+		assertEquals(4, fModel.getPluginBase().getExtensions().length);
+		assertEquals(1, fEvents.size());
+		assertSameOffsets();
+	}
+
+	private void loadExtensions(String newLine) {
+		StringBuilder buffer = new StringBuilder();
+		for (int i = 1; i <= 3; i++) {
+			buffer.append("<extension point=\"org.eclipse.pde.ui.samples\">");
+			buffer.append(newLine);
+			buffer.append("\t\t<sample id=\"sample" + i + "\"/>");
+			buffer.append(newLine);
+			buffer.append("</extension>");
+			buffer.append(newLine);
+		}
+		setXMLContents(buffer, newLine);
+		load();
+		// the first reconcile parses the whole document
+		fModel.reconciled(fDocument);
+		fModel.addModelChangedListener(fEvents::add);
+	}
+
+	private void replace(String text, String replacement) throws Exception {
+		int offset = fDocument.get().indexOf(text);
+		fDocument.replace(offset, text.length(), replacement);
+	}
+
+	private void reconcile() {
+		fModel.reconciled(fDocument);
+	}
+
+	/**
+	 * Compares the offsets of the reconciled model with a model that parsed
+	 * the whole document
+	 */
+	private void assertSameOffsets() throws Exception {
+		PluginModel expected = new PluginModel(fDocument, true);
+		expected.load();
+		assertSameOffsets((IDocumentElementNode) expected.getPluginBase(),
+				(IDocumentElementNode) fModel.getPluginBase());
+	}
+
+	private void assertSameOffsets(IDocumentElementNode expected, IDocumentElementNode actual) {
+		assertEquals(expected.getXMLTagName(), actual.getXMLTagName());
+		assertEquals(expected.getOffset(), actual.getOffset());
+		assertEquals(expected.getLength(), actual.getLength());
+		for (IDocumentAttributeNode attribute : expected.getNodeAttributes()) {
+			IDocumentAttributeNode actualAttribute = actual.getDocumentAttribute(attribute.getAttributeName());
+			assertNotNull(actualAttribute);
+			assertEquals(attribute.getAttributeValue(), actualAttribute.getAttributeValue());
+			assertEquals(attribute.getNameOffset(), actualAttribute.getNameOffset());
+			assertEquals(attribute.getValueOffset(), actualAttribute.getValueOffset());
+		}
+		IDocumentElementNode[] expectedChildren = expected.getChildNodes();
+		IDocumentElementNode[] actualChildren = actual.getChildNodes();
+		assertEquals(expectedChildren.length, actualChildren.length);
+		for (int i = 0; i < expectedChildren.length; i++) {
+			assertSameOffsets(expectedChildren[i], actualChildren[i]);
+		}
+	}
+}
@@ -21,8 +21,11 @@ import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.equinox.frameworkadmin.BundleInfo;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.jdt.launching.JavaRuntime;
@@ -32,6 +35,8 @@ import org.eclipse.pde.core.target.ITargetLocation;
 import org.eclipse.pde.core.target.ITargetPlatformService;
 import org.eclipse.pde.core.target.NameVersionDescriptor;
 import org.eclipse.pde.core.target.TargetBundle;
+import org.eclipse.pde.core.target.TargetFeature;
+import org.eclipse.pde.internal.core.target.AbstractBundleContainer;
 import org.eclipse.pde.internal.core.target.IUBundleContainer;
 import org.eclipse.pde.ui.tests.PDETestCase;
 import org.junit.Test;
@@ -479,4 +484,78 @@ public class TargetDefinitionResolutionTests extends AbstractTargetTest {
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Tests that a target mixing locations resolved concurrently with locations
+	 * contributed by other bundles resolves all of them and reports their
+	 * problems in location order.
+	 */
+	@Test
+	public void testMixedLocationTypes() throws Exception {
+		IPath plugins = extractAbcdePlugins().append("plugins");
+		ITargetDefinition definition = getNewTarget();
+		ITargetLocation directoryContainer = getTargetService().newDirectoryLocation(plugins.toOSString());
+		ThirdPartyLocation thirdParty = new ThirdPartyLocation(plugins.append("bundle.a_1.0.0.jar").toFile(), null);
+		ITargetLocation brokenContainer = getTargetService().newDirectoryLocation("***SHOULD NOT EXIST***");
+		ThirdPartyLocation brokenThirdParty = new ThirdPartyLocation(null,
+				Status.error("Third party location failed"));
+		definition.setTargetLocations(
+				new ITargetLocation[] { directoryContainer, thirdParty, brokenContainer, brokenThirdParty });
+
+		IStatus status = definition.resolve(null);
+
+		assertEquals("Incorrect severity", IStatus.ERROR, status.getSeverity());
+		IStatus[] children = status.getChildren();
+		assertEquals("Wrong number of children", 2, children.length);
+		assertEquals("Incorrect severity", IStatus.ERROR, children[0].getSeverity());
+		assertEquals("Wrong problem order", "Third party location failed", children[1].getMessage());
+		assertTrue(definition.isResolved());
+		assertEquals("Wrong number of bundles", 10, directoryContainer.getBundles().length);
+		assertEquals("Wrong number of bundles", 1, thirdParty.getBundles().length);
+		assertEquals("Wrong number of bundles", 0, brokenContainer.getBundles().length);
+		assertEquals("Wrong number of bundles", 11, definition.getAllBundles().length);
+		// locations of other bundles are not resolved concurrently by default
+		assertEquals(Thread.currentThread(), thirdParty.resolvingThread);
+		assertEquals(Thread.currentThread(), brokenThirdParty.resolvingThread);
+	}
+
+	/**
+	 * A location contributed by another bundle than PDE
+	 */
+	private static class ThirdPartyLocation extends AbstractBundleContainer {
+
+		private final File bundle;
+		private final IStatus failure;
+		volatile Thread resolvingThread;
+
+		ThirdPartyLocation(File bundle, IStatus failure) {
+			this.bundle = bundle;
+			this.failure = failure;
+		}
+
+		@Override
+		protected TargetBundle[] resolveBundles(ITargetDefinition definition, IProgressMonitor monitor)
+				throws CoreException {
+			resolvingThread = Thread.currentThread();
+			if (failure != null) {
+				throw new CoreException(failure);
+			}
+			return new TargetBundle[] { new TargetBundle(bundle) };
+		}
+
+		@Override
+		protected TargetFeature[] resolveFeatures(ITargetDefinition definition, IProgressMonitor monitor) {
+			return new TargetFeature[0];
+		}
+
+		@Override
+		public String getType() {
+			return "ThirdParty";
+		}
+
+		@Override
+		public String getLocation(boolean resolve) {
+			return String.valueOf(bundle);
+		}
+	}
+
+}